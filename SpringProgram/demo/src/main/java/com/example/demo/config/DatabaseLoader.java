@@ -1,169 +1,144 @@
 package com.example.demo.config;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.example.demo.domain.ApplicationStatus;
-import com.example.demo.domain.entity.Application;
+import com.example.demo.domain.entity.Competence;
 import com.example.demo.domain.entity.CompetenceTranslation;
 import com.example.demo.domain.entity.Language;
-import com.example.demo.domain.entity.Person;
-import com.example.demo.repository.ApplicationRepository;
 import com.example.demo.repository.CompetenceRepository;
 import com.example.demo.repository.CompetenceTranslationRepository;
 import com.example.demo.repository.LanguageRepository;
-import com.example.demo.repository.PersonRepository;
 
 @Component
-//This class is responsible for loading data into the database
+@ConditionalOnProperty(name = "database.seed.enabled", havingValue = "true", matchIfMissing = true)
+//This class is responsible for loading the languages and competence translations into the database
+//The version of the loaded data is stored in the seed_version table (see the V4 migration), so once it has been loaded every later start only reads that version and skips the rest
+//Increase SEED_VERSION whenever the loaded data is changed, so it is checked again on the next start
+//It can be disabled, for example in a profile, by setting database.seed.enabled to false
 public class DatabaseLoader implements CommandLineRunner{
+    static final int SEED_VERSION = 1;
+
+    //The competences of the existing database which are translated, in the same order as the translations below, and the languages in the order they are added
+    static final List<Integer> TRANSLATED_COMPETENCE_IDS = List.of(1, 2, 3);
+    static final List<String> LANGUAGES = List.of("english", "spanish");
+    static final Map<String, List<String>> TRANSLATIONS = Map.of(
+      "english", List.of("ticket sales", "lotteries", "roller coaster operation"),
+      "spanish", List.of("venta de entradas", "loterías", "operación de montaña rusa"));
 
     //We define the repositories we will access
     private final LanguageRepository languageRepository;
     private final CompetenceTranslationRepository competenceTranslationRepository;
     private final CompetenceRepository competenceRepository;
-    private final PersonRepository personRepository;
-    private final ApplicationRepository applicationRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    // We create the logger
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseLoader.class.getName());
 
     //This ensures Spring creates and loads the specified repositories
-    public DatabaseLoader(LanguageRepository languageRepository,CompetenceTranslationRepository competenceTranslationRepository, CompetenceRepository competenceRepository, PersonRepository personRepository,ApplicationRepository applicationRepository) {
+    public DatabaseLoader(LanguageRepository languageRepository,CompetenceTranslationRepository competenceTranslationRepository, CompetenceRepository competenceRepository,JdbcTemplate jdbcTemplate) {
     this.languageRepository=languageRepository;
     this.competenceTranslationRepository=competenceTranslationRepository;
     this.competenceRepository=competenceRepository;
-    this.personRepository=personRepository;
-    this.applicationRepository=applicationRepository;
+    this.jdbcTemplate=jdbcTemplate;
     }
 
-    //This overwritten method will be run before the server starts, and is responsible for loading in data
+    /**
+     * This overwritten method will be run before the server starts, and is responsible for loading in data, unless it has already been loaded
+     * Several instances may start at the same time, in which case one loads the data while the others wait for it to be committed, and then skip loading it
+     */
     @Override
-    @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
+    @Transactional(rollbackFor = Exception.class)
     public void run(String... args) throws Exception {
-
-        if (personRepository.findByName("Alexander")==null) {
-         
-        // Insert Person data for testing
-        Person person = new Person();
-        person.setName("Alexander");
-        person.setSurname("Ohlsson");
-        // Save person to the database
-        personRepository.save(person);   
+        //This is the only query made once the data has been loaded
+        if (CurrentSeedVersion(false) >= SEED_VERSION) {
+            LOGGER.info("Seed data version (`{}`) is already loaded", SEED_VERSION);
+            return;
         }
-        
-        // Declare language as final so it's effectively final
-        final Language language;
-        if (languageRepository.findByName("english") == null) {
-            System.out.println("Adding english");
-            language = new Language();
-            language.SetLanguageName("english");
-            languageRepository.save(language);
-        } else {
-            System.out.println("english already exists");
-            language = languageRepository.findByName("english");
+
+        //Another instance may be loading the data, so the version is locked and checked again, which waits until that instance has committed
+        if (CurrentSeedVersion(true) >= SEED_VERSION) {
+            LOGGER.info("Seed data version (`{}`) was loaded by another instance", SEED_VERSION);
+            return;
         }
 
-        // If no translations for this language are loaded, load a few
-        List<CompetenceTranslation> englishTranslations = competenceTranslationRepository.findByLanguage_id(language.getLanguageId());
-        if (englishTranslations == null || englishTranslations.size() == 0) {
-            System.out.println("Adding english translations");
-
-            // Handle Optional for each Competence entry to avoid NoSuchElementException
-            competenceRepository.findById(1).ifPresent(competence -> {
-                CompetenceTranslation translation = new CompetenceTranslation();
-                translation.SetCompetence(competence);
-                translation.SetLanguage(language);
-                translation.SetTranslation("ticket sales");
-                competenceTranslationRepository.save(translation);
-            });
-
-            competenceRepository.findById(2).ifPresent(competence -> {
-                CompetenceTranslation translation = new CompetenceTranslation();
-                translation.SetCompetence(competence);
-                translation.SetLanguage(language);
-                translation.SetTranslation("lotteries");
-                competenceTranslationRepository.save(translation);
-            });
-
-            competenceRepository.findById(3).ifPresent(competence -> {
-                CompetenceTranslation translation = new CompetenceTranslation();
-                translation.SetCompetence(competence);
-                translation.SetLanguage(language);
-                translation.SetTranslation("roller coaster operation");
-                competenceTranslationRepository.save(translation);
-            });
+        if (LoadSeedData()) {
+            jdbcTemplate.update("UPDATE seed_version SET version = ? WHERE seed_version_id = 1", SEED_VERSION);
+            LOGGER.info("Seed data version (`{}`) loaded", SEED_VERSION);
         } else {
-            System.out.println("english translations already exist, specifically there exist " + englishTranslations.size() + " english translations");
+            //The version is not updated, so the missing data is loaded on a later start
+            LOGGER.warn("Seed data version (`{}`) is incomplete, since the competences (`{}`) do not all exist, it is loaded again on the next start", SEED_VERSION, TRANSLATED_COMPETENCE_IDS);
         }
+    }
 
-        final Language language2;
-        if (languageRepository.findByName("spanish") == null) {
-            System.out.println("spanish");
-            language2 = new Language();
-            language2.SetLanguageName("spanish");
-            languageRepository.save(language2);
-        } else {
-            System.out.println("spanish already exists");
-            language2 = languageRepository.findByName("spanish");
+    /**
+     * Retrieves the version of the loaded data
+     * @param lock if the version should be locked until the current transaction ends
+     * @return the version of the loaded data, 0 if none has been loaded
+     */
+    int CurrentSeedVersion(boolean lock) {
+        return jdbcTemplate.queryForObject("SELECT version FROM seed_version WHERE seed_version_id = 1" + (lock ? " FOR UPDATE" : ""), Integer.class);
+    }
+
+    /**
+     * Inserts the rows of the seed data which do not already exist, using one query to find the existing rows of each table and saving all missing rows of each table at once
+     * @return true if all of the seed data exists, false if some could not be inserted since the competences it translates do not exist
+     */
+    boolean LoadSeedData() {
+        Map<String, Language> languages = new HashMap<String, Language>();
+        for (Language language : languageRepository.findAll()) {
+            languages.put(language.getLanguageName(), language);
+        }
+        List<Language> missingLanguages = new ArrayList<Language>();
+        for (String name : LANGUAGES) {
+            if (!languages.containsKey(name)) {
+                Language language = new Language();
+                language.SetLanguageName(name);
+                missingLanguages.add(language);
+                languages.put(name, language);
+            }
         }
+        languageRepository.saveAll(missingLanguages);
 
-        // If no translations for this language are loaded, load a few
-        List<CompetenceTranslation> spanishTranslations = competenceTranslationRepository.findByLanguage_id(language2.getLanguageId());
-        if (spanishTranslations == null || spanishTranslations.size() == 0) {
-            System.out.println("Adding spanish translations");
-
-            // Handle Optional for each Competence entry to avoid NoSuchElementException
-            competenceRepository.findById(1).ifPresent(competence -> {
-                CompetenceTranslation translation = new CompetenceTranslation();
-                translation.SetCompetence(competence);
-                translation.SetLanguage(language2);
-                translation.SetTranslation("venta de entradas");
-                competenceTranslationRepository.save(translation);
-            });
-
-            competenceRepository.findById(2).ifPresent(competence -> {
-                CompetenceTranslation translation = new CompetenceTranslation();
-                translation.SetCompetence(competence);
-                translation.SetLanguage(language2);
-                translation.SetTranslation("loterías");
-                competenceTranslationRepository.save(translation);
-            });
-
-            competenceRepository.findById(3).ifPresent(competence -> {
-                CompetenceTranslation translation = new CompetenceTranslation();
-                translation.SetCompetence(competence);
-                translation.SetLanguage(language2);
-                translation.SetTranslation("operación de montaña rusa");
-                competenceTranslationRepository.save(translation);
-            });
-        } else {
-            System.out.println("spanish translations already exist, specifically there exist " + spanishTranslations.size() + " spanish translations");
+        Map<Integer, Competence> competences = new HashMap<Integer, Competence>();
+        for (Competence competence : competenceRepository.findAllById(TRANSLATED_COMPETENCE_IDS)) {
+            competences.put(competence.getCompetenceId(), competence);
         }
 
-        //If there are no applications, we add one for testing purposes
-        if(applicationRepository.count() == 0) {
-            List<Person> persons = personRepository.findByName("Alexander");
-            if (persons != null && !persons.isEmpty()) {
-                Person person = persons.get(0); // Safe to get the first element
-                Application testApplication = new Application();
-                testApplication.setApplicationDate(new java.sql.Date(System.currentTimeMillis()));
-                testApplication.setApplicant(person);
-                testApplication.setApplicationStatus(ApplicationStatus.unchecked);
-                applicationRepository.save(testApplication);
-                System.out.println("Added test application for " + person.getName());
-            } else {
-                System.out.println("No person found with name 'Alexander'");
+        //A translation exists if there is one for the same competence and language, even if its text has since been changed
+        Set<List<Integer>> existingTranslations = new HashSet<List<Integer>>();
+        for (CompetenceTranslation translation : competenceTranslationRepository.findAll()) {
+            existingTranslations.add(List.of(translation.getCompetence().getCompetenceId(), translation.getLanguage().getLanguageId()));
+        }
+        List<CompetenceTranslation> missingTranslations = new ArrayList<CompetenceTranslation>();
+        for (String name : LANGUAGES) {
+            Language language = languages.get(name);
+            for (int i = 0; i < TRANSLATED_COMPETENCE_IDS.size(); i++) {
+                Competence competence = competences.get(TRANSLATED_COMPETENCE_IDS.get(i));
+                if (competence != null && !existingTranslations.contains(List.of(competence.getCompetenceId(), language.getLanguageId()))) {
+                    CompetenceTranslation translation = new CompetenceTranslation();
+                    translation.SetCompetence(competence);
+                    translation.SetLanguage(language);
+                    translation.SetTranslation(TRANSLATIONS.get(name).get(i));
+                    missingTranslations.add(translation);
+                }
             }
         }
-        
-
+        competenceTranslationRepository.saveAll(missingTranslations);
+        LOGGER.info("Added (`{}`) languages and (`{}`) competence translations", missingLanguages.size(), missingTranslations.size());
 
+        return competences.size() == TRANSLATED_COMPETENCE_IDS.size();
     }
-
-
-        
-    
-    
 }
@@ -0,0 +1,57 @@
+package com.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import jakarta.annotation.PostConstruct;
+
+@Configuration
+/**
+ * This is a config file for the request execution mode, which is either a fixed pool of platform threads or virtual threads.
+ * Spring Boot itself switches Tomcat and its task executor to virtual threads when spring.threads.virtual.enabled is true (for example using the virtual-threads profile),
+ * but only on Java 21 or later, and otherwise silently keeps using platform threads. This class logs which mode is actually used, so a load test is never run in the wrong mode by mistake.
+ * Note that password verification is not affected by this, since it is CPU bound and so always runs on the bounded login executor (see AuthenticationService).
+ * This is spring managed
+ */
+public class ExecutionModeConfig {
+    static final int VIRTUAL_THREADS_MINIMUM_JAVA_VERSION = 21;
+
+    private final boolean virtualThreadsRequested;
+
+    // We create the logger
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionModeConfig.class.getName());
+
+    /**
+     * Constructs an instance of ExecutionModeConfig (Spring boot managed).
+     * @param virtualThreadsRequested if virtual threads are requested, configured using spring.threads.virtual.enabled
+     */
+    public ExecutionModeConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsRequested) {
+        this.virtualThreadsRequested = virtualThreadsRequested;
+    }
+
+    /**
+     * Logs the execution mode requests are handled in, and warns if virtual threads are requested but not supported by the running Java version
+     */
+    @PostConstruct
+    public void LogExecutionMode() {
+        if (!virtualThreadsRequested) {
+            LOGGER.info("Requests are handled on platform threads");
+        } else if (IsVirtualThreadsSupported(Runtime.version().feature())) {
+            LOGGER.info("Requests are handled on virtual threads");
+        } else {
+            LOGGER.warn("Virtual threads were requested but require Java (`{}`) or later, and this is Java (`{}`), so requests are handled on platform threads",
+              VIRTUAL_THREADS_MINIMUM_JAVA_VERSION, Runtime.version().feature());
+        }
+    }
+
+    /**
+     * Checks if a Java version supports virtual threads
+     * @param javaVersion the feature version of Java, for example 17
+     * @return true if virtual threads are supported, false otherwise
+     */
+    static boolean IsVirtualThreadsSupported(int javaVersion) {
+        return javaVersion >= VIRTUAL_THREADS_MINIMUM_JAVA_VERSION;
+    }
+}
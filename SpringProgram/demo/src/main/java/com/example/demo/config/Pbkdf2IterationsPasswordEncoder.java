@@ -0,0 +1,101 @@
+package com.example.demo.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm;
+
+/**
+ * Pbkdf2IterationsPasswordEncoder is a PBKDF2 (HMAC SHA-256) password encoder which stores the number of iterations in front of each hash, in the format "iterations$hash".
+ * Spring Security's Pbkdf2PasswordEncoder does not store the number of iterations, so changing it would make every existing hash impossible to verify.
+ * This encoder instead verifies each hash with the number of iterations it was created with, and reports hashes created with fewer iterations than configured as needing an upgrade,
+ * so they are rehashed the next time the user logs in.
+ */
+public class Pbkdf2IterationsPasswordEncoder implements PasswordEncoder {
+    private static final int SALT_LENGTH = 16;
+    private static final char SEPARATOR = '$';
+
+    private final int iterations;
+
+    //One encoder per number of iterations, which are thread safe and so are shared
+    private final Map<Integer,Pbkdf2PasswordEncoder> encoders = new ConcurrentHashMap<Integer,Pbkdf2PasswordEncoder>();
+
+    /**
+     * Constructs an encoder which hashes new passwords with the specified number of iterations
+     * @param iterations the number of iterations used for new hashes
+     * @throws IllegalArgumentException if the number of iterations is not positive
+     */
+    public Pbkdf2IterationsPasswordEncoder(int iterations) throws IllegalArgumentException {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("The number of PBKDF2 iterations must be positive");
+        }
+        this.iterations = iterations;
+    }
+
+    /**
+     * Hashes a password using the configured number of iterations
+     * @param rawPassword the password to hash
+     * @return the hash, in the format "iterations$hash"
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return iterations + String.valueOf(SEPARATOR) + getEncoder(iterations).encode(rawPassword);
+    }
+
+    /**
+     * Verifies a password against a hash, using the number of iterations stored in the hash
+     * @param rawPassword the password to verify
+     * @param encodedPassword the hash, in the format "iterations$hash"
+     * @return true if the password matches the hash, false otherwise or if the hash is not correctly formatted
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        int hashIterations = parseIterations(encodedPassword);
+        if (hashIterations <= 0) {
+            return false;
+        }
+        return getEncoder(hashIterations).matches(rawPassword, encodedPassword.substring(encodedPassword.indexOf(SEPARATOR) + 1));
+    }
+
+    /**
+     * Checks if a hash was created with fewer iterations than configured, and so should be rehashed
+     * @param encodedPassword the hash, in the format "iterations$hash"
+     * @return true if the hash should be rehashed, false otherwise
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return parseIterations(encodedPassword) < iterations;
+    }
+
+    /**
+     * Reads the number of iterations from a hash
+     * @param encodedPassword the hash, in the format "iterations$hash"
+     * @return the number of iterations, or 0 if the hash is not correctly formatted
+     */
+    private static int parseIterations(String encodedPassword) {
+        if (encodedPassword == null) {
+            return 0;
+        }
+        int separatorIndex = encodedPassword.indexOf(SEPARATOR);
+        if (separatorIndex <= 0) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(0, separatorIndex));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the encoder for a specific number of iterations
+     * @param hashIterations the number of iterations
+     * @return the encoder
+     */
+    private Pbkdf2PasswordEncoder getEncoder(int hashIterations) {
+        return encoders.computeIfAbsent(hashIterations,
+          i -> new Pbkdf2PasswordEncoder("", SALT_LENGTH, i, SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.demo.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * ReplicaDataSource provides the connections for read only transactions, taking them from each of the read replicas in turn.
+ * The lag of every replica is checked at a fixed interval, and a replica is only used while it could be checked and is at most the maximum lag behind the primary database.
+ * If no replica can be used, or getting a connection from the chosen one fails, the connection is taken from the primary database instead, so reads never fail because of a replica.
+ * This is created by ReplicaDataSourceConfig when read replicas are configured, and is thread safe.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+    /**
+     * Represents one read replica, along with the result of its latest lag check
+     */
+    private static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        //Replicas are not used until their first lag check succeeds
+        private volatile boolean usable = false;
+
+        /**
+         * Constructs a read replica
+         * @param name the name of the replica, which is used when logging
+         * @param dataSource the connection pool of the replica
+         */
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final DataSource primaryDataSource;
+    private final List<Replica> replicas = new ArrayList<Replica>();
+    private final String lagQuery;
+    private final long maxLagMs;
+    private final long checkIntervalMs;
+
+    //This is incremented for every connection, so the replicas are used in turn
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private ScheduledExecutorService lagChecker;
+
+    //We create the logger
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaDataSource.class.getName());
+
+    /**
+     * Constructs the data source, note that no replica is used until Start has been called
+     * @param primaryDataSource the data source of the primary database, which is used when no replica can be used
+     * @param replicaDataSources the data sources of the read replicas, by name, which are closed along with this if they can be
+     * @param lagQuery the query which returns the number of seconds a replica is behind the primary database, as a single number
+     * @param maxLagMs the maximum number of milliseconds a replica may be behind the primary database and still be used
+     * @param checkIntervalMs the number of milliseconds between the lag checks
+     */
+    public ReplicaDataSource(DataSource primaryDataSource, Map<String, DataSource> replicaDataSources, String lagQuery, long maxLagMs, long checkIntervalMs) {
+        this.primaryDataSource = primaryDataSource;
+        for (Map.Entry<String, DataSource> replicaDataSource : replicaDataSources.entrySet()) {
+            replicas.add(new Replica(replicaDataSource.getKey(), replicaDataSource.getValue()));
+        }
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+        this.checkIntervalMs = checkIntervalMs;
+    }
+
+    /**
+     * Checks the lag of every replica, so the ones which can be used are used immediately, and then keeps checking it at a fixed interval
+     */
+    public void Start() {
+        CheckReplicas();
+        lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(this::CheckReplicas, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks the lag of every replica, and updates which of them can be used
+     */
+    void CheckReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection(); Statement statement = connection.createStatement();
+              ResultSet result = statement.executeQuery(lagQuery)) {
+                result.next();
+                long lagMs = Math.round(result.getDouble(1) * 1000);
+                if (lagMs <= maxLagMs) {
+                    SetUsable(replica, true, "it is (`{}`) ms behind the primary database", lagMs);
+                } else {
+                    SetUsable(replica, false, "it is (`{}`) ms behind the primary database", lagMs);
+                }
+            } catch (SQLException | RuntimeException e) {
+                SetUsable(replica, false, "its lag could not be checked : (`{}`)", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the names of the replicas which are currently used
+     * @return the names of the replicas which passed their latest lag check, in the order they were configured
+     */
+    public List<String> GetUsableReplicas() {
+        List<String> usableReplicas = new ArrayList<String>();
+        for (Replica replica : replicas) {
+            if (replica.usable) {
+                usableReplicas.add(replica.name);
+            }
+        }
+        return usableReplicas;
+    }
+
+    @Override
+    /**
+     * Returns a connection from the next replica which can be used, or from the primary database if there is none
+     * @throws SQLException if no replica can be used and the primary database could not provide a connection
+     * @return the connection
+     */
+    public Connection getConnection() throws SQLException {
+        int start = nextReplica.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (!replica.usable) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                //The replica is not used again until its next lag check succeeds
+                SetUsable(replica, false, "no connection could be taken from it : (`{}`)", e.getMessage());
+            }
+        }
+        return primaryDataSource.getConnection();
+    }
+
+    @Override
+    /**
+     * This is not supported, since the credentials of the replicas are configured along with them
+     * @throws SQLFeatureNotSupportedException always
+     */
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("The credentials of the read replicas can not be specified per connection");
+    }
+
+    @Override
+    /**
+     * Stops the lag checks, and closes the replica data sources which can be closed (Spring boot managed)
+     * @throws Exception if a replica data source could not be closed
+     */
+    public void close() throws Exception {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * Sets if a replica is used, and logs the reason whenever this changes
+     * @param replica the replica
+     * @param usable if the replica should be used
+     * @param reason the reason, which is logged with the value below
+     * @param value the value included in the reason
+     */
+    private void SetUsable(Replica replica, boolean usable, String reason, Object value) {
+        if (replica.usable == usable) {
+            return;
+        }
+        replica.usable = usable;
+        if (usable) {
+            LOGGER.info("Read replica (`{}`) is used, since " + reason, replica.name, value);
+        } else {
+            LOGGER.warn("Read replica (`{}`) is not used, since " + reason, replica.name, value);
+        }
+    }
+}
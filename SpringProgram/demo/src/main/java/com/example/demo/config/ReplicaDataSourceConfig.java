@@ -0,0 +1,104 @@
+package com.example.demo.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@ConditionalOnExpression("!'${database.replicas.urls:}'.isBlank()")
+/**
+ * This is a config file for the read replicas, which is only used when database.replicas.urls lists at least one replica.
+ * Read only transactions then take their connections from the replicas (see ReplicaDataSource), while every other transaction, and Flyway, use the primary database.
+ * The connection is only taken once the transaction first accesses the database, since that is when Spring knows if the transaction is read only,
+ * so a read only transaction started with @Transactional(readOnly = true) or a read only TransactionTemplate never takes a connection from the primary database while a replica can be used.
+ * Note that a replica may be up to database.replicas.max-lag-ms behind, so reads which must see a change the same user just made should not be read only.
+ * This is spring managed
+ */
+public class ReplicaDataSourceConfig {
+
+    /**
+     * Provides the connection pool of the primary database, which is configured the same way as when there are no replicas
+     * @param properties the spring.datasource properties
+     * @return the connection pool of the primary database
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Provides the data source used by read only transactions, with one connection pool per replica.
+     * The replica pools are started without waiting for the replicas, so the application starts even if a replica is down, in which case it is simply not used.
+     * Their metrics are published along with the ones of the primary database's pool, tagged with the pool name (replica-1, replica-2 and so on).
+     * @param primaryDataSource the connection pool of the primary database, which is used when no replica can be used
+     * @param urls the comma separated jdbc urls of the replicas, configured using database.replicas.urls
+     * @param username the username used by the replicas, configured using database.replicas.username
+     * @param password the password used by the replicas, configured using database.replicas.password
+     * @param poolSize the maximum size of each replica's connection pool, configured using database.replicas.pool-size
+     * @param connectionTimeoutMs the number of milliseconds to wait for a replica connection before using another replica or the primary database, configured using database.replicas.connection-timeout-ms
+     * @param lagQuery the query returning the number of seconds a replica is behind, configured using database.replicas.lag-query
+     * @param maxLagMs the maximum number of milliseconds a replica may be behind and still be used, configured using database.replicas.max-lag-ms
+     * @param checkIntervalMs the number of milliseconds between the lag checks, configured using database.replicas.check-interval-ms
+     * @param meterRegistry the registry the metrics of the replica pools are published to, if there is one
+     * @return the data source used by read only transactions
+     */
+    @Bean(initMethod = "Start")
+    public ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource, @Value("${database.replicas.urls}") String urls,
+      @Value("${database.replicas.username:${spring.datasource.username:}}") String username, @Value("${database.replicas.password:${spring.datasource.password:}}") String password,
+      @Value("${database.replicas.pool-size:10}") int poolSize, @Value("${database.replicas.connection-timeout-ms:1000}") long connectionTimeoutMs,
+      @Value("${database.replicas.lag-query:SELECT 0}") String lagQuery, @Value("${database.replicas.max-lag-ms:5000}") long maxLagMs,
+      @Value("${database.replicas.check-interval-ms:1000}") long checkIntervalMs, ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, DataSource> replicaDataSources = new LinkedHashMap<String, DataSource>();
+        for (String url : urls.split(",")) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "replica-" + (replicaDataSources.size() + 1);
+            HikariConfig config = new HikariConfig();
+            config.setPoolName(name);
+            config.setJdbcUrl(url.trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(poolSize);
+            config.setConnectionTimeout(connectionTimeoutMs);
+            config.setReadOnly(true);
+            config.setInitializationFailTimeout(-1);
+            meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicaDataSources.put(name, new HikariDataSource(config));
+        }
+        return new ReplicaDataSource(primaryDataSource, replicaDataSources, lagQuery, maxLagMs, checkIntervalMs);
+    }
+
+    /**
+     * Provides the data source used by the application, which only takes a connection once it is first used, from a replica if the transaction is read only,
+     * and otherwise from the primary database
+     * @param primaryDataSource the connection pool of the primary database
+     * @param replicaDataSource the data source used by read only transactions
+     * @return the data source used by the application
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
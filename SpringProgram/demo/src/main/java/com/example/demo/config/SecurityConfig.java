@@ -4,10 +4,20 @@ package com.example.demo.config;
 import com.example.demo.filter.JwtAuthFilter;
 import com.example.demo.service.PersonService;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -34,13 +44,61 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthFilter authFilter; */
 
+    //The ids of the supported password hashing algorithms, which are stored in front of each hash, for example "{bcrypt}$2a$10$..."
+    public static final String BCRYPT_ID = "bcrypt";
+    public static final String PBKDF2_ID = "pbkdf2";
+    public static final String ARGON2_ID = "argon2";
+
+    //The salt and hash lengths used by Argon2, in bytes
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+
     /**
-     * Provides a password encoder for hashing user passwords.
-     * @return BCryptPasswordEncoder instance.
+     * Provides a password encoder for hashing user passwords, using the algorithm and parameters configured in application.properties, see createPasswordEncoder.
+     * @param algorithm the algorithm used to hash new passwords, configured using security.password.algorithm
+     * @param bcryptStrength the bcrypt work factor (log2 of the number of rounds), configured using security.password.bcrypt-strength
+     * @param pbkdf2Iterations the number of PBKDF2 iterations, configured using security.password.pbkdf2-iterations
+     * @param argon2MemoryKib the memory used by Argon2 in KiB, configured using security.password.argon2-memory-kib
+     * @param argon2Iterations the number of Argon2 iterations, configured using security.password.argon2-iterations
+     * @param argon2Parallelism the Argon2 parallelism, configured using security.password.argon2-parallelism
+     * @return the password encoder
      */
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.algorithm:" + BCRYPT_ID + "}") String algorithm,
+      @Value("${security.password.bcrypt-strength:10}") int bcryptStrength,
+      @Value("${security.password.pbkdf2-iterations:310000}") int pbkdf2Iterations,
+      @Value("${security.password.argon2-memory-kib:19456}") int argon2MemoryKib,
+      @Value("${security.password.argon2-iterations:2}") int argon2Iterations,
+      @Value("${security.password.argon2-parallelism:1}") int argon2Parallelism) {
+        return createPasswordEncoder(algorithm, bcryptStrength, pbkdf2Iterations, argon2MemoryKib, argon2Iterations, argon2Parallelism);
+    }
+
+    /**
+     * Creates a password encoder which hashes new passwords with the specified algorithm, and stores the algorithm id in front of each hash.
+     * Hashes created with any of the supported algorithms can be verified, and hashes without an id, which were created before the algorithm was configurable, are verified as bcrypt.
+     * Hashes created with another algorithm or weaker parameters than the current ones are reported as needing an upgrade, so they are rehashed when the user next logs in.
+     * @param algorithm the algorithm used to hash new passwords, one of BCRYPT_ID, PBKDF2_ID or ARGON2_ID
+     * @param bcryptStrength the bcrypt work factor (log2 of the number of rounds)
+     * @param pbkdf2Iterations the number of PBKDF2 iterations
+     * @param argon2MemoryKib the memory used by Argon2 in KiB
+     * @param argon2Iterations the number of Argon2 iterations
+     * @param argon2Parallelism the Argon2 parallelism
+     * @throws IllegalArgumentException if the algorithm is not supported or any of the parameters are invalid
+     * @return the password encoder
+     */
+    public static PasswordEncoder createPasswordEncoder(String algorithm, int bcryptStrength, int pbkdf2Iterations,
+      int argon2MemoryKib, int argon2Iterations, int argon2Parallelism) throws IllegalArgumentException {
+        Map<String,PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT_ID, new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put(PBKDF2_ID, new Pbkdf2IterationsPasswordEncoder(pbkdf2Iterations));
+        encoders.put(ARGON2_ID, new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, argon2Parallelism, argon2MemoryKib, argon2Iterations));
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalArgumentException("Unknown password hashing algorithm (" + algorithm + "), it must be one of " + BCRYPT_ID + ", " + PBKDF2_ID + " or " + ARGON2_ID);
+        }
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(encoders.get(BCRYPT_ID));
+        return passwordEncoder;
     }
 
     /**
@@ -55,14 +113,17 @@ public class SecurityConfig {
 
     /**
      * Configures the authentication provider using DAO-based authentication.
-     * @param personService the service responsible for retrieving user details.
+     * After a successful login, passwords whose hash uses another algorithm or weaker parameters than currently configured are rehashed using personService.
+     * @param personService the service responsible for retrieving user details, and for storing rehashed passwords.
+     * @param passwordEncoder the password encoder used to verify passwords.
      * @return an instance of AuthenticationProvider.
      */
     @Bean
-    public AuthenticationProvider authenticationProvider(PersonService personService){
+    public AuthenticationProvider authenticationProvider(PersonService personService, PasswordEncoder passwordEncoder){
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
         authenticationProvider.setUserDetailsService(personService);
-        authenticationProvider.setPasswordEncoder(passwordEncoder());
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+        authenticationProvider.setUserDetailsPasswordService(personService);
         return authenticationProvider;
     }
 
@@ -79,6 +140,7 @@ public class SecurityConfig {
 
     /**
      * Configures security settings, including authentication rules and session management.
+     * The health and Prometheus endpoints can be reached without a token, so they can be used by the load balancer and the metrics collector.
      * @param http the HttpSecurity instance.
      * @param authenticationProvider the authentication provider to use.
      * @param authFilter the JWT authentication filter.
@@ -93,6 +155,7 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 //.anyRequest().permitAll()  // Allows all endpoints without authentication (for testing)
                 .requestMatchers("/person/register", "/person/updateApplicant", "/auth/generateToken**","/person/requestApplicantReset","/translation/**").permitAll()
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class, PrometheusScrapeEndpoint.class)).permitAll()
                 .requestMatchers("/application/**").hasAuthority("applicant")
                 .requestMatchers("/review/**", "/person/updateReviwer", "/person/find", "/person/findPerson").hasAuthority("recruiter")
                 .anyRequest().authenticated() 
@@ -0,0 +1,73 @@
+package com.example.demo.config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+@Configuration
+/**
+ * This is a config file for exporting the traces to a file, which is used when tracing.file is set (or the TRACING_FILE environment variable).
+ * The spans are exported by OpenTelemetry's OtlpJsonLoggingSpanExporter, which logs the spans of each batch as one line of OTLP JSON using java.util.logging,
+ * and its logger only writes to a file handler appending the lines as they are, so the file can be read without a collector.
+ * The file handler is attached to the java.util.logging logger itself rather than to logback, since Spring Boot stops sending java.util.logging to logback
+ * as soon as the application starts shutting down, which would lose the spans exported last.
+ * Spring Boot creates the tracer itself and passes its spans to every span exporter, so this exporter is used along with the OTLP exporter if both are configured.
+ * This is spring managed
+ */
+public class TracingConfig {
+    //java.util.logging only keeps weak references to its loggers, so the configured logger is kept here
+    private static java.util.logging.Logger spanLogger;
+
+    // We create the logger
+    private static final Logger LOGGER = LoggerFactory.getLogger(TracingConfig.class.getName());
+
+    /**
+     * Creates the span exporter logging the spans, and sends its log lines to the trace file
+     * @param file the path of the trace file, configured using tracing.file
+     * @return the span exporter
+     * @throws IOException if the trace file can not be opened
+     */
+    @Bean
+    @ConditionalOnExpression("!'${tracing.file:}'.isBlank()")
+    public SpanExporter fileSpanExporter(@Value("${tracing.file}") String file) throws IOException {
+        Path path = Path.of(file).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        //The file name is a pattern, in which % has to be escaped
+        FileHandler fileHandler = new FileHandler(path.toString().replace("%", "%%"), true);
+        fileHandler.setFormatter(new Formatter() {
+            @Override
+            public String format(LogRecord record) {
+                return record.getMessage() + System.lineSeparator();
+            }
+        });
+
+        java.util.logging.Logger logger = java.util.logging.Logger.getLogger(OtlpJsonLoggingSpanExporter.class.getName());
+        if (spanLogger != null) {
+            for (java.util.logging.Handler handler : spanLogger.getHandlers()) {
+                spanLogger.removeHandler(handler);
+                handler.close();
+            }
+        }
+        logger.addHandler(fileHandler);
+        logger.setUseParentHandlers(false);
+        logger.setLevel(Level.INFO);
+        spanLogger = logger;
+
+        LOGGER.info("Traces are written to (`{}`)", path);
+        return OtlpJsonLoggingSpanExporter.create();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.domain;
+
+import java.util.List;
+
+import com.example.demo.domain.dto.ApplicationPageDTO;
+
+/**
+ * Represents one page of applications, as returned by the paginated review endpoints.
+ * Implements the ApplicationPageDTO interface.
+ * @param <T> the type used to represent each application
+ */
+public class ApplicationPage<T> implements ApplicationPageDTO<T> {
+    private final List<? extends T> applications;
+    private final String nextCursor;
+    private final int pageSize;
+    private final Long totalCount;
+
+    /**
+     * Constructs a page of applications
+     * @param applications the applications on this page
+     * @param nextCursor the cursor token for the next page, or null if this is the last page
+     * @param pageSize the page size used for this page
+     * @param totalCount the total number of matching applications, or null if this was not requested
+     */
+    public ApplicationPage(List<? extends T> applications, String nextCursor, int pageSize, Long totalCount) {
+        this.applications = applications;
+        this.nextCursor = nextCursor;
+        this.pageSize = pageSize;
+        this.totalCount = totalCount;
+    }
+
+    /**
+    * Implements the ApplicationPageDTO function getApplications, and returns the applications on this page
+    * @return the applications on this page
+    */
+    @Override
+    public List<? extends T> getApplications() {
+        return this.applications;
+    }
+
+    /**
+    * Implements the ApplicationPageDTO function getNextCursor, and returns the cursor token for the next page
+    * @return the cursor token for the next page, or null if this is the last page
+    */
+    @Override
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    /**
+    * Implements the ApplicationPageDTO function getPageSize, and returns the page size
+    * @return the page size
+    */
+    @Override
+    public int getPageSize() {
+        return this.pageSize;
+    }
+
+    /**
+    * Implements the ApplicationPageDTO function getTotalCount, and returns the total number of matching applications
+    * @return the total number of matching applications, or null if this was not requested
+    */
+    @Override
+    public Long getTotalCount() {
+        return this.totalCount;
+    }
+}
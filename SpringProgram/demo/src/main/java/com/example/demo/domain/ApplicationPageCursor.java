@@ -0,0 +1,68 @@
+package com.example.demo.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.Base64;
+
+/**
+ * ApplicationPageCursor represents the position of the last application on a page of applications.
+ * Applications are ordered by application date and then application id, so the next page is found by seeking past this position
+ * instead of skipping over all previous rows, which keeps the cost of retriving a page the same no matter how deep into the list it is.
+ * The cursor is sent to the client as an opaque url-safe token, see encode and decode.
+ */
+public class ApplicationPageCursor {
+    private final Date applicationDate;
+    private final Integer applicationId;
+
+    /**
+     * Constructs a cursor pointing at the application with the specified date and id
+     * @param applicationDate the application date of the last application on the page
+     * @param applicationId the application id of the last application on the page
+     */
+    public ApplicationPageCursor(Date applicationDate, Integer applicationId) {
+        this.applicationDate = applicationDate;
+        this.applicationId = applicationId;
+    }
+
+    /**
+     * This is a getter for the application date
+     * @return the application date of the last application on the page
+     */
+    public Date getApplicationDate() {
+        return this.applicationDate;
+    }
+
+    /**
+     * This is a getter for the application id
+     * @return the application id of the last application on the page
+     */
+    public Integer getApplicationId() {
+        return this.applicationId;
+    }
+
+    /**
+     * Encodes this cursor as a token which can be sent to the client, in the format base64url("yyyy-mm-dd_id")
+     * @return the encoded cursor token
+     */
+    public String encode() {
+        String rawCursor = this.applicationDate.toString() + "_" + this.applicationId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(rawCursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor token previously created by encode
+     * @param token the token to decode
+     * @throws IllegalArgumentException if the token is not a valid cursor token
+     * @return the decoded cursor
+     */
+    public static ApplicationPageCursor decode(String token) throws IllegalArgumentException {
+        String rawCursor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separatorIndex = rawCursor.indexOf('_');
+        if (separatorIndex < 0) {
+            throw new IllegalArgumentException("Cursor is missing its separator");
+        }
+        Date applicationDate = Date.valueOf(rawCursor.substring(0, separatorIndex));
+        Integer applicationId = Integer.parseInt(rawCursor.substring(separatorIndex + 1));
+        return new ApplicationPageCursor(applicationDate, applicationId);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.demo.domain;
+
+import java.sql.Date;
+
+import com.example.demo.domain.dto.ApplicationSummaryDTO;
+
+/**
+ * Represents a lightweight summary of an application.
+ * Instances are created directly by a JPQL constructor expression in ApplicationRepository, so no Application entity (or its associations) is loaded.
+ * Implements the ApplicationSummaryDTO interface.
+ */
+public class ApplicationSummary implements ApplicationSummaryDTO {
+    private final Integer applicationId;
+    private final String applicantName;
+    private final String applicantSurname;
+    private final ApplicationStatus applicationStatus;
+    private final Date applicationDate;
+    private final long versionNumber;
+    private final int availabilityPeriodCount;
+    private final int competenceProfileCount;
+
+    /**
+     * This is a complete constructor, used by the projection query in ApplicationRepository
+     * @param applicationId the application id
+     * @param applicantName the applicant's first name
+     * @param applicantSurname the applicant's last name
+     * @param applicationStatus the application status
+     * @param applicationDate the application date
+     * @param versionNumber the application version number
+     * @param availabilityPeriodCount the number of availability periods in the application
+     * @param competenceProfileCount the number of competence profiles in the application
+     */
+    public ApplicationSummary(Integer applicationId, String applicantName, String applicantSurname, ApplicationStatus applicationStatus,
+      Date applicationDate, long versionNumber, int availabilityPeriodCount, int competenceProfileCount) {
+        this.applicationId = applicationId;
+        this.applicantName = applicantName;
+        this.applicantSurname = applicantSurname;
+        this.applicationStatus = applicationStatus;
+        this.applicationDate = applicationDate;
+        this.versionNumber = versionNumber;
+        this.availabilityPeriodCount = availabilityPeriodCount;
+        this.competenceProfileCount = competenceProfileCount;
+    }
+
+    /**
+    * Implements the ApplicationSummaryDTO function getApplicationId, and returns the application id
+    * @return the application id
+    */
+    @Override
+    public Integer getApplicationId() {
+        return this.applicationId;
+    }
+
+    /**
+    * Implements the ApplicationSummaryDTO function getApplicantName, and returns the applicant's first name
+    * @return the applicant's first name
+    */
+    @Override
+    public String getApplicantName() {
+        return this.applicantName;
+    }
+
+    /**
+    * Implements the ApplicationSummaryDTO function getApplicantSurname, and returns the applicant's last name
+    * @return the applicant's last name
+    */
+    @Override
+    public String getApplicantSurname() {
+        return this.applicantSurname;
+    }
+
+    /**
+    * Implements the ApplicationSummaryDTO function getApplicationStatus, and returns the application status
+    * @return the application status
+    */
+    @Override
+    public ApplicationStatus getApplicationStatus() {
+        return this.applicationStatus;
+    }
+
+    /**
+    * Implements the ApplicationSummaryDTO function getApplicationDate, and returns the application date
+    * @return the date the application was sent
+    */
+    @Override
+    public Date getApplicationDate() {
+        return this.applicationDate;
+    }
+
+    /**
+    * Implements the ApplicationSummaryDTO function getVersionNumber, and returns the version number
+    * @return the version number
+    */
+    @Override
+    public long getVersionNumber() {
+        return this.versionNumber;
+    }
+
+    /**
+    * Implements the ApplicationSummaryDTO function getAvailabilityPeriodCount, and returns the number of availability periods
+    * @return the number of availability periods
+    */
+    @Override
+    public int getAvailabilityPeriodCount() {
+        return this.availabilityPeriodCount;
+    }
+
+    /**
+    * Implements the ApplicationSummaryDTO function getCompetenceProfileCount, and returns the number of competence profiles
+    * @return the number of competence profiles
+    */
+    @Override
+    public int getCompetenceProfileCount() {
+        return this.competenceProfileCount;
+    }
+}
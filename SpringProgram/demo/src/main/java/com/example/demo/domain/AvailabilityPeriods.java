@@ -0,0 +1,255 @@
+package com.example.demo.domain;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+
+import com.example.demo.domain.entity.Availability;
+import com.example.demo.domain.entity.Person;
+
+/**
+ * AvailabilityPeriods represents the availability periods of one person, which new periods are added to by merging them with every period they overlap or are adjacent to.
+ * This keeps the periods compact, so no matter how many periods a person adds, no two periods which can be changed overlap or follow directly after each other.
+ * Periods which have already started are never changed, since the entity does not accept past dates, so a new period overlapping one of them only adds the days after it ends.
+ * The periods are indexed by start date, and since no period is longer than the longest one, the periods touching a date range are found by only looking at those starting
+ * at most that long before it. This means a batch of new periods is not compared with every existing period, one item at a time.
+ * An instance is meant to be used within a single transaction, and is not thread safe.
+ */
+public class AvailabilityPeriods {
+    /**
+     * The possible outcomes of adding a period
+     */
+    public enum Outcome {
+        /** The period did not touch any period which can be changed, so it was added as a new period */
+        CREATED,
+        /** The period was merged with at least one existing period */
+        MERGED,
+        /** An identical period already exists */
+        IDENTICAL,
+        /** The period is fully covered by existing periods */
+        COVERED
+    }
+
+    /**
+     * Represents the result of adding a period
+     */
+    public static class Addition {
+        private final Outcome outcome;
+        private final Availability period;
+        private final List<Availability> mergedPeriods;
+
+        /**
+         * Constructs the result of adding a period
+         * @param outcome the outcome of adding the period
+         * @param period the period which now contains the added period, or the existing period which prevented it from being added
+         * @param mergedPeriods the periods which were merged into period, and so no longer exist
+         */
+        private Addition(Outcome outcome, Availability period, List<Availability> mergedPeriods) {
+            this.outcome = outcome;
+            this.period = period;
+            this.mergedPeriods = mergedPeriods;
+        }
+
+        /**
+         * This is a getter for the outcome
+         * @return the outcome of adding the period
+         */
+        public Outcome getOutcome() {
+            return this.outcome;
+        }
+
+        /**
+         * This is a getter for the resulting period
+         * @return for CREATED a new period which has not been saved, for MERGED the existing period which now contains the added one,
+         * for IDENTICAL the identical period, and for COVERED the covering period, or null if it is covered by several periods
+         */
+        public Availability getPeriod() {
+            return this.period;
+        }
+
+        /**
+         * This is a getter for the merged periods
+         * @return the periods which were merged into the resulting period, and should be deleted, this is empty unless the outcome is MERGED
+         */
+        public List<Availability> getMergedPeriods() {
+            return this.mergedPeriods;
+        }
+    }
+
+    //Periods are stored in a list per start date, since periods created before they were merged may start on the same day
+    private final TreeMap<LocalDate, List<Availability>> periodsByFromDate = new TreeMap<LocalDate, List<Availability>>();
+    private final LocalDate today;
+    //This is the length of the longest period added so far, it is not reduced when periods are removed, since it only needs to be an upper bound
+    private long longestPeriodDays = 0;
+
+    /**
+     * Constructs the set of periods of a person
+     * @param periods the existing periods of the person
+     * @param today the current date, periods starting before this are never changed
+     */
+    public AvailabilityPeriods(Collection<Availability> periods, LocalDate today) {
+        this.today = today;
+        for (Availability period : periods) {
+            Index(period);
+        }
+    }
+
+    /**
+     * Adds a period, by merging it with every period which can be changed and which it overlaps or is adjacent to.
+     * Note that the dates of the resulting period are changed directly, and that new periods are not saved.
+     * @param person the person the period is for
+     * @param fromDate the start date of the period, which should not be after toDate
+     * @param toDate the end date of the period
+     * @return the result of adding the period
+     */
+    public Addition Add(Person person, Date fromDate, Date toDate) {
+        LocalDate from = fromDate.toLocalDate();
+        LocalDate to = toDate.toLocalDate();
+        List<Availability> touchingPeriods = FindTouching(from, to);
+
+        for (Availability period : touchingPeriods) {
+            if (From(period).equals(from) && To(period).equals(to)) {
+                return new Addition(Outcome.IDENTICAL, period, List.of());
+            }
+        }
+        for (Availability period : touchingPeriods) {
+            if (!From(period).isAfter(from) && !To(period).isBefore(to)) {
+                return new Addition(Outcome.COVERED, period, List.of());
+            }
+        }
+
+        //Only the days after a period which has already started and contains the start date are added
+        for (Availability period : touchingPeriods) {
+            if (IsStarted(period) && !From(period).isAfter(from) && !To(period).isBefore(from)) {
+                from = To(period).plusDays(1);
+            }
+        }
+        if (from.isAfter(to)) {
+            return new Addition(Outcome.COVERED, null, List.of());
+        }
+
+        //Merging may extend the period until it touches further periods, which only happens if the existing periods were not already merged
+        List<Availability> mergedPeriods = new ArrayList<Availability>();
+        boolean extended = true;
+        while (extended) {
+            extended = false;
+            for (Availability period : FindTouching(from, to)) {
+                if (!IsStarted(period) && !mergedPeriods.contains(period)) {
+                    mergedPeriods.add(period);
+                    from = Earliest(from, From(period));
+                    to = Latest(to, To(period));
+                    extended = true;
+                }
+            }
+        }
+
+        if (mergedPeriods.isEmpty()) {
+            Availability newPeriod = new Availability(person, Date.valueOf(from), Date.valueOf(to));
+            Index(newPeriod);
+            return new Addition(Outcome.CREATED, newPeriod, List.of());
+        }
+
+        //The saved period with the lowest id is kept, a period which has not been saved yet is only kept if none of the merged periods have been saved
+        Availability keptPeriod = mergedPeriods.get(0);
+        for (Availability period : mergedPeriods) {
+            if (period.getAvailabilityId() != null && (keptPeriod.getAvailabilityId() == null || period.getAvailabilityId() < keptPeriod.getAvailabilityId())) {
+                keptPeriod = period;
+            }
+            Unindex(period);
+        }
+        mergedPeriods.remove(keptPeriod);
+        keptPeriod.setPeriod(Date.valueOf(from), Date.valueOf(to));
+        Index(keptPeriod);
+        return new Addition(Outcome.MERGED, keptPeriod, mergedPeriods);
+    }
+
+    /**
+     * Finds the periods which overlap or are adjacent to a date range
+     * @param from the start of the date range
+     * @param to the end of the date range
+     * @return the periods touching the date range, ordered by start date
+     */
+    private List<Availability> FindTouching(LocalDate from, LocalDate to) {
+        List<Availability> touchingPeriods = new ArrayList<Availability>();
+        for (List<Availability> periods : periodsByFromDate.subMap(from.minusDays(1 + longestPeriodDays), true, to.plusDays(1), true).values()) {
+            for (Availability period : periods) {
+                if (!To(period).isBefore(from.minusDays(1))) {
+                    touchingPeriods.add(period);
+                }
+            }
+        }
+        return touchingPeriods;
+    }
+
+    /**
+     * Adds a period to the index
+     * @param period the period to add
+     */
+    private void Index(Availability period) {
+        periodsByFromDate.computeIfAbsent(From(period), k -> new ArrayList<Availability>()).add(period);
+        longestPeriodDays = Math.max(longestPeriodDays, ChronoUnit.DAYS.between(From(period), To(period)));
+    }
+
+    /**
+     * Removes a period from the index, this must be done before its dates are changed
+     * @param period the period to remove
+     */
+    private void Unindex(Availability period) {
+        List<Availability> periods = periodsByFromDate.get(From(period));
+        periods.remove(period);
+        if (periods.isEmpty()) {
+            periodsByFromDate.remove(From(period));
+        }
+    }
+
+    /**
+     * Checks if a period has already started, in which case it is never changed
+     * @param period the period to check
+     * @return true if the period started before today
+     */
+    private boolean IsStarted(Availability period) {
+        return From(period).isBefore(today);
+    }
+
+    /**
+     * Returns the start date of a period
+     * @param period the period
+     * @return the start date
+     */
+    private static LocalDate From(Availability period) {
+        return period.getFromDate().toLocalDate();
+    }
+
+    /**
+     * Returns the end date of a period
+     * @param period the period
+     * @return the end date
+     */
+    private static LocalDate To(Availability period) {
+        return period.getToDate().toLocalDate();
+    }
+
+    /**
+     * Returns the earliest of two dates
+     * @param a the first date
+     * @param b the second date
+     * @return the earliest date
+     */
+    private static LocalDate Earliest(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * Returns the latest of two dates
+     * @param a the first date
+     * @param b the second date
+     * @return the latest date
+     */
+    private static LocalDate Latest(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
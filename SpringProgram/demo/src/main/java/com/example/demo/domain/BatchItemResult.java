@@ -0,0 +1,75 @@
+package com.example.demo.domain;
+
+import com.example.demo.domain.dto.BatchItemResultDTO;
+
+/**
+ * Represents the result of one item in a batch creation request.
+ * Implements the BatchItemResultDTO interface.
+ * @param <T> the type used to represent the created object
+ */
+public class BatchItemResult<T> implements BatchItemResultDTO<T> {
+    private final int index;
+    private final T created;
+    private final String error;
+
+    /**
+     * Constructs a result, use the created and failed functions instead of calling this directly
+     * @param index the index of this item in the request
+     * @param created the created object, or null if the item could not be created
+     * @param error the error message, or null if the item was created
+     */
+    private BatchItemResult(int index, T created, String error) {
+        this.index = index;
+        this.created = created;
+        this.error = error;
+    }
+
+    /**
+     * Constructs the result for an item which was created
+     * @param <T> the type used to represent the created object
+     * @param index the index of this item in the request
+     * @param created the created object
+     * @return the result for this item
+     */
+    public static <T> BatchItemResult<T> created(int index, T created) {
+        return new BatchItemResult<T>(index, created, null);
+    }
+
+    /**
+     * Constructs the result for an item which could not be created
+     * @param <T> the type used to represent the created object
+     * @param index the index of this item in the request
+     * @param error the reason the item could not be created
+     * @return the result for this item
+     */
+    public static <T> BatchItemResult<T> failed(int index, String error) {
+        return new BatchItemResult<T>(index, null, error);
+    }
+
+    /**
+    * Implements the BatchItemResultDTO function getIndex, and returns the index of this item in the request
+    * @return the index of this item in the request
+    */
+    @Override
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+    * Implements the BatchItemResultDTO function getCreated, and returns the created object
+    * @return the created object, or null if this item could not be created
+    */
+    @Override
+    public T getCreated() {
+        return this.created;
+    }
+
+    /**
+    * Implements the BatchItemResultDTO function getError, and returns the reason this item could not be created
+    * @return the error message, or null if this item was created
+    */
+    @Override
+    public String getError() {
+        return this.error;
+    }
+}
@@ -11,16 +11,47 @@ import java.util.List;
 /**
  * PersonDetails is a custom implementation of UserDetails that is used for Spring Security authentication.
  * It provides the details of a Person entity for authentication purposes.
+ * It is an immutable snapshot of the person, taken when it is constructed, so it does not reference the entity (or its lazily loaded role)
+ * and can safely be cached and shared between requests (see PrincipalCache).
+ * For the same reason it does not implement CredentialsContainer, so Spring Security never erases the password of a shared instance.
+ * It can also be created from the claims of a verified JWT token (see JwtService.extractPrincipal), in which case it has no password.
  */
 public class PersonDetails implements UserDetails{
-    private final Person person;
+    private final Integer personId;
+    private final String username;
+    private final String password;
+    private final List<GrantedAuthority> authorities;
+    private final int tokenVersion;
 
     /**
      * Constructs a PersonDetails object with the given Person entity.
      * @param person the Person entity to be used for user details
      */
     public PersonDetails(Person person){
-        this.person = person;
+        this.personId = person.getId();
+        this.username = person.getUsername();
+        this.password = person.getPassword();
+        if (person.getRole() == null) {
+            this.authorities = List.of();
+        } else {
+            this.authorities = List.of(new SimpleGrantedAuthority(person.getRole().getName()));
+        }
+        this.tokenVersion = person.getTokenVersion();
+    }
+
+    /**
+     * Constructs a PersonDetails object from the claims of a verified JWT token, without a password
+     * @param personId the id of the person
+     * @param username the username of the person
+     * @param roles the names of the person's roles
+     * @param tokenVersion the token version the token was issued with
+     */
+    public PersonDetails(Integer personId, String username, Collection<String> roles, int tokenVersion){
+        this.personId = personId;
+        this.username = username;
+        this.password = null;
+        this.authorities = roles.stream().map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role)).toList();
+        this.tokenVersion = tokenVersion;
     }
 
     /**
@@ -29,7 +60,7 @@ public class PersonDetails implements UserDetails{
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities(){
-        return List.of(new SimpleGrantedAuthority(person.getRole().getName()));
+        return authorities;
     }
 
     /**
@@ -38,7 +69,7 @@ public class PersonDetails implements UserDetails{
      */
     @Override
     public String getUsername(){
-        return person.getUsername();
+        return username;
     }
 
     /**
@@ -47,7 +78,7 @@ public class PersonDetails implements UserDetails{
      */
     @Override
     public String getPassword(){
-        return person.getPassword();
+        return password;
     }
 
 
@@ -56,7 +87,15 @@ public class PersonDetails implements UserDetails{
      * @return The person id for the person this request is for
      */
     public Integer getPersonId(){
-        return person.getId();
+        return personId;
     }
-    
+
+    /**
+     * This is a getter for the token version
+     * @return The token version of the person, see Person.getTokenVersion
+     */
+    public int getTokenVersion(){
+        return tokenVersion;
+    }
+
 }
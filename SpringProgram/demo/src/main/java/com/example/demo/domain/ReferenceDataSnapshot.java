@@ -0,0 +1,60 @@
+package com.example.demo.domain;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Represents an immutable snapshot of one list of reference data (for example all competences, or all competence translations for one language),
+ * as cached by TranslationService.
+ * Along with the values it holds the JSON payload they serialise to, so endpoints can send the cached bytes as they are instead of serialising the list on every request,
+ * and a strong ETag computed from a hash of that payload, which only changes when the content does.
+ * @param <T> the type used to represent each value
+ */
+public class ReferenceDataSnapshot<T> {
+    private final List<T> values;
+    private final byte[] payload;
+    private final String eTag;
+
+    /**
+     * Constructs a snapshot, the values are copied into an unmodifiable list and the ETag is computed from the payload
+     * @param values the values in this snapshot
+     * @param payload the values serialised as JSON
+     */
+    public ReferenceDataSnapshot(List<? extends T> values, byte[] payload) {
+        this.values = List.copyOf(values);
+        this.payload = payload;
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(payload);
+            this.eTag = "\"" + HexFormat.of().formatHex(hash) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            //Every Java platform is required to support SHA-256, so this can not happen
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * This is a getter for the values
+     * @return the unmodifiable list of values in this snapshot
+     */
+    public List<T> getValues() {
+        return this.values;
+    }
+
+    /**
+     * This is a getter for the JSON payload, note that this is shared between all requests and so must not be modified
+     * @return the values serialised as JSON
+     */
+    public byte[] getPayload() {
+        return this.payload;
+    }
+
+    /**
+     * This is a getter for the ETag
+     * @return the strong ETag for the payload, including the surrounding quotes
+     */
+    public String getETag() {
+        return this.eTag;
+    }
+}
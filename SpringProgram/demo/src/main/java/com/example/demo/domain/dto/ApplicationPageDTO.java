@@ -0,0 +1,33 @@
+package com.example.demo.domain.dto;
+
+import java.util.List;
+
+/**
+ * The ApplicationPageDTO interface provides a data transfer interface for one page of applications
+ * @param <T> the type used to represent each application, for example ApplicationDTO or ApplicationSummaryDTO
+*/
+public interface ApplicationPageDTO<T> {
+    /** Interface function for retriving the applications on this page
+     *
+     * @return the applications on this page, at most page size many
+     */
+    public List<? extends T> getApplications();
+
+    /** Interface function for retriving the cursor token for the next page
+     *
+     * @return the cursor token to request the next page with, or null if this is the last page
+     */
+    public String getNextCursor();
+
+    /** Interface function for retriving the page size which was used for this page
+     *
+     * @return the page size
+     */
+    public int getPageSize();
+
+    /** Interface function for retriving the total number of matching applications
+     *
+     * @return the total number of matching applications, or null if the total count was not requested
+     */
+    public Long getTotalCount();
+}
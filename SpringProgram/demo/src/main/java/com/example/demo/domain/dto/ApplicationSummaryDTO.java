@@ -0,0 +1,59 @@
+package com.example.demo.domain.dto;
+
+import java.sql.Date;
+
+import com.example.demo.domain.ApplicationStatus;
+
+/**
+ * The ApplicationSummaryDTO interface provides a data transfer interface for a lightweight summary of an application,
+ * which is used for list views where the full application (with applicant, availability periods and competence profiles) is not needed
+*/
+public interface ApplicationSummaryDTO {
+    /** Interface function for retriving the application id
+     *
+     * @return the application id
+     */
+    public Integer getApplicationId();
+
+    /** Interface function for retriving the applicant's first name
+     *
+     * @return the applicant's first name
+     */
+    public String getApplicantName();
+
+    /** Interface function for retriving the applicant's last name
+     *
+     * @return the applicant's last name
+     */
+    public String getApplicantSurname();
+
+    /** Interface function for retriving the application status for this application
+     *
+     * @return the application status for this application
+     */
+    public ApplicationStatus getApplicationStatus();
+
+    /**
+     * Interface function for retriving application date for this application
+     * @return the date the application was sent
+     */
+    public Date getApplicationDate();
+
+    /** Interface function for retriving the version number for this application
+     *
+     * @return the version number for this application
+     */
+    public long getVersionNumber();
+
+    /** Interface function for retriving the number of availability periods in this application
+     *
+     * @return the number of availability periods
+     */
+    public int getAvailabilityPeriodCount();
+
+    /** Interface function for retriving the number of competence profiles in this application
+     *
+     * @return the number of competence profiles
+     */
+    public int getCompetenceProfileCount();
+}
@@ -0,0 +1,26 @@
+package com.example.demo.domain.dto;
+
+/**
+ * The BatchItemResultDTO interface provides a data transfer interface for the result of one item in a batch creation request,
+ * which is either the newly created object or the reason the item could not be created
+ * @param <T> the type used to represent the created object, for example CompetenceProfileDTO or AvailabilityDTO
+*/
+public interface BatchItemResultDTO<T> {
+    /** Interface function for retriving the position of this item in the request
+     *
+     * @return the index of this item in the request
+     */
+    public int getIndex();
+
+    /** Interface function for retriving the created object
+     *
+     * @return the created object, or null if this item could not be created
+     */
+    public T getCreated();
+
+    /** Interface function for retriving the reason this item could not be created
+     *
+     * @return the error message, or null if this item was created
+     */
+    public String getError();
+}
@@ -16,16 +16,46 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedEntityGraphs;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PastOrPresent;
 
 @Entity
+//These indexes match the order in which applications are paged, with or without filtering by status, so pages are read from the index instead of sorting every application
+@Table(name = "application", indexes = {
+    @Index(name = "application_application_status_application_date_idx", columnList = "application_status, application_date, application_id"),
+    @Index(name = "application_application_date_idx", columnList = "application_date, application_id"),
+    @Index(name = "application_person_id_idx", columnList = "person_id")
+})
+//These entity graphs define which associations are loaded together with an application when showing its details
+//The two collections are both lists (bags), and hibernate can not join fetch two bags in one query, so they are loaded in one query each
+//Link to documentation: https://docs.jboss.org/hibernate/orm/6.6/userguide/html_single/Hibernate_User_Guide.html#fetching-strategies-dynamic-fetching-entity-graph
+@NamedEntityGraphs({
+    @NamedEntityGraph(
+        name = "Application.withAvailabilityPeriods",
+        attributeNodes = {
+            @NamedAttributeNode(value = "applicant", subgraph = "applicant"),
+            @NamedAttributeNode("availabilityPeriodsForApplication")
+        },
+        subgraphs = @NamedSubgraph(name = "applicant", attributeNodes = @NamedAttributeNode("role"))
+    ),
+    @NamedEntityGraph(
+        name = "Application.withCompetenceProfiles",
+        attributeNodes = @NamedAttributeNode(value = "competenceProfilesForApplication", subgraph = "competenceProfiles"),
+        subgraphs = @NamedSubgraph(name = "competenceProfiles", attributeNodes = @NamedAttributeNode("competence"))
+    )
+})
 /**
  * Represents a application entity in the system.
  * Implements the ApplicationDTO interface.
@@ -46,7 +76,12 @@ public class Application implements ApplicationDTO{
     @JoinTable(
         name="application_availability_periods",
         joinColumns=@JoinColumn(name="application_id"),
-        inverseJoinColumns=@JoinColumn(name="availability_id")
+        inverseJoinColumns=@JoinColumn(name="availability_id"),
+        //These find the periods of an application, which the search checks for each application, and the applications of a period, which are updated when it is merged
+        indexes={
+            @Index(name = "application_availability_periods_application_id_idx", columnList = "application_id, availability_id"),
+            @Index(name = "application_availability_periods_availability_id_idx", columnList = "availability_id")
+        }
     )
     @UniqueElements(message = "No availability period should be included multiple times in the application")
     @NotEmpty(message = "You must specify at least one availability period") 
@@ -57,7 +92,8 @@ public class Application implements ApplicationDTO{
     @JoinTable(
         name="application_competence_profile",
         joinColumns=@JoinColumn(name="application_id"), //This is the column to map this to
-        inverseJoinColumns=@JoinColumn(name="competence_profile_id") //This is the column to map the competence profiles to
+        inverseJoinColumns=@JoinColumn(name="competence_profile_id"), //This is the column to map the competence profiles to
+        indexes=@Index(name = "application_competence_profile_application_id_idx", columnList = "application_id, competence_profile_id") //This finds the profiles of an application, which the search checks for each application
     )    
     @UniqueElements(message = "No competence profile should be included multiple times in the application")
     @NotEmpty(message="You must specify at least one competence profile")
@@ -14,8 +14,16 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 @Entity
+//The first index is used to find the availability periods of a person, and to check if a person is already available during a period
+//The second index finds the periods which end after a date, which are few when searching for applicants available in the future, since most periods have already ended
+@Table(name = "availability", indexes = {
+    @Index(name = "availability_person_id_from_date_to_date_idx", columnList = "person_id, from_date, to_date"),
+    @Index(name = "availability_to_date_from_date_idx", columnList = "to_date, from_date")
+})
 /**
  * Represents a availability entity in the system.
  * Implements the AvailabilityDTO interface.
@@ -89,6 +97,16 @@ public class Availability implements AvailabilityDTO{
     @Override
     public Date getToDate(){return this.toDate;}
 
+    /**
+     * This is a setter for the start and end dates, which is used when this period is merged with overlapping or adjacent periods (see AvailabilityPeriods)
+     * @param fromDate the new start date of the period
+     * @param toDate the new end date of the period
+     */
+    public void setPeriod(Date fromDate, Date toDate)
+    {
+        this.fromDate=fromDate;
+        this.toDate=toDate;
+    }
 
     /**
      * This is a setter for availabilityId, IT SHOULD ONLY BE USED IN TESTING!
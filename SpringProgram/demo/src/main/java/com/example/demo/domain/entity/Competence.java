@@ -2,9 +2,13 @@ package com.example.demo.domain.entity;
 
 import com.example.demo.domain.dto.CompetenceDTO;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.persistence.Basic;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -14,8 +18,11 @@ import jakarta.persistence.Id;
 /**
  * Represents a competence entity in the system.
  * Implements the CompetenceDTO interface.
+ * Competences are never changed by the application, so they are kept in hibernate's second level cache as read only (see application.conf).
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "competence")
 public class Competence implements CompetenceDTO{
     @Id 
     @GeneratedValue(strategy = GenerationType.IDENTITY)
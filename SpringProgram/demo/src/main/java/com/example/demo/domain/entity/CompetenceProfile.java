@@ -9,8 +9,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
@@ -19,6 +21,8 @@ import jakarta.validation.constraints.NotNull;
  * Implements the CompetenceProfileDTO interface.
  */
 @Entity
+//This index is used to find the competence profiles of a person, and to check if a person already has a profile for a competence
+@Table(name = "competence_profile", indexes = @Index(name = "competence_profile_person_id_competence_id_idx", columnList = "person_id, competence_id"))
 public class CompetenceProfile implements CompetenceProfileDTO{
 
     @Id 
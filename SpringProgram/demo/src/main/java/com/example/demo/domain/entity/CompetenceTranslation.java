@@ -2,21 +2,31 @@ package com.example.demo.domain.entity;
 
 import com.example.demo.domain.dto.CompetenceTranslationDTO;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 /**
  * Represents a competence translation entity in the system.
  * Implements the CompetenceTranslationDTO interface.
+ * Competence translations are kept in hibernate's second level cache, and a cached translation is removed from it when it is changed (see application.conf).
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "competence_translation")
+@Table(name = "competence_translation", indexes = @Index(name = "competence_translation_language_id_idx", columnList = "language_id"))
 public class CompetenceTranslation implements CompetenceTranslationDTO{
 
     @Id
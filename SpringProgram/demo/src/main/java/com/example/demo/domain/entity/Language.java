@@ -2,6 +2,10 @@ package com.example.demo.domain.entity;
 
 import com.example.demo.domain.dto.LanguageDTO;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -11,9 +15,12 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "language")
 /**
  * Represents a language entity in the system.
  * Implements the LanguageDTO interface.
+ * Languages are kept in hibernate's second level cache, and a cached language is removed from it when it is changed (see application.conf).
  */
 public class Language implements LanguageDTO{
 
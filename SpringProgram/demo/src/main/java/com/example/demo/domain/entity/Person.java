@@ -11,6 +11,8 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -21,6 +23,13 @@ import jakarta.validation.constraints.Pattern;
  * Implements the PersonDTO interface.
  */
 @Entity
+//The usernames, emails and person numbers are unique, which also indexes them for findByUsername, findByEmail and findByPnr
+//Existing recruiters have no email or person number and existing applicants have no username, which is allowed since null values are never equal
+@Table(name = "person", uniqueConstraints = {
+    @UniqueConstraint(name = "person_username_key", columnNames = "username"),
+    @UniqueConstraint(name = "person_email_key", columnNames = "email"),
+    @UniqueConstraint(name = "person_pnr_key", columnNames = "pnr")
+})
 public class Person implements PersonDTO{
     
     @Id 
@@ -66,6 +75,10 @@ public class Person implements PersonDTO{
     @NotBlank(message="Username can not be an empty string")
     private String username;
 
+    //This is incremented whenever the person's existing JWT tokens should be revoked, and is included in every token as the "tokenVersion" claim
+    @Column(name="token_version", nullable=false)
+    private Integer tokenVersion = 0;
+
     /**
      * Default constructor.
      */
@@ -216,4 +229,21 @@ public class Person implements PersonDTO{
         this.username = username;
     }
 
+    /**
+     * Getter for the token version, which only tokens issued with the current version are accepted for
+     * @return the person's token version, which the V8 migration set to 0 for persons created before token versions were introduced
+     */
+    @JsonIgnore
+    public Integer getTokenVersion() {
+        return this.tokenVersion;
+    }
+
+    /**
+     * Setter for the token version
+     * @param tokenVersion the new token version
+     */
+    public void setTokenVersion(Integer tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
 }
@@ -2,7 +2,11 @@ package com.example.demo.domain.entity;
 
 import com.example.demo.domain.dto.RoleDTO;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.Basic;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -12,9 +16,12 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "role")
 /**
  * Represents a role entity in the system.
  * Implements the RoleDTO interface.
+ * Roles are never changed by the application, so they are kept in hibernate's second level cache as read only (see application.conf).
  */
 public class Role implements RoleDTO{
     
@@ -0,0 +1,51 @@
+package com.example.demo.domain.requestBodies;
+
+import java.sql.Date;
+
+/**
+ * This class defines one item in the request body for the endpoint createAvailabilities
+ * Below is an example of a valid json body which could be parsed into a list of this class:
+ * [
+ *   {"fromDate":"2025-06-01","toDate":"2025-08-31"},
+ *   {"fromDate":"2025-10-01","toDate":"2025-12-31"}
+ * ]
+ */
+public class AvailabilityCreationRequestBody {
+    private Date fromDate;
+    private Date toDate;
+
+    /**
+     * This is the default constructor
+     */
+    public AvailabilityCreationRequestBody()
+    {}
+
+    /**
+     * This is a complete constructor
+     * @param fromDate the start date of the availability period
+     * @param toDate the end date of the availability period
+     */
+    public AvailabilityCreationRequestBody(Date fromDate, Date toDate)
+    {
+        this.fromDate=fromDate;
+        this.toDate=toDate;
+    }
+
+    /**
+     * This is a getter for the from date
+     * @return the start date of the availability period
+     */
+    public Date getFromDate()
+    {
+        return this.fromDate;
+    }
+
+    /**
+     * This is a getter for the to date
+     * @return the end date of the availability period
+     */
+    public Date getToDate()
+    {
+        return this.toDate;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.domain.requestBodies;
+
+/**
+ * This class defines one item in the request body for the endpoint createCompetenceProfiles
+ * Below is an example of a valid json body which could be parsed into a list of this class:
+ * [
+ *   {"competenceId":1,"yearsOfExperience":2.5},
+ *   {"competenceId":2,"yearsOfExperience":1}
+ * ]
+ */
+public class CompetenceProfileCreationRequestBody {
+    private Integer competenceId;
+    private Double yearsOfExperience;
+
+    /**
+     * This is the default constructor
+     */
+    public CompetenceProfileCreationRequestBody()
+    {}
+
+    /**
+     * This is a complete constructor
+     * @param competenceId the id of the competence the profile is for
+     * @param yearsOfExperience the number of years of experience the person states they have
+     */
+    public CompetenceProfileCreationRequestBody(Integer competenceId, Double yearsOfExperience)
+    {
+        this.competenceId=competenceId;
+        this.yearsOfExperience=yearsOfExperience;
+    }
+
+    /**
+     * This is a getter for the competence id
+     * @return the id of the competence the profile is for
+     */
+    public Integer getCompetenceId()
+    {
+        return this.competenceId;
+    }
+
+    /**
+     * This is a getter for the years of experience
+     * @return the number of years of experience the person states they have
+     */
+    public Double getYearsOfExperience()
+    {
+        return this.yearsOfExperience;
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.demo.filter;
+import com.example.demo.domain.PersonDetails;
 import com.example.demo.service.PersonService;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 
 import com.example.demo.service.JwtService;
 
@@ -9,6 +13,8 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -26,6 +32,10 @@ import java.io.IOException;
  * JwtAuthFilter is a custom filter used in the authentication process.
  * It intercepts incoming requests to extract the JWT token from the request's "Authorization" header, 
  * validates the token, and sets the authentication in the security context if the token is valid.
+ * Each token is parsed and verified at most once per request, and tokens which have been verified before are served from a VerifiedTokenCache.
+ * Tokens which include authorization claims (see JwtService.generateToken) are authorized using only those claims and a token version check, which reads the database at most once every few seconds per person,
+ * while older tokens without them are authorized by loading the user.
+ * The authentication is observed as jwt.authentication, so it is timed and traced separately from the rest of the request.
  */
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter{
@@ -36,6 +46,17 @@ public class JwtAuthFilter extends OncePerRequestFilter{
     @Autowired
     private PersonService personService;
 
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    //The largest number of verified tokens which are cached, each entry is a few hundred bytes
+    private static final int MAX_CACHED_TOKENS = 10000;
+
+    // We create the logger
+    private static final Logger LOGGER = LoggerFactory.getLogger(JwtAuthFilter.class.getName());
+
+    private final VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(MAX_CACHED_TOKENS);
+
     //This excludes specific urls from the filtering, to allow access without a JWT token
     //Link: https://www.baeldung.com/spring-exclude-filter 
     @Override
@@ -66,35 +87,12 @@ public class JwtAuthFilter extends OncePerRequestFilter{
      */
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,@NonNull FilterChain filterChain) throws ServletException, IOException{
-        String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
-
         try {
-            
-        if(authHeader != null && authHeader.startsWith("Bearer ")){
-            token = authHeader.substring(7);
-            username = jwtService.extractSubject(token);
-        }
+            Observation.createNotStarted("jwt.authentication", observationRegistry)
+              .contextualName("JwtAuthFilter#authenticate")
+              .observe(() -> authenticate(request));
 
-        if(username != null && (SecurityContextHolder.getContext().getAuthentication()==null||SecurityContextHolder.getContext().getAuthentication().getPrincipal().toString().equals("anonymousUser"))){
-            UserDetails userDetails = personService.loadUserByUsername(username);
-            if(jwtService.validateToken(token, userDetails)){
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails,null,userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-                System.out.println("Token validated, user has the authorities "+userDetails.getAuthorities().toString());
-            }
-        }
-        else
-        {
-            if (SecurityContextHolder.getContext().getAuthentication()!=null) {
-                System.out.println(SecurityContextHolder.getContext().getAuthentication().toString());
-            }
-        }
-
-        filterChain.doFilter(request,response);
-    
+            filterChain.doFilter(request,response);
         } 
         //Handling for expired token
         // https://stackoverflow.com/questions/73052974/why-is-the-expiredjwtexception-not-being-caught-and-handled 
@@ -113,4 +111,68 @@ public class JwtAuthFilter extends OncePerRequestFilter{
             return;
         }*/
     } 
+
+    /**
+     * Authenticates the request using the JWT token in its "Authorization" header, if it has one and the request is not already authenticated.
+     * 
+     * @param request the HTTP request to authenticate
+     * @throws ExpiredJwtException if the token has expired
+     */
+    private void authenticate(HttpServletRequest request) throws ExpiredJwtException {
+        String authHeader = request.getHeader("Authorization");
+        String token = null;
+        Claims claims = null;
+        String username = null;
+
+        if(authHeader != null && authHeader.startsWith("Bearer ")){
+            token = authHeader.substring(7);
+            claims = getVerifiedClaims(token);
+            username = claims.getSubject();
+        }
+
+        if(username != null && (SecurityContextHolder.getContext().getAuthentication()==null||SecurityContextHolder.getContext().getAuthentication().getPrincipal().toString().equals("anonymousUser"))){
+            PersonDetails claimsPrincipal = jwtService.extractPrincipal(claims);
+            if (claimsPrincipal != null) {
+                //The token is only accepted if it has not been revoked since it was issued
+                if (personService.IsTokenVersionCurrent(claimsPrincipal.getPersonId(), claimsPrincipal.getTokenVersion())) {
+                    setAuthentication(claimsPrincipal, request);
+                }
+            }
+            else {
+                UserDetails userDetails = personService.loadUserByUsername(username);
+                if(jwtService.validateClaims(claims, userDetails)){
+                    setAuthentication(userDetails, request);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the authentication of the current request to the specified user
+     * 
+     * @param userDetails the authenticated user
+     * @param request the HTTP request being processed
+     */
+    private void setAuthentication(UserDetails userDetails, HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails,null,userDetails.getAuthorities());
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        LOGGER.debug("Token validated for user (`{}`) with the authorities (`{}`)", userDetails.getUsername(), userDetails.getAuthorities());
+    }
+
+    /**
+     * Returns the verified claims of a token, from the cache if the token has been verified before, and otherwise by parsing and verifying it once and caching the result.
+     * 
+     * @param token the JWT token
+     * @throws ExpiredJwtException if the token has expired
+     * @return the claims of the token
+     */
+    private Claims getVerifiedClaims(String token) throws ExpiredJwtException {
+        Claims claims = verifiedTokenCache.get(token);
+        if (claims == null) {
+            claims = jwtService.extractAllClaims(token);
+            verifiedTokenCache.put(token, claims);
+        }
+        return claims;
+    }
 } 
@@ -0,0 +1,112 @@
+package com.example.demo.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * VerifiedTokenCache is a bounded cache of JWT tokens whose signature has already been verified, mapped to their claims.
+ * It is used by JwtAuthFilter so that a client which sends the same token with every request only has it parsed and verified once.
+ * Tokens are keyed by their SHA-256 hash, so the raw tokens are never kept in memory, and an entry is never returned after its token has expired.
+ * The claims are shared between requests and so must not be modified.
+ */
+public class VerifiedTokenCache {
+    private final int maxEntries;
+    private final Map<String,Claims> verifiedClaims = new ConcurrentHashMap<String,Claims>();
+
+    /**
+     * Constructs an empty cache
+     * @param maxEntries the largest number of tokens kept in the cache
+     */
+    public VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the cached claims for a token, if it has been verified before and has not expired since
+     * @param token the token to look up
+     * @return the claims of the token, or null if the token is not cached or has expired
+     */
+    public Claims get(String token) {
+        String key = hash(token);
+        Claims claims = verifiedClaims.get(key);
+        if (claims == null) {
+            return null;
+        }
+        if (isExpired(claims, new Date())) {
+            verifiedClaims.remove(key, claims);
+            return null;
+        }
+        return claims;
+    }
+
+    /**
+     * Adds the claims of a token whose signature has been verified to the cache.
+     * If the cache is full, expired entries are removed first, and if that is not enough, arbitrary entries are removed until there is room.
+     * @param token the verified token
+     * @param claims the claims of the token
+     */
+    public void put(String token, Claims claims) {
+        if (claims.getExpiration() == null) {
+            //Tokens without an expiration are not cached, since there would be no point in time when they are removed
+            return;
+        }
+        if (verifiedClaims.size() >= maxEntries) {
+            evict();
+        }
+        verifiedClaims.put(hash(token), claims);
+    }
+
+    /**
+     * Returns the number of tokens in the cache
+     * @return the number of cached tokens, including expired ones which have not yet been removed
+     */
+    public int size() {
+        return verifiedClaims.size();
+    }
+
+    /**
+     * Removes all expired entries, and then arbitrary entries until the cache is below its maximum size
+     */
+    private void evict() {
+        Date now = new Date();
+        verifiedClaims.values().removeIf(claims -> isExpired(claims, now));
+        Iterator<String> keys = verifiedClaims.keySet().iterator();
+        while (verifiedClaims.size() >= maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * Checks if the claims belong to a token which has expired
+     * @param claims the claims to check
+     * @param now the current time
+     * @return true if the token has expired, false otherwise
+     */
+    private static boolean isExpired(Claims claims, Date now) {
+        return claims.getExpiration().before(now);
+    }
+
+    /**
+     * Hashes a token to create its cache key
+     * @param token the token to hash
+     * @return the base64 encoded SHA-256 hash of the token
+     */
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            //Every Java platform is required to support SHA-256, so this can not happen
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
@@ -15,6 +15,7 @@ import com.example.demo.presentation.restException.AlreadyExistsException;
 import com.example.demo.presentation.restException.CustomDatabaseException;
 import com.example.demo.presentation.restException.InvalidJWTException;
 import com.example.demo.presentation.restException.InvalidParameterException;
+import com.example.demo.presentation.restException.TooManyRequestsException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.InvalidPersonException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.PersonNotFoundException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.SpecificCompetenceNotFoundException;
@@ -152,6 +153,17 @@ public class GeneralRestAdvice {
     return ex.getMessage();
   }
 
+  /**
+   * This function is responsible for handeling the TooManyRequestsException error
+   * @param ex the error which was thrown to active this handler
+   * @return this sends a http 429 status code with the TooManyRequestsException error message as the text
+   */
+  @ExceptionHandler(TooManyRequestsException.class)
+  @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+  String TooManyRequestsExceptionHandler(TooManyRequestsException ex) {
+    return ex.getMessage();
+  }
+
     /**
    * This function is responsible for handeling the AuthenticationException error
    * @param ex the error which was thrown to active this handler
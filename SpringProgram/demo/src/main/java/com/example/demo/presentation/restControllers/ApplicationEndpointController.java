@@ -3,6 +3,7 @@ package com.example.demo.presentation.restControllers;
 import java.sql.Date;
 import java.util.List;
 
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,8 +20,11 @@ import org.springframework.web.bind.annotation.RestController;
 import com.example.demo.domain.PersonDetails;
 import com.example.demo.domain.dto.ApplicationDTO;
 import com.example.demo.domain.dto.AvailabilityDTO;
+import com.example.demo.domain.dto.BatchItemResultDTO;
 import com.example.demo.domain.dto.CompetenceProfileDTO;
 import com.example.demo.domain.requestBodies.ApplicationSubmissionRequestBody;
+import com.example.demo.domain.requestBodies.AvailabilityCreationRequestBody;
+import com.example.demo.domain.requestBodies.CompetenceProfileCreationRequestBody;
 import com.example.demo.presentation.restException.InvalidParameterException;
 import com.example.demo.service.ApplicationService;
 
@@ -28,6 +32,7 @@ import com.example.demo.service.ApplicationService;
 @RequestMapping("/application")
 @PreAuthorize("hasAuthority('applicant')")
 @CrossOrigin(origins = "${ALLOWED_ORIGINS:http://localhost:3000}") // This uses the config in config/WebConfig.java to allow cross-origin access
+@Observed(name = "controller.method")
 /**
  * This endpoint controller is responsible for handeling the requests concerning submitting an application.
  * This includes, for example, creating a new competence profile for a specific user along with submitting an application
@@ -101,6 +106,34 @@ public class ApplicationEndpointController {
     }
 
 
+    /**
+     * This function creates several new competence profiles for the current user in one request and one transaction
+     * 
+     * @param requestBody the competence profiles to create, at most ApplicationService.MAX_BATCH_SIZE many
+     * To give an example of the request body, the following is a basic example of how it could look:
+     * <p>[
+     *   {"competenceId":1,"yearsOfExperience":2.5},
+     *   {"competenceId":2,"yearsOfExperience":1}
+     *   ]<p>
+     * @return If no exception is thrown, one result per requested profile in request order, with either the created profile or the reason it could not be created
+     */
+    @PostMapping("/createCompetenceProfiles")
+    public List<BatchItemResultDTO<CompetenceProfileDTO>> CreateCompetenceProfiles(@RequestBody List<CompetenceProfileCreationRequestBody> requestBody)
+    {
+        PersonDetails userAuthentication=((PersonDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        LOGGER.info("Creation of (`{}`) competence profiles for user with id (`{}`) requested by user ('{}')",requestBody.size(),userAuthentication.getPersonId(),userAuthentication.getUsername()); 
+
+        ValidateBatchSize(requestBody.size());
+        for (int i = 0; i < requestBody.size(); i++) {
+            if (requestBody.get(i)==null||requestBody.get(i).getCompetenceId()==null||requestBody.get(i).getYearsOfExperience()==null) {
+                LOGGER.error("Failed creation of competence profiles for user with id (`{}`) since item (`{}`) is missing its competence id or years of experience",userAuthentication.getPersonId(),i);
+                throw new InvalidParameterException("Item ("+i+") must specify both competenceId and yearsOfExperience");
+            }
+        }
+
+        return applicationService.CreateCompetenceProfiles(userAuthentication.getPersonId(), requestBody);
+    }
+
     /**
      * This function returns a list of a person's availability periods
      * @return If no exception is thrown, a list of availability periods for that person is returned
@@ -155,6 +188,34 @@ public class ApplicationEndpointController {
         return applicationService.CreateAvailability(userAuthentication.getPersonId(), parsedFromDate, parsedToDate);
     }
 
+    /**
+     * This function creates several new availability periods for the current user in one request and one transaction
+     * 
+     * @param requestBody the availability periods to create, at most ApplicationService.MAX_BATCH_SIZE many
+     * To give an example of the request body, the following is a basic example of how it could look:
+     * <p>[
+     *   {"fromDate":"2025-06-01","toDate":"2025-08-31"},
+     *   {"fromDate":"2025-10-01","toDate":"2025-12-31"}
+     *   ]<p>
+     * @return If no exception is thrown, one result per requested period in request order, with either the created period or the reason it could not be created
+     */
+    @PostMapping("/createAvailabilities")
+    public List<BatchItemResultDTO<AvailabilityDTO>> CreateAvailabilities(@RequestBody List<AvailabilityCreationRequestBody> requestBody)
+    {
+        PersonDetails userAuthentication=((PersonDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        LOGGER.info("Creation of (`{}`) availability periods for person (`{}`) requested by user ('{}')",requestBody.size(),userAuthentication.getPersonId(), userAuthentication.getUsername()); 
+
+        ValidateBatchSize(requestBody.size());
+        for (int i = 0; i < requestBody.size(); i++) {
+            if (requestBody.get(i)==null||requestBody.get(i).getFromDate()==null||requestBody.get(i).getToDate()==null) {
+                LOGGER.error("Failed to create availability periods for person (`{}`) since item (`{}`) is missing its from date or to date",userAuthentication.getPersonId(),i);
+                throw new InvalidParameterException("Item ("+i+") must specify both fromDate and toDate");
+            }
+        }
+
+        return applicationService.CreateAvailabilities(userAuthentication.getPersonId(), requestBody);
+    }
+
     /**
      * This function 
      * @param requestBody
@@ -173,4 +234,17 @@ public class ApplicationEndpointController {
         LOGGER.info("Creation of application for person (`{}`) requested by user ('{}')" ,userAuthentication.getPersonId(), currentUser); 
         return applicationService.SubmitApplication(userAuthentication.getPersonId(),requestBody.getAvailabilityIds(),requestBody.getCompetenceProfileIds());
     }
+
+    /**
+     * This function checks that a batch creation request contains an acceptable number of items
+     * @param batchSize the number of items in the request
+     * @throws InvalidParameterException if the request is empty or contains more than ApplicationService.MAX_BATCH_SIZE items
+     */
+    private void ValidateBatchSize(int batchSize) throws InvalidParameterException
+    {
+        if (batchSize < 1 || batchSize > ApplicationService.MAX_BATCH_SIZE) {
+            LOGGER.error("Failed batch creation since the number of items (`{}`) is not between 1 and (`{}`)",batchSize,ApplicationService.MAX_BATCH_SIZE);
+            throw new InvalidParameterException("Provided number of items ("+batchSize+") must be between 1 and "+ApplicationService.MAX_BATCH_SIZE);
+        }
+    }
 }
@@ -1,17 +1,20 @@
 package com.example.demo.presentation.restControllers;
 
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import com.example.demo.domain.PersonDetails;
 import com.example.demo.domain.dto.PersonDTO;
+import com.example.demo.presentation.restException.TooManyRequestsException;
+import com.example.demo.service.AuthenticationService;
 import com.example.demo.service.JwtService;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -22,9 +25,11 @@ import com.example.demo.service.PersonService;
 @RestController
 @RequestMapping("/auth")
 @CrossOrigin(origins = "${ALLOWED_ORIGINS:http://localhost:3000}") // This uses the config in config/WebConfig.java to allow cross-origin access
+@Observed(name = "controller.method")
 /**
  * This endpoint ontroller is responsible for handling authentication-related requests.
  * Provides an endpoint for user authentication and JWT token generation.
+ * Passwords are verified asynchronously by the AuthenticationService, so the request thread is released while a login waits for or runs on the login executor.
  */
 public class AuthenticationController {
     
@@ -34,7 +39,7 @@ public class AuthenticationController {
     private JwtService jwtService;
     
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private AuthenticationService authenticationService;
 
     @Autowired
     private PersonService personService;
@@ -43,11 +48,11 @@ public class AuthenticationController {
      * Constructs an instance of AuthenticationController.
      *
      * @param jwtService            The service responsible for generating JWT tokens.
-     * @param authenticationManager The Spring Security authentication manager.
+     * @param authenticationService The service responsible for authenticating users.
      */
-    public AuthenticationController(JwtService jwtService, AuthenticationManager authenticationManager){
+    public AuthenticationController(JwtService jwtService, AuthenticationService authenticationService){
         this.jwtService = jwtService;
-        this.authenticationManager = authenticationManager;
+        this.authenticationService = authenticationService;
     }
 
     /**
@@ -55,30 +60,31 @@ public class AuthenticationController {
      *
      * @param username The username of the user trying to authenticate.
      * @param password The password of the user.
-     * @throws AuthenticationException If authentication fails due to invalid credentials.
-     * @return A JWT token as a string if authentication is successful.
+     * @throws TooManyRequestsException If too many logins are already being processed, which results in a 429 being sent.
+     * @return A future which is completed with a JWT token as a string if authentication is successful, 
+     * and otherwise completed exceptionally with an AuthenticationException, which is handled the same way as if it was thrown.
      */
     @PostMapping("/generateToken")
-    public String authenticateAndGetToken(@RequestParam String username, @RequestParam String password)
-      throws AuthenticationException{
+    public CompletableFuture<String> authenticateAndGetToken(@RequestParam String username, @RequestParam String password)
+      throws TooManyRequestsException{
 
         LOGGER.info("authenticateAndGetToken requested for user (`{}`)",username);
-        Authentication authentication=null;
-        try {
-            authentication= authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username,password));
-        } catch (AuthenticationException e) {
-            LOGGER.error("authenticateAndGetToken failed due to user (`{}`) not being correctly authenticated: (`{}`)",username, e.getMessage());
-            throw e;
-        }
-
-        if(authentication.isAuthenticated()){
-            LOGGER.info("authenticateAndGetToken success for user (`{}`), returning token",username);
-            //This returns a json in the format {"token":[tokenHere],"role":[roleHere, ex "recruiter"]}
-            return "{\"token\":\""+jwtService.generateToken(username)+"\" , \"role\":\""+authentication.getAuthorities().iterator().next().toString()+"\"}";
-        }
-        else{
-            throw new UsernameNotFoundException("INVALID USER REQUEST");
-        }
+        return authenticationService.Authenticate(username, password)
+          .whenComplete((authentication, e) -> {
+            if (e != null) {
+                LOGGER.error("authenticateAndGetToken failed due to user (`{}`) not being correctly authenticated: (`{}`)",username, (e.getCause() != null ? e.getCause() : e).getMessage());
+            }
+          })
+          .thenApply(authentication -> {
+            if(authentication.isAuthenticated()){
+                LOGGER.info("authenticateAndGetToken success for user (`{}`), returning token",username);
+                //This returns a json in the format {"token":[tokenHere],"role":[roleHere, ex "recruiter"]}
+                return "{\"token\":\""+jwtService.generateToken((PersonDetails)authentication.getPrincipal())+"\" , \"role\":\""+authentication.getAuthorities().iterator().next().toString()+"\"}";
+            }
+            else{
+                throw new UsernameNotFoundException("INVALID USER REQUEST");
+            }
+          });
     }
 
 }
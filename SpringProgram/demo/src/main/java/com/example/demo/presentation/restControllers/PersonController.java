@@ -3,6 +3,7 @@ package com.example.demo.presentation.restControllers;
 import java.util.List;
 import java.util.Optional;
 
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +24,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 @RestController
 @RequestMapping("/person")
 @CrossOrigin(origins = "${ALLOWED_ORIGINS:http://localhost:3000}") // This uses the config in config/WebConfig.java to allow cross-origin access
+@Observed(name = "controller.method")
 /**
  * This endpoint controller is responsible for handeling the requests concerning
  * people application.
@@ -1,7 +1,11 @@
 package com.example.demo.presentation.restControllers;
 
+import java.sql.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,9 +17,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.domain.ApplicationPageCursor;
 import com.example.demo.domain.ApplicationStatus;
 import com.example.demo.domain.PersonDetails;
 import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.domain.dto.ApplicationPageDTO;
+import com.example.demo.domain.dto.ApplicationSummaryDTO;
 import com.example.demo.presentation.restException.InvalidParameterException;
 import com.example.demo.service.ReviewService;
 
@@ -26,6 +33,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 @RestController
 @RequestMapping("/review")
 @CrossOrigin(origins = "${ALLOWED_ORIGINS:http://localhost:3000}") // This uses the config in config/WebConfig.java to allow cross-origin access
+@Observed(name = "controller.method")
 @PreAuthorize("hasAuthority('recruiter')")      //only recruiters can access the review page
 /**
  * This endpoint controller is responsible for handeling the requests concerning
@@ -94,6 +102,169 @@ public class ReviewerEndpointController {
         return applications;
     }
 
+    /**
+     * This function returns one page of applications, ordered by application date and then application id
+     * 
+     * @param cursor the nextCursor value of the previous page, or not specified to retrive the first page
+     * @param pageSize the maximum number of applications on the page, between 1 and 200, defaults to 50
+     * @param includeTotal if the total number of applications should be included, either "true" or "false", defaults to "true"
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return the page of applications as a json object to the user
+     */
+    @GetMapping("/getApplicationsPage")
+    public ApplicationPageDTO<ApplicationDTO> GetApplicationsPage(@RequestParam(required = false) String cursor,@RequestParam(required = false) String pageSize,@RequestParam(required = false) String includeTotal) {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("Page of applications with cursor (`{}`) and page size (`{}`) requested by (`{}`)",cursor,pageSize,currentUser);
+
+        ApplicationPageCursor parsedCursor=ParseCursor(cursor);
+        int parsedPageSize=ParsePageSize(pageSize);
+        boolean parsedIncludeTotal=ParseIncludeTotal(includeTotal);
+
+        return reviewService.GetApplicationsPage(parsedCursor,parsedPageSize,parsedIncludeTotal);
+    }
+
+    /**
+     * This function returns one page of applications with the matching status, ordered by application date and then application id
+     * 
+     * @param status the application status to find applications for
+     * @param cursor the nextCursor value of the previous page, or not specified to retrive the first page
+     * @param pageSize the maximum number of applications on the page, between 1 and 200, defaults to 50
+     * @param includeTotal if the total number of matching applications should be included, either "true" or "false", defaults to "true"
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return the page of applications with the matching status as a json object to the user
+     */
+    @GetMapping("/getApplicationsPageByStatus/{status}")
+    public ApplicationPageDTO<ApplicationDTO> GetApplicationsPageByStatus(@PathVariable String status,@RequestParam(required = false) String cursor,@RequestParam(required = false) String pageSize,@RequestParam(required = false) String includeTotal) {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("Page of applications with status (`{}`) with cursor (`{}`) and page size (`{}`) requested by (`{}`)",status,cursor,pageSize,currentUser);
+
+        ApplicationStatus parsedApplicationStatus=null;
+        try {
+            parsedApplicationStatus=ApplicationStatus.valueOf(status.toLowerCase());
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Failed to retrive page of applications with status (`{}`) since that is invalid application status",status);
+            throw new InvalidParameterException("Provided value ("+status+") is not valid value for application status, please specify as \"unchecked\",\"accepted\" or \"denied\"");
+        }
+        catch(NullPointerException e) {
+            LOGGER.error("Failed to retrive page of applications with status (`{}`) since that is null",status);
+            throw new InvalidParameterException("Provided status value is null, please specify as \"unchecked\",\"accepted\" or \"denied\"");
+        }
+
+        ApplicationPageCursor parsedCursor=ParseCursor(cursor);
+        int parsedPageSize=ParsePageSize(pageSize);
+        boolean parsedIncludeTotal=ParseIncludeTotal(includeTotal);
+
+        return reviewService.GetApplicationsPageByStatus(parsedApplicationStatus,parsedCursor,parsedPageSize,parsedIncludeTotal);
+    }
+
+    /**
+     * This function returns one page of application summaries, which only contain the id, applicant name, status, date, version number and counts for each application.
+     * This is intended for list views, the complete application can then be retrived using getApplicationsById
+     * 
+     * @param status the application status to find applications for, or not specified to find applications with any status
+     * @param cursor the nextCursor value of the previous page, or not specified to retrive the first page
+     * @param pageSize the maximum number of summaries on the page, between 1 and 200, defaults to 50
+     * @param includeTotal if the total number of matching applications should be included, either "true" or "false", defaults to "true"
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return the page of application summaries as a json object to the user
+     */
+    @GetMapping("/getApplicationSummaries")
+    public ApplicationPageDTO<ApplicationSummaryDTO> GetApplicationSummaries(@RequestParam(required = false) String status,@RequestParam(required = false) String cursor,@RequestParam(required = false) String pageSize,@RequestParam(required = false) String includeTotal) {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("Page of application summaries with status (`{}`) with cursor (`{}`) and page size (`{}`) requested by (`{}`)",status,cursor,pageSize,currentUser);
+
+        ApplicationPageCursor parsedCursor=ParseCursor(cursor);
+        int parsedPageSize=ParsePageSize(pageSize);
+        boolean parsedIncludeTotal=ParseIncludeTotal(includeTotal);
+
+        if (status==null || status.isEmpty()) {
+            return reviewService.GetApplicationSummaries(parsedCursor,parsedPageSize,parsedIncludeTotal);
+        }
+
+        ApplicationStatus parsedApplicationStatus=null;
+        try {
+            parsedApplicationStatus=ApplicationStatus.valueOf(status.toLowerCase());
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Failed to retrive page of application summaries with status (`{}`) since that is invalid application status",status);
+            throw new InvalidParameterException("Provided value ("+status+") is not valid value for application status, please specify as \"unchecked\",\"accepted\" or \"denied\"");
+        }
+
+        return reviewService.GetApplicationSummariesByStatus(parsedApplicationStatus,parsedCursor,parsedPageSize,parsedIncludeTotal);
+    }
+
+    /**
+     * This function searches for the applications which can be staffed for a date window, and returns one page of their summaries.
+     * An application matches if one of its availability periods covers the whole window, and it has at least the minimum years of experience in every specified competence.
+     * The total number of matching applications is not included, so the page is found without evaluating every match
+     * 
+     * @param status the application status to find applications for
+     * @param fromDate the first day of the window, in the yyyy-mm-dd format
+     * @param toDate the last day of the window, in the yyyy-mm-dd format
+     * @param competenceIds the ids of the competences the applicant must have, separated by commas
+     * @param minimumYearsOfExperience the minimum years of experience for each competence, defaults to 0
+     * @param cursor the nextCursor value of the previous page, or not specified to retrive the first page
+     * @param pageSize the maximum number of summaries on the page, between 1 and 200, defaults to 50
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return the page of matching application summaries as a json object to the user
+     */
+    @GetMapping("/searchApplications")
+    public ApplicationPageDTO<ApplicationSummaryDTO> SearchApplications(@RequestParam String status,@RequestParam String fromDate,@RequestParam String toDate,@RequestParam String competenceIds,
+      @RequestParam(required = false) String minimumYearsOfExperience,@RequestParam(required = false) String cursor,@RequestParam(required = false) String pageSize) {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("Search for applications with status (`{}`) from (`{}`) to (`{}`) with competences (`{}`) and minimum years of experience (`{}`) with cursor (`{}`) and page size (`{}`) requested by (`{}`)",
+          status,fromDate,toDate,competenceIds,minimumYearsOfExperience,cursor,pageSize,currentUser);
+
+        ApplicationStatus parsedApplicationStatus=null;
+        try {
+            parsedApplicationStatus=ApplicationStatus.valueOf(status.toLowerCase());
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Failed to search for applications with status (`{}`) since that is invalid application status",status);
+            throw new InvalidParameterException("Provided value ("+status+") is not valid value for application status, please specify as \"unchecked\",\"accepted\" or \"denied\"");
+        }
+
+        Date parsedFromDate=ParseDate(fromDate);
+        Date parsedToDate=ParseDate(toDate);
+        if (parsedFromDate.after(parsedToDate)) {
+            LOGGER.error("Failed to search for applications since from date (`{}`) is after to date (`{}`)",fromDate,toDate);
+            throw new InvalidParameterException("Provided from date ("+fromDate+") is after the to date ("+toDate+")");
+        }
+
+        Set<Integer> parsedCompetenceIds=new LinkedHashSet<Integer>();
+        try {
+            for (String competenceId : competenceIds.split(",")) {
+                if (!competenceId.isBlank()) {
+                    parsedCompetenceIds.add(Integer.parseInt(competenceId.trim()));
+                }
+            }
+        } catch (NumberFormatException e) {
+            LOGGER.error("Failed to search for applications since competence ids (`{}`) are not valid integers",competenceIds);
+            throw new InvalidParameterException("Provided value ("+competenceIds+") could not be parsed as a list of integers separated by commas");
+        }
+        if (parsedCompetenceIds.isEmpty()) {
+            LOGGER.error("Failed to search for applications since no competence ids were specified");
+            throw new InvalidParameterException("At least one competence id must be specified");
+        }
+
+        double parsedMinimumYearsOfExperience=0;
+        if (minimumYearsOfExperience!=null && !minimumYearsOfExperience.isEmpty()) {
+            try {
+                parsedMinimumYearsOfExperience=Double.parseDouble(minimumYearsOfExperience);
+            } catch (NumberFormatException e) {
+                LOGGER.error("Failed to search for applications since minimum years of experience (`{}`) is not a valid number",minimumYearsOfExperience);
+                throw new InvalidParameterException("Provided value ("+minimumYearsOfExperience+") could not be parsed as a valid number");
+            }
+            if (parsedMinimumYearsOfExperience<0 || parsedMinimumYearsOfExperience>100) {
+                LOGGER.error("Failed to search for applications since minimum years of experience (`{}`) is out of range",minimumYearsOfExperience);
+                throw new InvalidParameterException("Provided minimum years of experience ("+minimumYearsOfExperience+") must be between 0 and 100");
+            }
+        }
+
+        ApplicationPageCursor parsedCursor=ParseCursor(cursor);
+        int parsedPageSize=ParsePageSize(pageSize);
+
+        return reviewService.SearchApplicationSummaries(parsedApplicationStatus,parsedFromDate,parsedToDate,parsedCompetenceIds,parsedMinimumYearsOfExperience,parsedCursor,parsedPageSize);
+    }
+
     /**
      * This function returns the specified application
      * 
@@ -180,4 +351,79 @@ public class ReviewerEndpointController {
         return applications;
     }
 
+    /**
+     * This function parses a date parameter
+     * @param date the date, in the yyyy-mm-dd format
+     * @throws InvalidParameterException if the date could not be parsed
+     * @return the parsed date
+     */
+    private Date ParseDate(String date) throws InvalidParameterException {
+        //Link for java.sql.date info https://docs.oracle.com/javase/8/docs/api/java/sql/Date.html#valueOf-java.lang.String- 
+        try {
+            return Date.valueOf(date);
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Failed to search for applications since (`{}`) is not a date",date);
+            throw new InvalidParameterException("Provided value ("+date+") could not be parsed as a valid date, please use the yyyy-(m)m-(d)d format, with the (m) and (d) specifying that these can be 0 or ignored" );
+        }
+    }
+
+    /**
+     * This function parses the cursor parameter of the paginated endpoints
+     * @param cursor the cursor token, or null for the first page
+     * @throws InvalidParameterException if the cursor is not a valid cursor token
+     * @return the parsed cursor, or null for the first page
+     */
+    private ApplicationPageCursor ParseCursor(String cursor) throws InvalidParameterException {
+        if (cursor==null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return ApplicationPageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Failed to retrive page of applications since cursor (`{}`) is invalid",cursor);
+            throw new InvalidParameterException("Provided cursor ("+cursor+") is not valid, please use the nextCursor value from the previous page");
+        }
+    }
+
+    /**
+     * This function parses the page size parameter of the paginated endpoints
+     * @param pageSize the page size, or null for the default page size
+     * @throws InvalidParameterException if the page size is not an integer between 1 and the maximum page size
+     * @return the parsed page size
+     */
+    private int ParsePageSize(String pageSize) throws InvalidParameterException {
+        if (pageSize==null || pageSize.isEmpty()) {
+            return ReviewService.DEFAULT_PAGE_SIZE;
+        }
+        int parsedPageSize;
+        try {
+            parsedPageSize=Integer.parseInt(pageSize);
+        } catch (NumberFormatException e) {
+            LOGGER.error("Failed to retrive page of applications since page size (`{}`) is invalid integer",pageSize);
+            throw new InvalidParameterException("Provided value ("+pageSize+") could not be parsed as a valid integer" );
+        }
+        if (parsedPageSize<1 || parsedPageSize>ReviewService.MAX_PAGE_SIZE) {
+            LOGGER.error("Failed to retrive page of applications since page size (`{}`) is out of range",pageSize);
+            throw new InvalidParameterException("Provided page size ("+pageSize+") must be between 1 and "+ReviewService.MAX_PAGE_SIZE);
+        }
+        return parsedPageSize;
+    }
+
+    /**
+     * This function parses the include total parameter of the paginated endpoints
+     * @param includeTotal "true", "false" or null, with null meaning true
+     * @throws InvalidParameterException if the value is neither "true" nor "false"
+     * @return the parsed value
+     */
+    private boolean ParseIncludeTotal(String includeTotal) throws InvalidParameterException {
+        if (includeTotal==null || includeTotal.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (includeTotal.equalsIgnoreCase("false")) {
+            return false;
+        }
+        LOGGER.error("Failed to retrive page of applications since include total (`{}`) is not a boolean",includeTotal);
+        throw new InvalidParameterException("Provided value ("+includeTotal+") for includeTotal must be either \"true\" or \"false\"");
+    }
+
 }
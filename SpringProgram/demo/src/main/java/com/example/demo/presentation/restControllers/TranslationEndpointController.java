@@ -1,11 +1,15 @@
 package com.example.demo.presentation.restControllers;
 
-import java.util.List;
+import java.time.Duration;
 
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,15 +19,15 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.ReferenceDataSnapshot;
 import com.example.demo.domain.dto.CompetenceDTO;
-import com.example.demo.domain.dto.CompetenceTranslationDTO;
-import com.example.demo.domain.dto.LanguageDTO;
 import com.example.demo.presentation.restException.InvalidParameterException;
 import com.example.demo.service.TranslationService;
 
 @RestController
 @RequestMapping("/translation")
 @CrossOrigin(origins = "${ALLOWED_ORIGINS:http://localhost:3000}") // This uses the config in config/WebConfig.java to allow cross-origin access
+@Observed(name = "controller.method")
 /**
  * This endpoint controller is responsible for handeling the requests concerning
  * translation.
@@ -37,6 +41,9 @@ public class TranslationEndpointController {
     //We create a logger
     private static final Logger LOGGER = LoggerFactory.getLogger(TranslationEndpointController.class.getName()); 
 
+    //Reference data responses may be cached by anyone for a short while, after which they must be revalidated using the ETag
+    private static final CacheControl REFERENCE_DATA_CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic().mustRevalidate();
+
     /**
      * Constructs a new instance of the TranslationEndpointController (this is
      * Spring boot managed).
@@ -52,14 +59,13 @@ public class TranslationEndpointController {
      * This function returns the existing standard competences
      * 
      * @return This function will return the list of existing competences as a json
-     *         object to the user
+     *         object to the user, which is sent as the pre-serialised payload cached by the translation service, along with its ETag
      */
     @GetMapping("/getStandardCompetences")
-    public List<? extends CompetenceDTO> GetStandardCompetences() {
+    public ResponseEntity<byte[]> GetStandardCompetences() {
         String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
         LOGGER.info("Standard competences requested by user (`{}`)",currentUser); 
-        List<? extends CompetenceDTO> existingCompetences = translationService.GetCompetences();
-        return existingCompetences;
+        return CreateReferenceDataResponse(translationService.GetCompetencesSnapshot());
     }
 
     /**
@@ -92,24 +98,40 @@ public class TranslationEndpointController {
      * This function returns a list of competence translations which are in a specified language. If any exists they will be returned, if not a 404 error will be sent stating this and if the language was missing or if the translations did not exist.
      * 
      * @param language This is the language the translations are for
-     * @return This function will return the list of competences translations as a json object to the user, if no error occurs
+     * @return This function will return the list of competences translations as a json object to the user, if no error occurs, which is sent as the pre-serialised payload cached by the translation service, along with its ETag
      */
     @GetMapping("/getCompetenceTranslation")
-    public List<? extends CompetenceTranslationDTO> GetCompetenceTranslation(@RequestParam String language) {
+    public ResponseEntity<byte[]> GetCompetenceTranslation(@RequestParam String language) {
         String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
         LOGGER.info("Competence translation for language (`{}`) requested by user (`{}`)",language, currentUser); 
-        return translationService.GetCompetenceTranslation(language.toLowerCase());
+        return CreateReferenceDataResponse(translationService.GetCompetenceTranslationSnapshot(language.toLowerCase()));
     }
 
     /**
      * Retrieves a list of supported languages.
      * 
-     * @return A JSON list of available languages.
+     * @return A JSON list of available languages, which is sent as the pre-serialised payload cached by the translation service, along with its ETag
      */
     @GetMapping("/getLanguages")
-    public List<? extends LanguageDTO> GetLanguages() {
+    public ResponseEntity<byte[]> GetLanguages() {
         String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
         LOGGER.info("Languages supported requested by user (`{}`)", currentUser); 
-        return translationService.GetLanguages();
+        return CreateReferenceDataResponse(translationService.GetLanguagesSnapshot());
+    }
+
+    /**
+     * This function creates the response for a cached reference data snapshot.
+     * The response includes the snapshot's ETag, so Spring answers a request whose If-None-Match header matches it with a 304 and no body,
+     * and a public Cache-Control header, since the content is the same for every user and so is safe to cache in shared caches such as CDNs.
+     * 
+     * @param snapshot the snapshot to send
+     * @return the response containing the snapshot's pre-serialised payload
+     */
+    private ResponseEntity<byte[]> CreateReferenceDataResponse(ReferenceDataSnapshot<?> snapshot) {
+        return ResponseEntity.ok()
+          .contentType(MediaType.APPLICATION_JSON)
+          .eTag(snapshot.getETag())
+          .cacheControl(REFERENCE_DATA_CACHE_CONTROL)
+          .body(snapshot.getPayload());
     }
 }
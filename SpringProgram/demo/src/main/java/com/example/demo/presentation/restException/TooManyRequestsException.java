@@ -0,0 +1,14 @@
+package com.example.demo.presentation.restException;
+
+/**
+ * This class implements a general error, for if a request can not be handled right now since too many similar requests are already being processed
+ */
+public class TooManyRequestsException extends RuntimeException{
+    /**
+     * This constructor creates the error, and defines it's error message, which is based on the cause
+     * @param cause A description of why the request could not be handled
+     */
+    public TooManyRequestsException(String cause) {
+        super("Too many requests are being processed due to : " + cause);
+      }
+}
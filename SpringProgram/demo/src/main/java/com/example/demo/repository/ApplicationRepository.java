@@ -1,14 +1,21 @@
 package com.example.demo.repository;
 
+import java.sql.Date;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.ApplicationSummary;
 import com.example.demo.domain.entity.Application;
 import com.example.demo.domain.entity.Person;
 
@@ -31,4 +38,255 @@ public interface ApplicationRepository extends JpaRepository<Application, Intege
      * @return A list of matching applications
      */
     List<Application> findAllByApplicationStatus(ApplicationStatus applicationStatus);
-}
\ No newline at end of file
+
+    /**
+     * This interface tells JPA to generate a query to find the first applications, ordered by application date and then application id
+     * This is used to retrive the first page of applications
+     * @param limit the maximum number of applications to retrive
+     * @return A list of at most limit applications
+     */
+    List<Application> findAllByOrderByApplicationDateAscApplicationIdAsc(Limit limit);
+
+    /**
+     * This finds the applications which come after the specified application date and id, ordered by application date and then application id
+     * This is a keyset (seek) query, which means the database can go directly to the position instead of skipping every previous row as an offset would
+     * @param applicationDate the application date of the last application on the previous page
+     * @param applicationId the application id of the last application on the previous page
+     * @param limit the maximum number of applications to retrive
+     * @return A list of at most limit applications
+     */
+    @Query("SELECT a FROM Application a WHERE a.applicationDate > :applicationDate OR (a.applicationDate = :applicationDate AND a.applicationId > :applicationId) ORDER BY a.applicationDate ASC, a.applicationId ASC")
+    List<Application> findAllAfter(@Param("applicationDate") Date applicationDate, @Param("applicationId") Integer applicationId, Limit limit);
+
+    /**
+     * This interface tells JPA to generate a query to find the first applications with a specific application status, ordered by application date and then application id
+     * This is used to retrive the first page of applications with a specific status
+     * @param applicationStatus the application status to find applications matching
+     * @param limit the maximum number of applications to retrive
+     * @return A list of at most limit matching applications
+     */
+    List<Application> findAllByApplicationStatusOrderByApplicationDateAscApplicationIdAsc(ApplicationStatus applicationStatus, Limit limit);
+
+    /**
+     * This finds the applications with a specific application status which come after the specified application date and id, ordered by application date and then application id
+     * @param applicationStatus the application status to find applications matching
+     * @param applicationDate the application date of the last application on the previous page
+     * @param applicationId the application id of the last application on the previous page
+     * @param limit the maximum number of applications to retrive
+     * @return A list of at most limit matching applications
+     */
+    @Query("SELECT a FROM Application a WHERE a.applicationStatus = :applicationStatus AND (a.applicationDate > :applicationDate OR (a.applicationDate = :applicationDate AND a.applicationId > :applicationId)) ORDER BY a.applicationDate ASC, a.applicationId ASC")
+    List<Application> findAllByApplicationStatusAfter(@Param("applicationStatus") ApplicationStatus applicationStatus, @Param("applicationDate") Date applicationDate, @Param("applicationId") Integer applicationId, Limit limit);
+
+    /**
+     * This interface tells JPA to generate a query to count the applications with a specific application status
+     * @param applicationStatus the application status to count applications for
+     * @return The number of matching applications
+     */
+    long countByApplicationStatus(ApplicationStatus applicationStatus);
+
+    /**
+     * This finds the first application summaries, ordered by application date and then application id
+     * This is a projection query, meaning the summaries are created directly from a single SQL statement without loading any Application entities or their associations
+     * @param limit the maximum number of summaries to retrive
+     * @return A list of at most limit application summaries
+     */
+    @Query("SELECT new com.example.demo.domain.ApplicationSummary(a.applicationId, p.name, p.surname, a.applicationStatus, a.applicationDate, a.versionNumber, SIZE(a.availabilityPeriodsForApplication), SIZE(a.competenceProfilesForApplication)) "
+        + "FROM Application a JOIN a.applicant p ORDER BY a.applicationDate ASC, a.applicationId ASC")
+    List<ApplicationSummary> findAllSummaries(Limit limit);
+
+    /**
+     * This finds the application summaries which come after the specified application date and id, ordered by application date and then application id
+     * @param applicationDate the application date of the last application on the previous page
+     * @param applicationId the application id of the last application on the previous page
+     * @param limit the maximum number of summaries to retrive
+     * @return A list of at most limit application summaries
+     */
+    @Query("SELECT new com.example.demo.domain.ApplicationSummary(a.applicationId, p.name, p.surname, a.applicationStatus, a.applicationDate, a.versionNumber, SIZE(a.availabilityPeriodsForApplication), SIZE(a.competenceProfilesForApplication)) "
+        + "FROM Application a JOIN a.applicant p WHERE a.applicationDate > :applicationDate OR (a.applicationDate = :applicationDate AND a.applicationId > :applicationId) ORDER BY a.applicationDate ASC, a.applicationId ASC")
+    List<ApplicationSummary> findAllSummariesAfter(@Param("applicationDate") Date applicationDate, @Param("applicationId") Integer applicationId, Limit limit);
+
+    /**
+     * This finds the first application summaries with a specific application status, ordered by application date and then application id
+     * @param applicationStatus the application status to find applications matching
+     * @param limit the maximum number of summaries to retrive
+     * @return A list of at most limit matching application summaries
+     */
+    @Query("SELECT new com.example.demo.domain.ApplicationSummary(a.applicationId, p.name, p.surname, a.applicationStatus, a.applicationDate, a.versionNumber, SIZE(a.availabilityPeriodsForApplication), SIZE(a.competenceProfilesForApplication)) "
+        + "FROM Application a JOIN a.applicant p WHERE a.applicationStatus = :applicationStatus ORDER BY a.applicationDate ASC, a.applicationId ASC")
+    List<ApplicationSummary> findAllSummariesByApplicationStatus(@Param("applicationStatus") ApplicationStatus applicationStatus, Limit limit);
+
+    /**
+     * This finds the application summaries with a specific application status which come after the specified application date and id, ordered by application date and then application id
+     * @param applicationStatus the application status to find applications matching
+     * @param applicationDate the application date of the last application on the previous page
+     * @param applicationId the application id of the last application on the previous page
+     * @param limit the maximum number of summaries to retrive
+     * @return A list of at most limit matching application summaries
+     */
+    @Query("SELECT new com.example.demo.domain.ApplicationSummary(a.applicationId, p.name, p.surname, a.applicationStatus, a.applicationDate, a.versionNumber, SIZE(a.availabilityPeriodsForApplication), SIZE(a.competenceProfilesForApplication)) "
+        + "FROM Application a JOIN a.applicant p WHERE a.applicationStatus = :applicationStatus AND (a.applicationDate > :applicationDate OR (a.applicationDate = :applicationDate AND a.applicationId > :applicationId)) ORDER BY a.applicationDate ASC, a.applicationId ASC")
+    List<ApplicationSummary> findAllSummariesByApplicationStatusAfter(@Param("applicationStatus") ApplicationStatus applicationStatus, @Param("applicationDate") Date applicationDate, @Param("applicationId") Integer applicationId, Limit limit);
+
+    /**
+     * This finds the first summaries of the applications with a specific application status which can be staffed for a date window, ordered by application date and then application id
+     * An application matches if one of its availability periods covers the whole window, and it has a competence profile with at least the minimum years of experience for every specified competence
+     * Since periods which overlap or follow directly after each other are merged, a single period covering the window means the applicant is available for all of it
+     * The applications are read in the order of the status and date index, and each one is checked using the indexes on its availability periods and competence profiles, so a page is found without evaluating every match
+     * @param applicationStatus the application status to find applications matching
+     * @param fromDate the first day of the window
+     * @param toDate the last day of the window
+     * @param competenceIds the competences the applicant must have, which may not be empty
+     * @param competenceCount the number of distinct competences in competenceIds
+     * @param minimumYearsOfExperience the minimum years of experience for each competence
+     * @param limit the maximum number of summaries to retrive
+     * @return A list of at most limit matching application summaries
+     */
+    @Query("SELECT new com.example.demo.domain.ApplicationSummary(a.applicationId, p.name, p.surname, a.applicationStatus, a.applicationDate, a.versionNumber, SIZE(a.availabilityPeriodsForApplication), SIZE(a.competenceProfilesForApplication)) "
+        + "FROM Application a JOIN a.applicant p WHERE a.applicationStatus = :applicationStatus "
+        + "AND EXISTS (SELECT 1 FROM a.availabilityPeriodsForApplication av WHERE av.fromDate <= :fromDate AND av.toDate >= :toDate) "
+        + "AND (SELECT COUNT(DISTINCT cp.competence.competenceId) FROM a.competenceProfilesForApplication cp WHERE cp.competence.competenceId IN :competenceIds AND cp.yearsOfExperience >= :minimumYearsOfExperience) = :competenceCount "
+        + "ORDER BY a.applicationDate ASC, a.applicationId ASC")
+    List<ApplicationSummary> searchSummaries(@Param("applicationStatus") ApplicationStatus applicationStatus, @Param("fromDate") Date fromDate, @Param("toDate") Date toDate,
+      @Param("competenceIds") Collection<Integer> competenceIds, @Param("competenceCount") long competenceCount, @Param("minimumYearsOfExperience") double minimumYearsOfExperience, Limit limit);
+
+    /**
+     * This finds the summaries of the applications matching the same search as searchSummaries which come after the specified application date and id, ordered by application date and then application id
+     * @param applicationStatus the application status to find applications matching
+     * @param fromDate the first day of the window
+     * @param toDate the last day of the window
+     * @param competenceIds the competences the applicant must have, which may not be empty
+     * @param competenceCount the number of distinct competences in competenceIds
+     * @param minimumYearsOfExperience the minimum years of experience for each competence
+     * @param applicationDate the application date of the last application on the previous page
+     * @param applicationId the application id of the last application on the previous page
+     * @param limit the maximum number of summaries to retrive
+     * @return A list of at most limit matching application summaries
+     */
+    @Query("SELECT new com.example.demo.domain.ApplicationSummary(a.applicationId, p.name, p.surname, a.applicationStatus, a.applicationDate, a.versionNumber, SIZE(a.availabilityPeriodsForApplication), SIZE(a.competenceProfilesForApplication)) "
+        + "FROM Application a JOIN a.applicant p WHERE a.applicationStatus = :applicationStatus AND (a.applicationDate > :applicationDate OR (a.applicationDate = :applicationDate AND a.applicationId > :applicationId)) "
+        + "AND EXISTS (SELECT 1 FROM a.availabilityPeriodsForApplication av WHERE av.fromDate <= :fromDate AND av.toDate >= :toDate) "
+        + "AND (SELECT COUNT(DISTINCT cp.competence.competenceId) FROM a.competenceProfilesForApplication cp WHERE cp.competence.competenceId IN :competenceIds AND cp.yearsOfExperience >= :minimumYearsOfExperience) = :competenceCount "
+        + "ORDER BY a.applicationDate ASC, a.applicationId ASC")
+    List<ApplicationSummary> searchSummariesAfter(@Param("applicationStatus") ApplicationStatus applicationStatus, @Param("fromDate") Date fromDate, @Param("toDate") Date toDate,
+      @Param("competenceIds") Collection<Integer> competenceIds, @Param("competenceCount") long competenceCount, @Param("minimumYearsOfExperience") double minimumYearsOfExperience,
+      @Param("applicationDate") Date applicationDate, @Param("applicationId") Integer applicationId, Limit limit);
+
+    /**
+     * This is the largest number of whole years of experience the competence tokens of an application distinguish between, see competenceTokens
+     */
+    int MAX_COMPETENCE_TOKEN_YEARS = 100;
+
+    /**
+     * Returns the competence tokens an application must have to match a search on PostgreSQL, which are the same as the ones the V7 migration keeps in the application
+     * The token competenceId * 1000 + years means the application includes a profile for the competence with at least that many whole years of experience
+     * @param competenceIds the competences the applicant must have
+     * @param minimumYearsOfExperience the minimum years of experience for each competence
+     * @return one token per competence
+     */
+    static List<Integer> competenceTokens(Collection<Integer> competenceIds, double minimumYearsOfExperience) {
+        int years = (int) Math.min(Math.floor(minimumYearsOfExperience), MAX_COMPETENCE_TOKEN_YEARS);
+        return competenceIds.stream().map(competenceId -> competenceId * 1000 + years).toList();
+    }
+
+    /**
+     * This makes PostgreSQL plan every following statement of the current transaction for the values it is executed with, instead of reusing a plan made for any values
+     * This is used before searching on PostgreSQL, since the fastest way to search depends on how many applications match each part of the search
+     * @return the new value of the setting
+     */
+    @Query(value = "SELECT set_config('plan_cache_mode', 'force_custom_plan', true)", nativeQuery = true)
+    String useCustomPlans();
+
+    /**
+     * This finds the ids of the first applications with a specific application status which can be staffed for a date window, ordered by application date and then application id
+     * This is the PostgreSQL version of searchSummaries, which uses the indexes added by the V7 migration, and must be executed after useCustomPlans
+     * The competence tokens of an application find the applications having every competence with the minimum whole years of experience using its index,
+     * and only if the minimum is not a whole number the competence profiles are checked as well. The periods covering the window are found using the index on their date ranges.
+     * @param applicationStatus the name of the application status to find applications matching
+     * @param fromDate the first day of the window
+     * @param toDate the last day of the window
+     * @param competenceIds the competences the applicant must have, which may not be empty
+     * @param competenceTokens the competence tokens of the competences, see competenceTokens
+     * @param competenceCount the number of distinct competences in competenceIds
+     * @param minimumYearsOfExperience the minimum years of experience for each competence, which may not be above MAX_COMPETENCE_TOKEN_YEARS
+     * @param limit the maximum number of ids to retrive
+     * @return A list of at most limit matching application ids
+     */
+    @Query(value = "SELECT a.application_id FROM application a WHERE a.application_status = :applicationStatus AND a.application_competence_tokens @> ARRAY[:competenceTokens] "
+        + "AND EXISTS (SELECT 1 FROM application_availability_periods l JOIN availability av ON av.availability_id = l.availability_id "
+        + "WHERE l.application_id = a.application_id AND daterange(av.from_date, av.to_date, '[]') @> daterange(:fromDate, :toDate, '[]')) "
+        + "AND (FLOOR(:minimumYearsOfExperience) = :minimumYearsOfExperience OR (SELECT COUNT(DISTINCT cp.competence_id) FROM application_competence_profile lc "
+        + "JOIN competence_profile cp ON cp.competence_profile_id = lc.competence_profile_id WHERE lc.application_id = a.application_id "
+        + "AND cp.competence_id IN (:competenceIds) AND cp.years_of_experience >= :minimumYearsOfExperience) >= :competenceCount) "
+        + "ORDER BY a.application_date, a.application_id LIMIT :limit", nativeQuery = true)
+    List<Integer> searchIdsPostgreSQL(@Param("applicationStatus") String applicationStatus, @Param("fromDate") Date fromDate, @Param("toDate") Date toDate,
+      @Param("competenceIds") Collection<Integer> competenceIds, @Param("competenceTokens") Collection<Integer> competenceTokens, @Param("competenceCount") long competenceCount,
+      @Param("minimumYearsOfExperience") double minimumYearsOfExperience, @Param("limit") int limit);
+
+    /**
+     * This finds the ids of the applications matching the same search as searchIdsPostgreSQL which come after the specified application date and id, ordered by application date and then application id
+     * This is the PostgreSQL version of searchSummariesAfter, and must be executed after useCustomPlans
+     * @param applicationStatus the name of the application status to find applications matching
+     * @param fromDate the first day of the window
+     * @param toDate the last day of the window
+     * @param competenceIds the competences the applicant must have, which may not be empty
+     * @param competenceTokens the competence tokens of the competences, see competenceTokens
+     * @param competenceCount the number of distinct competences in competenceIds
+     * @param minimumYearsOfExperience the minimum years of experience for each competence, which may not be above MAX_COMPETENCE_TOKEN_YEARS
+     * @param applicationDate the application date of the last application on the previous page
+     * @param applicationId the application id of the last application on the previous page
+     * @param limit the maximum number of ids to retrive
+     * @return A list of at most limit matching application ids
+     */
+    @Query(value = "SELECT a.application_id FROM application a WHERE a.application_status = :applicationStatus AND (a.application_date, a.application_id) > (:applicationDate, :applicationId) "
+        + "AND a.application_competence_tokens @> ARRAY[:competenceTokens] "
+        + "AND EXISTS (SELECT 1 FROM application_availability_periods l JOIN availability av ON av.availability_id = l.availability_id "
+        + "WHERE l.application_id = a.application_id AND daterange(av.from_date, av.to_date, '[]') @> daterange(:fromDate, :toDate, '[]')) "
+        + "AND (FLOOR(:minimumYearsOfExperience) = :minimumYearsOfExperience OR (SELECT COUNT(DISTINCT cp.competence_id) FROM application_competence_profile lc "
+        + "JOIN competence_profile cp ON cp.competence_profile_id = lc.competence_profile_id WHERE lc.application_id = a.application_id "
+        + "AND cp.competence_id IN (:competenceIds) AND cp.years_of_experience >= :minimumYearsOfExperience) >= :competenceCount) "
+        + "ORDER BY a.application_date, a.application_id LIMIT :limit", nativeQuery = true)
+    List<Integer> searchIdsAfterPostgreSQL(@Param("applicationStatus") String applicationStatus, @Param("fromDate") Date fromDate, @Param("toDate") Date toDate,
+      @Param("competenceIds") Collection<Integer> competenceIds, @Param("competenceTokens") Collection<Integer> competenceTokens, @Param("competenceCount") long competenceCount,
+      @Param("minimumYearsOfExperience") double minimumYearsOfExperience, @Param("applicationDate") Date applicationDate, @Param("applicationId") Integer applicationId, @Param("limit") int limit);
+
+    /**
+     * This finds the summaries of the applications with the specified ids, ordered by application date and then application id
+     * This is used to create the summaries of the applications found by searchIdsPostgreSQL and searchIdsAfterPostgreSQL
+     * @param applicationIds the ids of the applications
+     * @return A list of the summaries of the applications which exist
+     */
+    @Query("SELECT new com.example.demo.domain.ApplicationSummary(a.applicationId, p.name, p.surname, a.applicationStatus, a.applicationDate, a.versionNumber, SIZE(a.availabilityPeriodsForApplication), SIZE(a.competenceProfilesForApplication)) "
+        + "FROM Application a JOIN a.applicant p WHERE a.applicationId IN :applicationIds ORDER BY a.applicationDate ASC, a.applicationId ASC")
+    List<ApplicationSummary> findAllSummariesByApplicationIdIn(@Param("applicationIds") Collection<Integer> applicationIds);
+
+    /**
+     * This interface tells JPA to generate a query to find an application by its id, which also loads its applicant (with role) and availability periods in the same query
+     * This is used together with findWithCompetenceProfilesByApplicationId to load the complete application in two queries, instead of one query per association
+     * @param applicationId the id of the application to find
+     * @return An optional containing the application, if found
+     */
+    @EntityGraph("Application.withAvailabilityPeriods")
+    Optional<Application> findWithAvailabilityPeriodsByApplicationId(Integer applicationId);
+
+    /**
+     * This interface tells JPA to generate a query to find an application by its id, which also loads its competence profiles (with competence) in the same query
+     * If the application is already loaded in the current transaction, that instance is returned with its competence profiles loaded
+     * @param applicationId the id of the application to find
+     * @return An optional containing the application, if found
+     */
+    @EntityGraph("Application.withCompetenceProfiles")
+    Optional<Application> findWithCompetenceProfilesByApplicationId(Integer applicationId);
+
+    /**
+     * This increments the version number of every application which includes any of the specified periods
+     * This is used when periods are merged, since that changes the periods the applications include, so a reviewer who read an application before must read it again before updating it
+     * This is a native query, since the table linking applications to their availability periods is not an entity
+     * @param availabilityIds the ids of the periods which were changed
+     * @return the number of applications whose version number was incremented
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE application SET application_version_number = application_version_number + 1 WHERE application_id IN "
+        + "(SELECT l.application_id FROM application_availability_periods l WHERE l.availability_id IN (:availabilityIds))", nativeQuery = true)
+    int incrementVersionNumberOfApplicationsIncluding(@Param("availabilityIds") Collection<Integer> availabilityIds);
+}
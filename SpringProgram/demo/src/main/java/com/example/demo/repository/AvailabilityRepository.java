@@ -1,9 +1,15 @@
 package com.example.demo.repository;
 
 import java.sql.Date;
+import java.util.Collection;
 import java.util.List;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,6 +18,8 @@ import com.example.demo.domain.entity.Person;
 
 import org.springframework.transaction.annotation.Propagation;
 
+import jakarta.persistence.QueryHint;
+
 
 /**
  * The AvailabilityRepository interface is responsible for providing CRUD operations for the Availability entity.
@@ -31,6 +39,15 @@ public interface AvailabilityRepository extends JpaRepository<Availability, Inte
      */
     List<Availability> findAllByPerson(Person person);
 
+    /**
+     * This interface tells JPA to generate a query to find a list of Availability for a specific person, which are loaded as read only
+     * Hibernate does not keep a copy of read only entities to check them for changes, so this is used when the periods are only returned, and changes to them are never saved
+     * @param person the person to find availability periods for
+     * @return A list of matching read only availability periods
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Availability> findAllReadOnlyByPerson(Person person);
+
     /**
      * This interface function tells JPA to generate a query to which confirms if an Availability which is fully covered within a specified date range and for a specific person exists
      * @param fromDate start of the date range
@@ -49,4 +66,34 @@ public interface AvailabilityRepository extends JpaRepository<Availability, Inte
      */
     boolean existsByFromDateAndToDateAndPerson(Date fromDate, Date toDate,Person person);
 
-}
\ No newline at end of file
+    /**
+     * This interface tells JPA to generate a query to find the availability periods with the specified ids which belong to a specific person
+     * This is used to validate a list of ids in one query, with ids which do not exist or belong to another person simply not being included in the result
+     * @param person the person the availability periods must belong to
+     * @param availabilityIds the ids to find
+     * @return A list of the matching availability periods
+     */
+    List<Availability> findAllByPersonAndAvailabilityIdIn(Person person, Collection<Integer> availabilityIds);
+
+    /**
+     * This adds a period to every application which includes any of the specified periods and does not already include it
+     * This is used when periods are merged, so the applications which included the merged periods include the period they were merged into instead
+     * This is a native query, since the table linking applications to their availability periods is not an entity
+     * @param availabilityId the id of the period to add to the applications
+     * @param mergedAvailabilityIds the ids of the merged periods
+     * @return the number of applications the period was added to
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO application_availability_periods (application_id, availability_id) SELECT DISTINCT l.application_id, :availabilityId FROM application_availability_periods l "
+        + "WHERE l.availability_id IN (:mergedAvailabilityIds) AND NOT EXISTS (SELECT 1 FROM application_availability_periods k WHERE k.application_id = l.application_id AND k.availability_id = :availabilityId)", nativeQuery = true)
+    int addToApplicationsIncluding(@Param("availabilityId") Integer availabilityId, @Param("mergedAvailabilityIds") Collection<Integer> mergedAvailabilityIds);
+
+    /**
+     * This removes the specified periods from every application which includes them, which must be done before the periods are deleted
+     * @param availabilityIds the ids of the periods to remove
+     * @return the number of removed links between applications and periods
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM application_availability_periods WHERE availability_id IN (:availabilityIds)", nativeQuery = true)
+    int removeFromApplications(@Param("availabilityIds") Collection<Integer> availabilityIds);
+}
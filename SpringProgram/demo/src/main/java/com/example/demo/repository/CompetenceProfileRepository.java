@@ -1,8 +1,12 @@
 package com.example.demo.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,6 +16,8 @@ import com.example.demo.domain.entity.Person;
 
 import org.springframework.transaction.annotation.Propagation;
 
+import jakarta.persistence.QueryHint;
+
 
 /**
  * The CompetenceProfileRepository interface is responsible for providing CRUD operations for the CompetenceProfile entity.
@@ -30,6 +36,16 @@ public interface CompetenceProfileRepository extends JpaRepository<CompetencePro
      */
     List<CompetenceProfile> findAllByPerson(Person person);
 
+    /**
+     * This interface tells JPA to generate a query to find a list of CompetenceProfile for a specific person, which are loaded as read only along with their competences
+     * Hibernate does not keep a copy of read only entities to check them for changes, so this is used when the profiles are only returned, and changes to them are never saved
+     * @param person the person to find competence profiles for
+     * @return A list of matching read only competence profiles
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @EntityGraph(attributePaths = "competence")
+    List<CompetenceProfile> findAllReadOnlyByPerson(Person person);
+
     /**
      * This interface function tells JPA to generate a query which confirms if a CompetenceProfile already exists with these exact values
      * @param person the person the competence profile is for
@@ -38,4 +54,13 @@ public interface CompetenceProfileRepository extends JpaRepository<CompetencePro
      * @return a boolean for if a matching competence profile exists or not
      */
     boolean existsByPersonAndCompetenceAndYearsOfExperience(Person person, Competence competence, Double yearsOfExperience);
+
+    /**
+     * This interface tells JPA to generate a query to find the competence profiles with the specified ids which belong to a specific person
+     * This is used to validate a list of ids in one query, with ids which do not exist or belong to another person simply not being included in the result
+     * @param person the person the competence profiles must belong to
+     * @param competenceProfileIds the ids to find
+     * @return A list of the matching competence profiles
+     */
+    List<CompetenceProfile> findAllByPersonAndCompetenceProfileIdIn(Person person, Collection<Integer> competenceProfileIds);
 }
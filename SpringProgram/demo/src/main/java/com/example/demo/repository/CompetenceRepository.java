@@ -1,11 +1,15 @@
 package com.example.demo.repository;
 
 import com.example.demo.domain.entity.Competence;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.annotation.Propagation;
 
+import jakarta.persistence.QueryHint;
+
 
 /**
  * The CompetenceRepository interface is responsible for providing CRUD operations for the Competence entity.
@@ -19,8 +23,10 @@ import org.springframework.transaction.annotation.Propagation;
 public interface CompetenceRepository extends JpaRepository<Competence, Integer>{
     /**
      * This interface tells JPA to generate a query to find one competence where the name column equals the name parameter.
+     * The result is kept in the query cache until the table is changed, so a lookup of a name which was already found does not query the database
      * @param name the language to search for translations for
      * @return A competence whose name matches the name parameter
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Competence findByName(String name);
 }
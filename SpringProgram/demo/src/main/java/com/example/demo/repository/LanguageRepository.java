@@ -3,7 +3,11 @@ package com.example.demo.repository;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import jakarta.persistence.QueryHint;
 
 import com.example.demo.domain.entity.Language;
 
@@ -19,8 +23,10 @@ import com.example.demo.domain.entity.Language;
 public interface LanguageRepository extends JpaRepository<Language,Integer>{
     /**
      * This interface function tells JPA to generate a query finding one Language by the value of the name parameter
+     * The result is kept in the query cache until the table is changed, so a lookup of a name which was already found does not query the database
      * @param name The name of the languge to find
      * @return The String object with the specified name
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Language findByName(String name);
 }
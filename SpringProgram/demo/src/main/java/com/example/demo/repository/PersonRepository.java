@@ -6,6 +6,8 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -39,6 +41,14 @@ public interface PersonRepository extends JpaRepository<Person, Integer>{
      */
     Optional<Person> findByUsername(String username);
 
+    /**
+     * Finds the token version of a person, without loading the person
+     * @param id The id of the person
+     * @return An Optional containing the token version, if the person exists
+     */
+    @Query("SELECT p.tokenVersion FROM Person p WHERE p.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Integer id);
+
     /**
      * Finds a person by their personal identity number
      * @param pnr The personal identity number of the person
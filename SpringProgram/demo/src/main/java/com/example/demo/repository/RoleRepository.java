@@ -1,11 +1,15 @@
 package com.example.demo.repository;
 
 import com.example.demo.domain.entity.Role;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * The RoleRepository interface is responsible for providing CRUD operations for the Role entity.
  * Any explicitly defined functions can only be called inside a transaction, however JPARepository inherited functions can be called outside of one
@@ -18,8 +22,10 @@ import org.springframework.transaction.annotation.Transactional;
 public interface RoleRepository extends JpaRepository<Role, Integer>{
         /**
      * This interface function tells JPA to generate a query finding one Role by the value of the name parameter
+     * The result is kept in the query cache until the table is changed, so a lookup of a name which was already found does not query the database
      * @param name The name of the languge to find
      * @return The String object with the specified name
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Role findByName(String name);
 }
@@ -1,10 +1,16 @@
 package com.example.demo.service;
 
 import java.sql.Date;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,14 +20,19 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.domain.AvailabilityPeriods;
+import com.example.demo.domain.BatchItemResult;
 import com.example.demo.domain.dto.ApplicationDTO;
 import com.example.demo.domain.dto.AvailabilityDTO;
+import com.example.demo.domain.dto.BatchItemResultDTO;
 import com.example.demo.domain.dto.CompetenceProfileDTO;
 import com.example.demo.domain.entity.Application;
 import com.example.demo.domain.entity.Availability;
 import com.example.demo.domain.entity.Competence;
 import com.example.demo.domain.entity.CompetenceProfile;
 import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.requestBodies.AvailabilityCreationRequestBody;
+import com.example.demo.domain.requestBodies.CompetenceProfileCreationRequestBody;
 import com.example.demo.presentation.restException.AlreadyExistsException;
 import com.example.demo.presentation.restException.CustomDatabaseException;
 import com.example.demo.presentation.restException.FromDateAfterToDateException;
@@ -39,10 +50,14 @@ import com.example.demo.repository.PersonRepository;
 
 @Service
 @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW) 
+@Observed(name = "service.method")
 /**
  * Service for managing applications, competence profiles, and availability periods.
  * It handles CRUD operations and validation using various repositories.
  * It uses explicit transaction annotation to ensure a rollback occurs whenever an unchecked exception is thrown.
+ * The methods which only return a person's competence profiles or availability periods instead join the caller's transaction if there is one, and load them as read only,
+ * so they do not take a second connection or keep copies of the entities to check for changes. They are not read only transactions, since applicants expect to see
+ * the profiles and periods they just created, which a read replica may not have yet (see ReplicaDataSourceConfig).
  */
 public class ApplicationService {
     @Autowired
@@ -60,6 +75,11 @@ public class ApplicationService {
     @Autowired
     private final PersonRepository personRepository;
 
+    /**
+     * The largest number of items accepted in one batch creation request
+     */
+    public static final int MAX_BATCH_SIZE = 100;
+
     //We create the logger
     private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationService.class.getName()); 
 
@@ -145,6 +165,7 @@ public class ApplicationService {
      * @throws CustomDatabaseException this exception is thrown is an error occurs when accessing the database
      * @return The list of competence profiles
      */
+    @Transactional(propagation = Propagation.REQUIRED, noRollbackFor = Exception.class)
     public List<? extends CompetenceProfileDTO> GetCompetenceProfilesForAPerson(Integer personId)
       throws PersonNotFoundException, CustomDatabaseException {
         
@@ -156,7 +177,7 @@ public class ApplicationService {
                 throw new PersonNotFoundException(personId);
             }
             Person person=personContainer.get();
-            list = competenceProfileRepository.findAllByPerson(person);
+            list = competenceProfileRepository.findAllReadOnlyByPerson(person);
             }
         catch(DataAccessException e)
         {
@@ -167,22 +188,24 @@ public class ApplicationService {
     }
 
     /**
-     * This function attempts to create a new availability 
+     * This function attempts to create a new availability period, by merging it with the person's periods which it overlaps or is adjacent to (see AvailabilityPeriods)
+     * If it is merged, the merged periods are replaced by the one period containing all of them, both for the person and in any applications which included them,
+     * and the version number of those applications is incremented, since the periods they include have changed
      * 
      * @param personId The person id of the person the availability period is for
      * @param fromDate This is the start date for this availability period
      * @param toDate This is the end of the availability period
      * @throws PersonNotFoundException this exception is thrown if no person exists with the specified the person Id  
      * @throws FromDateAfterToDateException this exception is thrown if the from date is after the to date
-     * @throws PeriodAlreadyCoveredException this exception is thrown if the new periods date range is fully covered by an existing availability period
+     * @throws PeriodAlreadyCoveredException this exception is thrown if the new periods date range is fully covered by existing availability periods
      * @throws AlreadyExistsException if an identical availability period already exists
      * @throws CustomDatabaseException this exception is thrown is an error occurs when accessing the database
-     * @return If no exception is thrown, this returns the newly created availability
+     * @return If no exception is thrown, this returns the newly created availability, or the existing availability it was merged into
      */
     public AvailabilityDTO CreateAvailability(Integer personId, Date fromDate, Date toDate)
       throws PersonNotFoundException, FromDateAfterToDateException, PeriodAlreadyCoveredException, AlreadyExistsException, CustomDatabaseException {
         
-        Availability newAvailability;
+        AvailabilityPeriods.Addition addition;
         try {
 
             Optional<Person> personContainer = personRepository.findById(personId);
@@ -198,19 +221,26 @@ public class ApplicationService {
                 throw new FromDateAfterToDateException(fromDate,toDate);
             }
 
-            if(availabilityRepository.existsByFromDateAndToDateAndPerson(fromDate, toDate, person))
+            AvailabilityPeriods periods=new AvailabilityPeriods(availabilityRepository.findAllByPerson(person), LocalDate.now());
+            addition=periods.Add(person, fromDate, toDate);
+
+            if(addition.getOutcome()==AvailabilityPeriods.Outcome.IDENTICAL)
             {
                 LOGGER.error("Failed to create availability period for a person with (`{}`) from (`{}`) to (`{}`) since an identical entry already exists",personId,fromDate,toDate);
                 throw new AlreadyExistsException("This availability period already exists, so it does not need to be created");
             }
 
-            if (availabilityRepository.existsByFromDateLessThanEqualAndToDateGreaterThanEqualAndPerson(fromDate, toDate,person)) {
-                LOGGER.error("Failed to create availability period for a person with (`{}`) from (`{}`) to (`{}`) since date range fully covered by existing availability period",personId,fromDate,toDate);
+            if (addition.getOutcome()==AvailabilityPeriods.Outcome.COVERED) {
+                LOGGER.error("Failed to create availability period for a person with (`{}`) from (`{}`) to (`{}`) since date range fully covered by existing availability periods",personId,fromDate,toDate);
                 throw new PeriodAlreadyCoveredException(fromDate, toDate);
             }
 
-            newAvailability=new Availability(person, fromDate, toDate);
-            availabilityRepository.save(newAvailability);
+            if (addition.getOutcome()==AvailabilityPeriods.Outcome.CREATED) {
+                availabilityRepository.save(addition.getPeriod());
+            }
+            else {
+                ApplyMerge(addition.getPeriod(), addition.getMergedPeriods());
+            }
                 
         }
         catch(DataAccessException e)
@@ -219,8 +249,225 @@ public class ApplicationService {
             throw new CustomDatabaseException();
         }
 
-        LOGGER.info("Created new availability period for person (`{}`) from (`{}`) to (`{}`)",personId,fromDate,toDate);
-        return newAvailability;
+        LOGGER.info("Created new availability period for person (`{}`) from (`{}`) to (`{}`), which is now part of the period from (`{}`) to (`{}`)",personId,fromDate,toDate,
+          addition.getPeriod().getFromDate(),addition.getPeriod().getToDate());
+        return addition.getPeriod();
+    }
+
+    /**
+     * This function attempts to create several competence profiles for a specific person at once.
+     * All requested competences are retrived in one query and the person's existing profiles in another, after which every item is validated in memory,
+     * so the number of queries does not grow with the number of items. Items which fail validation are reported in the result instead of failing the whole request.
+     * 
+     * @param personId The id for the person these profiles are for
+     * @param requestedProfiles The competence profiles to create, each with a competence id and a number of years of experience
+     * @throws PersonNotFoundException this exception is thrown if no person exists with the specified the personId 
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     * @return one result per requested profile, in request order, containing either the newly created profile or the reason it could not be created
+     */
+    public List<BatchItemResultDTO<CompetenceProfileDTO>> CreateCompetenceProfiles(Integer personId, List<CompetenceProfileCreationRequestBody> requestedProfiles)
+      throws PersonNotFoundException, CustomDatabaseException {
+
+        List<BatchItemResultDTO<CompetenceProfileDTO>> results=new ArrayList<BatchItemResultDTO<CompetenceProfileDTO>>();
+        List<CompetenceProfile> newCompetenceProfiles=new ArrayList<CompetenceProfile>();
+        try {
+            Optional<Person> personContainer = personRepository.findById(personId);
+            if (personContainer.isEmpty()) {
+                LOGGER.error("Failed to create (`{}`) competence profiles for a person (`{}`) since no person exists in the database with that id",requestedProfiles.size(),personId);
+                throw new PersonNotFoundException(personId);
+            }
+            Person person=personContainer.get();
+
+            Set<Integer> competenceIds=new HashSet<Integer>();
+            for (CompetenceProfileCreationRequestBody requestedProfile : requestedProfiles) {
+                competenceIds.add(requestedProfile.getCompetenceId());
+            }
+            Map<Integer,Competence> competences=new HashMap<Integer,Competence>();
+            for (Competence c : competenceRepository.findAllById(competenceIds)) {
+                competences.put(c.getCompetenceId(), c);
+            }
+
+            //Years of experience per competence which this person already has a profile for, this is also updated as the batch is processed to catch duplicates within it
+            Map<Integer,Set<Double>> existingProfiles=new HashMap<Integer,Set<Double>>();
+            for (CompetenceProfile c : competenceProfileRepository.findAllByPerson(person)) {
+                existingProfiles.computeIfAbsent(c.getCompetenceDTO().getCompetenceId(), k -> new HashSet<Double>()).add(c.getYearsOfExperience());
+            }
+
+            for (int i = 0; i < requestedProfiles.size(); i++) {
+                Integer competenceId=requestedProfiles.get(i).getCompetenceId();
+                Double yearsOfExperience=requestedProfiles.get(i).getYearsOfExperience();
+
+                Competence competence=competences.get(competenceId);
+                if (competence == null) {
+                    LOGGER.error("Failed to create competence profile (`{}`) in batch for person (`{}`) for competence (`{}`) with (`{}`) years of experience since no competence exists in the database with that id",i,personId,competenceId,yearsOfExperience);
+                    results.add(BatchItemResult.failed(i, new SpecificCompetenceNotFoundException(competenceId).getMessage()));
+                    continue;
+                }
+
+                if (!existingProfiles.computeIfAbsent(competenceId, k -> new HashSet<Double>()).add(yearsOfExperience)) {
+                    LOGGER.error("Failed to create competence profile (`{}`) in batch for person (`{}`) for competence (`{}`) with (`{}`) years of experience since an identical entry already exists",i,personId,competenceId,yearsOfExperience);
+                    results.add(BatchItemResult.failed(i, new AlreadyExistsException("This competence profile already exists, so it does not need to be created").getMessage()));
+                    continue;
+                }
+
+                CompetenceProfile newCompetenceProfile=new CompetenceProfile(person,competence,yearsOfExperience);
+                newCompetenceProfiles.add(newCompetenceProfile);
+                results.add(BatchItemResult.created(i, newCompetenceProfile));
+            }
+
+            competenceProfileRepository.saveAll(newCompetenceProfiles);
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to create (`{}`) competence profiles for a person (`{}`) due to a database error : (`{}`)",requestedProfiles.size(),personId,e.getMessage());
+            throw new CustomDatabaseException();
+        }
+
+        LOGGER.info("Created (`{}`) of (`{}`) requested competence profiles for person (`{}`)",newCompetenceProfiles.size(),requestedProfiles.size(),personId);
+
+        return results;
+    }
+
+    /**
+     * This function attempts to create several availability periods for a specific person at once.
+     * The person's existing availability periods are retrived in one query, after which every item is merged in memory with them and the earlier items in the batch,
+     * using the same rules as CreateAvailability. Items which fail validation are reported in the result instead of failing the whole request.
+     * The result of an item which was merged into a later item is the period containing both.
+     * 
+     * @param personId The person id of the person the availability periods are for
+     * @param requestedAvailabilities The availability periods to create, each with a from date and a to date
+     * @throws PersonNotFoundException this exception is thrown if no person exists with the specified the person Id  
+     * @throws CustomDatabaseException this exception is thrown is an error occurs when accessing the database
+     * @return one result per requested availability period, in request order, containing either the period containing it or the reason it could not be created
+     */
+    public List<BatchItemResultDTO<AvailabilityDTO>> CreateAvailabilities(Integer personId, List<AvailabilityCreationRequestBody> requestedAvailabilities)
+      throws PersonNotFoundException, CustomDatabaseException {
+
+        List<BatchItemResultDTO<AvailabilityDTO>> results=new ArrayList<BatchItemResultDTO<AvailabilityDTO>>();
+        List<Availability> newAvailabilities=new ArrayList<Availability>();
+        try {
+            Optional<Person> personContainer = personRepository.findById(personId);
+            if (personContainer.isEmpty()) {
+                LOGGER.error("Failed to create (`{}`) availability periods for a person with (`{}`) since no person with that id exists",requestedAvailabilities.size(),personId);
+                throw new PersonNotFoundException(personId);
+            }
+            Person person=personContainer.get();
+
+            AvailabilityPeriods periods=new AvailabilityPeriods(availabilityRepository.findAllByPerson(person), LocalDate.now());
+            //The period each created item is part of, and the period each merged period was merged into, which are used to find the final period of each item
+            Map<Integer,Availability> createdPeriods=new HashMap<Integer,Availability>();
+            Map<Availability,Availability> mergedInto=new HashMap<Availability,Availability>();
+            List<Availability> mergedSavedPeriods=new ArrayList<Availability>();
+            Set<Availability> extendedSavedPeriods=new HashSet<Availability>();
+
+            for (int i = 0; i < requestedAvailabilities.size(); i++) {
+                Date fromDate=requestedAvailabilities.get(i).getFromDate();
+                Date toDate=requestedAvailabilities.get(i).getToDate();
+
+                if (fromDate.after(toDate)) {
+                    LOGGER.error("Failed to create availability period (`{}`) in batch for a person with (`{}`) from (`{}`) to (`{}`) since from date is after to date",i,personId,fromDate,toDate);
+                    results.add(BatchItemResult.failed(i, new FromDateAfterToDateException(fromDate,toDate).getMessage()));
+                    continue;
+                }
+
+                AvailabilityPeriods.Addition addition=periods.Add(person, fromDate, toDate);
+
+                if (addition.getOutcome()==AvailabilityPeriods.Outcome.IDENTICAL) {
+                    LOGGER.error("Failed to create availability period (`{}`) in batch for a person with (`{}`) from (`{}`) to (`{}`) since an identical entry already exists",i,personId,fromDate,toDate);
+                    results.add(BatchItemResult.failed(i, new AlreadyExistsException("This availability period already exists, so it does not need to be created").getMessage()));
+                    continue;
+                }
+
+                if (addition.getOutcome()==AvailabilityPeriods.Outcome.COVERED) {
+                    LOGGER.error("Failed to create availability period (`{}`) in batch for a person with (`{}`) from (`{}`) to (`{}`) since date range fully covered by existing availability periods",i,personId,fromDate,toDate);
+                    results.add(BatchItemResult.failed(i, new PeriodAlreadyCoveredException(fromDate,toDate).getMessage()));
+                    continue;
+                }
+
+                if (addition.getOutcome()==AvailabilityPeriods.Outcome.CREATED) {
+                    newAvailabilities.add(addition.getPeriod());
+                }
+                else if (addition.getPeriod().getAvailabilityId() != null) {
+                    extendedSavedPeriods.add(addition.getPeriod());
+                }
+                for (Availability mergedPeriod : addition.getMergedPeriods()) {
+                    mergedInto.put(mergedPeriod, addition.getPeriod());
+                    //Periods created earlier in this batch are simply not saved
+                    if (!newAvailabilities.remove(mergedPeriod)) {
+                        mergedSavedPeriods.add(mergedPeriod);
+                    }
+                }
+                createdPeriods.put(i, addition.getPeriod());
+                //The result is set once every item has been added, since this period may still be merged into another
+                results.add(null);
+            }
+
+            availabilityRepository.saveAll(newAvailabilities);
+            //A saved period is always merged into a saved period, since those are kept before ones which have not been saved
+            //Every saved period which was extended is included, even if no saved period was merged into it, since the applications including it have changed
+            Map<Availability,List<Availability>> mergedSavedPeriodsByPeriod=new HashMap<Availability,List<Availability>>();
+            for (Availability extendedPeriod : extendedSavedPeriods) {
+                mergedSavedPeriodsByPeriod.computeIfAbsent(FinalPeriod(extendedPeriod, mergedInto), k -> new ArrayList<Availability>());
+            }
+            for (Availability mergedPeriod : mergedSavedPeriods) {
+                mergedSavedPeriodsByPeriod.computeIfAbsent(FinalPeriod(mergedPeriod, mergedInto), k -> new ArrayList<Availability>()).add(mergedPeriod);
+            }
+            for (Map.Entry<Availability,List<Availability>> mergedPeriods : mergedSavedPeriodsByPeriod.entrySet()) {
+                ApplyMerge(mergedPeriods.getKey(), mergedPeriods.getValue());
+            }
+
+            for (Map.Entry<Integer,Availability> createdPeriod : createdPeriods.entrySet()) {
+                results.set(createdPeriod.getKey(), BatchItemResult.created(createdPeriod.getKey(), FinalPeriod(createdPeriod.getValue(), mergedInto)));
+            }
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to create (`{}`) availability periods for a person with (`{}`) due to a database error : (`{}`)",requestedAvailabilities.size(),personId,e.getMessage());
+            throw new CustomDatabaseException();
+        }
+
+        LOGGER.info("Created (`{}`) new availability periods from (`{}`) requested availability periods for person (`{}`)",newAvailabilities.size(),requestedAvailabilities.size(),personId);
+
+        return results;
+    }
+
+    /**
+     * Finds the period a period was finally merged into, since a period may be merged into a period which is later merged into another one
+     * @param period the period to find the final period of
+     * @param mergedInto the period each merged period was merged into
+     * @return the final period, which is period itself if it was not merged
+     */
+    private static Availability FinalPeriod(Availability period, Map<Availability,Availability> mergedInto) {
+        while (mergedInto.containsKey(period)) {
+            period=mergedInto.get(period);
+        }
+        return period;
+    }
+
+    /**
+     * Saves a merge in the database, by incrementing the version number of the applications which include the period or any of the periods merged into it,
+     * and then adding the period to the applications which included the merged periods before deleting them.
+     * The version number is incremented since the periods an application includes have changed, which means a reviewer who read the application before the merge
+     * can no longer update its status (see ReviewService.SetApplicationStatus), just as if the application itself had been changed.
+     * @param period the period the periods were merged into, which must have been saved, and whose dates have been changed
+     * @param mergedPeriods the saved periods which were merged into it, which may be empty
+     */
+    private void ApplyMerge(Availability period, List<Availability> mergedPeriods) {
+        List<Integer> mergedAvailabilityIds=new ArrayList<Integer>();
+        for (Availability mergedPeriod : mergedPeriods) {
+            mergedAvailabilityIds.add(mergedPeriod.getAvailabilityId());
+        }
+        List<Integer> changedAvailabilityIds=new ArrayList<Integer>(mergedAvailabilityIds);
+        changedAvailabilityIds.add(period.getAvailabilityId());
+        int changedApplications=applicationRepository.incrementVersionNumberOfApplicationsIncluding(changedAvailabilityIds);
+        if (mergedPeriods.isEmpty()) {
+            LOGGER.info("Extended availability period (`{}`), which changed (`{}`) applications",period.getAvailabilityId(),changedApplications);
+            return;
+        }
+        availabilityRepository.addToApplicationsIncluding(period.getAvailabilityId(), mergedAvailabilityIds);
+        availabilityRepository.removeFromApplications(mergedAvailabilityIds);
+        availabilityRepository.deleteAll(mergedPeriods);
+        LOGGER.info("Merged availability periods (`{}`) into availability period (`{}`), which changed (`{}`) applications",mergedAvailabilityIds,period.getAvailabilityId(),changedApplications);
     }
 
     /**
@@ -231,6 +478,7 @@ public class ApplicationService {
      * @throws CustomDatabaseException this exception is thrown if an error occurs with the database
      * @return The list of competence profiles
      */
+    @Transactional(propagation = Propagation.REQUIRED, noRollbackFor = Exception.class)
     public List<? extends AvailabilityDTO> GetAvailabilityForAPerson(Integer personId)
       throws PersonNotFoundException, CustomDatabaseException {
         
@@ -242,7 +490,7 @@ public class ApplicationService {
                 throw new PersonNotFoundException(personId);
             }
             Person person=personContainer.get();
-            list= availabilityRepository.findAllByPerson(person);
+            list= availabilityRepository.findAllReadOnlyByPerson(person);
 
         }
         catch(DataAccessException e)
@@ -280,44 +528,56 @@ public class ApplicationService {
             }
             Person person=personContainer.get();
 
-            List<Availability> availabilities=new ArrayList<Availability>();
-
             if (availabilityIds.size()==0) {
                 LOGGER.error("Failed to create application for a person (`{}`) since the availabiltyIds is empty",personId);
                 throw new AvailabilityInvalidException("No availability period was specified, please specify at least one for this application");
             }
 
+            //We retrive all of the requested availabilities belonging to this person in one query, instead of one query per id
+            Map<Integer,Availability> ownedAvailabilities=new HashMap<Integer,Availability>();
+            for (Availability a : availabilityRepository.findAllByPersonAndAvailabilityIdIn(person, availabilityIds)) {
+                ownedAvailabilities.put(a.getAvailabilityId(), a);
+            }
+
+            List<Availability> availabilities=new ArrayList<Availability>();
             for (Integer i : availabilityIds) {
-                Optional<Availability> availabilityContainer = availabilityRepository.findById(i);
-                if (availabilityContainer.isEmpty()) {
-                    LOGGER.error("Failed to create application for a person (`{}`) since (at least) one of the provied availabilites do not exist, specifically requested with id (`{}`) which does not exist",personId,i);
-                    throw new AvailabilityInvalidException("No availability with id "+i+" in the database");
-                }
-                if (availabilityContainer.get().getPerson()!=person) {
+                Availability availability = ownedAvailabilities.get(i);
+                if (availability == null) {
+                    //Only once we know an id is invalid do we check why, to give the correct error message
+                    if (!availabilityRepository.existsById(i)) {
+                        LOGGER.error("Failed to create application for a person (`{}`) since (at least) one of the provied availabilites do not exist, specifically requested with id (`{}`) which does not exist",personId,i);
+                        throw new AvailabilityInvalidException("No availability with id "+i+" in the database");
+                    }
                     LOGGER.error("Failed to create application for a person (`{}`) since (at least) one of the provied availabilites profiles belongs to another users, specifically requested with id (`{}`)",personId,i);
                     throw new AvailabilityInvalidException("The availability period with id "+i+" belongs to another user");
                 }
-                availabilities.add(availabilityContainer.get());
+                availabilities.add(availability);
             }
 
-            List<CompetenceProfile> competenceProfiles=new ArrayList<CompetenceProfile>();
-
             if (competenceProfileIds.size()==0) {
-                LOGGER.error("Failed to create application for a person (`{}`) since the competenceProfileIds is empty");
+                LOGGER.error("Failed to create application for a person (`{}`) since the competenceProfileIds is empty",personId);
                 throw new CompetenceProfileInvalidException("No competence profile was specified, please specify at least one for this application");
             }
 
+            //We retrive all of the requested competence profiles belonging to this person in one query, instead of one query per id
+            Map<Integer,CompetenceProfile> ownedCompetenceProfiles=new HashMap<Integer,CompetenceProfile>();
+            for (CompetenceProfile c : competenceProfileRepository.findAllByPersonAndCompetenceProfileIdIn(person, competenceProfileIds)) {
+                ownedCompetenceProfiles.put(c.getCompetenceProfileId(), c);
+            }
+
+            List<CompetenceProfile> competenceProfiles=new ArrayList<CompetenceProfile>();
             for (Integer i : competenceProfileIds) {
-                Optional<CompetenceProfile> competenceProfilesContainer = competenceProfileRepository.findById(i);
-                if (competenceProfilesContainer.isEmpty()) {
-                    LOGGER.error("Failed to create application for a person (`{}`) since (at least) one of the provied competence profiles do not exist, specifically requested with id (`{}`)",personId,i);
-                    throw new CompetenceProfileInvalidException("No competence profile with id "+i+" in the database");
-                }
-                if (competenceProfilesContainer.get().getPerson()!=person) {
+                CompetenceProfile competenceProfile = ownedCompetenceProfiles.get(i);
+                if (competenceProfile == null) {
+                    //Only once we know an id is invalid do we check why, to give the correct error message
+                    if (!competenceProfileRepository.existsById(i)) {
+                        LOGGER.error("Failed to create application for a person (`{}`) since (at least) one of the provied competence profiles do not exist, specifically requested with id (`{}`)",personId,i);
+                        throw new CompetenceProfileInvalidException("No competence profile with id "+i+" in the database");
+                    }
                     LOGGER.error("Failed to create application for a person (`{}`) since (atleast) one of the provied competence profiles belongs to another users, specifically requested with id (`{}`)",personId,i);
                     throw new CompetenceProfileInvalidException("The competence profile with id "+i+" belongs to another user");
                 }
-                competenceProfiles.add(competenceProfilesContainer.get());
+                competenceProfiles.add(competenceProfile);
             }
 
 
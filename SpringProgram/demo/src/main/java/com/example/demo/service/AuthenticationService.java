@@ -1,30 +1,77 @@
 package com.example.demo.service;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
-import com.example.demo.repository.PersonRepository;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.example.demo.presentation.restException.TooManyRequestsException;
+
+import jakarta.annotation.PreDestroy;
 
 
 @Service
 /**
  * Service responsible for handling authentication-related operations.
- * This service interacts with the PersonRepository to retrieve user data
- * and manages password encoding using BCrypt.
+ * Verifying a password is deliberately slow, so logins are run on a dedicated executor with a fixed number of threads and a bounded queue,
+ * instead of on the request threads. A burst of logins can then never occupy every request thread, and once the queue is full
+ * further logins are immediately rejected with a TooManyRequestsException, instead of waiting until they time out.
  */
 public class AuthenticationService {
-    private final PersonRepository personRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final AuthenticationManager authenticationManager;
+    private final ThreadPoolExecutor loginExecutor;
+
+    // We create the logger
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuthenticationService.class.getName());
 
     /**
-     * Constructs an instance of AuthenticationService.
+     * Constructs an instance of AuthenticationService (Spring boot managed).
      *
-     * @param personRepository  The repository for accessing person-related data.
-     * @param passwordEncoder   The password encoder used for hashing passwords.
+     * @param authenticationManager the authentication manager used to verify usernames and passwords
+     * @param loginThreads the number of threads verifying passwords, configured using security.login.threads, if this is 0 one thread per available processor is used
+     * @param loginQueueCapacity the number of logins which may wait for a thread before further logins are rejected, configured using security.login.queue-capacity
      */
-    public AuthenticationService(PersonRepository personRepository, BCryptPasswordEncoder passwordEncoder){
-        this.personRepository = personRepository;
-        this.passwordEncoder = passwordEncoder;
+    public AuthenticationService(AuthenticationManager authenticationManager, @Value("${security.login.threads:0}") int loginThreads,
+      @Value("${security.login.queue-capacity:64}") int loginQueueCapacity){
+        this.authenticationManager = authenticationManager;
+        int threads = loginThreads > 0 ? loginThreads : Runtime.getRuntime().availableProcessors();
+        this.loginExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<Runnable>(loginQueueCapacity), new CustomizableThreadFactory("login-"), new ThreadPoolExecutor.AbortPolicy());
     }
 
+    /**
+     * Authenticates a user on the login executor
+     *
+     * @param username the username of the user
+     * @param password the password of the user
+     * @throws TooManyRequestsException if the login executor's queue is full
+     * @return a future which is completed with the authentication, or completed exceptionally with an AuthenticationException if authentication fails
+     */
+    public CompletableFuture<Authentication> Authenticate(String username, String password) throws TooManyRequestsException {
+        try {
+            return CompletableFuture.supplyAsync(
+              () -> authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password)), loginExecutor);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Rejected login for user (`{}`) since (`{}`) logins are already waiting", username, loginExecutor.getQueue().size());
+            throw new TooManyRequestsException("Too many logins are being processed, please try again shortly");
+        }
+    }
 
+    /**
+     * Stops the login executor when the application shuts down, after the logins which have already been accepted are processed
+     */
+    @PreDestroy
+    public void Shutdown() {
+        loginExecutor.shutdown();
+    }
 }
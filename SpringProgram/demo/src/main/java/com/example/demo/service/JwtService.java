@@ -1,32 +1,147 @@
 package com.example.demo.service;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.example.demo.domain.PersonDetails;
+
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.function.Function;
 
 
 @Component
+@Observed(name = "service.method")
 /**
  * Service responsible for handling JWT operations such as generating, validating, 
  * and extracting claims from JWT tokens. It supports user authentication and password reset functionality.
  * This service uses a secret key to sign and validate JWTs and provides methods to extract user-related 
  * information and additional claims (like reset tokens).
+ * Several keys can be active at once to allow key rotation, each identified by a key id which is included in the "kid" header of every token it signs.
+ * New tokens are always signed with the active key, while tokens signed with any of the configured keys are accepted.
+ * The keys and the parser are created once when the service is constructed, and are immutable and thread safe, so they are shared by all requests.
+ * Unless disabled using jwt.authorization-claims, login tokens also include the person's id, roles and token version as claims,
+ * which allows JwtAuthFilter to authorize requests using only the verified token, without loading the person.
  */
 public class JwtService {
 
     Random rand = new Random(); // Used to generate random number for reset token
 
     public static final String SECRET = "123456789eaaaaaaaaaaaaaaaaaaaaaasdawdawdawdawdawdadawdawdawdadawdawd"; //to be replaced
+
+    //The key id used for SECRET, and for tokens without a "kid" header, which were issued before key rotation was supported
+    public static final String DEFAULT_KEY_ID = "default";
+
+    //The names of the claims which are included in login tokens when authorization claims are enabled
+    public static final String PERSON_ID_CLAIM = "personId";
+    public static final String ROLES_CLAIM = "roles";
+    public static final String TOKEN_VERSION_CLAIM = "tokenVersion";
+
+    private final Map<String,Key> signingKeys;
+    private final String activeKeyId;
+    private final Key activeKey;
+    private final JwtParser parser;
+    private final boolean authorizationClaimsEnabled;
+
+    /**
+     * Constructs a JwtService which only uses SECRET, with the key id DEFAULT_KEY_ID, and includes authorization claims in login tokens
+     */
+    public JwtService() {
+        this(DEFAULT_KEY_ID, "");
+    }
+
+    /**
+     * Constructs a JwtService with the specified keys, which includes authorization claims in login tokens
+     * 
+     * @param activeKeyId the id of the key used to sign new tokens
+     * @param configuredKeys the keys tokens may be signed with, in the format "kid1=base64Secret1,kid2=base64Secret2"
+     * @throws IllegalArgumentException if the keys are not correctly formatted, or the active key id does not match any of them
+     */
+    public JwtService(String activeKeyId, String configuredKeys) throws IllegalArgumentException {
+        this(activeKeyId, configuredKeys, true);
+    }
+
+    /**
+     * Constructs a JwtService with the configured keys (this is Spring boot managed).
+     * 
+     * @param activeKeyId the id of the key used to sign new tokens, configured using jwt.active-key-id
+     * @param configuredKeys the keys tokens may be signed with, in the format "kid1=base64Secret1,kid2=base64Secret2" and configured using jwt.keys. 
+     * If this is empty only SECRET is used, with the key id DEFAULT_KEY_ID
+     * @param authorizationClaimsEnabled if login tokens should include the person's id, roles and token version, configured using jwt.authorization-claims
+     * @throws IllegalArgumentException if the keys are not correctly formatted, or the active key id does not match any of them
+     */
+    @Autowired
+    public JwtService(@Value("${jwt.active-key-id:" + DEFAULT_KEY_ID + "}") String activeKeyId, @Value("${jwt.keys:}") String configuredKeys,
+      @Value("${jwt.authorization-claims:true}") boolean authorizationClaimsEnabled) throws IllegalArgumentException {
+        this.signingKeys = parseKeys(configuredKeys);
+        if (!signingKeys.containsKey(activeKeyId)) {
+            throw new IllegalArgumentException("The active JWT key id (" + activeKeyId + ") does not match any of the configured keys");
+        }
+        this.activeKeyId = activeKeyId;
+        this.activeKey = signingKeys.get(activeKeyId);
+        this.authorizationClaimsEnabled = authorizationClaimsEnabled;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(@SuppressWarnings("rawtypes") JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Parses the configured keys into an immutable map from key id to key
+     * @param configuredKeys the keys in the format "kid1=base64Secret1,kid2=base64Secret2", or an empty string to only use SECRET
+     * @throws IllegalArgumentException if the keys are not correctly formatted
+     * @return the map from key id to key
+     */
+    private static Map<String,Key> parseKeys(String configuredKeys) throws IllegalArgumentException {
+        Map<String,Key> keys = new HashMap<>();
+        if (configuredKeys == null || configuredKeys.isBlank()) {
+            keys.put(DEFAULT_KEY_ID, Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)));
+            return Map.copyOf(keys);
+        }
+        for (String configuredKey : configuredKeys.split(",")) {
+            int separatorIndex = configuredKey.indexOf('=');
+            if (separatorIndex <= 0) {
+                throw new IllegalArgumentException("Each configured JWT key must be in the format kid=base64Secret");
+            }
+            String keyId = configuredKey.substring(0, separatorIndex).trim();
+            keys.put(keyId, Keys.hmacShaKeyFor(Decoders.BASE64.decode(configuredKey.substring(separatorIndex + 1).trim())));
+        }
+        return Map.copyOf(keys);
+    }
+
+    /**
+     * Finds the key a token was signed with based on the key id in its header
+     * @param keyId the key id from the token's "kid" header, or null for tokens issued before key rotation was supported
+     * @throws SignatureException if no key with that id is configured
+     * @return the key
+     */
+    private Key resolveKey(String keyId) throws SignatureException {
+        Key key = signingKeys.get(keyId == null ? DEFAULT_KEY_ID : keyId);
+        if (key == null) {
+            throw new SignatureException("Unknown JWT key id (" + keyId + ")");
+        }
+        return key;
+    }
     
     /**
      * Generates a JWT token for the specified user. 
@@ -37,6 +152,21 @@ public class JwtService {
         Map<String,Object> claims = new HashMap<>();
         return createToken(claims,userName);
     }
+
+    /**
+     * Generates a JWT token for the specified user, which includes the person's id, roles and token version as claims unless authorization claims are disabled.
+     * @param personDetails The user to generate the token for, whose username is included in the token's claims as the subject.
+     * @return The generated JWT token.
+     */
+    public String generateToken(PersonDetails personDetails){
+        Map<String,Object> claims = new HashMap<>();
+        if (authorizationClaimsEnabled) {
+            claims.put(PERSON_ID_CLAIM, personDetails.getPersonId());
+            claims.put(ROLES_CLAIM, personDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+            claims.put(TOKEN_VERSION_CLAIM, personDetails.getTokenVersion());
+        }
+        return createToken(claims,personDetails.getUsername());
+    }
     
     /**
      * Creates a JWT token with specified claims and username.
@@ -46,34 +176,23 @@ public class JwtService {
      */
     private String createToken(Map<String,Object> claims, String userName){
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, activeKeyId)
                 .setClaims(claims)
                 .setSubject(userName)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + 1000*60*30))    // valid token lasts 30 min
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                .signWith(activeKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     /**
-     * Retrieves the signing key used to sign the JWT token.
-     * @return The signing key.
-     */
-    private Key getSignKey(){
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    /**
-     * Extracts all claims from the JWT token.
+     * Extracts all claims from the JWT token, which verifies its signature and that it has not expired.
+     * Callers which need several claims from the same token should call this once and read them from the result, since every call parses and verifies the token again.
      * @param token The JWT token.
      * @return The claims extracted from the token.
      */
-    private Claims extractAllClaims(String token){
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public Claims extractAllClaims(String token){
+        return parser.parseClaimsJws(token).getBody();
     }
 
     /**
@@ -122,8 +241,33 @@ public class JwtService {
      * @return True if the token is valid, false otherwise.
      */
     public Boolean validateToken(String token, UserDetails userDetails){
-        final String username = extractSubject(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateClaims(extractAllClaims(token), userDetails);
+    }
+
+    /**
+     * Validates the claims of an already verified JWT token by comparing the username and expiration date, see extractAllClaims.
+     * @param claims The claims of the JWT token.
+     * @param userDetails The user details to compare against the token.
+     * @return True if the token is valid, false otherwise.
+     */
+    public Boolean validateClaims(Claims claims, UserDetails userDetails){
+        return (claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date()));
+    }
+
+    /**
+     * Creates the principal described by the authorization claims of an already verified JWT token, see extractAllClaims and generateToken.
+     * Note that the caller must still confirm the token version is current, since the token may have been revoked after it was issued.
+     * @param claims The claims of the JWT token.
+     * @return The principal, or null if the token does not include authorization claims, for example since it was issued before they were introduced.
+     */
+    public PersonDetails extractPrincipal(Claims claims){
+        Integer personId = claims.get(PERSON_ID_CLAIM, Integer.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        if (personId == null || roles == null || tokenVersion == null) {
+            return null;
+        }
+        return new PersonDetails(personId, claims.getSubject(), roles.stream().map(Object::toString).toList(), tokenVersion);
     }
 
 
@@ -137,11 +281,12 @@ public class JwtService {
         claims.put("randomNumber", rand.nextLong());
 
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, activeKeyId)
                 .setClaims(claims)
                 .setSubject(email)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + 1000*60*5))    // valid token lasts 5 min
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                .signWith(activeKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -1,19 +1,28 @@
 package com.example.demo.service;
 
+import java.time.Duration;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.TransactionSystemException;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
@@ -35,17 +44,39 @@ import jakarta.validation.ConstraintViolationException;
 
 @Service
 @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
+@Observed(name = "service.method")
 /**
  * This service class is for handling person-related operations such as registering,
  * updating, and resetting information, as well as generating and validating JWT tokens.
  * It uses explicit transaction annotation to ensure a rollback occurs whenever an unchecked exception is thrown.
+ * Users loaded by loadUserByUsername (which is called for every authenticated request) are cached in a PrincipalCache,
+ * so loadUserByUsername runs without a transaction and only starts one (using transactionTemplate) on a cache miss.
+ * That transaction is not read only, so the user is always loaded from the primary database, since a read replica may not yet have a changed password or role, which would then be cached.
+ * The Find methods do use read only transactions, so they are sent to a read replica when one is configured (see ReplicaDataSourceConfig),
+ * and they join the caller's transaction if there is one instead of taking a second connection.
+ * It also stores rehashed passwords when a user logs in with a password hashed using outdated parameters (see SecurityConfig.createPasswordEncoder).
+ * The token version JwtAuthFilter checks tokens against is read from the primary database and cached in a TokenVersionCache for a few seconds,
+ * so a token revoked by any instance of the application is rejected by every instance within that time, while most requests do not access the database.
  */
-public class PersonService implements UserDetailsService {
+public class PersonService implements UserDetailsService, UserDetailsPasswordService {
     private final PersonRepository personRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final ApplicantResetRepository applicantResetRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    //The largest number of cached principals, and how long each is cached, which bounds how long changes made outside of this service go unnoticed
+    private static final int MAX_CACHED_PRINCIPALS = 10000;
+    private static final Duration PRINCIPAL_CACHE_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    private final PrincipalCache principalCache = new PrincipalCache(MAX_CACHED_PRINCIPALS, PRINCIPAL_CACHE_TIME_TO_LIVE);
+
+    //The largest number of cached token versions, and how long each is cached, which bounds how long a token revoked by another instance can still be used
+    private static final int MAX_CACHED_TOKEN_VERSIONS = 10000;
+    private static final Duration TOKEN_VERSION_CACHE_TIME_TO_LIVE = Duration.ofSeconds(10);
+
+    private final TokenVersionCache tokenVersionCache = new TokenVersionCache(MAX_CACHED_TOKEN_VERSIONS, TOKEN_VERSION_CACHE_TIME_TO_LIVE);
     // We create the logger
     private static final Logger LOGGER = LoggerFactory.getLogger(PersonService.class.getName());
 
@@ -57,14 +88,17 @@ public class PersonService implements UserDetailsService {
      * @param applicantResetRepository the repository for handling applicant reset requests
      * @param jwtService       this service provides jwt token related functionality
      * @param passwordEncoder  this is responsible for encoding passwords
+     * @param transactionManager the transaction manager used to start a transaction when a user is not cached
      */
     public PersonService(PersonRepository personRepository, RoleRepository roleRepository,
-            ApplicantResetRepository applicantResetRepository, JwtService jwtService, PasswordEncoder passwordEncoder) {
+            ApplicantResetRepository applicantResetRepository, JwtService jwtService, PasswordEncoder passwordEncoder,
+            PlatformTransactionManager transactionManager) {
         this.personRepository = personRepository;
         this.roleRepository = roleRepository;
         this.applicantResetRepository = applicantResetRepository;
         this.jwtService = jwtService;
         this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -74,6 +108,7 @@ public class PersonService implements UserDetailsService {
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail
      * @return A list of matching people
      */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRED, noRollbackFor = Exception.class)
     public List<? extends PersonDTO> FindPeopleByName(String name) throws CustomDatabaseException {
         try {
             return personRepository.findByName(name);
@@ -137,6 +172,7 @@ public class PersonService implements UserDetailsService {
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail
      * @return The Person entity found, or empty if not found
      */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRED, noRollbackFor = Exception.class)
     public Optional<? extends PersonDTO> FindPersonByEmail(String email) throws CustomDatabaseException {
         try {
             return personRepository.findByEmail(email);
@@ -154,6 +190,7 @@ public class PersonService implements UserDetailsService {
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail
      * @return The Person entity found, or empty if not found
      */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRED, noRollbackFor = Exception.class)
     public Optional<? extends PersonDTO> FindPersonByUsername(String username) throws CustomDatabaseException {
         try {
             return personRepository.findByUsername(username);
@@ -171,6 +208,7 @@ public class PersonService implements UserDetailsService {
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail
      * @return TThe Person entity found, or empty if not found
      */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRED, noRollbackFor = Exception.class)
     public Optional<? extends PersonDTO> FindPersonByPnr(String pnr) throws CustomDatabaseException {
         try {
             return personRepository.findByPnr(pnr);
@@ -217,6 +255,7 @@ public class PersonService implements UserDetailsService {
             person.setPnr(pnr);
             person.setEmail(email);
             personRepository.save(person);
+            EvictCachedPrincipal(person.getUsername());
 
             LOGGER.info("Updated pnr and email for a reviwer (`{}`) to pnr (`{}`) and email (`{}`)", personId, pnr,
                     email);
@@ -344,10 +383,13 @@ public class PersonService implements UserDetailsService {
                         "You gave an invalid but potentially real token, no current request for that person exists in the system. The link may have already been used, in which case you must request a new one.");
             }
 
-            // We then update the username and password for the user
+            // We then update the username and password for the user, revoke their existing tokens, and evict both the old and new username from the principal cache
+            EvictCachedPrincipal(person.getUsername());
             person.setUsername(username);
             person.setPassword(passwordEncoder.encode(password));
+            RevokeTokens(person);
             personRepository.save(person);
+            EvictCachedPrincipal(username);
 
             // We then remove the token, since we want to avoid a token being re-used in
             // this case
@@ -361,25 +403,145 @@ public class PersonService implements UserDetailsService {
         }
     }
 
+    /**
+     * This method checks if a token version is the current one for a person, meaning tokens issued with it have not been revoked.
+     * The current token version is read from the primary database at most once per TOKEN_VERSION_CACHE_TIME_TO_LIVE, and is otherwise found in the token version cache,
+     * so this is used to check tokens for every authenticated request.
+     * 
+     * @param personId the id of the person the token was issued for
+     * @param tokenVersion the token version the token was issued with
+     * @throws CustomDatabaseException if a database error occurs
+     * @return true if the token version is current, false if tokens with that version have been revoked or the person does not exist
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean IsTokenVersionCurrent(Integer personId, int tokenVersion) throws CustomDatabaseException {
+        Integer currentTokenVersion = tokenVersionCache.get(personId);
+        if (currentTokenVersion == null) {
+            Optional<Integer> readTokenVersion;
+            try {
+                readTokenVersion = transactionTemplate.execute(status -> personRepository.findTokenVersionById(personId));
+            } catch (DataAccessException | TransactionException e) {
+                LOGGER.error("Failed to read the token version of person with id (`{}`) due to a database error : (`{}`)", personId, e.getMessage());
+                throw new CustomDatabaseException();
+            }
+            if (readTokenVersion.isEmpty()) {
+                return false;
+            }
+            currentTokenVersion = readTokenVersion.get();
+            tokenVersionCache.put(personId, currentTokenVersion);
+        }
+        return currentTokenVersion == tokenVersion;
+    }
+
+    /**
+     * This method revokes all existing tokens for a person by incrementing their token version, and must be called whenever their password or role is changed.
+     * The caller is responsible for saving the person, and the cached token version is updated once the transaction commits,
+     * or immediately if there is no transaction, while other instances read it from the database once their cached token version expires.
+     * 
+     * @param person the person whose tokens to revoke
+     */
+    private void RevokeTokens(Person person) {
+        Integer personId = person.getId();
+        int newTokenVersion = person.getTokenVersion() + 1;
+        person.setTokenVersion(newTokenVersion);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    tokenVersionCache.put(personId, newTokenVersion);
+                }
+            });
+        } else {
+            tokenVersionCache.put(personId, newTokenVersion);
+        }
+    }
+
+    /**
+     * This method removes a user from the principal cache, and must be called whenever a person's username, password or role is changed.
+     * The user is evicted immediately, and if called within a transaction, again once that transaction completes,
+     * since a request may otherwise load the person before the change is committed and cache the old values.
+     * 
+     * @param username the username of the user to evict
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void EvictCachedPrincipal(String username) {
+        principalCache.evict(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    principalCache.evict(username);
+                }
+            });
+        }
+    }
+
     @Override
     /**
      * This method accepts a username, and attepts to find a matching user in the database,
      * and if such exists it return a UserDetails for that user
+     * The user is returned from the principal cache if it has been loaded recently, in which case no database access is made
      * 
      * @param username the username to find a user using
      * @throws CustomDatabaseException if a database error occurs
      * @throws UsernameNotFoundException if the username was not found
      * @return If no exception is thrown, a user details for the user with the specified username
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        PersonDetails cached = principalCache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = principalCache.getGeneration();
+
+        Optional<PersonDetails> personDetail;
         try {
+            personDetail = transactionTemplate.execute(status -> personRepository.findByUsername(username).map(PersonDetails::new));
+        } catch (DataAccessException | TransactionException e) {
+            LOGGER.error("Failed to load a user by username (`{}`) due to a database error : (`{}`)", username, e.getMessage());
+            throw new CustomDatabaseException();
+        }
 
-            Optional<Person> personDetail = personRepository.findByUsername(username);
-            return personDetail.map(PersonDetails::new).orElseThrow(() -> new UsernameNotFoundException("Could not find username: " + username));
+        PersonDetails details = personDetail.orElseThrow(() -> new UsernameNotFoundException("Could not find username: " + username));
+        principalCache.put(username, details, generation);
+        return details;
+    }
 
+    @Override
+    /**
+     * This method stores a rehashed password for a user, and is called by Spring Security after a successful login if the user's password
+     * was hashed using another algorithm or weaker parameters than currently configured.
+     * Since the password itself is unchanged the user's tokens are not revoked, and if the rehashed password can not be stored
+     * the login still succeeds, and the password is instead rehashed the next time the user logs in.
+     * 
+     * @param user the user who logged in
+     * @param newPassword the password hashed using the current algorithm and parameters
+     * @return the user details with the rehashed password
+     */
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        try {
+            Optional<Person> personContainer = personRepository.findByUsername(user.getUsername());
+
+            if (personContainer.isEmpty()) {
+                LOGGER.warn("Failed to rehash the password for a user (`{}`) since no person with that username exists in the database", user.getUsername());
+                return user;
+            }
+
+            Person person = personContainer.get();
+            person.setPassword(newPassword);
+            personRepository.save(person);
+            EvictCachedPrincipal(person.getUsername());
+
+            LOGGER.info("Rehashed the password for a user (`{}`) using the current password hashing parameters", user.getUsername());
+            return new PersonDetails(person);
         } catch (DataAccessException e) {
-            LOGGER.error("Failed to load a user by username (`{}`) due to a database error : (`{}`)", username, e.getMessage());
-            throw new CustomDatabaseException();
+            LOGGER.error("Failed to rehash the password for a user (`{}`) due to a database error : (`{}`)", user.getUsername(), e.getMessage());
+            //The transaction is rolled back without an exception being thrown, so the login is not affected
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            }
+            return user;
         }
     }
 }
@@ -0,0 +1,149 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.demo.domain.PersonDetails;
+
+/**
+ * PrincipalCache is a bounded cache of usernames mapped to immutable PersonDetails snapshots, with a fixed time to live.
+ * It is used by PersonService so that authenticated requests do not load the person and role from the database for every call.
+ * Entries are evicted whenever a person's username, password or role is changed, and the time to live bounds how long
+ * a change made outside of this application (for example directly in the database) can go unnoticed.
+ */
+public class PrincipalCache {
+    private final int maxEntries;
+    private final long timeToLiveNanos;
+    private final Map<String,CachedPrincipal> principals = new ConcurrentHashMap<String,CachedPrincipal>();
+
+    //This is incremented on every eviction, so a principal which was loaded before an eviction is never kept after it
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Constructs an empty cache
+     * @param maxEntries the largest number of principals kept in the cache
+     * @param timeToLive how long a principal is kept in the cache after being loaded
+     */
+    public PrincipalCache(int maxEntries, Duration timeToLive) {
+        this.maxEntries = maxEntries;
+        this.timeToLiveNanos = timeToLive.toNanos();
+    }
+
+    /**
+     * Returns the cached principal for a username, if it has been loaded and has not expired since
+     * @param username the username to look up
+     * @return the principal, or null if it is not cached or has expired
+     */
+    public PersonDetails get(String username) {
+        CachedPrincipal cached = principals.get(username);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.isExpired(System.nanoTime())) {
+            principals.remove(username, cached);
+            return null;
+        }
+        return cached.details;
+    }
+
+    /**
+     * Returns the current generation of the cache, which should be read before a principal is loaded from the database and then passed to put
+     * @return the current generation
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Adds a principal to the cache, unless an eviction has happened since it was loaded, since it may then be out of date.
+     * If the cache is full, expired entries are removed first, and if that is not enough, arbitrary entries are removed until there is room.
+     * @param username the username of the principal
+     * @param details the principal
+     * @param loadedGeneration the generation of the cache when the principal was loaded
+     */
+    public void put(String username, PersonDetails details, long loadedGeneration) {
+        if (generation.get() != loadedGeneration) {
+            return;
+        }
+        if (principals.size() >= maxEntries) {
+            evictOverflow();
+        }
+        CachedPrincipal cached = new CachedPrincipal(details, System.nanoTime() + timeToLiveNanos);
+        principals.put(username, cached);
+        //An eviction may have happened while the principal was being added, in which case it is removed again
+        if (generation.get() != loadedGeneration) {
+            principals.remove(username, cached);
+        }
+    }
+
+    /**
+     * Removes the principal for a username from the cache
+     * @param username the username of the principal to remove, if this is null nothing is removed since no principal can be cached for it
+     */
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        principals.remove(username);
+    }
+
+    /**
+     * Removes every principal from the cache
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        principals.clear();
+    }
+
+    /**
+     * Returns the number of principals in the cache
+     * @return the number of cached principals, including expired ones which have not yet been removed
+     */
+    public int size() {
+        return principals.size();
+    }
+
+    /**
+     * Removes all expired entries, and then arbitrary entries until the cache is below its maximum size
+     */
+    private void evictOverflow() {
+        long now = System.nanoTime();
+        principals.values().removeIf(cached -> cached.isExpired(now));
+        Iterator<String> usernames = principals.keySet().iterator();
+        while (principals.size() >= maxEntries && usernames.hasNext()) {
+            usernames.next();
+            usernames.remove();
+        }
+    }
+
+    /**
+     * A cached principal along with the time it expires
+     */
+    private static class CachedPrincipal {
+        private final PersonDetails details;
+        private final long expiresAtNanos;
+
+        /**
+         * Constructs a cache entry
+         * @param details the principal
+         * @param expiresAtNanos the value of System.nanoTime() at which the entry expires
+         */
+        private CachedPrincipal(PersonDetails details, long expiresAtNanos) {
+            this.details = details;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        /**
+         * Checks if the entry has expired
+         * @param now the current value of System.nanoTime()
+         * @return true if the entry has expired, false otherwise
+         */
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
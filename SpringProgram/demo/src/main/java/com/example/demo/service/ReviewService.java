@@ -1,18 +1,31 @@
 package com.example.demo.service;
 
 
+import java.sql.Date;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DatabaseDriver;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.domain.ApplicationPage;
+import com.example.demo.domain.ApplicationPageCursor;
 import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.ApplicationSummary;
 import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.domain.dto.ApplicationPageDTO;
+import com.example.demo.domain.dto.ApplicationSummaryDTO;
 import com.example.demo.domain.entity.Application;
 import com.example.demo.presentation.restException.ApplicationNotUpdatedException;
 import com.example.demo.presentation.restException.CustomDatabaseException;
@@ -24,25 +37,44 @@ import org.springframework.transaction.annotation.Propagation;
 
 @Service
 @Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
+@Observed(name = "service.method")
 /**
  * The ReviewService class provides services for handling application reviews.
  * It offers functionality for retrieving, updating application statuses, 
  * and checking application information.
  * It uses explicit transaction annotation to ensure a rollback occurs whenever an unchecked exception is thrown.
+ * The methods which list or search applications use read only transactions, so they are sent to a read replica when one is configured (see ReplicaDataSourceConfig).
+ * These join the caller's transaction if there is one instead of taking a second connection, and since they never change anything they do not mark it for rollback when they throw.
+ * In a read only transaction Hibernate neither keeps copies of the loaded entities to check them for changes nor flushes them.
+ * GetApplicationsById is not, since the version number it returns is used to update the application, which would fail if a replica had not yet seen the latest update.
+ * On PostgreSQL, applications are searched using a PostgreSQL specific query, which uses the indexes only created there (see ApplicationRepository.searchIdsPostgreSQL).
  */
 public class ReviewService {
     private final ApplicationRepository applicationRepository;
+    private final boolean postgreSQL;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ReviewService.class.getName()); 
 
+    /**
+     * The page size used by the paginated methods if none is specified
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * The largest page size the paginated methods allow, this bounds the memory a single review request can use
+     */
+    public static final int MAX_PAGE_SIZE = 200;
+
 
     /**
      * Constructs a new instance of the ReviewService (Spring boot managed).
      *
      * @param applicationRepository the repository for accessing application database data
+     * @param databaseUrl the jdbc url of the database, which decides if the PostgreSQL specific queries are used
      */
-    public ReviewService(ApplicationRepository applicationRepository) {
+    public ReviewService(ApplicationRepository applicationRepository, @Value("${spring.datasource.url:}") String databaseUrl) {
         this.applicationRepository = applicationRepository;
+        this.postgreSQL = DatabaseDriver.fromJdbcUrl(databaseUrl) == DatabaseDriver.POSTGRESQL;
     }
 
     /**
@@ -51,6 +83,7 @@ public class ReviewService {
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
      * @return a list of applications
      */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRED, noRollbackFor = Exception.class)
     public List<? extends ApplicationDTO> GetApplications() throws CustomDatabaseException {
         try {
             return applicationRepository.findAll();
@@ -71,7 +104,7 @@ public class ReviewService {
      */
     public ApplicationDTO GetApplicationsById(Integer id) throws CustomDatabaseException {
         try {
-            Optional<Application> result = applicationRepository.findById(id);
+            Optional<Application> result = FindApplicationWithDetails(id);
             Application resultValue = result.get();
             return resultValue;
         }
@@ -94,6 +127,7 @@ public class ReviewService {
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
      * @return a list of applications matching the status
      */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRED, noRollbackFor = Exception.class)
     public List<? extends ApplicationDTO> GetApplicationsByStatus(ApplicationStatus status)
       throws CustomDatabaseException {
         try {
@@ -106,6 +140,219 @@ public class ReviewService {
         }
     }
 
+    /**
+     * Returns one page of applications, ordered by application date and then application id
+     * 
+     * @param cursor the cursor of the last application on the previous page, or null to retrive the first page
+     * @param pageSize the maximum number of applications to return, must be between 1 and MAX_PAGE_SIZE
+     * @param includeTotal if the total number of applications should be counted, this requires an extra query so it can be turned off
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     * @return the page of applications
+     */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRED, noRollbackFor = Exception.class)
+    public ApplicationPageDTO<ApplicationDTO> GetApplicationsPage(ApplicationPageCursor cursor, int pageSize, boolean includeTotal) throws CustomDatabaseException {
+        try {
+            //We retrive one more application than requested, since if it exists we know there is a next page
+            List<Application> applications;
+            if (cursor == null) {
+                applications = applicationRepository.findAllByOrderByApplicationDateAscApplicationIdAsc(Limit.of(pageSize + 1));
+            } else {
+                applications = applicationRepository.findAllAfter(cursor.getApplicationDate(), cursor.getApplicationId(), Limit.of(pageSize + 1));
+            }
+
+            Long totalCount = includeTotal ? applicationRepository.count() : null;
+
+            return CreatePage(applications, pageSize, totalCount, application -> new ApplicationPageCursor(application.getApplicationDate(), application.getApplicationId()));
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to retrive a page of applications due to a database error : (`{}`)",e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
+
+    /**
+     * Returns one page of applications matching the specified application status, ordered by application date and then application id
+     * 
+     * @param status the application status to find a match for
+     * @param cursor the cursor of the last application on the previous page, or null to retrive the first page
+     * @param pageSize the maximum number of applications to return, must be between 1 and MAX_PAGE_SIZE
+     * @param includeTotal if the total number of matching applications should be counted, this requires an extra query so it can be turned off
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     * @return the page of applications matching the status
+     */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRED, noRollbackFor = Exception.class)
+    public ApplicationPageDTO<ApplicationDTO> GetApplicationsPageByStatus(ApplicationStatus status, ApplicationPageCursor cursor, int pageSize, boolean includeTotal) throws CustomDatabaseException {
+        try {
+            //We retrive one more application than requested, since if it exists we know there is a next page
+            List<Application> applications;
+            if (cursor == null) {
+                applications = applicationRepository.findAllByApplicationStatusOrderByApplicationDateAscApplicationIdAsc(status, Limit.of(pageSize + 1));
+            } else {
+                applications = applicationRepository.findAllByApplicationStatusAfter(status, cursor.getApplicationDate(), cursor.getApplicationId(), Limit.of(pageSize + 1));
+            }
+
+            Long totalCount = includeTotal ? applicationRepository.countByApplicationStatus(status) : null;
+
+            return CreatePage(applications, pageSize, totalCount, application -> new ApplicationPageCursor(application.getApplicationDate(), application.getApplicationId()));
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to retrive a page of applications by status (`{}`) due to a database error : (`{}`)",status.toString(),e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
+
+    /**
+     * Returns one page of application summaries, ordered by application date and then application id
+     * The summaries are created by a single projection query, so no applicant, availability period or competence profile is loaded
+     * 
+     * @param cursor the cursor of the last application on the previous page, or null to retrive the first page
+     * @param pageSize the maximum number of summaries to return, must be between 1 and MAX_PAGE_SIZE
+     * @param includeTotal if the total number of applications should be counted, this requires an extra query so it can be turned off
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     * @return the page of application summaries
+     */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRED, noRollbackFor = Exception.class)
+    public ApplicationPageDTO<ApplicationSummaryDTO> GetApplicationSummaries(ApplicationPageCursor cursor, int pageSize, boolean includeTotal) throws CustomDatabaseException {
+        try {
+            //We retrive one more summary than requested, since if it exists we know there is a next page
+            List<ApplicationSummary> summaries;
+            if (cursor == null) {
+                summaries = applicationRepository.findAllSummaries(Limit.of(pageSize + 1));
+            } else {
+                summaries = applicationRepository.findAllSummariesAfter(cursor.getApplicationDate(), cursor.getApplicationId(), Limit.of(pageSize + 1));
+            }
+
+            Long totalCount = includeTotal ? applicationRepository.count() : null;
+
+            return CreatePage(summaries, pageSize, totalCount, summary -> new ApplicationPageCursor(summary.getApplicationDate(), summary.getApplicationId()));
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to retrive a page of application summaries due to a database error : (`{}`)",e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
+
+    /**
+     * Returns one page of application summaries matching the specified application status, ordered by application date and then application id
+     * 
+     * @param status the application status to find a match for
+     * @param cursor the cursor of the last application on the previous page, or null to retrive the first page
+     * @param pageSize the maximum number of summaries to return, must be between 1 and MAX_PAGE_SIZE
+     * @param includeTotal if the total number of matching applications should be counted, this requires an extra query so it can be turned off
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     * @return the page of application summaries matching the status
+     */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRED, noRollbackFor = Exception.class)
+    public ApplicationPageDTO<ApplicationSummaryDTO> GetApplicationSummariesByStatus(ApplicationStatus status, ApplicationPageCursor cursor, int pageSize, boolean includeTotal) throws CustomDatabaseException {
+        try {
+            //We retrive one more summary than requested, since if it exists we know there is a next page
+            List<ApplicationSummary> summaries;
+            if (cursor == null) {
+                summaries = applicationRepository.findAllSummariesByApplicationStatus(status, Limit.of(pageSize + 1));
+            } else {
+                summaries = applicationRepository.findAllSummariesByApplicationStatusAfter(status, cursor.getApplicationDate(), cursor.getApplicationId(), Limit.of(pageSize + 1));
+            }
+
+            Long totalCount = includeTotal ? applicationRepository.countByApplicationStatus(status) : null;
+
+            return CreatePage(summaries, pageSize, totalCount, summary -> new ApplicationPageCursor(summary.getApplicationDate(), summary.getApplicationId()));
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to retrive a page of application summaries by status (`{}`) due to a database error : (`{}`)",status.toString(),e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
+
+    /**
+     * Returns one page of summaries of the applications with a specific application status which can be staffed for a date window, ordered by application date and then application id
+     * An application matches if one of its availability periods covers the whole window, and it has at least the minimum years of experience in every specified competence
+     * The total number of matches is never counted, since that would require evaluating every matching application instead of only one page of them
+     * 
+     * @param status the application status to find a match for
+     * @param fromDate the first day of the window
+     * @param toDate the last day of the window, which may not be before fromDate
+     * @param competenceIds the competences the applicant must have, which may not be empty
+     * @param minimumYearsOfExperience the minimum years of experience for each competence
+     * @param cursor the cursor of the last application on the previous page, or null to retrive the first page
+     * @param pageSize the maximum number of summaries to return, must be between 1 and MAX_PAGE_SIZE
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     * @return the page of matching application summaries
+     */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRED, noRollbackFor = Exception.class)
+    public ApplicationPageDTO<ApplicationSummaryDTO> SearchApplicationSummaries(ApplicationStatus status, Date fromDate, Date toDate, Set<Integer> competenceIds,
+      double minimumYearsOfExperience, ApplicationPageCursor cursor, int pageSize) throws CustomDatabaseException {
+        try {
+            //We retrive one more summary than requested, since if it exists we know there is a next page
+            List<ApplicationSummary> summaries;
+            if (postgreSQL) {
+                summaries = SearchSummariesPostgreSQL(status, fromDate, toDate, competenceIds, minimumYearsOfExperience, cursor, pageSize + 1);
+            } else if (cursor == null) {
+                summaries = applicationRepository.searchSummaries(status, fromDate, toDate, competenceIds, competenceIds.size(), minimumYearsOfExperience, Limit.of(pageSize + 1));
+            } else {
+                summaries = applicationRepository.searchSummariesAfter(status, fromDate, toDate, competenceIds, competenceIds.size(), minimumYearsOfExperience,
+                  cursor.getApplicationDate(), cursor.getApplicationId(), Limit.of(pageSize + 1));
+            }
+
+            return CreatePage(summaries, pageSize, null, summary -> new ApplicationPageCursor(summary.getApplicationDate(), summary.getApplicationId()));
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to search for applications with status (`{}`) from (`{}`) to (`{}`) with competences (`{}`) due to a database error : (`{}`)",status.toString(),fromDate,toDate,competenceIds,e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
+
+    /**
+     * Searches for application summaries using the PostgreSQL specific queries, which first find the ids of the matching applications and then their summaries
+     * @param status the application status to find a match for
+     * @param fromDate the first day of the window
+     * @param toDate the last day of the window
+     * @param competenceIds the competences the applicant must have, which may not be empty
+     * @param minimumYearsOfExperience the minimum years of experience for each competence
+     * @param cursor the cursor of the last application on the previous page, or null to retrive the first page
+     * @param limit the maximum number of summaries to return
+     * @return the matching application summaries, ordered by application date and then application id
+     */
+    private List<ApplicationSummary> SearchSummariesPostgreSQL(ApplicationStatus status, Date fromDate, Date toDate, Set<Integer> competenceIds,
+      double minimumYearsOfExperience, ApplicationPageCursor cursor, int limit) {
+        Collection<Integer> competenceTokens = ApplicationRepository.competenceTokens(competenceIds, minimumYearsOfExperience);
+        applicationRepository.useCustomPlans();
+        List<Integer> applicationIds;
+        if (cursor == null) {
+            applicationIds = applicationRepository.searchIdsPostgreSQL(status.name(), fromDate, toDate, competenceIds, competenceTokens, competenceIds.size(),
+              minimumYearsOfExperience, limit);
+        } else {
+            applicationIds = applicationRepository.searchIdsAfterPostgreSQL(status.name(), fromDate, toDate, competenceIds, competenceTokens, competenceIds.size(),
+              minimumYearsOfExperience, cursor.getApplicationDate(), cursor.getApplicationId(), limit);
+        }
+        if (applicationIds.isEmpty()) {
+            return List.of();
+        }
+        return applicationRepository.findAllSummariesByApplicationIdIn(applicationIds);
+    }
+
+    /**
+     * Creates a page from a list of applications containing at most one more application than the page size
+     * @param <T> the type used to represent each application
+     * @param applications the applications retrived for this page, including the potential extra application
+     * @param pageSize the page size
+     * @param totalCount the total number of matching applications, or null if it was not requested
+     * @param cursorOf a function creating the cursor pointing at a specific application
+     * @return the page, with a next cursor only if the extra application existed
+     */
+    private <T> ApplicationPageDTO<T> CreatePage(List<? extends T> applications, int pageSize, Long totalCount, Function<T, ApplicationPageCursor> cursorOf) {
+        if (applications.size() <= pageSize) {
+            return new ApplicationPage<T>(applications, null, pageSize, totalCount);
+        }
+        List<? extends T> pageContent = applications.subList(0, pageSize);
+        String nextCursor = cursorOf.apply(pageContent.get(pageSize - 1)).encode();
+        return new ApplicationPage<T>(pageContent, nextCursor, pageSize, totalCount);
+    }
+
     /**
      * This function first checks if an application exists with a specific id, and then confirms the application has the correct version number, if so it updates the applicaton status to the specified value and then returns the updated application 
      * @param applicationID The id for the application to update
@@ -119,7 +366,7 @@ public class ReviewService {
     public ApplicationDTO SetApplicationStatus(Integer applicationID,ApplicationStatus newStatus,Integer currentVersionNumber)
      throws ApplicationNotFoundException, ApplicationNotUpdatedException, CustomDatabaseException{
         try {
-            Optional<Application> applicationToUpdateContainer=applicationRepository.findById(applicationID);
+            Optional<Application> applicationToUpdateContainer=FindApplicationWithDetails(applicationID);
             //This check is for if an application with this id existed or not, if not we throw a specific exception here
             if (applicationToUpdateContainer.isEmpty()) {
                 LOGGER.error("Failed to update application due to no application existing with specified application id (`{}`)",applicationID);
@@ -153,4 +400,20 @@ public class ReviewService {
         }
 
     }
+
+    /**
+     * Finds an application by its id, along with everything which is shown when returning it, meaning the applicant (with role), availability periods and competence profiles (with competence)
+     * This is done in two queries, one per collection, instead of loading each association separately once it is accessed
+     * @param applicationId the id of the application to find
+     * @return An optional containing the application with its details loaded, if found
+     */
+    private Optional<Application> FindApplicationWithDetails(Integer applicationId) {
+        Optional<Application> applicationContainer = applicationRepository.findWithAvailabilityPeriodsByApplicationId(applicationId);
+        if (applicationContainer.isEmpty()) {
+            return applicationContainer;
+        }
+        //Since the application is now managed by this transaction, this query fills in the competence profiles of the same instance
+        applicationRepository.findWithCompetenceProfilesByApplicationId(applicationId);
+        return applicationContainer;
+    }
 }
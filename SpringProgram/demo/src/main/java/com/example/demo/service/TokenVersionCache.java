@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TokenVersionCache is a bounded cache of person ids mapped to the token version read from the database, with a short fixed time to live.
+ * It is used by PersonService so that JwtAuthFilter only reads a person's token version from the database once per time to live, instead of for every request.
+ * Since every instance of the application reads the token version from the database once its entry expires, the time to live bounds how long
+ * a token revoked by another instance can still be used. The instance revoking the tokens updates its own entry as soon as the revocation is committed.
+ * Token versions only ever increase, so a version is never replaced by a lower one which was read before it.
+ */
+public class TokenVersionCache {
+    private final int maxEntries;
+    private final long timeToLiveNanos;
+    private final Map<Integer,CachedTokenVersion> tokenVersions = new ConcurrentHashMap<Integer,CachedTokenVersion>();
+
+    /**
+     * Constructs an empty cache
+     * @param maxEntries the largest number of token versions kept in the cache
+     * @param timeToLive how long a token version is kept in the cache after being read
+     */
+    public TokenVersionCache(int maxEntries, Duration timeToLive) {
+        this.maxEntries = maxEntries;
+        this.timeToLiveNanos = timeToLive.toNanos();
+    }
+
+    /**
+     * Returns the cached token version of a person, if it has been read and has not expired since
+     * @param personId the id of the person
+     * @return the token version, or null if it is not cached or has expired
+     */
+    public Integer get(Integer personId) {
+        CachedTokenVersion cached = tokenVersions.get(personId);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.isExpired(System.nanoTime())) {
+            tokenVersions.remove(personId, cached);
+            return null;
+        }
+        return cached.tokenVersion;
+    }
+
+    /**
+     * Adds the token version of a person to the cache, unless a higher token version is already cached for the person.
+     * If the cache is full, expired entries are removed first, and if that is not enough, arbitrary entries are removed until there is room.
+     * @param personId the id of the person
+     * @param tokenVersion the token version of the person
+     */
+    public void put(Integer personId, int tokenVersion) {
+        if (tokenVersions.size() >= maxEntries) {
+            evictOverflow();
+        }
+        CachedTokenVersion added = new CachedTokenVersion(tokenVersion, System.nanoTime() + timeToLiveNanos);
+        tokenVersions.merge(personId, added, (cached, read) -> cached.tokenVersion > read.tokenVersion ? cached : read);
+    }
+
+    /**
+     * Returns the number of token versions in the cache
+     * @return the number of cached token versions, including expired ones which have not yet been removed
+     */
+    public int size() {
+        return tokenVersions.size();
+    }
+
+    /**
+     * Removes all expired entries, and then arbitrary entries until the cache is below its maximum size
+     */
+    private void evictOverflow() {
+        long now = System.nanoTime();
+        tokenVersions.values().removeIf(cached -> cached.isExpired(now));
+        Iterator<Integer> personIds = tokenVersions.keySet().iterator();
+        while (tokenVersions.size() >= maxEntries && personIds.hasNext()) {
+            personIds.next();
+            personIds.remove();
+        }
+    }
+
+    /**
+     * A cached token version along with the time it expires
+     */
+    private static class CachedTokenVersion {
+        private final int tokenVersion;
+        private final long expiresAtNanos;
+
+        /**
+         * Constructs a cache entry
+         * @param tokenVersion the token version
+         * @param expiresAtNanos the value of System.nanoTime() at which the entry expires
+         */
+        private CachedTokenVersion(int tokenVersion, long expiresAtNanos) {
+            this.tokenVersion = tokenVersion;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        /**
+         * Checks if the entry has expired
+         * @param now the current value of System.nanoTime()
+         * @return true if the entry has expired, false otherwise
+         */
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
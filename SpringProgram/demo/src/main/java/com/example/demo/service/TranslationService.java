@@ -2,14 +2,31 @@ package com.example.demo.service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.transaction.annotation.Propagation;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.example.demo.domain.ReferenceDataSnapshot;
 import com.example.demo.domain.dto.CompetenceDTO;
 import com.example.demo.domain.dto.CompetenceTranslationDTO;
 import com.example.demo.domain.dto.LanguageDTO;
@@ -24,16 +41,41 @@ import com.example.demo.repository.CompetenceRepository;
 import com.example.demo.repository.CompetenceTranslationRepository;
 import com.example.demo.repository.LanguageRepository;
 
+import jakarta.persistence.EntityManagerFactory;
+
 @Service
-@Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW) 
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Observed(name = "service.method")
 /**
  * The TranslationService class provides services for endpoints, specifically regarding handling translation (and internationalization)
- * It uses explicit transaction annotation to ensure a rollback occurs whenever an unchecked exception is thrown.
+ * Competences, languages and competence translations almost never change, so they are cached in memory as immutable snapshots (see ReferenceDataSnapshot),
+ * each with a pre-serialised JSON payload, and are only loaded from the database on a cache miss.
+ * This is why the class runs without a transaction by default, and a transaction is only started (using transactionTemplate) when the database is actually accessed,
+ * so a cache hit never takes a connection from the pool.
+ * The entities themselves are also kept in hibernate's second level cache (see application.conf), which is cleared along with the snapshots.
+ * That transaction is not read only, so a snapshot is always loaded from the primary database, since it is kept until the next invalidation and a read replica may not yet have the latest changes.
+ * GetSpecificCompetence is not cached, so it uses a read only transaction, which is sent to a read replica when one is configured (see ReplicaDataSourceConfig),
+ * and joins the caller's transaction if there is one instead of taking a second connection.
+ * Methods which always access the database use explicit transaction annotation to ensure a rollback occurs whenever an unchecked exception is thrown.
+ * The cache hits and misses are published as the translation.cache.requests counter, tagged with the result (hit or miss).
  */
-public class TranslationService {
+public class TranslationService implements MeterBinder {
     private final CompetenceRepository competenceRepository;
     private final LanguageRepository languageRepository;
     private final CompetenceTranslationRepository competenceTranslationRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    //These are the cached snapshots, which are empty until first requested and after each invalidation
+    private final AtomicReference<ReferenceDataSnapshot<CompetenceDTO>> competences = new AtomicReference<ReferenceDataSnapshot<CompetenceDTO>>();
+    private final AtomicReference<ReferenceDataSnapshot<LanguageDTO>> languages = new AtomicReference<ReferenceDataSnapshot<LanguageDTO>>();
+    private final ConcurrentHashMap<String,ReferenceDataSnapshot<CompetenceTranslationDTO>> competenceTranslations = new ConcurrentHashMap<String,ReferenceDataSnapshot<CompetenceTranslationDTO>>();
+
+    //This is incremented on every invalidation, so a snapshot which was loaded before an invalidation is never kept after it
+    private final AtomicLong cacheGeneration = new AtomicLong();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
 
     //We create a logger
     private static final Logger LOGGER = LoggerFactory.getLogger(TranslationService.class.getName()); 
@@ -42,27 +84,29 @@ public class TranslationService {
      * Constructs a new instance of the TranslationService (Spring boot managed).
      *
      * @param competenceRepository the repository for accessing competence database data
+     * @param languageRepository the repository for accessing language database data
+     * @param competenceTranslationRepository the repository for accessing competence translation database data
+     * @param objectMapper the object mapper used to pre-serialise the cached snapshots, which is the same one used when sending responses
+     * @param transactionManager the transaction manager used to start a transaction on a cache miss
+     * @param entityManagerFactory the entity manager factory, whose second level cache is cleared when the cached reference data is invalidated
      */
-    public TranslationService(CompetenceRepository competenceRepository,LanguageRepository languageRepository,CompetenceTranslationRepository competenceTranslationRepository) {
+    public TranslationService(CompetenceRepository competenceRepository,LanguageRepository languageRepository,CompetenceTranslationRepository competenceTranslationRepository,
+      ObjectMapper objectMapper,PlatformTransactionManager transactionManager,EntityManagerFactory entityManagerFactory) {
         this.competenceRepository = competenceRepository;
         this.languageRepository=languageRepository;
         this.competenceTranslationRepository=competenceTranslationRepository;
+        this.objectMapper=objectMapper;
+        this.transactionTemplate=new TransactionTemplate(transactionManager);
+        this.entityManagerFactory=entityManagerFactory;
     }
 
     /**
      * Returns a list of all the existing competences, may contain 0 or more elements
-     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
-     * @return the list containing the existing competences
+     * @throws CustomDatabaseException this is thrown if the competences are not cached and any of the jpa methods fail for some reason
+     * @return the unmodifiable list containing the existing competences
      */
     public List<? extends CompetenceDTO> GetCompetences() throws CustomDatabaseException {
-        try {
-            return competenceRepository.findAll();
-        }
-        catch(DataAccessException e)
-        {
-            LOGGER.error("Failed to find competences due to a database error : (`{}`)",e.getMessage());
-            throw new CustomDatabaseException();
-        }
+        return GetCompetencesSnapshot().getValues();
     }
 
     /**
@@ -72,6 +116,7 @@ public class TranslationService {
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
      * @return If it does not throw the above exception, it will return a DTO representing the specified competence
      */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRED, noRollbackFor = Exception.class)
     public CompetenceDTO GetSpecificCompetence(Integer id) throws SpecificCompetenceNotFoundException, CustomDatabaseException{
         try {
             //We search for a competence with this specific id
@@ -97,11 +142,153 @@ public class TranslationService {
      * @param languageName the name of the language for which translations are searched for
      * @throws LanguageNotFoundException if no language exists with the specified name, and results in TranslationRestAdvice.java sending a 404 with a relevant error message
      * @throws TranslationsNotFoundException if no competence translations exists for the specified language, and results in TranslationRestAdvice.java sending a 404 with a relevant error message
+     * @throws CustomDatabaseException this is thrown if the translations are not cached and any of the jpa methods fail for some reason
+     * @return If it does not throw one of the above exception, it will return an unmodifiable list representing competence translations for the specified language
+     */
+    public List<? extends CompetenceTranslationDTO> GetCompetenceTranslation(String languageName)
+      throws LanguageNotFoundException, TranslationsNotFoundException, CustomDatabaseException {
+        return GetCompetenceTranslationSnapshot(languageName).getValues();
+    }
+
+    /**
+     * Returns a list of supported languages
+     * @throws CustomDatabaseException this is thrown if the languages are not cached and any of the jpa methods fail for some reason
+     * @return The unmodifiable list of supported languages
+     */
+    public List<? extends LanguageDTO> GetLanguages() throws CustomDatabaseException {
+        return GetLanguagesSnapshot().getValues();
+    }
+
+    /**
+     * Invalidates all cached reference data, so the next request for it is loaded from the database.
+     * This includes the entities in hibernate's second level cache, so changes made directly in the database are seen without waiting for them to expire.
+     * This should be called whenever competences, languages or competence translations are changed,
+     * and is called automatically once the application has started, since DatabaseLoader may have changed them after the first requests were served.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void InvalidateReferenceDataCache() {
+        cacheGeneration.incrementAndGet();
+        //The second level cache is cleared first, so the snapshots are not loaded again from outdated entities
+        entityManagerFactory.getCache().evictAll();
+        competences.set(null);
+        languages.set(null);
+        competenceTranslations.clear();
+        LOGGER.info("Reference data cache invalidated");
+    }
+
+    /**
+     * Returns the number of requests for reference data which were served from the cache
+     * @return the number of cache hits since the application started
+     */
+    public long GetCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Returns the number of requests for reference data which had to be loaded from the database
+     * @return the number of cache misses since the application started
+     */
+    public long GetCacheMissCount() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * Registers the cache hit and miss counters with a meter registry, which Spring Boot does for the application's registry once the service is created.
+     * The counters read the same totals as GetCacheHitCount and GetCacheMissCount, but without calling them, so reading them is not observed as a service call.
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("translation.cache.requests", cacheHits, LongAdder::sum)
+          .description("The requests for reference data, by whether they were served from the cache")
+          .tag("result", "hit")
+          .register(registry);
+        FunctionCounter.builder("translation.cache.requests", cacheMisses, LongAdder::sum)
+          .description("The requests for reference data, by whether they were served from the cache")
+          .tag("result", "miss")
+          .register(registry);
+    }
+
+    /**
+     * Returns the cached competences, loading them from the database on a cache miss.
+     * Endpoints use this to send the pre-serialised payload and its ETag, which always belong to the same snapshot.
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
-     * @return If it does not throw one of the above exception, it will return a list representing competence translations for the specified language
+     * @return the competences snapshot
      */
+    public ReferenceDataSnapshot<CompetenceDTO> GetCompetencesSnapshot() throws CustomDatabaseException {
+        ReferenceDataSnapshot<CompetenceDTO> snapshot=competences.get();
+        if (snapshot!=null) {
+            cacheHits.increment();
+            return snapshot;
+        }
+        cacheMisses.increment();
+        long generation=cacheGeneration.get();
 
-    public List<? extends CompetenceTranslationDTO> GetCompetenceTranslation(String languageName)
+        List<Competence> loaded;
+        try {
+            loaded=transactionTemplate.execute(status -> competenceRepository.findAll());
+        }
+        catch(DataAccessException | TransactionException e)
+        {
+            LOGGER.error("Failed to find competences due to a database error : (`{}`)",e.getMessage());
+            throw new CustomDatabaseException();
+        }
+
+        snapshot=CreateSnapshot(loaded);
+        competences.set(snapshot);
+        if (cacheGeneration.get()!=generation) {
+            competences.compareAndSet(snapshot, null);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the cached competence translations for a specific language, loading them from the database on a cache miss.
+     * Endpoints use this to send the pre-serialised payload and its ETag, which always belong to the same snapshot.
+     * Only languages which exist and have translations are cached, so requests for unknown languages can not grow the cache.
+     * @param languageName the name of the language for which translations are searched for
+     * @throws LanguageNotFoundException if no language exists with the specified name
+     * @throws TranslationsNotFoundException if no competence translations exists for the specified language
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     * @return the competence translations snapshot for the specified language
+     */
+    public ReferenceDataSnapshot<CompetenceTranslationDTO> GetCompetenceTranslationSnapshot(String languageName)
+      throws LanguageNotFoundException, TranslationsNotFoundException, CustomDatabaseException {
+        ReferenceDataSnapshot<CompetenceTranslationDTO> snapshot=competenceTranslations.get(languageName);
+        if (snapshot!=null) {
+            cacheHits.increment();
+            return snapshot;
+        }
+        cacheMisses.increment();
+        long generation=cacheGeneration.get();
+
+        List<CompetenceTranslation> loaded;
+        try {
+            loaded=transactionTemplate.execute(status -> LoadCompetenceTranslation(languageName));
+        }
+        catch(TransactionException e)
+        {
+            LOGGER.error("Failed to retrive a list of translations for (`{}`) due to a database error : (`{}`)",languageName,e.getMessage());
+            throw new CustomDatabaseException();
+        }
+
+        snapshot=CreateSnapshot(loaded);
+        competenceTranslations.put(languageName, snapshot);
+        if (cacheGeneration.get()!=generation) {
+            competenceTranslations.remove(languageName, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Loads the competence translations for a specific language from the database, this must be called within a transaction
+     * @param languageName the name of the language for which translations are searched for
+     * @throws LanguageNotFoundException if no language exists with the specified name
+     * @throws TranslationsNotFoundException if no competence translations exists for the specified language
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     * @return the list of competence translations for the specified language
+     */
+    private List<CompetenceTranslation> LoadCompetenceTranslation(String languageName)
       throws LanguageNotFoundException, TranslationsNotFoundException, CustomDatabaseException {
             Language langague;
             //We try to retrive the specific language, and if it can not be found we throw a specific error
@@ -144,18 +331,52 @@ public class TranslationService {
     }
 
     /**
-     * Returns a list of supported languages
+     * Returns the cached languages, loading them from the database on a cache miss.
+     * Endpoints use this to send the pre-serialised payload and its ETag, which always belong to the same snapshot.
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
-     * @return The list of supported languages
+     * @return the languages snapshot
      */
-    public List<? extends LanguageDTO> GetLanguages() throws CustomDatabaseException {
+    public ReferenceDataSnapshot<LanguageDTO> GetLanguagesSnapshot() throws CustomDatabaseException {
+        ReferenceDataSnapshot<LanguageDTO> snapshot=languages.get();
+        if (snapshot!=null) {
+            cacheHits.increment();
+            return snapshot;
+        }
+        cacheMisses.increment();
+        long generation=cacheGeneration.get();
+
+        List<Language> loaded;
         try {
-            return languageRepository.findAll();
+            loaded=transactionTemplate.execute(status -> languageRepository.findAll());
         }
-        catch(DataAccessException e)
+        catch(DataAccessException | TransactionException e)
         {
             LOGGER.error("Failed to retrive a list of languages due to a database error : (`{}`)",e.getMessage());
             throw new CustomDatabaseException();
         }
+
+        snapshot=CreateSnapshot(loaded);
+        languages.set(snapshot);
+        if (cacheGeneration.get()!=generation) {
+            languages.compareAndSet(snapshot, null);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Creates an immutable snapshot of the specified values, along with their JSON payload
+     * @param <T> the type used to represent each value
+     * @param values the values to create a snapshot of
+     * @return the snapshot
+     */
+    private <T> ReferenceDataSnapshot<T> CreateSnapshot(List<? extends T> values) {
+        try {
+            return new ReferenceDataSnapshot<T>(values, objectMapper.writeValueAsBytes(values));
+        }
+        catch(JsonProcessingException e)
+        {
+            LOGGER.error("Failed to serialise reference data snapshot : (`{}`)",e.getMessage());
+            throw new IllegalStateException("Could not serialise reference data", e);
+        }
     }
 }
@@ -0,0 +1,53 @@
+-- The tables of the existing database, as created by "Database code/existing-database.sql"
+-- Databases created from that file already have these tables, so every statement only creates what is missing
+-- The identity columns of new databases are generated by default instead of always, so rows can also be inserted with a specified id, as the existing data is
+
+CREATE TABLE IF NOT EXISTS role (
+    role_id integer GENERATED BY DEFAULT AS IDENTITY,
+    name character varying(255),
+    CONSTRAINT role_pkey PRIMARY KEY (role_id)
+);
+
+CREATE TABLE IF NOT EXISTS person (
+    person_id integer GENERATED BY DEFAULT AS IDENTITY,
+    name character varying(255),
+    surname character varying(255),
+    pnr character varying(255),
+    email character varying(255),
+    password character varying(255),
+    role_id integer,
+    username character varying(255),
+    CONSTRAINT person_pkey PRIMARY KEY (person_id),
+    CONSTRAINT person_role_id_fkey FOREIGN KEY (role_id) REFERENCES role (role_id)
+);
+
+CREATE TABLE IF NOT EXISTS competence (
+    competence_id integer GENERATED BY DEFAULT AS IDENTITY,
+    name character varying(255),
+    CONSTRAINT competence_pkey PRIMARY KEY (competence_id)
+);
+
+CREATE TABLE IF NOT EXISTS competence_profile (
+    competence_profile_id integer GENERATED BY DEFAULT AS IDENTITY,
+    person_id integer,
+    competence_id integer,
+    years_of_experience double precision,
+    CONSTRAINT competence_profile_pkey PRIMARY KEY (competence_profile_id),
+    CONSTRAINT competence_profile_person_id_fkey FOREIGN KEY (person_id) REFERENCES person (person_id),
+    CONSTRAINT competence_profile_competence_id_fkey FOREIGN KEY (competence_id) REFERENCES competence (competence_id)
+);
+
+CREATE TABLE IF NOT EXISTS availability (
+    availability_id integer GENERATED BY DEFAULT AS IDENTITY,
+    person_id integer,
+    from_date date,
+    to_date date,
+    CONSTRAINT availability_pkey PRIMARY KEY (availability_id),
+    CONSTRAINT availability_person_id_fkey FOREIGN KEY (person_id) REFERENCES person (person_id)
+);
+
+-- The existing database stores this as numeric(4,2), which hibernate changed to the type of the entity's field before migrations were introduced
+ALTER TABLE competence_profile ALTER COLUMN years_of_experience SET DATA TYPE double precision;
+
+-- This column is not part of the existing database, it is used to revoke the login tokens of a person
+ALTER TABLE person ADD COLUMN IF NOT EXISTS token_version integer;
@@ -0,0 +1,57 @@
+-- The tables used by the application which are not part of the existing database
+-- Before migrations were introduced hibernate created these tables itself, so every statement only creates what is missing
+
+CREATE TABLE IF NOT EXISTS language (
+    language_id integer GENERATED BY DEFAULT AS IDENTITY,
+    name character varying(255) NOT NULL,
+    CONSTRAINT language_pkey PRIMARY KEY (language_id)
+);
+
+CREATE TABLE IF NOT EXISTS competence_translation (
+    competence_translation_id integer GENERATED BY DEFAULT AS IDENTITY,
+    competence_id integer NOT NULL,
+    language_id integer NOT NULL,
+    translation character varying(255) NOT NULL,
+    CONSTRAINT competence_translation_pkey PRIMARY KEY (competence_translation_id),
+    CONSTRAINT competence_translation_competence_id_fkey FOREIGN KEY (competence_id) REFERENCES competence (competence_id),
+    CONSTRAINT competence_translation_language_id_fkey FOREIGN KEY (language_id) REFERENCES language (language_id)
+);
+
+CREATE TABLE IF NOT EXISTS application (
+    application_id integer GENERATED BY DEFAULT AS IDENTITY,
+    person_id integer NOT NULL,
+    application_version_number bigint,
+    application_status character varying(255) NOT NULL CHECK (application_status IN ('unchecked', 'accepted', 'denied')),
+    application_date date,
+    CONSTRAINT application_pkey PRIMARY KEY (application_id),
+    CONSTRAINT application_person_id_fkey FOREIGN KEY (person_id) REFERENCES person (person_id)
+);
+
+CREATE TABLE IF NOT EXISTS application_availability_periods (
+    application_id integer NOT NULL,
+    availability_id integer NOT NULL,
+    CONSTRAINT application_availability_periods_application_id_fkey FOREIGN KEY (application_id) REFERENCES application (application_id),
+    CONSTRAINT application_availability_periods_availability_id_fkey FOREIGN KEY (availability_id) REFERENCES availability (availability_id)
+);
+
+CREATE TABLE IF NOT EXISTS application_competence_profile (
+    application_id integer NOT NULL,
+    competence_profile_id integer NOT NULL,
+    CONSTRAINT application_competence_profile_application_id_fkey FOREIGN KEY (application_id) REFERENCES application (application_id),
+    CONSTRAINT application_competence_profile_competence_profile_id_fkey FOREIGN KEY (competence_profile_id) REFERENCES competence_profile (competence_profile_id)
+);
+
+CREATE TABLE IF NOT EXISTS applicant_reset (
+    reset_id integer GENERATED BY DEFAULT AS IDENTITY,
+    person_id integer NOT NULL,
+    reset_date character varying(255) NOT NULL,
+    random_long bigint NOT NULL,
+    CONSTRAINT applicant_reset_pkey PRIMARY KEY (reset_id),
+    CONSTRAINT applicant_reset_person_id_fkey FOREIGN KEY (person_id) REFERENCES person (person_id)
+);
+
+-- This table belongs to the example entity, which is kept as a template for new entities
+CREATE TABLE IF NOT EXISTS entity_example (
+    id integer GENERATED BY DEFAULT AS IDENTITY,
+    CONSTRAINT entity_example_pkey PRIMARY KEY (id)
+);
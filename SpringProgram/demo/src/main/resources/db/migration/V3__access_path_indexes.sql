@@ -0,0 +1,16 @@
+-- The unique constraints and indexes declared on the entities, which support the most used repository queries
+-- Databases which have already been started with ddl-auto=update may have these, so every statement only creates what is missing
+
+-- Usernames, emails and person numbers are unique, existing recruiters have no email or person number and existing applicants have no username, which is allowed since null values are never equal
+CREATE UNIQUE INDEX IF NOT EXISTS person_username_key ON person (username);
+CREATE UNIQUE INDEX IF NOT EXISTS person_email_key ON person (email);
+CREATE UNIQUE INDEX IF NOT EXISTS person_pnr_key ON person (pnr);
+
+CREATE INDEX IF NOT EXISTS availability_person_id_from_date_to_date_idx ON availability (person_id, from_date, to_date);
+CREATE INDEX IF NOT EXISTS competence_profile_person_id_competence_id_idx ON competence_profile (person_id, competence_id);
+CREATE INDEX IF NOT EXISTS competence_translation_language_id_idx ON competence_translation (language_id);
+
+-- These match the order in which applications are paged, with or without filtering by status
+CREATE INDEX IF NOT EXISTS application_application_status_application_date_idx ON application (application_status, application_date, application_id);
+CREATE INDEX IF NOT EXISTS application_application_date_idx ON application (application_date, application_id);
+CREATE INDEX IF NOT EXISTS application_person_id_idx ON application (person_id);
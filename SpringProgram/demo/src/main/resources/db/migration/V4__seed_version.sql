@@ -0,0 +1,9 @@
+-- The version of the data loaded by DatabaseLoader, which only loads its data when this is older than the version it loads
+-- There is always exactly one row, and it starts at version 0 so databases which were seeded before this table existed are checked once more
+CREATE TABLE seed_version (
+    seed_version_id integer NOT NULL,
+    version integer NOT NULL,
+    CONSTRAINT seed_version_pkey PRIMARY KEY (seed_version_id)
+);
+
+INSERT INTO seed_version (seed_version_id, version) VALUES (1, 0);
@@ -0,0 +1,11 @@
+-- The indexes used when searching for applications which can be staffed for a date window (see ApplicationRepository.searchSummaries)
+-- The search reads applications in the order of the status and date index, and checks the availability periods and competence profiles of each one, which these find without reading the whole link tables
+
+CREATE INDEX IF NOT EXISTS application_availability_periods_application_id_idx ON application_availability_periods (application_id, availability_id);
+CREATE INDEX IF NOT EXISTS application_competence_profile_application_id_idx ON application_competence_profile (application_id, competence_profile_id);
+
+-- This finds the applications which include a period, which is used when periods are merged and when a period is deleted
+CREATE INDEX IF NOT EXISTS application_availability_periods_availability_id_idx ON application_availability_periods (availability_id);
+
+-- This finds the periods ending after the window, which are few when searching for applicants available in the future, since most periods have already ended
+CREATE INDEX IF NOT EXISTS availability_to_date_from_date_idx ON availability (to_date, from_date);
@@ -0,0 +1,6 @@
+-- Persons which existed before token versions were introduced were left without one, while every token issued for them has token version 0
+-- Their token version is set to 0, and the column can then never be empty again, so the token version read when checking a token always matches the one the token was issued with
+UPDATE person SET token_version = 0 WHERE token_version IS NULL;
+
+ALTER TABLE person ALTER COLUMN token_version SET DEFAULT 0;
+ALTER TABLE person ALTER COLUMN token_version SET NOT NULL;
@@ -0,0 +1,140 @@
+package com.example.demo.benchmark;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demo.domain.PersonDetails;
+import com.example.demo.service.JwtService;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * This benchmark measures how many tokens per second JwtService can sign and verify.
+ * The baseline benchmarks do the same work the way JwtService used to, decoding the secret into a new key and building a new parser for every token,
+ * so the results show the difference made by sharing one precomputed key and one parser.
+ * The principal benchmarks sign and verify login tokens including the person's id, roles and token version, from which requests are authorized.
+ * Run it using the main method, for example from the IDE, or with: mvn -Pbenchmarks test-compile exec:exec -Djmh.args=JwtServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private JwtService jwtService;
+    private String token;
+    private PersonDetails principal;
+    private String principalToken;
+
+    /**
+     * Creates the service and a token to verify
+     */
+    @Setup
+    public void setup() {
+        jwtService = new JwtService();
+        token = jwtService.generateToken("benchmarkUser");
+        principal = new PersonDetails(1, "benchmarkUser", List.of("applicant"), 0);
+        principalToken = jwtService.generateToken(principal);
+    }
+
+    /**
+     * Signs a token the way JwtService used to, decoding the secret into a new key for every token
+     * @return the signed token
+     */
+    @Benchmark
+    public String signBaseline() {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtService.SECRET));
+        return Jwts.builder()
+                .setClaims(new HashMap<>())
+                .setSubject("benchmarkUser")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 1000*60*30))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Signs a token using JwtService
+     * @return the signed token
+     */
+    @Benchmark
+    public String sign() {
+        return jwtService.generateToken("benchmarkUser");
+    }
+
+    /**
+     * Verifies a token the way JwtService used to, decoding the secret into a new key and building a new parser for every token
+     * @return the claims of the token
+     */
+    @Benchmark
+    public Claims verifyBaseline() {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtService.SECRET));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    /**
+     * Verifies a token using JwtService
+     * @return the claims of the token
+     */
+    @Benchmark
+    public Claims verify() {
+        return jwtService.extractAllClaims(token);
+    }
+
+    /**
+     * Signs a login token including the person's id, roles and token version using JwtService
+     * @return the signed token
+     */
+    @Benchmark
+    public String signPrincipal() {
+        return jwtService.generateToken(principal);
+    }
+
+    /**
+     * Verifies a login token and creates the principal from its claims using JwtService, as is done for every authenticated request
+     * @return the principal
+     */
+    @Benchmark
+    public PersonDetails verifyPrincipal() {
+        return jwtService.extractPrincipal(jwtService.extractAllClaims(principalToken));
+    }
+
+    /**
+     * Runs this benchmark
+     * @param args not used
+     * @throws RunnerException if the benchmark fails to run
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtServiceBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.demo.config.SecurityConfig;
+
+/**
+ * This benchmark measures how many logins per second a single core can verify, for each supported password hashing algorithm and a few work factors.
+ * It runs on one thread, so the results are logins per second per core, and multiplying them by security.login.threads gives the largest login rate the server can sustain.
+ * Use it to choose the strongest parameters which still handle the expected login rate, for example when an application window opens.
+ * Run it using the main method, for example from the IDE, or with: mvn -Pbenchmarks test-compile exec:exec -Djmh.args=PasswordHashingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(1)
+public class PasswordHashingBenchmark {
+
+    /**
+     * The algorithm and work factor, in the format "algorithm:workFactor", where the work factor is the bcrypt strength, the number of PBKDF2 iterations or the Argon2 memory in KiB
+     */
+    @Param({"bcrypt:10", "bcrypt:12", "pbkdf2:310000", "pbkdf2:600000", "argon2:19456", "argon2:47104"})
+    public String configuration;
+
+    private PasswordEncoder passwordEncoder;
+    private String hash;
+
+    /**
+     * Creates the password encoder and a hash to verify
+     */
+    @Setup
+    public void setup() {
+        String algorithm = configuration.substring(0, configuration.indexOf(':'));
+        int workFactor = Integer.parseInt(configuration.substring(configuration.indexOf(':') + 1));
+        passwordEncoder = SecurityConfig.createPasswordEncoder(algorithm,
+          algorithm.equals(SecurityConfig.BCRYPT_ID) ? workFactor : 10,
+          algorithm.equals(SecurityConfig.PBKDF2_ID) ? workFactor : 310000,
+          algorithm.equals(SecurityConfig.ARGON2_ID) ? workFactor : 19456, 2, 1);
+        hash = passwordEncoder.encode("benchmarkPassword");
+    }
+
+    /**
+     * Verifies a password, which is the work done for every login
+     * @return if the password matched
+     */
+    @Benchmark
+    public boolean login() {
+        return passwordEncoder.matches("benchmarkPassword", hash);
+    }
+
+    /**
+     * Runs the benchmark
+     * @param args unused
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PasswordHashingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.demo.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.dataset.DatasetDistributions;
+import com.example.demo.dataset.SyntheticDataGenerator;
+import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.domain.dto.CompetenceProfileDTO;
+import com.example.demo.domain.dto.PersonDTO;
+import com.example.demo.service.ApplicationService;
+import com.example.demo.service.PersonService;
+import com.example.demo.service.ReviewService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * This benchmark measures the read paths GetCompetenceProfilesForAPerson and GetApplicationsByStatus, both on their own and when called from within a transaction,
+ * the way another service or a batch job would call them, running in the full Spring context against an in-memory H2 database filled by SyntheticDataGenerator.
+ * At the end of each benchmark the number of connections, statements, flushes and transactions per call are printed, which are counted using Hibernate's statistics,
+ * so the benchmark shows how many connections a call takes from the pool when its caller already holds one.
+ * Run it with the gc profiler to also see the memory allocated per call (gc.alloc.rate.norm), which includes the copies Hibernate keeps of every loaded entity
+ * unless it is loaded as read only, for example: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="ReadPathBenchmark -prof gc"
+ * Note that GetApplicationsByStatus returns every application with the status, so rows also sets the size of its result.
+ * FindPersonByUsername is also measured, since it loads the person's role, which is found in hibernate's second level cache instead of the database once it has been loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ReadPathBenchmark {
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private ApplicationService applicationService;
+    private ReviewService reviewService;
+    private PersonService personService;
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private SyntheticDataGenerator.Dataset dataset;
+    private Random random;
+
+    //The number of calls made, and the statistics when the dataset had been generated, used to print the statistics per call
+    private long calls;
+    private long connectionsBefore;
+    private long statementsBefore;
+    private long flushesBefore;
+    private long transactionsBefore;
+
+    /**
+     * Starts the application against an empty in-memory database with Hibernate's statistics enabled, and generates the dataset
+     * @throws IOException if the existing data can not be read
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        //These are passed as command line arguments, since those override application.properties
+        context = new SpringApplicationBuilder(DemoApplication.class).run(
+          "--spring.datasource.url=jdbc:h2:mem:readpathbenchmark;DB_CLOSE_DELAY=-1",
+          "--spring.datasource.driver-class-name=org.h2.Driver",
+          "--spring.datasource.username=sa",
+          "--spring.datasource.password=",
+          "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+          "--spring.jpa.properties.hibernate.generate_statistics=true",
+          "--server.port=0",
+          "--logging.level.root=WARN",
+          "--logging.file.path=target/benchmark-logs/");
+        applicationService = context.getBean(ApplicationService.class);
+        reviewService = context.getBean(ReviewService.class);
+        personService = context.getBean("personService", PersonService.class);
+        //The caller's transaction is an ordinary read write transaction, like the ones of the services
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        dataset = new SyntheticDataGenerator(context.getBean(JdbcTemplate.class), DatasetDistributions.FromExistingDatabase(), 1201).Generate(rows);
+        random = new Random(1201);
+
+        connectionsBefore = statistics.getConnectCount();
+        statementsBefore = statistics.getPrepareStatementCount();
+        flushesBefore = statistics.getFlushCount();
+        transactionsBefore = statistics.getTransactionCount();
+    }
+
+    /**
+     * Prints the number of connections, statements, flushes and transactions per call, and stops the application, which also drops the database
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nPer call: %.2f connections, %.2f statements, %.2f flushes, %.2f transactions%n",
+          (double) (statistics.getConnectCount() - connectionsBefore) / calls,
+          (double) (statistics.getPrepareStatementCount() - statementsBefore) / calls,
+          (double) (statistics.getFlushCount() - flushesBefore) / calls,
+          (double) (statistics.getTransactionCount() - transactionsBefore) / calls);
+        context.close();
+    }
+
+    /**
+     * Finds the competence profiles of a random applicant which has applied
+     * @return the competence profiles
+     */
+    @Benchmark
+    public List<? extends CompetenceProfileDTO> getCompetenceProfilesForAPerson() {
+        calls++;
+        return applicationService.GetCompetenceProfilesForAPerson(RandomApplicantId());
+    }
+
+    /**
+     * Finds the competence profiles of a random applicant which has applied, from within a transaction
+     * @return the competence profiles
+     */
+    @Benchmark
+    public List<? extends CompetenceProfileDTO> getCompetenceProfilesForAPersonInTransaction() {
+        calls++;
+        return transactionTemplate.execute(status -> applicationService.GetCompetenceProfilesForAPerson(RandomApplicantId()));
+    }
+
+    /**
+     * Finds every unchecked application
+     * @return the applications
+     */
+    @Benchmark
+    public List<? extends ApplicationDTO> getApplicationsByStatus() {
+        calls++;
+        return reviewService.GetApplicationsByStatus(ApplicationStatus.unchecked);
+    }
+
+    /**
+     * Finds every unchecked application, from within a transaction
+     * @return the applications
+     */
+    @Benchmark
+    public List<? extends ApplicationDTO> getApplicationsByStatusInTransaction() {
+        calls++;
+        return transactionTemplate.execute(status -> reviewService.GetApplicationsByStatus(ApplicationStatus.unchecked));
+    }
+
+    /**
+     * Finds a random applicant by username, along with the applicant's role
+     * @return the applicant
+     */
+    @Benchmark
+    public Optional<? extends PersonDTO> findPersonByUsername() {
+        calls++;
+        return personService.FindPersonByUsername(dataset.getUsername(random.nextInt(dataset.getApplicants())));
+    }
+
+    /**
+     * Returns the person id of a random applicant which has applied, and so has competence profiles
+     * @return the person id
+     */
+    private Integer RandomApplicantId() {
+        return dataset.getPersonId(dataset.getApplicantWithApplication(random.nextInt(dataset.getApplicationCount())));
+    }
+
+    /**
+     * Runs this benchmark with the gc profiler
+     * @param args not used
+     * @throws RunnerException if the benchmark fails to run
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ReadPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
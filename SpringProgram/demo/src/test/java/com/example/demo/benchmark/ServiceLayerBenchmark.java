@@ -0,0 +1,191 @@
+package com.example.demo.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.dataset.DatasetDistributions;
+import com.example.demo.dataset.SyntheticDataGenerator;
+import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.service.ApplicationService;
+import com.example.demo.service.PersonService;
+import com.example.demo.service.ReviewService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * This benchmark measures the average time of the service layer hot paths, running in the full Spring context against an in-memory H2 database,
+ * which is filled with a synthetic dataset of 1k, 100k or 1M applicants by SyntheticDataGenerator, with the same shape as the existing data in "Database code/existing-database.sql".
+ * Comparing the results for the different sizes shows how each operation scales with the amount of data, and comparing them between commits shows regressions.
+ * Note that the application's info logging is turned off, so the results show the cost of the work itself, and that H2 has no network round trips, unlike PostgreSQL.
+ * Generating 1M applicants takes a few minutes and about 3GB of memory, so use -p rows=1000 for a quick run.
+ * Run it using the benchmarks Maven profile, for example: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="ServiceLayerBenchmark -p rows=1000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ServiceLayerBenchmark {
+    //The number of applications which are reviewed by setApplicationStatus and serialised by serialiseApplications
+    private static final int REVIEWED_APPLICATIONS = 1000;
+    private static final int SERIALISED_APPLICATIONS = 100;
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private ApplicationService applicationService;
+    private ReviewService reviewService;
+    private PersonService personService;
+    private ObjectMapper objectMapper;
+    private SyntheticDataGenerator.Dataset dataset;
+    private Random random;
+
+    //The current version and status of each reviewed application, which must be known to update its status
+    private long[] reviewedVersions;
+    private ApplicationStatus[] reviewedStatuses;
+    private int nextReviewed;
+
+    private List<ApplicationDTO> serialisedApplications;
+
+    /**
+     * Starts the application against an empty in-memory database and generates the dataset
+     * @throws IOException if the existing data can not be read
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        //These are passed as command line arguments, since those override application.properties
+        context = new SpringApplicationBuilder(DemoApplication.class).run(
+          "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+          "--spring.datasource.driver-class-name=org.h2.Driver",
+          "--spring.datasource.username=sa",
+          "--spring.datasource.password=",
+          "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+          "--server.port=0",
+          "--logging.level.root=WARN",
+          "--logging.file.path=target/benchmark-logs/");
+        applicationService = context.getBean(ApplicationService.class);
+        reviewService = context.getBean(ReviewService.class);
+        //SecurityConfig also exposes the same instance as the userDetailsService bean, so it is retrieved by name
+        personService = context.getBean("personService", PersonService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        dataset = new SyntheticDataGenerator(context.getBean(JdbcTemplate.class), DatasetDistributions.FromExistingDatabase(), 1201).Generate(rows);
+        random = new Random(1201);
+
+        int reviewed = Math.min(REVIEWED_APPLICATIONS, dataset.getApplicationCount());
+        reviewedVersions = new long[reviewed];
+        reviewedStatuses = new ApplicationStatus[reviewed];
+        serialisedApplications = new ArrayList<ApplicationDTO>();
+        for (int i = 0; i < reviewed; i++) {
+            ApplicationDTO application = reviewService.GetApplicationsById(dataset.getApplicationId(dataset.getApplicantWithApplication(i)));
+            reviewedVersions[i] = application.getVersionNumber();
+            reviewedStatuses[i] = application.getApplicationStatus();
+            if (i < SERIALISED_APPLICATIONS) {
+                serialisedApplications.add(application);
+            }
+        }
+    }
+
+    /**
+     * Stops the application, which also drops the database
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Submits a new application for a random applicant which has already applied, using their existing availability periods and competence profiles
+     * @return the submitted application
+     */
+    @Benchmark
+    public ApplicationDTO submitApplication() {
+        int applicant = dataset.getApplicantWithApplication(random.nextInt(dataset.getApplicationCount()));
+        return applicationService.SubmitApplication(dataset.getPersonId(applicant), dataset.getAvailabilityIds(applicant), dataset.getCompetenceProfileIds(applicant));
+    }
+
+    /**
+     * Changes the status of the next of the reviewed applications, alternating between accepted and denied
+     * @return the updated application
+     */
+    @Benchmark
+    public ApplicationDTO setApplicationStatus() {
+        int i = nextReviewed;
+        nextReviewed = (nextReviewed + 1) % reviewedVersions.length;
+        ApplicationStatus newStatus = reviewedStatuses[i] == ApplicationStatus.accepted ? ApplicationStatus.denied : ApplicationStatus.accepted;
+        ApplicationDTO application = reviewService.SetApplicationStatus(dataset.getApplicationId(dataset.getApplicantWithApplication(i)), newStatus, (int) reviewedVersions[i]);
+        reviewedVersions[i] = application.getVersionNumber();
+        reviewedStatuses[i] = newStatus;
+        return application;
+    }
+
+    /**
+     * Loads a random applicant which is not cached, as happens for the first request of each user and for every login
+     * @return the loaded user
+     */
+    @Benchmark
+    public UserDetails loadUserByUsernameUncached() {
+        String username = dataset.getUsername(random.nextInt(rows));
+        personService.EvictCachedPrincipal(username);
+        return personService.loadUserByUsername(username);
+    }
+
+    /**
+     * Loads the same applicant repeatedly, so every load after the first is answered by the principal cache
+     * @return the loaded user
+     */
+    @Benchmark
+    public UserDetails loadUserByUsernameCached() {
+        return personService.loadUserByUsername(dataset.getUsername(0));
+    }
+
+    /**
+     * Serialises a list of applications, including their applicant, availability periods and competence profiles, the way they are sent to recruiters
+     * @return the serialised applications
+     * @throws JsonProcessingException if the applications can not be serialised
+     */
+    @Benchmark
+    public byte[] serialiseApplications() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(serialisedApplications);
+    }
+
+    /**
+     * Runs this benchmark
+     * @param args not used
+     * @throws RunnerException if the benchmark fails to run
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ServiceLayerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.repository.CompetenceRepository;
+import com.example.demo.repository.CompetenceTranslationRepository;
+import com.example.demo.repository.LanguageRepository;
+
+/**
+ * This tests that DatabaseLoader only inserts the seed data which is missing, and that it is skipped once its version has been loaded.
+ * The schema is created by the migrations, since the seed version is not an entity, and each test is rolled back after it is over.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:seeddb", //This specifies the in-memory database url
+    "spring.jpa.hibernate.ddl-auto=validate" //This uses the schema created by the migrations, which includes the seed version
+})
+public class DatabaseLoaderTest {
+
+    @Autowired
+    private LanguageRepository languageRepository;
+
+    @Autowired
+    private CompetenceTranslationRepository competenceTranslationRepository;
+
+    @Autowired
+    private CompetenceRepository competenceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DatabaseLoader databaseLoader;
+
+    @BeforeEach
+    public void setUp() {
+        //The loader is created directly, so it runs in the transaction of the test instead of its own
+        databaseLoader = new DatabaseLoader(languageRepository, competenceTranslationRepository, competenceRepository, jdbcTemplate);
+    }
+
+    @Test
+    /**
+     * This tests that all of the seed data is loaded into an empty database with the existing competences, and that loading it again changes nothing
+     */
+    void loadSeedDataTest() throws Exception {
+        InsertCompetences();
+        databaseLoader.run();
+        assertSeedData(DatabaseLoader.SEED_VERSION, 6);
+
+        //Since the version is loaded, deleted seed data is not loaded again
+        competenceTranslationRepository.deleteAll();
+        databaseLoader.run();
+        assertSeedData(DatabaseLoader.SEED_VERSION, 0);
+
+        //Once the version is older again, only the missing rows are inserted
+        jdbcTemplate.update("UPDATE seed_version SET version = 0");
+        databaseLoader.run();
+        assertSeedData(DatabaseLoader.SEED_VERSION, 6);
+    }
+
+    @Test
+    /**
+     * This tests that the version is not updated when the competences to translate do not exist, so the translations are loaded on a later start once they do
+     */
+    void incompleteSeedDataTest() throws Exception {
+        databaseLoader.run();
+        assertSeedData(0, 0);
+
+        InsertCompetences();
+        databaseLoader.run();
+        assertSeedData(DatabaseLoader.SEED_VERSION, 6);
+    }
+
+    @Test
+    /**
+     * This tests that the loader is not created when it is disabled
+     */
+    void disabledTest() {
+        new ApplicationContextRunner().withPropertyValues("database.seed.enabled=false").withUserConfiguration(DatabaseLoader.class)
+          .run(context -> assertTrue(context.getBeansOfType(DatabaseLoader.class).isEmpty()));
+    }
+
+    /**
+     * Inserts the translated competences of the existing database, with the same ids
+     */
+    private void InsertCompetences() {
+        jdbcTemplate.update("INSERT INTO competence (competence_id, name) VALUES (1, 'ticket sales'), (2, 'lotteries'), (3, 'roller coaster operation')");
+    }
+
+    /**
+     * Checks the loaded version and the number of languages and competence translations
+     * @param version the expected seed version
+     * @param translations the expected number of competence translations
+     */
+    private void assertSeedData(int version, int translations) {
+        assertEquals(version, databaseLoader.CurrentSeedVersion(false));
+        assertEquals(2, languageRepository.count());
+        assertEquals(translations, competenceTranslationRepository.count());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class defines the unit tests for ExecutionModeConfig
+ */
+public class ExecutionModeConfigTest {
+
+    @Test
+    /**
+     * This tests that virtual threads are only reported as supported from Java 21
+     */
+    void isVirtualThreadsSupportedTest() {
+        assertFalse(ExecutionModeConfig.IsVirtualThreadsSupported(17));
+        assertFalse(ExecutionModeConfig.IsVirtualThreadsSupported(20));
+        assertTrue(ExecutionModeConfig.IsVirtualThreadsSupported(21));
+        assertTrue(ExecutionModeConfig.IsVirtualThreadsSupported(25));
+    }
+}
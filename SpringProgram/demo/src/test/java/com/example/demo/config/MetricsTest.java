@@ -0,0 +1,94 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.service.TranslationService;
+
+/**
+ * This class defines the tests for the metrics published at /actuator/prometheus, running the application against an in-memory database
+ */
+public class MetricsTest {
+    private static ConfigurableApplicationContext context;
+    private static HttpClient httpClient;
+    private static String baseUrl;
+
+    /**
+     * Starts the application against an empty in-memory database on a random port
+     */
+    @BeforeAll
+    public static void setUp() {
+        //These are passed as command line arguments, since those override application.properties
+        context = new SpringApplicationBuilder(DemoApplication.class).run(
+          "--spring.datasource.url=jdbc:h2:mem:metricstest;DB_CLOSE_DELAY=-1",
+          "--spring.datasource.driver-class-name=org.h2.Driver",
+          "--spring.datasource.username=sa",
+          "--spring.datasource.password=",
+          "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+          "--server.port=0",
+          "--logging.level.root=WARN",
+          "--logging.file.path=target/test-logs/");
+        httpClient = HttpClient.newHttpClient();
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    /**
+     * Stops the application, which also drops the database
+     */
+    @AfterAll
+    public static void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Sends a GET request to the specified path of the application, without a token
+     * @param path the path
+     * @return the response
+     * @throws IOException if the request fails
+     * @throws InterruptedException if the request is interrupted
+     */
+    private HttpResponse<String> Get(String path) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    /**
+     * This tests that the metrics of the services, repositories, connection pool, hibernate and the http requests can be read without a token
+     */
+    void prometheusTest() throws IOException, InterruptedException {
+        context.getBean(TranslationService.class).GetLanguages();
+        //The first request is only timed once it has completed, so it appears in the second one
+        assertEquals(200, Get("/actuator/prometheus").statusCode());
+
+        HttpResponse<String> response = Get("/actuator/prometheus");
+        assertEquals(200, response.statusCode());
+        String metrics = response.body();
+        assertTrue(metrics.contains("service_method_seconds_bucket{"));
+        assertTrue(metrics.contains("class=\"com.example.demo.service.TranslationService\""));
+        assertTrue(metrics.contains("method=\"GetLanguages\""));
+        assertTrue(metrics.contains("spring_data_repository_invocations_seconds_bucket{"));
+        assertTrue(metrics.contains("repository=\"LanguageRepository\""));
+        assertTrue(metrics.contains("hikaricp_connections_active{"));
+        assertTrue(metrics.contains("hibernate_second_level_cache_requests_total{"));
+        assertTrue(metrics.contains("translation_cache_requests_total{application=\"demo\",result=\"miss\"} 1.0"));
+        assertTrue(metrics.contains("translation_cache_requests_total{application=\"demo\",result=\"hit\"} 0.0"));
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket{"));
+        assertTrue(metrics.contains("uri=\"/actuator/prometheus\""));
+
+        assertEquals(200, Get("/actuator/health").statusCode());
+    }
+}
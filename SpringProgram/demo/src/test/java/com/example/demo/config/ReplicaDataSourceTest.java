@@ -0,0 +1,169 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * This class defines the tests for ReplicaDataSource and ReplicaDataSourceConfig, using two embedded databases as the primary database and the replica.
+ * Each database has a table containing its name, so the tests can see which database a query was sent to, and the lag of the replica is read from a table in it.
+ */
+public class ReplicaDataSourceTest {
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routingprimary;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:routingreplica;DB_CLOSE_DELAY=-1";
+    //This database does not exist, so no connection can be taken from it
+    private static final String MISSING_REPLICA_URL = "jdbc:h2:file:./target/missing-replica/db;IFEXISTS=TRUE";
+    private static final String LAG_QUERY = "SELECT seconds FROM replica_lag";
+
+    private final ReplicaDataSourceConfig config = new ReplicaDataSourceConfig();
+    private HikariDataSource primaryDataSource;
+    private ReplicaDataSource replicaDataSource;
+    private JdbcTemplate replicaJdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(PRIMARY_URL);
+        primaryDataSource = config.primaryDataSource(properties);
+        new JdbcTemplate(primaryDataSource).execute("CREATE TABLE IF NOT EXISTS database_name AS SELECT 'primary' AS name");
+
+        replicaJdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL));
+        replicaJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS database_name AS SELECT 'replica' AS name");
+        replicaJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS replica_lag (seconds DOUBLE PRECISION)");
+        replicaJdbcTemplate.execute("DELETE FROM replica_lag");
+        replicaJdbcTemplate.execute("INSERT INTO replica_lag VALUES (0.5)");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (replicaDataSource != null) {
+            replicaDataSource.close();
+        }
+        primaryDataSource.close();
+    }
+
+    @Test
+    /**
+     * This tests that only read only transactions are sent to the replica
+     */
+    void routingTest() {
+        DataSource dataSource = CreateDataSource(REPLICA_URL);
+        assertEquals(List.of("replica-1"), replicaDataSource.GetUsableReplicas());
+
+        assertEquals("replica", ReadName(dataSource, true));
+        assertEquals("primary", ReadName(dataSource, false));
+        assertEquals("primary", new JdbcTemplate(dataSource).queryForObject("SELECT name FROM database_name", String.class));
+
+        //The replica's connection pool publishes its metrics
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica-1").gauge());
+    }
+
+    @Test
+    /**
+     * This tests that a replica which is too far behind is not used until it has caught up again
+     */
+    void lagTest() {
+        DataSource dataSource = CreateDataSource(REPLICA_URL);
+
+        replicaJdbcTemplate.execute("UPDATE replica_lag SET seconds = 2");
+        replicaDataSource.CheckReplicas();
+        assertTrue(replicaDataSource.GetUsableReplicas().isEmpty());
+        assertEquals("primary", ReadName(dataSource, true));
+
+        replicaJdbcTemplate.execute("UPDATE replica_lag SET seconds = 0");
+        replicaDataSource.CheckReplicas();
+        assertEquals("replica", ReadName(dataSource, true));
+    }
+
+    @Test
+    /**
+     * This tests that a replica which can not be reached is not used, while the other replicas are, and that the primary database is used once no replica can be
+     */
+    void unreachableReplicaTest() {
+        DataSource dataSource = CreateDataSource(MISSING_REPLICA_URL + "," + REPLICA_URL);
+        assertEquals(List.of("replica-2"), replicaDataSource.GetUsableReplicas());
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica", ReadName(dataSource, true));
+        }
+
+        replicaJdbcTemplate.execute("DROP TABLE replica_lag");
+        replicaDataSource.CheckReplicas();
+        assertEquals("primary", ReadName(dataSource, true));
+    }
+
+    @Test
+    /**
+     * This tests that read only JPA transactions are sent to the replica when the configuration is used by Spring Boot
+     */
+    void jpaRoutingTest() {
+        new ApplicationContextRunner()
+          .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class))
+          .withUserConfiguration(ReplicaDataSourceConfig.class)
+          .withPropertyValues("spring.datasource.url=" + PRIMARY_URL, "spring.jpa.hibernate.ddl-auto=none",
+            "database.replicas.urls=" + REPLICA_URL, "database.replicas.lag-query=" + LAG_QUERY)
+          .run(context -> {
+              EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+              TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+              transactionTemplate.setReadOnly(true);
+              assertEquals("replica", transactionTemplate.execute(status -> entityManager.createNativeQuery("SELECT name FROM database_name").getSingleResult()));
+              transactionTemplate.setReadOnly(false);
+              assertEquals("primary", transactionTemplate.execute(status -> entityManager.createNativeQuery("SELECT name FROM database_name").getSingleResult()));
+          });
+    }
+
+    /**
+     * Creates the data source used by the application, with replicas at the specified urls which may be at most one second behind
+     * @param urls the comma separated urls of the replicas
+     * @return the data source
+     */
+    private DataSource CreateDataSource(String urls) {
+        replicaDataSource = config.replicaDataSource(primaryDataSource, urls, "", "", 2, 250, LAG_QUERY, 1000, 60000,
+          new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class));
+        replicaDataSource.Start();
+        return config.dataSource(primaryDataSource, replicaDataSource);
+    }
+
+    /**
+     * Reads the name of the database a transaction is sent to
+     * @param dataSource the data source to use
+     * @param readOnly if the transaction is read only
+     * @return the name of the database
+     */
+    private String ReadName(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> new JdbcTemplate(dataSource).queryForObject("SELECT name FROM database_name", String.class));
+    }
+}
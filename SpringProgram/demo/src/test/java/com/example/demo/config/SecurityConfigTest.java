@@ -0,0 +1,73 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * This class defines the unit tests for the password encoder created by SecurityConfig
+ * Note that low work factors are used, to keep the tests fast
+ */
+public class SecurityConfigTest {
+
+    /**
+     * This creates a password encoder using the specified algorithm and low work factors
+     * @param algorithm the algorithm used to hash new passwords
+     * @param bcryptStrength the bcrypt work factor
+     * @param pbkdf2Iterations the number of PBKDF2 iterations
+     * @return the password encoder
+     */
+    private PasswordEncoder createPasswordEncoder(String algorithm, int bcryptStrength, int pbkdf2Iterations) {
+        return SecurityConfig.createPasswordEncoder(algorithm, bcryptStrength, pbkdf2Iterations, 1024, 1, 1);
+    }
+
+    @Test
+    /**
+     * This tests that passwords hashed with each of the supported algorithms can be verified, and that the algorithm is stored in front of the hash
+     */
+    void algorithmsTest() {
+        for (String algorithm : new String[] {SecurityConfig.BCRYPT_ID, SecurityConfig.PBKDF2_ID, SecurityConfig.ARGON2_ID}) {
+            PasswordEncoder passwordEncoder = createPasswordEncoder(algorithm, 4, 1000);
+            String hash = passwordEncoder.encode("password");
+            assertTrue(hash.startsWith("{" + algorithm + "}"));
+            assertTrue(passwordEncoder.matches("password", hash));
+            assertFalse(passwordEncoder.matches("wrongPassword", hash));
+            assertFalse(passwordEncoder.upgradeEncoding(hash));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> createPasswordEncoder("md5", 4, 1000));
+    }
+
+    @Test
+    /**
+     * This tests that hashes created before the algorithm was configurable, or with another algorithm or weaker parameters, can be verified and are upgraded
+     */
+    void upgradeTest() {
+        //Hashes without an algorithm id were created by a plain BCryptPasswordEncoder
+        String legacyHash = new BCryptPasswordEncoder(4).encode("password");
+        PasswordEncoder bcryptEncoder = createPasswordEncoder(SecurityConfig.BCRYPT_ID, 5, 1000);
+        assertTrue(bcryptEncoder.matches("password", legacyHash));
+        assertTrue(bcryptEncoder.upgradeEncoding(legacyHash));
+
+        //A bcrypt hash with a lower strength than configured is upgraded
+        String weakBcryptHash = createPasswordEncoder(SecurityConfig.BCRYPT_ID, 4, 1000).encode("password");
+        assertTrue(bcryptEncoder.matches("password", weakBcryptHash));
+        assertTrue(bcryptEncoder.upgradeEncoding(weakBcryptHash));
+
+        //A PBKDF2 hash can still be verified after the number of iterations is increased, and is then upgraded
+        String weakPbkdf2Hash = createPasswordEncoder(SecurityConfig.PBKDF2_ID, 4, 1000).encode("password");
+        PasswordEncoder pbkdf2Encoder = createPasswordEncoder(SecurityConfig.PBKDF2_ID, 4, 2000);
+        assertTrue(pbkdf2Encoder.matches("password", weakPbkdf2Hash));
+        assertTrue(pbkdf2Encoder.upgradeEncoding(weakPbkdf2Hash));
+        assertEquals(false, pbkdf2Encoder.upgradeEncoding(pbkdf2Encoder.encode("password")));
+
+        //Hashes created with another algorithm are upgraded
+        assertTrue(pbkdf2Encoder.matches("password", weakBcryptHash));
+        assertTrue(pbkdf2Encoder.upgradeEncoding(weakBcryptHash));
+    }
+}
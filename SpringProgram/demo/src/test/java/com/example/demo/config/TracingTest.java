@@ -0,0 +1,92 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import com.example.demo.DemoApplication;
+
+/**
+ * This class defines the tests for the tracing, running the application against an in-memory database with every request traced and the traces written to a file.
+ * The application is stopped before the tests, which exports the remaining spans and closes the file.
+ */
+public class TracingTest {
+    private static final Path DIRECTORY = Path.of("target", "tracing-test");
+    private static String traces;
+    private static String log;
+
+    /**
+     * Starts the application, requests the supported languages without a token and stops the application, and then reads the trace file and the log file
+     * @throws IOException if a request fails or a file can not be read
+     * @throws InterruptedException if a request is interrupted
+     */
+    @BeforeAll
+    public static void setUp() throws IOException, InterruptedException {
+        FileSystemUtils.deleteRecursively(DIRECTORY);
+        //These are passed as command line arguments, since those override application.properties
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class).run(
+          "--spring.datasource.url=jdbc:h2:mem:tracingtest;DB_CLOSE_DELAY=-1",
+          "--spring.datasource.driver-class-name=org.h2.Driver",
+          "--spring.datasource.username=sa",
+          "--spring.datasource.password=",
+          "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+          "--server.port=0",
+          "--management.tracing.sampling.probability=1.0",
+          "--tracing.file=" + DIRECTORY.resolve("traces.jsonl"),
+          "--logging.level.root=WARN",
+          "--logging.level.com.example.demo.presentation=INFO",
+          "--logging.file.name=" + DIRECTORY.resolve("demo.log"));
+        try {
+            String url = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/translation/getLanguages";
+            HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+        } finally {
+            context.close();
+        }
+        traces = Files.readString(DIRECTORY.resolve("traces.jsonl"));
+        log = Files.readString(DIRECTORY.resolve("demo.log"));
+    }
+
+    @Test
+    /**
+     * This tests that the request, the JWT authentication, the controller method, the service method and the JDBC statements are recorded as spans
+     */
+    void spansTest() {
+        assertTrue(traces.contains("\"name\":\"http get /translation/getLanguages\""));
+        //Each security filter is recorded as a span, as is the JWT authentication within JwtAuthFilter
+        assertTrue(traces.contains("\"name\":\"before JwtAuthFilter\""));
+        assertTrue(traces.contains("\"name\":\"jwt-auth-filter#authenticate\""));
+        //The names of the observed methods are written in kebab case
+        assertTrue(traces.contains("\"name\":\"translation-endpoint-controller#-get-languages\""));
+        assertTrue(traces.contains("\"name\":\"translation-service#-get-languages-snapshot\""));
+        assertTrue(traces.contains("\"name\":\"connection\""));
+        assertTrue(traces.contains("\"name\":\"query\""));
+    }
+
+    @Test
+    /**
+     * This tests that the log lines written while handling the request include the id of its trace
+     */
+    void logCorrelationTest() {
+        Matcher matcher = Pattern.compile("\"traceId\":\"(\\w{32})\",\"spanId\":\"\\w{16}\",\"parentSpanId\":\"\\w{16}\",\"name\":\"translation-endpoint-controller#-get-languages\"").matcher(traces);
+        assertTrue(matcher.find());
+        String traceId = matcher.group(1);
+        assertTrue(log.lines().anyMatch(line -> line.contains("Languages supported requested") && line.contains(traceId)));
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.demo.dataset;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * DatasetDistributions holds the empirical distributions of the applicants in a database dump, such as "Database code/existing-database.sql",
+ * which SyntheticDataGenerator samples from so that the generated data has the same shape as the real data.
+ * This includes the names of applicants, how many competence profiles and availability periods each applicant has,
+ * which competences and how many years of experience the profiles have, and when and for how long applicants are available.
+ */
+public class DatasetDistributions {
+    //The location of the existing data, relative to SpringProgram/demo, which is the working directory when running Maven
+    public static final String EXISTING_DATABASE_PATH = "../../Database code/existing-database.sql";
+
+    private final List<String> names = new ArrayList<String>();
+    private final List<String> surnames = new ArrayList<String>();
+    private final List<Integer> profileCounts = new ArrayList<Integer>();
+    private final List<Integer> availabilityCounts = new ArrayList<Integer>();
+    private final List<String> competences = new ArrayList<String>();
+    private final List<Double> yearsOfExperience = new ArrayList<Double>();
+    private final List<LocalDate> availabilityStarts = new ArrayList<LocalDate>();
+    private final List<Integer> availabilityLengths = new ArrayList<Integer>();
+
+    /**
+     * Reads the distributions from a database dump containing COPY statements for the role, person, competence, competence_profile and availability tables
+     * @param path the path of the dump
+     * @return the distributions of the applicants in the dump
+     * @throws IOException if the dump can not be read
+     * @throws IllegalArgumentException if the dump contains no applicants with competence profiles and availability periods
+     */
+    public static DatasetDistributions FromDatabaseDump(Path path) throws IOException, IllegalArgumentException {
+        Map<String,List<String[]>> tables = ReadCopyBlocks(path);
+        DatasetDistributions distributions = new DatasetDistributions();
+
+        Map<String,String> roles = new HashMap<String,String>();
+        for (String[] role : tables.getOrDefault("role", List.of())) {
+            roles.put(role[0], role[1]);
+        }
+        Map<String,String> competenceNames = new HashMap<String,String>();
+        for (String[] competence : tables.getOrDefault("competence", List.of())) {
+            competenceNames.put(competence[0], competence[1]);
+        }
+
+        //Only applicants are sampled, the recruiters are not representative of the generated persons
+        Map<String,int[]> applicantCounts = new LinkedHashMap<String,int[]>();
+        for (String[] person : tables.getOrDefault("person", List.of())) {
+            if ("applicant".equals(roles.get(person[6]))) {
+                applicantCounts.put(person[0], new int[2]);
+                distributions.names.add(person[1]);
+                distributions.surnames.add(person[2]);
+            }
+        }
+
+        for (String[] profile : tables.getOrDefault("competence_profile", List.of())) {
+            int[] counts = applicantCounts.get(profile[1]);
+            if (counts != null) {
+                counts[0]++;
+                distributions.competences.add(competenceNames.get(profile[2]));
+                distributions.yearsOfExperience.add(Double.parseDouble(profile[3]));
+            }
+        }
+        for (String[] availability : tables.getOrDefault("availability", List.of())) {
+            int[] counts = applicantCounts.get(availability[1]);
+            if (counts != null) {
+                counts[1]++;
+                LocalDate from = LocalDate.parse(availability[2]);
+                distributions.availabilityStarts.add(from);
+                distributions.availabilityLengths.add((int) ChronoUnit.DAYS.between(from, LocalDate.parse(availability[3])));
+            }
+        }
+        for (int[] counts : applicantCounts.values()) {
+            distributions.profileCounts.add(counts[0]);
+            distributions.availabilityCounts.add(counts[1]);
+        }
+
+        if (distributions.competences.isEmpty() || distributions.availabilityStarts.isEmpty()) {
+            throw new IllegalArgumentException("The dump " + path + " contains no applicants with competence profiles and availability periods");
+        }
+        return distributions;
+    }
+
+    /**
+     * Reads the existing data in "Database code/existing-database.sql"
+     * @return the distributions of the existing applicants
+     * @throws IOException if the file can not be read
+     */
+    public static DatasetDistributions FromExistingDatabase() throws IOException {
+        return FromDatabaseDump(Path.of(EXISTING_DATABASE_PATH));
+    }
+
+    /**
+     * Reads the rows of every COPY ... FROM stdin block in a dump, which are tab separated and end with a line containing \.
+     * @param path the path of the dump
+     * @return the rows of each table, by table name
+     * @throws IOException if the dump can not be read
+     */
+    private static Map<String,List<String[]>> ReadCopyBlocks(Path path) throws IOException {
+        Map<String,List<String[]>> tables = new HashMap<String,List<String[]>>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            List<String[]> rows = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (rows != null) {
+                    if (line.equals("\\.")) {
+                        rows = null;
+                    } else {
+                        rows.add(line.split("\t"));
+                    }
+                } else if (line.startsWith("\\COPY public.") || line.startsWith("COPY public.")) {
+                    String table = line.substring(line.indexOf("public.") + "public.".length(), line.indexOf(' ', line.indexOf("public.")));
+                    rows = tables.computeIfAbsent(table, t -> new ArrayList<String[]>());
+                }
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Returns a random element of a list
+     * @param <T> the type of the elements
+     * @param values the list
+     * @param random the source of randomness
+     * @return the element
+     */
+    private static <T> T Sample(List<T> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    /**
+     * Samples the name of an applicant
+     * @param random the source of randomness
+     * @return the name
+     */
+    public String SampleName(Random random) {
+        return Sample(names, random);
+    }
+
+    /**
+     * Samples the surname of an applicant
+     * @param random the source of randomness
+     * @return the surname
+     */
+    public String SampleSurname(Random random) {
+        return Sample(surnames, random);
+    }
+
+    /**
+     * Samples the number of competence profiles an applicant has
+     * @param random the source of randomness
+     * @return the number of competence profiles, which may be 0
+     */
+    public int SampleProfileCount(Random random) {
+        return Sample(profileCounts, random);
+    }
+
+    /**
+     * Samples the number of availability periods an applicant has
+     * @param random the source of randomness
+     * @return the number of availability periods, which may be 0
+     */
+    public int SampleAvailabilityCount(Random random) {
+        return Sample(availabilityCounts, random);
+    }
+
+    /**
+     * Samples the name of the competence of a competence profile
+     * @param random the source of randomness
+     * @return the name of the competence
+     */
+    public String SampleCompetence(Random random) {
+        return Sample(competences, random);
+    }
+
+    /**
+     * Samples the years of experience of a competence profile
+     * @param random the source of randomness
+     * @return the years of experience
+     */
+    public double SampleYearsOfExperience(Random random) {
+        return Sample(yearsOfExperience, random);
+    }
+
+    /**
+     * Samples the start date of an availability period
+     * @param random the source of randomness
+     * @return the start date
+     */
+    public LocalDate SampleAvailabilityStart(Random random) {
+        return Sample(availabilityStarts, random);
+    }
+
+    /**
+     * Samples the length of an availability period
+     * @param random the source of randomness
+     * @return the number of days between the start and end date
+     */
+    public int SampleAvailabilityLength(Random random) {
+        return Sample(availabilityLengths, random);
+    }
+
+    /**
+     * Returns the names of the competences which are sampled
+     * @return the distinct competence names
+     */
+    public List<String> getCompetenceNames() {
+        return competences.stream().distinct().sorted().toList();
+    }
+}
@@ -0,0 +1,408 @@
+package com.example.demo.dataset;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * SyntheticDataGenerator inserts a deterministic, seeded synthetic dataset of applicants, which can scale the existing data to millions of applicants.
+ * The values are sampled from DatasetDistributions, normally read from "Database code/existing-database.sql", so the generated applicants have the same names,
+ * numbers of competence profiles and availability periods, competences, years of experience and availability dates as the existing applicants.
+ * Every generated applicant can log in, and every applicant with at least one competence profile and availability period has one application including all of them.
+ * The rows are inserted using COPY on PostgreSQL and JDBC batch inserts on other databases, both of which are far faster than saving entities through JPA.
+ * The ids of the generated rows are consecutive, starting after the largest existing id, and are described by the returned Dataset.
+ * Using the same seed, distributions and existing data always generates the same dataset.
+ * It can also be run against the database configured by the JDBC_DATABASE_URL, JDBC_DATABASE_USERNAME and JDBC_DATABASE_PASSWORD environment variables, whose schema
+ * must already have been created by starting the server, for example: mvn -Pload-test test-compile exec:java -Dloadtest.main=com.example.demo.dataset.SyntheticDataGenerator -Ddataset.applicants=1000000
+ */
+public class SyntheticDataGenerator {
+    //Every generated applicant can log in with this password
+    public static final String PASSWORD = "SyntheticPassword1";
+    //The bcrypt hash of PASSWORD, computed once so generating millions of applicants does not hash the password millions of times
+    private static final String PASSWORD_HASH = "$2a$10$Bcx2NdwD/wgq0DMeq1XGWOf94K/9cqjFsA.xdprh5mu/tGC9B1V9q";
+
+    //The number of applicants whose rows are inserted at once
+    private static final int BATCH_SIZE = 5000;
+    private static final LocalDate FIRST_APPLICATION_DATE = LocalDate.of(2024, 1, 1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatasetDistributions distributions;
+    private final long seed;
+    private final boolean useCopy;
+
+    /**
+     * Constructs a generator
+     * @param jdbcTemplate the template used to insert the data
+     * @param distributions the distributions the generated values are sampled from
+     * @param seed the seed of the random values, the same seed always generates the same dataset
+     */
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, DatasetDistributions distributions, long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.distributions = distributions;
+        this.seed = seed;
+        this.useCopy = "PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+
+    /**
+     * Generates applicants in the configured database, and prints the dataset
+     * @param args not used, the number of applicants and the seed are configured using the dataset.applicants and dataset.seed system properties, by default 100000 and 1201
+     * @throws IOException if the existing data can not be read
+     */
+    public static void main(String[] args) throws IOException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(System.getenv("JDBC_DATABASE_URL"),
+          System.getenv("JDBC_DATABASE_USERNAME"), System.getenv("JDBC_DATABASE_PASSWORD"));
+        int applicants = Integer.getInteger("dataset.applicants", 100000);
+        long start = System.nanoTime();
+        Dataset dataset = new SyntheticDataGenerator(new JdbcTemplate(dataSource), DatasetDistributions.FromExistingDatabase(), Long.getLong("dataset.seed", 1201)).Generate(applicants);
+        System.out.printf("Generated %d applicants with %d applications in %d s%n", dataset.getApplicants(), dataset.getApplicationCount(), (System.nanoTime() - start) / 1000000000);
+        System.out.printf("They have the usernames %s to %s and the password %s, to load test with them use -Dloadtest.applicants=%d:%d%n",
+          dataset.getUsername(0), dataset.getUsername(applicants - 1), PASSWORD, dataset.getPersonId(0), applicants);
+    }
+
+    /**
+     * Generates applicants, along with their competence profiles, availability periods and applications.
+     * The recruiter and applicant roles and the sampled competences are also created, if they do not already exist.
+     * @param applicants the number of applicants to generate
+     * @return the dataset, which describes the ids of the generated rows
+     */
+    public Dataset Generate(int applicants) {
+        Random random = new Random(seed);
+        FindOrCreateRole("recruiter");
+        int applicantRoleId = FindOrCreateRole("applicant");
+        Map<String,Integer> competenceIds = FindOrCreateCompetences();
+        List<String> competenceNames = distributions.getCompetenceNames();
+
+        Dataset dataset = new Dataset(applicants, NextId("person", "person_id"));
+        int nextProfileId = NextId("competence_profile", "competence_profile_id");
+        int nextAvailabilityId = NextId("availability", "availability_id");
+        int nextApplicationId = NextId("application", "application_id");
+
+        TableBuffer persons = new TableBuffer("person", "person_id, name, surname, pnr, email, password, role_id, username, token_version");
+        TableBuffer profiles = new TableBuffer("competence_profile", "competence_profile_id, person_id, competence_id, years_of_experience");
+        TableBuffer availabilities = new TableBuffer("availability", "availability_id, person_id, from_date, to_date");
+        TableBuffer applications = new TableBuffer("application", "application_id, person_id, application_version_number, application_status, application_date");
+        TableBuffer applicationProfiles = new TableBuffer("application_competence_profile", "application_id, competence_profile_id");
+        TableBuffer applicationAvailabilities = new TableBuffer("application_availability_periods", "application_id, availability_id");
+
+        for (int i = 0; i < applicants; i++) {
+            int personId = dataset.getPersonId(i);
+            //Person numbers are unique, so the last four digits are taken from the id, and the day of birth is chosen so that it differs for ids with the same last four digits
+            //This holds for ids below 2000000, and the birth dates are before 2000, unlike those of the existing applicants
+            LocalDate birthDate = LocalDate.of(1955, 1, 1).plusDays(personId / 10000 % 200 + 200 * random.nextInt(82));
+            persons.add(personId, distributions.SampleName(random), distributions.SampleSurname(random),
+              String.format("%04d%02d%02d-%04d", birthDate.getYear(), birthDate.getMonthValue(), birthDate.getDayOfMonth(), personId % 10000),
+              "applicant" + personId + "@example.com", PASSWORD_HASH, applicantRoleId, dataset.getUsername(i), 0);
+
+            //Each profile of an applicant is for a different competence, as in the existing data
+            int profileCount = Math.min(distributions.SampleProfileCount(random), competenceNames.size());
+            List<String> usedCompetences = new ArrayList<String>();
+            for (int j = 0; j < profileCount; j++) {
+                String competence = distributions.SampleCompetence(random);
+                while (usedCompetences.contains(competence)) {
+                    competence = competenceNames.get((competenceNames.indexOf(competence) + 1) % competenceNames.size());
+                }
+                usedCompetences.add(competence);
+                profiles.add(nextProfileId + j, personId, competenceIds.get(competence), distributions.SampleYearsOfExperience(random));
+            }
+
+            //The periods of an applicant may not overlap (see the V5 migration), so sampled periods overlapping an earlier one are skipped, as in the existing data
+            int sampledAvailabilityCount = distributions.SampleAvailabilityCount(random);
+            List<LocalDate[]> periods = new ArrayList<LocalDate[]>();
+            for (int j = 0; j < sampledAvailabilityCount; j++) {
+                LocalDate from = distributions.SampleAvailabilityStart(random);
+                LocalDate to = from.plusDays(distributions.SampleAvailabilityLength(random));
+                if (periods.stream().noneMatch(period -> !from.isAfter(period[1]) && !to.isBefore(period[0]))) {
+                    availabilities.add(nextAvailabilityId + periods.size(), personId, Date.valueOf(from), Date.valueOf(to));
+                    periods.add(new LocalDate[] {from, to});
+                }
+            }
+            int availabilityCount = periods.size();
+
+            Integer applicationId = null;
+            if (profileCount > 0 && availabilityCount > 0) {
+                applicationId = nextApplicationId++;
+                int status = random.nextInt(10);
+                applications.add(applicationId, personId, 0, status < 6 ? "unchecked" : status < 8 ? "accepted" : "denied",
+                  Date.valueOf(FIRST_APPLICATION_DATE.plusDays(random.nextInt(365))));
+                for (int j = 0; j < profileCount; j++) {
+                    applicationProfiles.add(applicationId, nextProfileId + j);
+                }
+                for (int j = 0; j < availabilityCount; j++) {
+                    applicationAvailabilities.add(applicationId, nextAvailabilityId + j);
+                }
+            }
+            dataset.setApplicant(i, nextProfileId, profileCount, nextAvailabilityId, availabilityCount, applicationId);
+            nextProfileId += profileCount;
+            nextAvailabilityId += availabilityCount;
+
+            if ((i + 1) % BATCH_SIZE == 0 || i == applicants - 1) {
+                //Rows are inserted in foreign key order, one batch of applicants at a time, so memory use does not grow with the number of applicants
+                for (TableBuffer table : List.of(persons, profiles, availabilities, applications, applicationProfiles, applicationAvailabilities)) {
+                    Flush(table);
+                }
+            }
+        }
+
+        RestartIdentity("person", "person_id");
+        RestartIdentity("competence_profile", "competence_profile_id");
+        RestartIdentity("availability", "availability_id");
+        RestartIdentity("application", "application_id");
+        return dataset;
+    }
+
+    /**
+     * Inserts the buffered rows of a table, using COPY on PostgreSQL and a JDBC batch insert otherwise, and then clears the buffer
+     * @param table the buffered table
+     */
+    private void Flush(TableBuffer table) {
+        if (table.rows.isEmpty()) {
+            return;
+        }
+        if (useCopy) {
+            //The generated values never contain tabs, newlines or backslashes, so they do not need to be escaped in COPY's text format
+            StringBuilder data = new StringBuilder();
+            for (Object[] row : table.rows) {
+                for (int i = 0; i < row.length; i++) {
+                    data.append(i == 0 ? "" : "\t").append(row[i]);
+                }
+                data.append('\n');
+            }
+            jdbcTemplate.execute((ConnectionCallback<Long>) connection -> CopyIn(connection, "COPY " + table.name + " (" + table.columns + ") FROM STDIN", data.toString()));
+        } else {
+            jdbcTemplate.batchUpdate("INSERT INTO " + table.name + " (" + table.columns + ") VALUES (" + "?, ".repeat(table.rows.get(0).length - 1) + "?)", table.rows);
+        }
+        table.rows.clear();
+    }
+
+    /**
+     * Copies data into PostgreSQL
+     * @param connection the connection to PostgreSQL
+     * @param sql the COPY ... FROM STDIN statement
+     * @param data the rows, in COPY's text format
+     * @return the number of copied rows
+     * @throws SQLException if the copy fails
+     */
+    private static Long CopyIn(Connection connection, String sql, String data) throws SQLException {
+        try {
+            return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new StringReader(data));
+        } catch (IOException e) {
+            throw new SQLException("Failed to copy data using " + sql, e);
+        }
+    }
+
+    /**
+     * Finds the id of a role, and creates the role if it does not exist
+     * @param name the name of the role
+     * @return the id of the role
+     */
+    private int FindOrCreateRole(String name) {
+        List<Integer> ids = jdbcTemplate.queryForList("SELECT role_id FROM role WHERE name = ?", Integer.class, name);
+        if (!ids.isEmpty()) {
+            return ids.get(0);
+        }
+        jdbcTemplate.update("INSERT INTO role (name) VALUES (?)", name);
+        return jdbcTemplate.queryForObject("SELECT role_id FROM role WHERE name = ?", Integer.class, name);
+    }
+
+    /**
+     * Finds the ids of the sampled competences, and creates those which do not exist
+     * @return the ids of the competences, by name
+     */
+    private Map<String,Integer> FindOrCreateCompetences() {
+        Map<String,Integer> ids = new HashMap<String,Integer>();
+        for (String name : distributions.getCompetenceNames()) {
+            List<Integer> existing = jdbcTemplate.queryForList("SELECT competence_id FROM competence WHERE name = ?", Integer.class, name);
+            if (existing.isEmpty()) {
+                jdbcTemplate.update("INSERT INTO competence (name) VALUES (?)", name);
+                existing = jdbcTemplate.queryForList("SELECT competence_id FROM competence WHERE name = ?", Integer.class, name);
+            }
+            ids.put(name, existing.get(0));
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the id following the largest existing id of a table
+     * @param table the table
+     * @param idColumn the id column of the table
+     * @return the next free id
+     */
+    private int NextId(String table, String idColumn) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + idColumn + "), 0) + 1 FROM " + table, Integer.class);
+    }
+
+    /**
+     * Restarts the identity of a table after the largest existing id, since rows were inserted with explicit ids
+     * @param table the table
+     * @param idColumn the id column of the table
+     */
+    private void RestartIdentity(String table, String idColumn) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + idColumn + " RESTART WITH " + NextId(table, idColumn));
+    }
+
+    /**
+     * The rows of a table which have not yet been inserted
+     */
+    private static class TableBuffer {
+        private final String name;
+        private final String columns;
+        private final List<Object[]> rows = new ArrayList<Object[]>();
+
+        /**
+         * Constructs an empty buffer
+         * @param name the name of the table
+         * @param columns the comma separated columns of the rows
+         */
+        private TableBuffer(String name, String columns) {
+            this.name = name;
+            this.columns = columns;
+        }
+
+        /**
+         * Adds a row
+         * @param values the values of the row, in the same order as the columns
+         */
+        private void add(Object... values) {
+            rows.add(values);
+        }
+    }
+
+    /**
+     * A generated dataset, which describes the ids of the generated rows.
+     * The rows belonging to applicant i (starting from 0) are the person, competence profiles, availability periods and application returned by the corresponding methods.
+     */
+    public static class Dataset {
+        private final int firstPersonId;
+        private final int[] firstProfileIds;
+        private final int[] profileCounts;
+        private final int[] firstAvailabilityIds;
+        private final int[] availabilityCounts;
+        private final int[] applicationIds;
+        private final List<Integer> applicantsWithApplications = new ArrayList<Integer>();
+
+        /**
+         * Constructs a dataset, whose applicants are then described using setApplicant
+         * @param applicants the number of generated applicants
+         * @param firstPersonId the id of the first generated person
+         */
+        private Dataset(int applicants, int firstPersonId) {
+            this.firstPersonId = firstPersonId;
+            this.firstProfileIds = new int[applicants];
+            this.profileCounts = new int[applicants];
+            this.firstAvailabilityIds = new int[applicants];
+            this.availabilityCounts = new int[applicants];
+            this.applicationIds = new int[applicants];
+        }
+
+        /**
+         * Describes the rows generated for an applicant
+         * @param applicant the index of the applicant
+         * @param firstProfileId the id of the applicant's first competence profile
+         * @param profileCount the number of competence profiles
+         * @param firstAvailabilityId the id of the applicant's first availability period
+         * @param availabilityCount the number of availability periods
+         * @param applicationId the id of the applicant's application, or null if it has none
+         */
+        private void setApplicant(int applicant, int firstProfileId, int profileCount, int firstAvailabilityId, int availabilityCount, Integer applicationId) {
+            firstProfileIds[applicant] = firstProfileId;
+            profileCounts[applicant] = profileCount;
+            firstAvailabilityIds[applicant] = firstAvailabilityId;
+            availabilityCounts[applicant] = availabilityCount;
+            applicationIds[applicant] = applicationId == null ? 0 : applicationId;
+            if (applicationId != null) {
+                applicantsWithApplications.add(applicant);
+            }
+        }
+
+        /**
+         * Returns the number of generated applicants
+         * @return the number of applicants
+         */
+        public int getApplicants() {
+            return applicationIds.length;
+        }
+
+        /**
+         * Returns the person id of an applicant
+         * @param applicant the index of the applicant
+         * @return the person id
+         */
+        public int getPersonId(int applicant) {
+            return firstPersonId + applicant;
+        }
+
+        /**
+         * Returns the username of an applicant, who can log in using PASSWORD
+         * @param applicant the index of the applicant
+         * @return the username
+         */
+        public String getUsername(int applicant) {
+            return "applicant" + getPersonId(applicant);
+        }
+
+        /**
+         * Returns the competence profile ids of an applicant
+         * @param applicant the index of the applicant
+         * @return the competence profile ids, which may be empty
+         */
+        public List<Integer> getCompetenceProfileIds(int applicant) {
+            List<Integer> ids = new ArrayList<Integer>();
+            for (int j = 0; j < profileCounts[applicant]; j++) {
+                ids.add(firstProfileIds[applicant] + j);
+            }
+            return ids;
+        }
+
+        /**
+         * Returns the availability period ids of an applicant
+         * @param applicant the index of the applicant
+         * @return the availability period ids, which may be empty
+         */
+        public List<Integer> getAvailabilityIds(int applicant) {
+            List<Integer> ids = new ArrayList<Integer>();
+            for (int j = 0; j < availabilityCounts[applicant]; j++) {
+                ids.add(firstAvailabilityIds[applicant] + j);
+            }
+            return ids;
+        }
+
+        /**
+         * Returns the id of the application of an applicant
+         * @param applicant the index of the applicant
+         * @return the application id, or null if the applicant has no application since it has no competence profiles or availability periods
+         */
+        public Integer getApplicationId(int applicant) {
+            return applicationIds[applicant] == 0 ? null : applicationIds[applicant];
+        }
+
+        /**
+         * Returns the number of generated applications
+         * @return the number of applications
+         */
+        public int getApplicationCount() {
+            return applicantsWithApplications.size();
+        }
+
+        /**
+         * Returns the n:th applicant which has an application, and therefore also has competence profiles and availability periods
+         * @param n the index among the applicants with applications, between 0 and getApplicationCount()
+         * @return the index of the applicant
+         */
+        public int getApplicantWithApplication(int n) {
+            return applicantsWithApplications.get(n);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.dataset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.domain.entity.Application;
+import com.example.demo.domain.entity.Availability;
+import com.example.demo.domain.entity.CompetenceProfile;
+import com.example.demo.domain.entity.Person;
+import com.example.demo.repository.ApplicationRepository;
+import com.example.demo.repository.AvailabilityRepository;
+import com.example.demo.repository.CompetenceProfileRepository;
+import com.example.demo.repository.PersonRepository;
+
+/**
+ * This a unit test of the SyntheticDataGenerator class, which uses h2 to create an in-memory database, the same way as the repository tests
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:generatordb", //This specifies the in-memory database url
+    "spring.jpa.hibernate.ddl-auto=create-drop" //This is used to specify that the database schema should be dropped after the test is over
+})
+public class SyntheticDataGeneratorTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private CompetenceProfileRepository competenceProfileRepository;
+
+    @Test
+    /**
+     * This tests that the generated rows can be loaded as entities, that the dataset describes their ids correctly, and that the same seed generates the same values
+     * @throws IOException if the existing data can not be read
+     */
+    void generateTest() throws IOException {
+        DatasetDistributions distributions = DatasetDistributions.FromExistingDatabase();
+        long existingApplications = applicationRepository.count();
+        SyntheticDataGenerator.Dataset dataset = new SyntheticDataGenerator(jdbcTemplate, distributions, 1201).Generate(50);
+
+        assertEquals(50, dataset.getApplicants());
+        assertEquals(existingApplications + dataset.getApplicationCount(), applicationRepository.count());
+        //Most, but not all, of the existing applicants have both competence profiles and availability periods, and so can apply
+        assertTrue(dataset.getApplicationCount() > 0 && dataset.getApplicationCount() < 50);
+
+        for (int i = 0; i < dataset.getApplicants(); i++) {
+            Person person = personRepository.findByUsername(dataset.getUsername(i)).get();
+            assertEquals(dataset.getPersonId(i), person.getId());
+            assertEquals("applicant", person.getRole().getName());
+            assertEquals(dataset.getCompetenceProfileIds(i).size(), competenceProfileRepository.findAllByPerson(person).size());
+            assertEquals(dataset.getAvailabilityIds(i).size(), availabilityRepository.findAllByPerson(person).size());
+
+            if (dataset.getApplicationId(i) == null) {
+                assertTrue(dataset.getCompetenceProfileIds(i).isEmpty() || dataset.getAvailabilityIds(i).isEmpty());
+                continue;
+            }
+            Application application = applicationRepository.findById(dataset.getApplicationId(i)).get();
+            assertEquals(person.getId(), application.getApplicant().getId());
+            assertEquals(dataset.getAvailabilityIds(i), application.getAvailabilityPeriodsForApplication().stream().map(Availability::getAvailabilityId).sorted().toList());
+            assertEquals(dataset.getCompetenceProfileIds(i), application.getCompetenceProfilesForApplication().stream().map(CompetenceProfile::getCompetenceProfileId).sorted().toList());
+            for (Availability availability : application.getAvailabilityPeriodsForApplication()) {
+                assertEquals(person.getId(), availability.getPerson().getId());
+                assertTrue(availability.getFromDate().before(availability.getToDate()));
+            }
+            //Each competence profile of an applicant is for a different competence
+            assertEquals(application.getCompetenceProfilesForApplication().size(),
+              application.getCompetenceProfilesForApplication().stream().map(profile -> profile.getCompetenceDTO().getCompetenceId()).distinct().count());
+        }
+
+        //Generating again continues after the existing ids, and the same seed gives the same values
+        SyntheticDataGenerator.Dataset secondDataset = new SyntheticDataGenerator(jdbcTemplate, distributions, 1201).Generate(5);
+        assertEquals(dataset.getPersonId(49) + 1, secondDataset.getPersonId(0));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(dataset.getCompetenceProfileIds(i).size(), secondDataset.getCompetenceProfileIds(i).size());
+            assertEquals(dataset.getAvailabilityIds(i).size(), secondDataset.getAvailabilityIds(i).size());
+        }
+        List<String> firstNames = jdbcTemplate.queryForList("SELECT name FROM person WHERE person_id BETWEEN ? AND ? ORDER BY person_id", String.class,
+          dataset.getPersonId(0), dataset.getPersonId(4));
+        List<String> secondNames = jdbcTemplate.queryForList("SELECT name FROM person WHERE person_id BETWEEN ? AND ? ORDER BY person_id", String.class,
+          secondDataset.getPersonId(0), secondDataset.getPersonId(4));
+        assertEquals(firstNames, secondNames);
+
+        //New rows saved through JPA receive ids after the generated ones
+        Person person = new Person();
+        person.setName("test");
+        person.setSurname("testsson");
+        person.setEmail("test@test.test");
+        person.setPassword("testPassword");
+        person.setPnr("12345678-1234");
+        person.setRole(personRepository.findByUsername(dataset.getUsername(0)).get().getRole());
+        person.setUsername("username");
+        personRepository.saveAndFlush(person);
+        assertEquals(secondDataset.getPersonId(4) + 1, person.getId());
+    }
+
+    @Test
+    /**
+     * This tests that the distributions read from the existing data only describe applicants, and match its known shape
+     * @throws IOException if the existing data can not be read
+     */
+    void distributionsTest() throws IOException {
+        DatasetDistributions distributions = DatasetDistributions.FromExistingDatabase();
+        assertEquals(List.of("lotteries", "roller coaster operation", "ticket sales"), distributions.getCompetenceNames());
+
+        Random random = new Random(1201);
+        for (int i = 0; i < 1000; i++) {
+            int profileCount = distributions.SampleProfileCount(random);
+            assertTrue(profileCount >= 0 && profileCount <= 3);
+            double yearsOfExperience = distributions.SampleYearsOfExperience(random);
+            assertTrue(yearsOfExperience > 0 && yearsOfExperience < 4);
+            int availabilityLength = distributions.SampleAvailabilityLength(random);
+            assertTrue(availabilityLength == 30 || availabilityLength == 31);
+            //Recruiters are not sampled, so their names never appear
+            assertNotEquals("JoelleWilkinson", distributions.SampleName(random) + distributions.SampleSurname(random));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.demo.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.domain.AvailabilityPeriods.Addition;
+import com.example.demo.domain.AvailabilityPeriods.Outcome;
+import com.example.demo.domain.entity.Availability;
+import com.example.demo.domain.entity.Person;
+
+/**
+ * This class defines the unit tests for AvailabilityPeriods, using a fixed current date so the tests do not depend on when they are run
+ */
+public class AvailabilityPeriodsTest {
+    private static final LocalDate TODAY = LocalDate.parse("2030-01-01");
+
+    private Person person;
+    private List<Availability> existing;
+
+    @BeforeEach
+    public void setUp() {
+        person = new Person();
+        person.setId(0);
+        existing = new ArrayList<Availability>();
+    }
+
+    @Test
+    /**
+     * This tests that a period which does not touch any existing period is created, and that later periods are compared with it
+     */
+    void createdTest() {
+        Availability saved = Saved(1, "2030-03-01", "2030-03-31");
+        AvailabilityPeriods periods = new AvailabilityPeriods(existing, TODAY);
+
+        Addition addition = periods.Add(person, Date.valueOf("2030-05-01"), Date.valueOf("2030-05-31"));
+        assertEquals(Outcome.CREATED, addition.getOutcome());
+        assertNull(addition.getPeriod().getAvailabilityId());
+        assertEquals(person, addition.getPeriod().getPerson());
+        assertPeriod("2030-05-01", "2030-05-31", addition.getPeriod());
+        assertPeriod("2030-03-01", "2030-03-31", saved);
+
+        assertEquals(Outcome.IDENTICAL, periods.Add(person, Date.valueOf("2030-05-01"), Date.valueOf("2030-05-31")).getOutcome());
+    }
+
+    @Test
+    /**
+     * This tests that identical and covered periods are not added, even when the covering period has already started
+     */
+    void identicalAndCoveredTest() {
+        Availability saved = Saved(1, "2030-03-01", "2030-03-31");
+        Availability started = Saved(2, "2029-12-01", "2030-01-31");
+        AvailabilityPeriods periods = new AvailabilityPeriods(existing, TODAY);
+
+        Addition addition = periods.Add(person, Date.valueOf("2030-03-01"), Date.valueOf("2030-03-31"));
+        assertEquals(Outcome.IDENTICAL, addition.getOutcome());
+        assertSame(saved, addition.getPeriod());
+
+        addition = periods.Add(person, Date.valueOf("2030-03-10"), Date.valueOf("2030-03-20"));
+        assertEquals(Outcome.COVERED, addition.getOutcome());
+        assertSame(saved, addition.getPeriod());
+
+        addition = periods.Add(person, Date.valueOf("2030-01-10"), Date.valueOf("2030-01-20"));
+        assertEquals(Outcome.COVERED, addition.getOutcome());
+        assertSame(started, addition.getPeriod());
+    }
+
+    @Test
+    /**
+     * This tests that overlapping and adjacent periods are merged into the existing period
+     */
+    void mergeTest() {
+        Availability saved = Saved(1, "2030-03-01", "2030-03-31");
+        AvailabilityPeriods periods = new AvailabilityPeriods(existing, TODAY);
+
+        Addition addition = periods.Add(person, Date.valueOf("2030-03-15"), Date.valueOf("2030-04-15"));
+        assertEquals(Outcome.MERGED, addition.getOutcome());
+        assertSame(saved, addition.getPeriod());
+        assertTrue(addition.getMergedPeriods().isEmpty());
+        assertPeriod("2030-03-01", "2030-04-15", saved);
+
+        //A period starting the day after another ends is merged with it as well
+        addition = periods.Add(person, Date.valueOf("2030-02-01"), Date.valueOf("2030-02-28"));
+        assertEquals(Outcome.MERGED, addition.getOutcome());
+        assertPeriod("2030-02-01", "2030-04-15", saved);
+    }
+
+    @Test
+    /**
+     * This tests that a period bridging several periods merges them into the saved one with the lowest id
+     */
+    void bridgeTest() {
+        Availability later = Saved(7, "2030-03-01", "2030-03-31");
+        Availability earlier = Saved(3, "2030-05-01", "2030-12-31");
+        Availability last = Saved(9, "2031-01-02", "2031-01-10");
+        AvailabilityPeriods periods = new AvailabilityPeriods(existing, TODAY);
+
+        Addition addition = periods.Add(person, Date.valueOf("2030-04-01"), Date.valueOf("2030-04-30"));
+        assertEquals(Outcome.MERGED, addition.getOutcome());
+        assertSame(earlier, addition.getPeriod());
+        assertEquals(List.of(later), addition.getMergedPeriods());
+        assertPeriod("2030-03-01", "2030-12-31", earlier);
+
+        //The index is updated, so the merged period is not found again, and the extended period is
+        addition = periods.Add(person, Date.valueOf("2031-01-01"), Date.valueOf("2031-01-01"));
+        assertEquals(Outcome.MERGED, addition.getOutcome());
+        assertSame(earlier, addition.getPeriod());
+        assertEquals(List.of(last), addition.getMergedPeriods());
+        assertPeriod("2030-03-01", "2031-01-10", earlier);
+    }
+
+    @Test
+    /**
+     * This tests that a period which has already started is never changed, so only the days after it are added, and that it is not merged with adjacent periods
+     */
+    void startedTest() {
+        Availability started = Saved(1, "2029-12-01", "2030-01-31");
+        AvailabilityPeriods periods = new AvailabilityPeriods(existing, TODAY);
+
+        Addition addition = periods.Add(person, Date.valueOf("2030-01-15"), Date.valueOf("2030-02-15"));
+        assertEquals(Outcome.CREATED, addition.getOutcome());
+        assertPeriod("2030-02-01", "2030-02-15", addition.getPeriod());
+        assertPeriod("2029-12-01", "2030-01-31", started);
+
+        //The created period has not started, so it is merged with
+        addition = periods.Add(person, Date.valueOf("2030-01-20"), Date.valueOf("2030-02-20"));
+        assertEquals(Outcome.MERGED, addition.getOutcome());
+        assertPeriod("2030-02-01", "2030-02-20", addition.getPeriod());
+        assertPeriod("2029-12-01", "2030-01-31", started);
+    }
+
+    @Test
+    /**
+     * This tests that a period created earlier which has not been saved is only kept when no saved period is merged with it
+     */
+    void unsavedTest() {
+        AvailabilityPeriods periods = new AvailabilityPeriods(existing, TODAY);
+        Availability created = periods.Add(person, Date.valueOf("2030-03-01"), Date.valueOf("2030-03-31")).getPeriod();
+
+        Addition addition = periods.Add(person, Date.valueOf("2030-04-01"), Date.valueOf("2030-04-30"));
+        assertEquals(Outcome.MERGED, addition.getOutcome());
+        assertSame(created, addition.getPeriod());
+        assertPeriod("2030-03-01", "2030-04-30", created);
+
+        Availability saved = Saved(4, "2030-06-01", "2030-06-30");
+        periods = new AvailabilityPeriods(existing, TODAY);
+        created = periods.Add(person, Date.valueOf("2030-03-01"), Date.valueOf("2030-03-31")).getPeriod();
+        addition = periods.Add(person, Date.valueOf("2030-03-15"), Date.valueOf("2030-06-15"));
+        assertSame(saved, addition.getPeriod());
+        assertEquals(List.of(created), addition.getMergedPeriods());
+        assertPeriod("2030-03-01", "2030-06-30", saved);
+    }
+
+    /**
+     * Creates a saved period of the person, which is included in the existing periods
+     * @param id the id of the period
+     * @param fromDate the start date
+     * @param toDate the end date
+     * @return the period
+     */
+    private Availability Saved(int id, String fromDate, String toDate) {
+        Availability period = new Availability(person, Date.valueOf(fromDate), Date.valueOf(toDate));
+        period.setAvailabilityId(id);
+        existing.add(period);
+        return period;
+    }
+
+    /**
+     * Checks the dates of a period
+     * @param fromDate the expected start date
+     * @param toDate the expected end date
+     * @param period the period to check
+     */
+    private void assertPeriod(String fromDate, String toDate, Availability period) {
+        assertEquals(Date.valueOf(fromDate), period.getFromDate());
+        assertEquals(Date.valueOf(toDate), period.getToDate());
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.demo.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.domain.PersonDetails;
+import com.example.demo.service.JwtService;
+import com.example.demo.service.PersonService;
+
+/**
+ * This class defines the tests for the token checks done by JwtAuthFilter, running the application against an in-memory database
+ * The database is created from the existing database and migrated up to the version before token versions were made required,
+ * so it holds a person without a token version, the same way as a database which was migrated before that
+ */
+public class JwtAuthFilterTest {
+    private static final String DATABASE_URL = "jdbc:h2:mem:jwtauthfiltertest;DB_CLOSE_DELAY=-1";
+
+    private static JdbcTemplate database;
+    private static ConfigurableApplicationContext context;
+    private static HttpClient httpClient;
+    private static String baseUrl;
+
+    /**
+     * Creates the database with a recruiter without a token version, and then starts the application against it on a random port, which applies the remaining migrations
+     */
+    @BeforeAll
+    public static void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(DATABASE_URL, "sa", "");
+        database = new JdbcTemplate(dataSource);
+        //These are the tables of the existing database, as created by existing-database.sql
+        database.execute("CREATE TABLE role (role_id integer GENERATED ALWAYS AS IDENTITY PRIMARY KEY, name character varying(255))");
+        database.execute("CREATE TABLE person (person_id integer GENERATED ALWAYS AS IDENTITY PRIMARY KEY, name character varying(255), surname character varying(255), "
+          + "pnr character varying(255), email character varying(255), password character varying(255), role_id integer REFERENCES role (role_id), username character varying(255))");
+        database.execute("CREATE TABLE competence (competence_id integer GENERATED ALWAYS AS IDENTITY PRIMARY KEY, name character varying(255))");
+        database.execute("CREATE TABLE competence_profile (competence_profile_id integer GENERATED ALWAYS AS IDENTITY PRIMARY KEY, person_id integer REFERENCES person (person_id), "
+          + "competence_id integer REFERENCES competence (competence_id), years_of_experience numeric(4,2))");
+        database.execute("CREATE TABLE availability (availability_id integer GENERATED ALWAYS AS IDENTITY PRIMARY KEY, person_id integer REFERENCES person (person_id), from_date date, to_date date)");
+        database.update("INSERT INTO role (name) VALUES ('recruiter'), ('applicant')");
+
+        Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("0").target("6").load().migrate();
+        database.update("INSERT INTO person (name, surname, email, role_id, username) VALUES ('Joelle', 'Wilkinson', 'joelle@example.com', 1, 'JoelleWilkinson')");
+        assertEquals(1, database.queryForObject("SELECT COUNT(*) FROM person WHERE token_version IS NULL", Integer.class));
+
+        //These are passed as command line arguments, since those override application.properties
+        context = new SpringApplicationBuilder(DemoApplication.class).run(
+          "--spring.datasource.url=" + DATABASE_URL,
+          "--spring.datasource.driver-class-name=org.h2.Driver",
+          "--spring.datasource.username=sa",
+          "--spring.datasource.password=",
+          "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+          "--database.seed.enabled=false",
+          "--server.port=0",
+          "--logging.level.root=WARN",
+          "--logging.file.path=target/test-logs/");
+        httpClient = HttpClient.newHttpClient();
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    /**
+     * Stops the application and drops the database
+     */
+    @AfterAll
+    public static void tearDown() {
+        context.close();
+        database.execute("DROP ALL OBJECTS");
+    }
+
+    /**
+     * Sends a GET request to the specified path of the application with a token
+     * @param path the path
+     * @param token the token
+     * @return the response
+     * @throws IOException if the request fails
+     * @throws InterruptedException if the request is interrupted
+     */
+    private HttpResponse<String> Get(String path, String token) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Authorization", "Bearer " + token).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    /**
+     * This tests that the tokens of a person who existed before token versions were introduced are accepted, while tokens with another token version are not
+     */
+    void tokenVersionOfExistingPersonTest() throws IOException, InterruptedException {
+        assertEquals(0, database.queryForObject("SELECT token_version FROM person WHERE username = 'JoelleWilkinson'", Integer.class));
+
+        JwtService jwtService = context.getBean(JwtService.class);
+        PersonDetails personDetails = (PersonDetails) context.getBean("personService", PersonService.class).loadUserByUsername("JoelleWilkinson");
+        assertEquals(0, personDetails.getTokenVersion());
+        assertEquals(200, Get("/review/getApplicationSummaries", jwtService.generateToken(personDetails)).statusCode());
+
+        PersonDetails revokedPersonDetails = new PersonDetails(personDetails.getPersonId(), personDetails.getUsername(), List.of("recruiter"), 1);
+        assertEquals(403, Get("/review/getApplicationSummaries", jwtService.generateToken(revokedPersonDetails)).statusCode());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+/**
+ * This class defines the unit tests for the VerifiedTokenCache class
+ */
+public class VerifiedTokenCacheTest {
+
+    /**
+     * This creates claims for a token expiring at the specified offset from now
+     * @param subject the subject of the token
+     * @param millisUntilExpiration the number of milliseconds until the token expires, negative if it has already expired
+     * @return the claims
+     */
+    private Claims createClaims(String subject, long millisUntilExpiration) {
+        return Jwts.claims().setSubject(subject).setExpiration(new Date(System.currentTimeMillis() + millisUntilExpiration));
+    }
+
+    @Test
+    /**
+     * This tests that verified tokens are returned from the cache, and that unknown tokens are not
+     */
+    void getTest() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        Claims claims = createClaims("test", 60000);
+
+        assertNull(cache.get("token"));
+        cache.put("token", claims);
+        assertSame(claims, cache.get("token"));
+        assertNull(cache.get("anotherToken"));
+    }
+
+    @Test
+    /**
+     * This tests that expired tokens, and tokens without an expiration, are never returned from the cache
+     */
+    void expirationTest() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+
+        cache.put("expiredToken", createClaims("test", -1000));
+        assertNull(cache.get("expiredToken"));
+        assertEquals(0, cache.size()); //The expired entry is removed once it is looked up
+
+        cache.put("tokenWithoutExpiration", Jwts.claims().setSubject("test"));
+        assertNull(cache.get("tokenWithoutExpiration"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    /**
+     * This tests that the cache never grows beyond its maximum size, and that expired entries are evicted before valid ones
+     */
+    void boundedTest() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(3);
+        Claims validClaims = createClaims("valid", 60000);
+
+        cache.put("validToken", validClaims);
+        cache.put("expiredToken1", createClaims("expired", -1000));
+        cache.put("expiredToken2", createClaims("expired", -1000));
+        assertEquals(3, cache.size());
+
+        //Adding a fourth token evicts the expired ones, but keeps the valid one
+        cache.put("newToken", createClaims("new", 60000));
+        assertEquals(2, cache.size());
+        assertSame(validClaims, cache.get("validToken"));
+
+        //Once the cache only holds valid tokens, arbitrary entries are evicted to stay within the bound
+        for (int i = 0; i < 10; i++) {
+            cache.put("token" + i, createClaims("test" + i, 60000));
+            assertEquals(true, cache.size() <= 3);
+        }
+        assertEquals(3, cache.size());
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.demo.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * This is a closed-loop HTTP load test, which is run against an already running server to compare its throughput and latency in different execution modes,
+ * for example with and without the virtual-threads profile. It is not a unit test, and so is not run by mvn test.
+ * Each of the scenarios is run separately, by a number of concurrent clients which each send a request, wait for the response and then immediately send the next one,
+ * and the throughput and p50, p99 and max latency of each scenario is then printed.
+ * Run it using the load-test Maven profile, for example: mvn -Pload-test test-compile exec:java -Dloadtest.concurrency=500 -Dloadtest.label=virtual-threads
+ * The following system properties can be used to configure it:
+ * <ul>
+ * <li>loadtest.baseUrl, the url of the server, by default http://localhost:8090</li>
+ * <li>loadtest.applicantUsername and loadtest.applicantPassword, the applicant submitting applications, which are required since the existing applicants have no login</li>
+ * <li>loadtest.recruiterUsername and loadtest.recruiterPassword, the recruiter retrieving applications, by default the first recruiter in the existing database</li>
+ * <li>loadtest.availabilityIds and loadtest.competenceProfileIds, comma separated ids used in the submitted applications, by default the applicant's first availability and competence profile</li>
+ * <li>loadtest.concurrency, the number of concurrent clients, by default 200</li>
+ * <li>loadtest.warmupSeconds and loadtest.durationSeconds, how long each scenario is run before and while being measured, by default 10 and 30</li>
+ * <li>loadtest.label, a label printed with the results, for example the execution mode of the server</li>
+ * </ul>
+ * Note that every submitted application is stored, so getApplications returns more applications for every run, which is why it is measured first.
+ */
+public class LoadHarness {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+
+    /**
+     * Constructs a load harness for a server
+     * @param baseUrl the url of the server, without a trailing slash
+     */
+    public LoadHarness(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(REQUEST_TIMEOUT)
+          .build();
+    }
+
+    /**
+     * Runs the getApplications and submitApplication scenarios and prints the results
+     * @param args not used, see the system properties instead
+     * @throws Exception if logging in or finding the ids to submit fails
+     */
+    public static void main(String[] args) throws Exception {
+        LoadHarness harness = new LoadHarness(System.getProperty("loadtest.baseUrl", "http://localhost:8090"));
+        int concurrency = Integer.getInteger("loadtest.concurrency", 200);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmupSeconds", 10));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.durationSeconds", 30));
+
+        String recruiterToken = harness.login(System.getProperty("loadtest.recruiterUsername", "JoelleWilkinson"),
+          System.getProperty("loadtest.recruiterPassword", "LiZ98qvL8Lw"));
+        String applicantToken = harness.login(requireProperty("loadtest.applicantUsername"), requireProperty("loadtest.applicantPassword"));
+
+        String availabilityIds = System.getProperty("loadtest.availabilityIds");
+        if (availabilityIds == null) {
+            availabilityIds = harness.findFirstId(applicantToken, "/application/getAllAvailability", "availabilityId");
+        }
+        String competenceProfileIds = System.getProperty("loadtest.competenceProfileIds");
+        if (competenceProfileIds == null) {
+            competenceProfileIds = harness.findFirstId(applicantToken, "/application/getAllCompetenceProfiles", "competenceProfileId");
+        }
+        String submission = "{\"availabilityIds\":[" + availabilityIds + "],\"competenceProfileIds\":[" + competenceProfileIds + "]}";
+
+        List<Scenario> scenarios = List.of(
+          new Scenario("GET /review/getApplications", harness.request(recruiterToken, "/review/getApplications").GET().build()),
+          new Scenario("POST /application/submitApplication", harness.request(applicantToken, "/application/submitApplication")
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(submission))
+            .build()));
+
+        System.out.printf("Load test (%s) against %s with %d concurrent clients, %ds warmup and %ds measurement per scenario%n",
+          System.getProperty("loadtest.label", "unlabelled"), harness.baseUrl, concurrency, warmup.toSeconds(), duration.toSeconds());
+        for (Scenario scenario : scenarios) {
+            System.out.println(harness.run(scenario, concurrency, warmup, duration));
+        }
+    }
+
+    /**
+     * Returns a system property which has no default value
+     * @param name the name of the property
+     * @return the value of the property
+     * @throws IllegalArgumentException if the property is not set
+     */
+    private static String requireProperty(String name) throws IllegalArgumentException {
+        String value = System.getProperty(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("The system property " + name + " must be set");
+        }
+        return value;
+    }
+
+    /**
+     * Logs in and returns the token from the response
+     * @param username the username to log in with
+     * @param password the password to log in with
+     * @return the JWT token
+     * @throws IOException if the request fails or the login is rejected
+     * @throws InterruptedException if interrupted while waiting for the response
+     */
+    public String login(String username, String password) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/generateToken"))
+          .timeout(REQUEST_TIMEOUT)
+          .header("Content-Type", "application/x-www-form-urlencoded")
+          .POST(HttpRequest.BodyPublishers.ofString("username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+            + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8)))
+          .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Login as " + username + " failed with status " + response.statusCode());
+        }
+        return OBJECT_MAPPER.readTree(response.body()).get("token").asText();
+    }
+
+    /**
+     * Creates a request builder for an authenticated request
+     * @param token the JWT token to send
+     * @param path the path of the endpoint, starting with a slash
+     * @return the request builder, which still needs its method set
+     */
+    public HttpRequest.Builder request(String token, String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+          .timeout(REQUEST_TIMEOUT)
+          .header("Authorization", "Bearer " + token);
+    }
+
+    /**
+     * Retrieves a list of objects and returns the id of the first one
+     * @param token the JWT token to send
+     * @param path the path of the endpoint returning the list
+     * @param idField the name of the id field of the objects
+     * @return the id of the first object
+     * @throws IOException if the request fails or the list is empty
+     * @throws InterruptedException if interrupted while waiting for the response
+     */
+    private String findFirstId(String token, String path, String idField) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request(token, path).GET().build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode list = response.statusCode() == 200 ? OBJECT_MAPPER.readTree(response.body()) : null;
+        if (list == null || !list.isArray() || list.isEmpty()) {
+            throw new IOException("No ids could be found using " + path + ", specify them using system properties instead");
+        }
+        return list.get(0).get(idField).asText();
+    }
+
+    /**
+     * Runs a scenario with a number of concurrent clients, first for the warmup without measuring and then for the duration while measuring
+     * @param scenario the scenario to run
+     * @param concurrency the number of concurrent clients
+     * @param warmup how long to run the scenario before measuring
+     * @param duration how long to measure the scenario
+     * @return the results of the measurement
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public Result run(Scenario scenario, int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        List<List<Long>> latencies = Collections.synchronizedList(new ArrayList<List<Long>>());
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch finished = new CountDownLatch(concurrency);
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+
+        for (int i = 0; i < concurrency; i++) {
+            clients.execute(() -> {
+                List<Long> clientLatencies = new ArrayList<Long>();
+                try {
+                    while (System.nanoTime() < measureUntil) {
+                        long start = System.nanoTime();
+                        boolean success = send(scenario.request);
+                        long end = System.nanoTime();
+                        if (start >= measureFrom && end <= measureUntil) {
+                            if (success) {
+                                clientLatencies.add(end - start);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                } finally {
+                    latencies.add(clientLatencies);
+                    finished.countDown();
+                }
+            });
+        }
+        finished.await();
+        clients.shutdown();
+        clients.awaitTermination(REQUEST_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+
+        List<Long> allLatencies = new ArrayList<Long>();
+        for (List<Long> clientLatencies : latencies) {
+            allLatencies.addAll(clientLatencies);
+        }
+        return new Result(scenario.name, allLatencies, errors.get(), duration);
+    }
+
+    /**
+     * Sends a request
+     * @param request the request to send
+     * @return true if the response has a 2xx status, false if it has another status or the request fails
+     */
+    private boolean send(HttpRequest request) {
+        try {
+            int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return status >= 200 && status < 300;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Sends a request and reads the response body
+     * @param request the request to send
+     * @return the response, or null if the request fails
+     */
+    public HttpResponse<String> exchange(HttpRequest request) {
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * A named request which is sent repeatedly by every client
+     */
+    public static class Scenario {
+        private final String name;
+        private final HttpRequest request;
+
+        /**
+         * Constructs a scenario
+         * @param name the name printed with the results
+         * @param request the request to send
+         */
+        public Scenario(String name, HttpRequest request) {
+            this.name = name;
+            this.request = request;
+        }
+    }
+
+    /**
+     * The measured throughput and latencies of a scenario
+     */
+    public static class Result {
+        private final String name;
+        private final long[] sortedLatencies;
+        private final long errors;
+        private final Duration duration;
+
+        /**
+         * Constructs the results of a scenario
+         * @param name the name of the scenario
+         * @param latencies the latencies of the successful requests, in nanoseconds
+         * @param errors the number of failed requests
+         * @param duration how long the scenario was measured
+         */
+        public Result(String name, List<Long> latencies, long errors, Duration duration) {
+            this.name = name;
+            this.sortedLatencies = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            this.errors = errors;
+            this.duration = duration;
+        }
+
+        /**
+         * Returns the number of successful requests per second
+         * @return the throughput
+         */
+        public double getThroughput() {
+            return sortedLatencies.length / (duration.toNanos() / 1e9);
+        }
+
+        /**
+         * Returns a latency percentile, using the nearest rank method
+         * @param percentile the percentile, between 0 and 100
+         * @return the latency in milliseconds, or 0 if no requests succeeded
+         */
+        public double getLatencyPercentile(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * sortedLatencies.length);
+            return sortedLatencies[Math.max(rank - 1, 0)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s %10.1f req/s   p50 %8.1f ms   p99 %8.1f ms   max %8.1f ms   %d errors",
+              name, getThroughput(), getLatencyPercentile(50), getLatencyPercentile(99), getLatencyPercentile(100), errors);
+        }
+    }
+}
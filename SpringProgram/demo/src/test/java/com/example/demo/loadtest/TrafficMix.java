@@ -0,0 +1,520 @@
+package com.example.demo.loadtest;
+
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.example.demo.dataset.SyntheticDataGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * This is a closed-loop HTTP load test which replays a mix of applicant and recruiter traffic, instead of repeating a single request like LoadHarness.
+ * It is intended to be run against a server whose database has been filled by SyntheticDataGenerator, and is not a unit test, and so is not run by mvn test.
+ * Each client is either an applicant or a recruiter, logs in, and then repeatedly picks a weighted random action, such as listing its availability periods or reviewing an application,
+ * using the ids returned by its earlier requests. Every client uses its own random generator seeded from loadtest.seed, so the same sequence of actions is replayed in every run.
+ * The throughput and p50, p99 and max latency of each action is then printed.
+ * Run it using the load-test Maven profile, for example: mvn -Pload-test test-compile exec:java -Dloadtest.main=com.example.demo.loadtest.TrafficMix -Dloadtest.applicants=1001:100000
+ * The following system properties can be used to configure it:
+ * <ul>
+ * <li>loadtest.baseUrl, the url of the server, by default http://localhost:8090</li>
+ * <li>loadtest.mix, either applicant, recruiter or season, where season mixes both kinds of clients, by default season</li>
+ * <li>loadtest.recruiterShare, the share of the clients which are recruiters in the season mix, by default 0.05</li>
+ * <li>loadtest.applicants, the generated applicants as firstId:count, which SyntheticDataGenerator prints, which is required unless the mix is recruiter</li>
+ * <li>loadtest.recruiters, comma separated username:password pairs, by default the first recruiter in the existing database</li>
+ * <li>loadtest.concurrency, the number of concurrent clients, by default 200</li>
+ * <li>loadtest.warmupSeconds and loadtest.durationSeconds, how long the mix is run before and while being measured, by default 10 and 60</li>
+ * <li>loadtest.thinkTimeMillis, how long each client waits between actions, by default 0</li>
+ * <li>loadtest.seed, the seed of the random generators, by default 1201</li>
+ * <li>loadtest.label, a label printed with the results, for example the execution mode of the server</li>
+ * </ul>
+ * Note that applicants create availability periods and submit applications, and recruiters change application statuses, so the database grows with every run,
+ * and should be regenerated before runs which are compared.
+ */
+public class TrafficMix {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    //The actions of each kind of client and their weights, which approximate applicants who mostly view their profile and recruiters who mostly browse and open applications
+    private static final String[] APPLICANT_ACTIONS = {"login", "getLanguages", "getStandardCompetences", "getCompetenceTranslation", "getAllCompetenceProfiles", "getAllAvailability", "createAvailability", "submitApplication"};
+    private static final int[] APPLICANT_WEIGHTS = {2, 5, 5, 15, 20, 20, 5, 5};
+    private static final String[] RECRUITER_ACTIONS = {"login", "getApplicationSummaries", "getApplicationsPage", "getApplicationsById", "updateApplicationStatus"};
+    private static final int[] RECRUITER_WEIGHTS = {2, 40, 15, 30, 10};
+    private static final String[] LANGUAGES = {"english", "spanish"};
+    private static final String[] STATUSES = {"unchecked", "accepted", "denied"};
+
+    private final LoadHarness harness;
+    private final String mix;
+    private final double recruiterShare;
+    private final int firstApplicantId;
+    private final int applicantCount;
+    private final List<String[]> recruiters;
+    private final long thinkTimeMillis;
+    private final long seed;
+
+    /**
+     * Constructs a traffic mix
+     * @param harness the harness used to send the requests
+     * @param mix either applicant, recruiter or season
+     * @param recruiterShare the share of the clients which are recruiters in the season mix
+     * @param firstApplicantId the person id of the first generated applicant
+     * @param applicantCount the number of generated applicants
+     * @param recruiters the username and password of each recruiter
+     * @param thinkTimeMillis how long each client waits between actions
+     * @param seed the seed of the random generators
+     * @throws IllegalArgumentException if the mix is unknown, or there are no applicants or recruiters for it
+     */
+    public TrafficMix(LoadHarness harness, String mix, double recruiterShare, int firstApplicantId, int applicantCount, List<String[]> recruiters,
+      long thinkTimeMillis, long seed) throws IllegalArgumentException {
+        if (!mix.equals("applicant") && !mix.equals("recruiter") && !mix.equals("season")) {
+            throw new IllegalArgumentException("Unknown mix " + mix + ", please specify applicant, recruiter or season");
+        }
+        if (!mix.equals("recruiter") && applicantCount <= 0) {
+            throw new IllegalArgumentException("The " + mix + " mix needs generated applicants, specify them using loadtest.applicants");
+        }
+        if (!mix.equals("applicant") && recruiters.isEmpty()) {
+            throw new IllegalArgumentException("The " + mix + " mix needs recruiters, specify them using loadtest.recruiters");
+        }
+        this.harness = harness;
+        this.mix = mix;
+        this.recruiterShare = recruiterShare;
+        this.firstApplicantId = firstApplicantId;
+        this.applicantCount = applicantCount;
+        this.recruiters = recruiters;
+        this.thinkTimeMillis = thinkTimeMillis;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs the configured traffic mix and prints the results
+     * @param args not used, see the system properties instead
+     * @throws Exception if the configuration is invalid or the run is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.baseUrl", "http://localhost:8090");
+        String mix = System.getProperty("loadtest.mix", "season");
+        int concurrency = Integer.getInteger("loadtest.concurrency", 200);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmupSeconds", 10));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.durationSeconds", 60));
+
+        int firstApplicantId = 0;
+        int applicantCount = 0;
+        String applicants = System.getProperty("loadtest.applicants");
+        if (applicants != null && !applicants.isEmpty()) {
+            String[] range = applicants.split(":");
+            firstApplicantId = Integer.parseInt(range[0]);
+            applicantCount = Integer.parseInt(range[1]);
+        }
+        List<String[]> recruiters = new ArrayList<String[]>();
+        for (String recruiter : System.getProperty("loadtest.recruiters", "JoelleWilkinson:LiZ98qvL8Lw").split(",")) {
+            if (!recruiter.isEmpty()) {
+                recruiters.add(recruiter.split(":", 2));
+            }
+        }
+
+        TrafficMix trafficMix = new TrafficMix(new LoadHarness(baseUrl), mix,
+          Double.parseDouble(System.getProperty("loadtest.recruiterShare", "0.05")), firstApplicantId, applicantCount, recruiters,
+          Long.getLong("loadtest.thinkTimeMillis", 0), Long.getLong("loadtest.seed", 1201));
+
+        System.out.printf("Traffic mix %s (%s) against %s with %d concurrent clients, %ds warmup and %ds measurement%n",
+          mix, System.getProperty("loadtest.label", "unlabelled"), baseUrl, concurrency, warmup.toSeconds(), duration.toSeconds());
+        for (LoadHarness.Result result : trafficMix.run(concurrency, warmup, duration)) {
+            System.out.println(result);
+        }
+    }
+
+    /**
+     * Runs the mix with a number of concurrent clients, first for the warmup without measuring and then for the duration while measuring
+     * @param concurrency the number of concurrent clients
+     * @param warmup how long to run the mix before measuring
+     * @param duration how long to measure the mix
+     * @return the results of each action, sorted by action name
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public List<LoadHarness.Result> run(int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        List<Client> finishedClients = new ArrayList<Client>();
+        CountDownLatch finished = new CountDownLatch(concurrency);
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+
+        //The seed of each client is drawn from one random generator, since generators with consecutive seeds start with similar values
+        Random clientSeeds = new Random(seed);
+        for (int i = 0; i < concurrency; i++) {
+            Client client = new Client(new Random(clientSeeds.nextLong()));
+            finishedClients.add(client);
+            clients.execute(() -> {
+                try {
+                    client.run(measureFrom, measureUntil);
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        finished.await();
+        clients.shutdown();
+        clients.awaitTermination(30, TimeUnit.SECONDS);
+
+        Map<String,List<Long>> latencies = new TreeMap<String,List<Long>>();
+        Map<String,Long> errors = new HashMap<String,Long>();
+        for (Client client : finishedClients) {
+            for (Map.Entry<String,List<Long>> entry : client.latencies.entrySet()) {
+                latencies.computeIfAbsent(entry.getKey(), name -> new ArrayList<Long>()).addAll(entry.getValue());
+            }
+            for (Map.Entry<String,Long> entry : client.errors.entrySet()) {
+                latencies.computeIfAbsent(entry.getKey(), name -> new ArrayList<Long>());
+                errors.merge(entry.getKey(), entry.getValue(), Long::sum);
+            }
+        }
+
+        List<LoadHarness.Result> results = new ArrayList<LoadHarness.Result>();
+        for (Map.Entry<String,List<Long>> entry : latencies.entrySet()) {
+            results.add(new LoadHarness.Result(entry.getKey(), entry.getValue(), errors.getOrDefault(entry.getKey(), 0L), duration));
+        }
+        return results;
+    }
+
+    /**
+     * Picks a weighted random index
+     * @param weights the weight of each index
+     * @param random the source of randomness
+     * @return the index
+     */
+    private static int PickWeighted(int[] weights, Random random) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int value = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            value -= weights[i];
+            if (value < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * Reads the ids of a list of objects from a response
+     * @param response the response, which may be null
+     * @param idField the name of the id field of the objects
+     * @return the ids, which are empty if the response was not a successful list
+     */
+    private static List<Integer> ReadIds(HttpResponse<String> response, String idField) {
+        List<Integer> ids = new ArrayList<Integer>();
+        JsonNode list = ReadJson(response);
+        if (list != null && list.isArray()) {
+            for (JsonNode element : list) {
+                ids.add(element.get(idField).asInt());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Reads the body of a successful response as json
+     * @param response the response, which may be null
+     * @return the json, or null if the response was not successful or could not be read
+     */
+    private static JsonNode ReadJson(HttpResponse<String> response) {
+        if (!IsSuccessful(response)) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.readTree(response.body());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if a response has a 2xx status
+     * @param response the response, which may be null
+     * @return true if the response was received and has a 2xx status
+     */
+    private static boolean IsSuccessful(HttpResponse<String> response) {
+        return response != null && response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+
+    /**
+     * A single client, which is either an applicant or a recruiter, and which remembers the ids returned by its earlier requests
+     */
+    private class Client {
+        private final Random random;
+        private final boolean recruiter;
+        private final String username;
+        private final String password;
+        private final Map<String,List<Long>> latencies = new HashMap<String,List<Long>>();
+        private final Map<String,Long> errors = new HashMap<String,Long>();
+        private String token;
+
+        //The state of an applicant, null until it has been retrieved
+        private List<Integer> availabilityIds;
+        private List<Integer> competenceProfileIds;
+        private LocalDate nextAvailability;
+
+        //The state of a recruiter, the applications on the last retrieved page of summaries, and the cursor of the next page
+        private final List<JsonNode> summaries = new ArrayList<JsonNode>();
+        private String nextCursor;
+
+        /**
+         * Constructs a client, choosing its role and login from its random generator
+         * @param random the random generator of the client
+         */
+        Client(Random random) {
+            this.random = random;
+            this.recruiter = mix.equals("recruiter") || (mix.equals("season") && random.nextDouble() < recruiterShare);
+            if (recruiter) {
+                String[] login = recruiters.get(random.nextInt(recruiters.size()));
+                this.username = login[0];
+                this.password = login[1];
+            } else {
+                this.username = "applicant" + (firstApplicantId + random.nextInt(applicantCount));
+                this.password = SyntheticDataGenerator.PASSWORD;
+            }
+            this.nextAvailability = LocalDate.of(2030, 1, 1).plusDays(random.nextInt(365));
+        }
+
+        /**
+         * Logs in and performs random actions until the measurement ends, recording the ones which are within the measurement
+         * @param measureFrom when to start recording, from System.nanoTime
+         * @param measureUntil when to stop, from System.nanoTime
+         */
+        void run(long measureFrom, long measureUntil) {
+            String action = "login";
+            while (System.nanoTime() < measureUntil) {
+                long start = System.nanoTime();
+                boolean success = perform(action);
+                long end = System.nanoTime();
+                if (start >= measureFrom && end <= measureUntil) {
+                    if (success) {
+                        latencies.computeIfAbsent(action, name -> new ArrayList<Long>()).add(end - start);
+                    } else {
+                        errors.merge(action, 1L, Long::sum);
+                    }
+                }
+                if (thinkTimeMillis > 0) {
+                    try {
+                        Thread.sleep(thinkTimeMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                action = token == null ? "login" : nextAction();
+            }
+        }
+
+        /**
+         * Picks the next action, replacing it by the action which retrieves the ids it needs if those are not known yet
+         * @return the name of the action
+         */
+        private String nextAction() {
+            if (recruiter) {
+                String action = RECRUITER_ACTIONS[PickWeighted(RECRUITER_WEIGHTS, random)];
+                if (summaries.isEmpty() && (action.equals("getApplicationsById") || action.equals("updateApplicationStatus"))) {
+                    return "getApplicationSummaries";
+                }
+                return action;
+            }
+            String action = APPLICANT_ACTIONS[PickWeighted(APPLICANT_WEIGHTS, random)];
+            if (action.equals("submitApplication")) {
+                if (availabilityIds == null) {
+                    return "getAllAvailability";
+                }
+                if (competenceProfileIds == null) {
+                    return "getAllCompetenceProfiles";
+                }
+                //Applicants without competence profiles can not apply, the same as in the existing data
+                if (availabilityIds.isEmpty()) {
+                    return "createAvailability";
+                }
+                if (competenceProfileIds.isEmpty()) {
+                    return "getAllCompetenceProfiles";
+                }
+            }
+            return action;
+        }
+
+        /**
+         * Performs an action
+         * @param action the name of the action
+         * @return true if it succeeded
+         */
+        private boolean perform(String action) {
+            switch (action) {
+                case "login":
+                    return login();
+                case "getLanguages":
+                    return IsSuccessful(get("/translation/getLanguages"));
+                case "getStandardCompetences":
+                    return IsSuccessful(get("/translation/getStandardCompetences"));
+                case "getCompetenceTranslation":
+                    return IsSuccessful(get("/translation/getCompetenceTranslation?language=" + LANGUAGES[random.nextInt(LANGUAGES.length)]));
+                case "getAllCompetenceProfiles":
+                    return getAllCompetenceProfiles();
+                case "getAllAvailability":
+                    return getAllAvailability();
+                case "createAvailability":
+                    return createAvailability();
+                case "submitApplication":
+                    return submitApplication();
+                case "getApplicationSummaries":
+                    return getApplicationSummaries();
+                case "getApplicationsPage":
+                    return IsSuccessful(get("/review/getApplicationsPage?pageSize=25&includeTotal=false"));
+                case "getApplicationsById":
+                    return IsSuccessful(get("/review/getApplicationsById/" + summaries.get(random.nextInt(summaries.size())).get("applicationId").asInt()));
+                case "updateApplicationStatus":
+                    return updateApplicationStatus();
+                default:
+                    throw new IllegalStateException("Unknown action " + action);
+            }
+        }
+
+        /**
+         * Logs in, replacing the token of the client
+         * @return true if it succeeded
+         */
+        private boolean login() {
+            try {
+                token = harness.login(username, password);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        /**
+         * Retrieves the competence profiles of the applicant, and remembers their ids
+         * @return true if it succeeded
+         */
+        private boolean getAllCompetenceProfiles() {
+            HttpResponse<String> response = get("/application/getAllCompetenceProfiles");
+            if (!IsSuccessful(response)) {
+                return false;
+            }
+            competenceProfileIds = ReadIds(response, "competenceProfileId");
+            return true;
+        }
+
+        /**
+         * Retrieves the availability periods of the applicant, and remembers their ids
+         * @return true if it succeeded
+         */
+        private boolean getAllAvailability() {
+            HttpResponse<String> response = get("/application/getAllAvailability");
+            if (!IsSuccessful(response)) {
+                return false;
+            }
+            availabilityIds = ReadIds(response, "availabilityId");
+            return true;
+        }
+
+        /**
+         * Creates a new availability period of one month, after the previous one created by this client, and remembers its id
+         * @return true if it succeeded
+         */
+        private boolean createAvailability() {
+            LocalDate fromDate = nextAvailability;
+            LocalDate toDate = fromDate.plusDays(30);
+            nextAvailability = toDate.plusDays(1);
+            JsonNode availability = ReadJson(harness.exchange(harness.request(token, "/application/createAvailability?fromDate=" + fromDate + "&toDate=" + toDate)
+              .POST(HttpRequest.BodyPublishers.noBody())
+              .build()));
+            if (availability == null) {
+                return false;
+            }
+            if (availabilityIds != null) {
+                availabilityIds.add(availability.get("availabilityId").asInt());
+            }
+            return true;
+        }
+
+        /**
+         * Submits an application using all the known availability periods and competence profiles of the applicant
+         * @return true if it succeeded
+         */
+        private boolean submitApplication() {
+            String submission = "{\"availabilityIds\":" + availabilityIds + ",\"competenceProfileIds\":" + competenceProfileIds + "}";
+            return IsSuccessful(harness.exchange(harness.request(token, "/application/submitApplication")
+              .header("Content-Type", "application/json")
+              .POST(HttpRequest.BodyPublishers.ofString(submission))
+              .build()));
+        }
+
+        /**
+         * Retrieves the next page of application summaries, sometimes filtered by status, and remembers the applications on it
+         * @return true if it succeeded
+         */
+        private boolean getApplicationSummaries() {
+            String path = "/review/getApplicationSummaries?pageSize=25&includeTotal=false";
+            if (nextCursor != null) {
+                path += "&cursor=" + URLEncoder.encode(nextCursor, StandardCharsets.UTF_8);
+            } else if (random.nextInt(2) == 0) {
+                path += "&status=" + STATUSES[random.nextInt(STATUSES.length)];
+            }
+            JsonNode page = ReadJson(get(path));
+            if (page == null) {
+                nextCursor = null;
+                return false;
+            }
+            JsonNode applications = page.get("applications");
+            if (applications.isEmpty()) {
+                //The last page has been reached, so the next retrieval starts over, keeping the previous applications to review
+                nextCursor = null;
+                return true;
+            }
+            summaries.clear();
+            applications.forEach(summaries::add);
+            nextCursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+            return true;
+        }
+
+        /**
+         * Changes the status of one of the remembered applications between accepted and denied, and remembers its new version
+         * @return true if it succeeded, a conflict caused by another recruiter changing the same application counts as a failure
+         */
+        private boolean updateApplicationStatus() {
+            int index = random.nextInt(summaries.size());
+            JsonNode summary = summaries.get(index);
+            String status = summary.get("applicationStatus").asText().equals("accepted") ? "denied" : "accepted";
+            JsonNode application = ReadJson(harness.exchange(harness.request(token, "/review/updateApplicationStatus?applicationId=" + summary.get("applicationId").asInt()
+              + "&status=" + status + "&versionNumber=" + summary.get("versionNumber").asLong())
+              .POST(HttpRequest.BodyPublishers.noBody())
+              .build()));
+            if (application == null) {
+                //The remembered version is out of date, so it is retrieved again before its next update
+                summaries.remove(index);
+                return false;
+            }
+            summaries.set(index, application);
+            return true;
+        }
+
+        /**
+         * Sends an authenticated GET request
+         * @param path the path of the endpoint, including any query parameters
+         * @return the response, or null if the request failed
+         */
+        private HttpResponse<String> get(String path) {
+            return harness.exchange(harness.request(token, path).GET().build());
+        }
+    }
+}
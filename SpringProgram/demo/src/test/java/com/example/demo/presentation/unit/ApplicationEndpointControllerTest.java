@@ -25,9 +25,11 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import com.example.demo.domain.BatchItemResult;
 import com.example.demo.domain.PersonDetails;
 import com.example.demo.domain.dto.ApplicationDTO;
 import com.example.demo.domain.dto.AvailabilityDTO;
+import com.example.demo.domain.dto.BatchItemResultDTO;
 import com.example.demo.domain.dto.CompetenceProfileDTO;
 import com.example.demo.domain.entity.Application;
 import com.example.demo.domain.entity.Availability;
@@ -36,6 +38,8 @@ import com.example.demo.domain.entity.CompetenceProfile;
 import com.example.demo.domain.entity.Person;
 import com.example.demo.domain.entity.Role;
 import com.example.demo.domain.requestBodies.ApplicationSubmissionRequestBody;
+import com.example.demo.domain.requestBodies.AvailabilityCreationRequestBody;
+import com.example.demo.domain.requestBodies.CompetenceProfileCreationRequestBody;
 import com.example.demo.presentation.restControllers.ApplicationEndpointController;
 import com.example.demo.presentation.restException.InvalidParameterException;
 import com.example.demo.service.ApplicationService;
@@ -270,4 +274,92 @@ public class ApplicationEndpointControllerTest {
 
 
     }
+
+    @Test
+    /**
+     * This tests the CreateCompetenceProfiles method
+     */
+    void CreateCompetenceProfilesTest() {
+        // We define the mock implementation for the service function, in this case
+        // every requested profile is returned as created
+        when(applicationService.CreateCompetenceProfiles(anyInt(), anyList())).thenAnswer(invocation -> {
+            Person p = new Person();
+            p.setId((Integer) invocation.getArguments()[0]);
+            @SuppressWarnings("unchecked")
+            List<CompetenceProfileCreationRequestBody> requested = (List<CompetenceProfileCreationRequestBody>) invocation.getArguments()[1];
+            List<BatchItemResultDTO<CompetenceProfileDTO>> results = new ArrayList<BatchItemResultDTO<CompetenceProfileDTO>>();
+            for (int i = 0; i < requested.size(); i++) {
+                Competence c = new Competence();
+                c.setId(requested.get(i).getCompetenceId());
+                results.add(BatchItemResult.created(i, new CompetenceProfile(p, c, requested.get(i).getYearsOfExperience())));
+            }
+            return results;
+        });
+
+        // We first test that it throws the correct exception for an empty request, a too large request and an incomplete item
+        var e = assertThrowsExactly(InvalidParameterException.class,
+                () -> applicationEndpointController.CreateCompetenceProfiles(new ArrayList<CompetenceProfileCreationRequestBody>()));
+        assertEquals("Invalid parameter : Provided number of items (0) must be between 1 and 100", e.getMessage());
+
+        List<CompetenceProfileCreationRequestBody> tooLarge = new ArrayList<CompetenceProfileCreationRequestBody>();
+        for (int i = 0; i <= ApplicationService.MAX_BATCH_SIZE; i++) {
+            tooLarge.add(new CompetenceProfileCreationRequestBody(1, 1.0));
+        }
+        e = assertThrowsExactly(InvalidParameterException.class,
+                () -> applicationEndpointController.CreateCompetenceProfiles(tooLarge));
+        assertEquals("Invalid parameter : Provided number of items (101) must be between 1 and 100", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class,
+                () -> applicationEndpointController.CreateCompetenceProfiles(List.of(new CompetenceProfileCreationRequestBody(1, 1.0), new CompetenceProfileCreationRequestBody(2, null))));
+        assertEquals("Invalid parameter : Item (1) must specify both competenceId and yearsOfExperience", e.getMessage());
+
+        // And then that it returns the results it recived from service for a valid request
+        List<BatchItemResultDTO<CompetenceProfileDTO>> result = applicationEndpointController.CreateCompetenceProfiles(
+                List.of(new CompetenceProfileCreationRequestBody(1, 1.0), new CompetenceProfileCreationRequestBody(2, 3.5)));
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(1).getIndex());
+        assertEquals(person.getId(), result.get(1).getCreated().getPerson().getId());
+        assertEquals(2, result.get(1).getCreated().getCompetenceDTO().getCompetenceId());
+        assertEquals(3.5, result.get(1).getCreated().getYearsOfExperience());
+    }
+
+    @Test
+    /**
+     * This tests the CreateAvailabilities method
+     */
+    void CreateAvailabilitiesTest() {
+        // We define the mock implementation for the service function, in this case
+        // every requested period is returned as created
+        when(applicationService.CreateAvailabilities(anyInt(), anyList())).thenAnswer(invocation -> {
+            Person p = new Person();
+            p.setId((Integer) invocation.getArguments()[0]);
+            @SuppressWarnings("unchecked")
+            List<AvailabilityCreationRequestBody> requested = (List<AvailabilityCreationRequestBody>) invocation.getArguments()[1];
+            List<BatchItemResultDTO<AvailabilityDTO>> results = new ArrayList<BatchItemResultDTO<AvailabilityDTO>>();
+            for (int i = 0; i < requested.size(); i++) {
+                results.add(BatchItemResult.created(i, new Availability(p, requested.get(i).getFromDate(), requested.get(i).getToDate())));
+            }
+            return results;
+        });
+
+        Date fromDate = Date.valueOf("2025-06-01");
+        Date toDate = Date.valueOf("2025-08-31");
+
+        // We first test that it throws the correct exception for an empty request and an incomplete item
+        var e = assertThrowsExactly(InvalidParameterException.class,
+                () -> applicationEndpointController.CreateAvailabilities(new ArrayList<AvailabilityCreationRequestBody>()));
+        assertEquals("Invalid parameter : Provided number of items (0) must be between 1 and 100", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class,
+                () -> applicationEndpointController.CreateAvailabilities(List.of(new AvailabilityCreationRequestBody(fromDate, null))));
+        assertEquals("Invalid parameter : Item (0) must specify both fromDate and toDate", e.getMessage());
+
+        // And then that it returns the results it recived from service for a valid request
+        List<BatchItemResultDTO<AvailabilityDTO>> result = applicationEndpointController.CreateAvailabilities(
+                List.of(new AvailabilityCreationRequestBody(fromDate, toDate)));
+        assertEquals(1, result.size());
+        assertEquals(person.getId(), result.get(0).getCreated().getPerson().getId());
+        assertEquals(fromDate, result.get(0).getCreated().getFromDate());
+        assertEquals(toDate, result.get(0).getCreated().getToDate());
+    }
 }
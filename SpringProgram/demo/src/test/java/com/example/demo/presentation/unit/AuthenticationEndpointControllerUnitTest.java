@@ -1,20 +1,22 @@
 package com.example.demo.presentation.unit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doThrow;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
@@ -24,6 +26,8 @@ import com.example.demo.domain.PersonDetails;
 import com.example.demo.domain.entity.Person;
 import com.example.demo.domain.entity.Role;
 import com.example.demo.presentation.restControllers.AuthenticationController;
+import com.example.demo.presentation.restException.TooManyRequestsException;
+import com.example.demo.service.AuthenticationService;
 import com.example.demo.service.JwtService;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,8 +39,8 @@ public class AuthenticationEndpointControllerUnitTest {
     @Spy
     private JwtService jwtService;
 
-    @Spy
-    private AuthenticationManager authenticationManager;
+    @Mock
+    private AuthenticationService authenticationService;
 
     @InjectMocks
     private AuthenticationController authenticationEndpointController;
@@ -66,27 +70,31 @@ public class AuthenticationEndpointControllerUnitTest {
         Authentication authentication=new UsernamePasswordAuthenticationToken(details,null,details.getAuthorities());
 
         // We then define the mock implementation for the service function
-        when(authenticationManager.authenticate(any(Authentication.class))).thenAnswer(invocation -> {
-            return authentication;
+        when(authenticationService.Authenticate(anyString(),anyString())).thenAnswer(invocation -> {
+            return CompletableFuture.completedFuture(authentication);
         });
     
         //We first test that a "correct" requests works
-        authenticationEndpointController.authenticateAndGetToken("bla","bla");
+        String result=authenticationEndpointController.authenticateAndGetToken("bla","bla").join();
+        assertTrue(result.contains("\"role\":\"testRole\""));
 
-        //We then test that if authentication is false that it will throw the correct exception
+        //We then test that if authentication is false that it will complete with the correct exception
         authentication.setAuthenticated(false);
-        assertThrowsExactly(UsernameNotFoundException.class, () -> authenticationEndpointController.authenticateAndGetToken("bla","bla"));
-
-        //This tests that the authentication exception is handleded correctly
-        doThrow(new AuthenticationException("Oops! Something went wrong.") {}).when(authenticationManager).authenticate(any(Authentication.class));
-        
-        //This is a weird way of testing if it throws the AuthenticationException it recives from authenticationManager
-        try {
-            authenticationEndpointController.authenticateAndGetToken("bla","bla");
-            assertFalse(true);
-        } catch (AuthenticationException e) {
-            assertEquals("Oops! Something went wrong.", e.getMessage());
-        }
+        var e = assertThrowsExactly(CompletionException.class, () -> authenticationEndpointController.authenticateAndGetToken("bla","bla").join());
+        assertEquals(UsernameNotFoundException.class, e.getCause().getClass());
+
+        //This tests that the authentication exception is handleded correctly, by completing with the AuthenticationException it recives from authenticationService
+        when(authenticationService.Authenticate(anyString(),anyString())).thenAnswer(invocation -> {
+            return CompletableFuture.failedFuture(new AuthenticationException("Oops! Something went wrong.") {});
+        });
+        var e2 = assertThrowsExactly(CompletionException.class, () -> authenticationEndpointController.authenticateAndGetToken("bla","bla").join());
+        assertTrue(e2.getCause() instanceof AuthenticationException);
+        assertEquals("Oops! Something went wrong.", e2.getCause().getMessage());
+
+        //This tests that a rejected login is not caught
+        when(authenticationService.Authenticate(anyString(),anyString())).thenThrow(new TooManyRequestsException("test"));
+        var e3 = assertThrowsExactly(TooManyRequestsException.class, () -> authenticationEndpointController.authenticateAndGetToken("bla","bla"));
+        assertEquals("Too many requests are being processed due to : test", e3.getMessage());
 
     }
 
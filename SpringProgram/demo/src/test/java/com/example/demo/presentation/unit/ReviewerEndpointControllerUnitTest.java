@@ -3,11 +3,17 @@ package com.example.demo.presentation.unit;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -22,9 +28,14 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import com.example.demo.domain.ApplicationPage;
+import com.example.demo.domain.ApplicationPageCursor;
 import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.ApplicationSummary;
 import com.example.demo.domain.PersonDetails;
 import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.domain.dto.ApplicationPageDTO;
+import com.example.demo.domain.dto.ApplicationSummaryDTO;
 import com.example.demo.domain.entity.Application;
 import com.example.demo.domain.entity.Person;
 import com.example.demo.domain.entity.Role;
@@ -136,6 +147,128 @@ public class ReviewerEndpointControllerUnitTest {
         Mockito.verify(this.reviewService, Mockito.times(2)).GetApplicationsByStatus(any(ApplicationStatus.class));
     }
 
+    @Test
+    /**
+     * This is a test for the GetApplicationsPage and GetApplicationsPageByStatus methods
+     */
+    void GetApplicationsPageTest()
+    {
+        //We create test objects
+        ApplicationPage<ApplicationDTO> page=new ApplicationPage<ApplicationDTO>(new ArrayList<Application>(), null, 50, null);
+
+        //We define the mock objects behaviour
+        when(reviewService.GetApplicationsPage(any(), anyInt(), anyBoolean())).thenReturn(page);
+        when(reviewService.GetApplicationsPageByStatus(any(ApplicationStatus.class), any(), anyInt(), anyBoolean())).thenReturn(page);
+
+        //We then test that the default values are used if no parameters are specified
+        ApplicationPageDTO<ApplicationDTO> result=reviewerEndpointController.GetApplicationsPage(null, null, null);
+        assertEquals(page, result);
+        Mockito.verify(this.reviewService, Mockito.times(1)).GetApplicationsPage(isNull(), eq(ReviewService.DEFAULT_PAGE_SIZE), eq(true));
+
+        //We then test that the cursor is decoded before reaching the service
+        String cursor=new ApplicationPageCursor(java.sql.Date.valueOf("2025-01-01"), 7).encode();
+        reviewerEndpointController.GetApplicationsPage(cursor, "10", "false");
+        Mockito.verify(this.reviewService, Mockito.times(1)).GetApplicationsPage(any(ApplicationPageCursor.class), eq(10), eq(false));
+
+        //We then test that the different invalid parameter exception cases are thrown correctly
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetApplicationsPage("notACursor", null, null));
+        assertEquals("Invalid parameter : Provided cursor (notACursor) is not valid, please use the nextCursor value from the previous page", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetApplicationsPage(null, "notANumber", null));
+        assertEquals("Invalid parameter : Provided value (notANumber) could not be parsed as a valid integer", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetApplicationsPage(null, "0", null));
+        assertEquals("Invalid parameter : Provided page size (0) must be between 1 and 200", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetApplicationsPage(null, "201", null));
+        assertEquals("Invalid parameter : Provided page size (201) must be between 1 and 200", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetApplicationsPage(null, null, "maybe"));
+        assertEquals("Invalid parameter : Provided value (maybe) for includeTotal must be either \"true\" or \"false\"", e.getMessage());
+        Mockito.verify(this.reviewService, Mockito.times(2)).GetApplicationsPage(any(), anyInt(), anyBoolean());
+
+        //And finally we test the status variant
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetApplicationsPageByStatus("notAStatus", null, null, null));
+        assertEquals("Invalid parameter : Provided value (notAStatus) is not valid value for application status, please specify as \"unchecked\",\"accepted\" or \"denied\"", e.getMessage());
+        Mockito.verify(this.reviewService, Mockito.times(0)).GetApplicationsPageByStatus(any(ApplicationStatus.class), any(), anyInt(), anyBoolean());
+
+        result=reviewerEndpointController.GetApplicationsPageByStatus("accepted", null, "5", "true");
+        assertEquals(page, result);
+        Mockito.verify(this.reviewService, Mockito.times(1)).GetApplicationsPageByStatus(eq(ApplicationStatus.accepted), isNull(), eq(5), eq(true));
+    }
+
+    @Test
+    /**
+     * This is a test for the GetApplicationSummaries method
+     */
+    void GetApplicationSummariesTest()
+    {
+        //We create test objects
+        List<ApplicationSummary> summaries=new ArrayList<ApplicationSummary>();
+        summaries.add(new ApplicationSummary(1, "test", "testsson", ApplicationStatus.unchecked, java.sql.Date.valueOf("2025-01-01"), 0, 2, 1));
+        ApplicationPage<ApplicationSummaryDTO> page=new ApplicationPage<ApplicationSummaryDTO>(summaries, null, 50, 1L);
+
+        //We define the mock objects behaviour
+        when(reviewService.GetApplicationSummaries(any(), anyInt(), anyBoolean())).thenReturn(page);
+        when(reviewService.GetApplicationSummariesByStatus(any(ApplicationStatus.class), any(), anyInt(), anyBoolean())).thenReturn(page);
+
+        //We then test that without a status all applications are summarized
+        ApplicationPageDTO<ApplicationSummaryDTO> result=reviewerEndpointController.GetApplicationSummaries(null, null, null, null);
+        assertEquals(page, result);
+        Mockito.verify(this.reviewService, Mockito.times(1)).GetApplicationSummaries(isNull(), eq(ReviewService.DEFAULT_PAGE_SIZE), eq(true));
+        Mockito.verify(this.reviewService, Mockito.times(0)).GetApplicationSummariesByStatus(any(ApplicationStatus.class), any(), anyInt(), anyBoolean());
+
+        //And that with a status only matching applications are summarized
+        result=reviewerEndpointController.GetApplicationSummaries("Unchecked", null, "20", "false");
+        assertEquals(page, result);
+        Mockito.verify(this.reviewService, Mockito.times(1)).GetApplicationSummariesByStatus(eq(ApplicationStatus.unchecked), isNull(), eq(20), eq(false));
+
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetApplicationSummaries("notAStatus", null, null, null));
+        assertEquals("Invalid parameter : Provided value (notAStatus) is not valid value for application status, please specify as \"unchecked\",\"accepted\" or \"denied\"", e.getMessage());
+        Mockito.verify(this.reviewService, Mockito.times(1)).GetApplicationSummariesByStatus(any(ApplicationStatus.class), any(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    /**
+     * This is a test for the SearchApplications method
+     */
+    void SearchApplicationsTest()
+    {
+        //We create test objects
+        List<ApplicationSummary> summaries=new ArrayList<ApplicationSummary>();
+        summaries.add(new ApplicationSummary(1, "test", "testsson", ApplicationStatus.unchecked, java.sql.Date.valueOf("2025-01-01"), 0, 2, 1));
+        ApplicationPage<ApplicationSummaryDTO> page=new ApplicationPage<ApplicationSummaryDTO>(summaries, null, 50, null);
+
+        //We define the mock objects behaviour
+        when(reviewService.SearchApplicationSummaries(any(ApplicationStatus.class), any(java.sql.Date.class), any(java.sql.Date.class), anySet(), anyDouble(), any(), anyInt())).thenReturn(page);
+
+        //We then test that the parameters are parsed, with duplicate competences only being included once
+        ApplicationPageDTO<ApplicationSummaryDTO> result=reviewerEndpointController.SearchApplications("Unchecked", "2025-06-01", "2025-06-30", "1, 2,1", "1.5", null, "20");
+        assertEquals(page, result);
+        Mockito.verify(this.reviewService, Mockito.times(1)).SearchApplicationSummaries(eq(ApplicationStatus.unchecked), eq(java.sql.Date.valueOf("2025-06-01")), eq(java.sql.Date.valueOf("2025-06-30")),
+          eq(Set.of(1, 2)), eq(1.5), isNull(), eq(20));
+
+        //And that the minimum years of experience and page size have defaults
+        result=reviewerEndpointController.SearchApplications("accepted", "2025-06-01", "2025-06-01", "3", null, null, null);
+        Mockito.verify(this.reviewService, Mockito.times(1)).SearchApplicationSummaries(eq(ApplicationStatus.accepted), any(java.sql.Date.class), any(java.sql.Date.class),
+          eq(Set.of(3)), eq(0.0), isNull(), eq(ReviewService.DEFAULT_PAGE_SIZE));
+
+        //We then test that invalid parameters are rejected
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications("notAStatus", "2025-06-01", "2025-06-30", "1", null, null, null));
+        assertEquals("Invalid parameter : Provided value (notAStatus) is not valid value for application status, please specify as \"unchecked\",\"accepted\" or \"denied\"", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications("unchecked", "2025-06-31x", "2025-06-30", "1", null, null, null));
+        assertEquals("Invalid parameter : Provided value (2025-06-31x) could not be parsed as a valid date, please use the yyyy-(m)m-(d)d format, with the (m) and (d) specifying that these can be 0 or ignored", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications("unchecked", "2025-07-01", "2025-06-30", "1", null, null, null));
+        assertEquals("Invalid parameter : Provided from date (2025-07-01) is after the to date (2025-06-30)", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications("unchecked", "2025-06-01", "2025-06-30", "1,a", null, null, null));
+        assertEquals("Invalid parameter : Provided value (1,a) could not be parsed as a list of integers separated by commas", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications("unchecked", "2025-06-01", "2025-06-30", " , ", null, null, null));
+        assertEquals("Invalid parameter : At least one competence id must be specified", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications("unchecked", "2025-06-01", "2025-06-30", "1", "-1", null, null));
+        assertEquals("Invalid parameter : Provided minimum years of experience (-1) must be between 0 and 100", e.getMessage());
+        Mockito.verify(this.reviewService, Mockito.times(2)).SearchApplicationSummaries(any(ApplicationStatus.class), any(java.sql.Date.class), any(java.sql.Date.class), anySet(), anyDouble(), any(), anyInt());
+    }
+
     @Test
     /**
      * This tests the GetApplicationsById method
@@ -1,14 +1,20 @@
 package com.example.demo.presentation.unit;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
-import java.util.ArrayList;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeAll;
@@ -19,18 +25,22 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.ReferenceDataSnapshot;
 import com.example.demo.domain.dto.CompetenceDTO;
 import com.example.demo.domain.dto.CompetenceTranslationDTO;
 import com.example.demo.domain.dto.LanguageDTO;
 import com.example.demo.domain.entity.Competence;
-import com.example.demo.domain.entity.CompetenceTranslation;
-import com.example.demo.domain.entity.Language;
 import com.example.demo.domain.entity.Person;
 import com.example.demo.domain.entity.Role;
 import com.example.demo.presentation.restControllers.TranslationEndpointController;
@@ -79,16 +89,17 @@ public class TranslationEndpointControllerUnitTest {
     void GetStandardCompetencesTest()
     {
         // We then define the mock implementation for the service function
-        when(translationService.GetCompetences()).thenAnswer(invocation -> {
-            List<Competence> returnList = new ArrayList<Competence>();
-            returnList.add(new Competence());
-            returnList.add(new Competence());
-            return returnList;
-        });
-
-        //We then test the method and confirm it returns the same list as it recived from the service
-        List<? extends CompetenceDTO> result=translationEndpointController.GetStandardCompetences();
-        assertEquals(2, result.size());
+        byte[] payload = "[{},{}]".getBytes(StandardCharsets.UTF_8);
+        ReferenceDataSnapshot<CompetenceDTO> snapshot = new ReferenceDataSnapshot<CompetenceDTO>(List.of(new Competence(), new Competence()), payload);
+        when(translationService.GetCompetencesSnapshot()).thenReturn(snapshot);
+
+        //We then test the method and confirm it returns the same payload as it recived from the service, as json, along with its caching headers
+        ResponseEntity<byte[]> result=translationEndpointController.GetStandardCompetences();
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, result.getHeaders().getContentType());
+        assertArrayEquals(payload, result.getBody());
+        assertEquals(snapshot.getETag(), result.getHeaders().getETag());
+        assertEquals("max-age=60, must-revalidate, public", result.getHeaders().getCacheControl());
     }
 
     @Test
@@ -120,25 +131,20 @@ public class TranslationEndpointControllerUnitTest {
      */
     void GetCompetenceTranslationTest()
     {
-        // We then define the mock implementation for the service function, in this case if a language string is given it returns a fake translation matching it
-        when(translationService.GetCompetenceTranslation(anyString())).thenAnswer(invocation -> {
+        // We then define the mock implementation for the service function, in this case if a language string is given it returns a fake payload containing it
+        when(translationService.GetCompetenceTranslationSnapshot(anyString())).thenAnswer(invocation -> {
             String stringArg=(String)invocation.getArguments()[0];
-            Language language=new Language();
-            language.SetLanguageName(stringArg);
-            CompetenceTranslation translation = new CompetenceTranslation();
-            translation.SetLanguage(language);
-            translation.SetTranslation("testTranslation");
-            List<CompetenceTranslation> translations=new ArrayList<CompetenceTranslation>();
-            translations.add(translation);
-            return translations;
+            byte[] payload=("[{\"language\":{\"languageName\":\""+stringArg+"\"}}]").getBytes(StandardCharsets.UTF_8);
+            return new ReferenceDataSnapshot<CompetenceTranslationDTO>(List.of(), payload);
         });
 
-        //We then test the method and confirm it returns the competence translation it gets from the service
-        List<? extends CompetenceTranslationDTO> result=translationEndpointController.GetCompetenceTranslation("testLanguage");
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertNotEquals("testLanguage", result.get(0).getLanguage().getLanguageName()); //This is since the endpoint passes the parameter in lower case, so it should not return with any upper case letters
-        assertEquals("testlanguage", result.get(0).getLanguage().getLanguageName());
+        //We then test the method and confirm it returns the competence translation payload it gets from the service
+        ResponseEntity<byte[]> result=translationEndpointController.GetCompetenceTranslation("testLanguage");
+        assertNotNull(result.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, result.getHeaders().getContentType());
+        String body=new String(result.getBody(), StandardCharsets.UTF_8);
+        assertFalse(body.contains("testLanguage")); //This is since the endpoint passes the parameter in lower case, so it should not return with any upper case letters
+        assertEquals("[{\"language\":{\"languageName\":\"testlanguage\"}}]", body);
     }
 
     @Test
@@ -147,19 +153,43 @@ public class TranslationEndpointControllerUnitTest {
      */
     void GetLanguagesTest()
     {
-        List<Language> languages= new ArrayList<Language>();
-        languages.add(new Language());
-        languages.add(new Language());
+        byte[] payload = "[{},{}]".getBytes(StandardCharsets.UTF_8);
 
-        // We then define the mock implementation for the service function, in this it returns a list of languages
-        when(translationService.GetLanguages()).thenAnswer(invocation -> {
-            return languages;
-        });
+        // We then define the mock implementation for the service function, in this it returns a snapshot with a list of languages
+        when(translationService.GetLanguagesSnapshot()).thenReturn(new ReferenceDataSnapshot<LanguageDTO>(List.of(), payload));
 
-        //We then test the method and confirm it returns the languages list it gets from the service
-        List<? extends LanguageDTO> result=translationEndpointController.GetLanguages();
+        //We then test the method and confirm it returns the languages payload it gets from the service
+        ResponseEntity<byte[]> result=translationEndpointController.GetLanguages();
         assertNotNull(result);
-        assertEquals(2, result.size());
+        assertEquals(MediaType.APPLICATION_JSON, result.getHeaders().getContentType());
+        assertArrayEquals(payload, result.getBody());
     }
 
+    @Test
+    /**
+     * This is a test for the conditional GET handling of the reference data endpoints, which is done by Spring based on the ETag in the response
+     */
+    void ConditionalGetTest() throws Exception
+    {
+        byte[] payload = "[{\"languageId\":1,\"languageName\":\"english\"}]".getBytes(StandardCharsets.UTF_8);
+        ReferenceDataSnapshot<LanguageDTO> snapshot = new ReferenceDataSnapshot<LanguageDTO>(List.of(), payload);
+        when(translationService.GetLanguagesSnapshot()).thenReturn(snapshot);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(translationEndpointController).build();
+
+        //A request without If-None-Match gets the full payload along with its ETag
+        mockMvc.perform(get("/translation/getLanguages"))
+          .andExpect(status().isOk())
+          .andExpect(header().string("ETag", snapshot.getETag()))
+          .andExpect(content().bytes(payload));
+
+        //A request with a matching If-None-Match gets a 304 without a body
+        mockMvc.perform(get("/translation/getLanguages").header("If-None-Match", snapshot.getETag()))
+          .andExpect(status().isNotModified())
+          .andExpect(content().bytes(new byte[0]));
+
+        //A request with an outdated If-None-Match gets the full payload again
+        mockMvc.perform(get("/translation/getLanguages").header("If-None-Match", "\"outdated\""))
+          .andExpect(status().isOk())
+          .andExpect(content().bytes(payload));
+    }
 }
@@ -15,8 +15,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
 import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.ApplicationSummary;
 import com.example.demo.domain.entity.Application;
 import com.example.demo.domain.entity.Availability;
 import com.example.demo.domain.entity.Competence;
@@ -24,6 +27,9 @@ import com.example.demo.domain.entity.CompetenceProfile;
 import com.example.demo.domain.entity.Person;
 import com.example.demo.domain.entity.Role;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
 import jakarta.validation.ConstraintViolationException;
 
 /**
@@ -33,6 +39,7 @@ import jakarta.validation.ConstraintViolationException;
  */
 @DataJpaTest(properties = {
     "spring.datasource.url=jdbc:h2:mem:testdb", //This specifies the in-memory database url
+    "spring.jpa.properties.hibernate.generate_statistics=true", //This is used to count the number of sql statements in fetchApplicationDetailsStatementCountTest
     "spring.jpa.hibernate.ddl-auto=create-drop" //This is used to specify that the database schema should be dropped after the test is over Link: https://stackoverflow.com/questions/42135114/how-does-spring-jpa-hibernate-ddl-auto-property-exactly-work-in-spring  
 }) //This is done to only load the neccesary context for testing the repository + creating a in-memory database for testing purposes + ensuring test are run in transactions
 
@@ -65,6 +72,9 @@ public class ApplicationRepositoryTest {
     @Autowired 
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private TestEntityManager testEntityManager;
+
     private Application application;
     private Application application2;
 
@@ -164,6 +174,197 @@ public class ApplicationRepositoryTest {
 
     }
 
+    @Test
+    /**
+     * This is a test for the keyset pagination methods, findAllByOrderByApplicationDateAscApplicationIdAsc and findAllAfter
+     */
+    void findAllAfterTest()
+    {
+        List<Application> findResult = applicationRepository.findAllByOrderByApplicationDateAscApplicationIdAsc(Limit.of(1));
+        assertEquals(1, findResult.size());
+        assertEquals(application, findResult.get(0));
+
+        findResult = applicationRepository.findAllAfter(application.getApplicationDate(), application.getApplicationId(), Limit.of(1));
+        assertEquals(1, findResult.size());
+        assertEquals(application2, findResult.get(0));
+
+        findResult = applicationRepository.findAllAfter(application2.getApplicationDate(), application2.getApplicationId(), Limit.of(1));
+        assertEquals(0, findResult.size());
+
+        //An application with an earlier date should come first, even if it has a higher id
+        application2.setApplicationDate(new java.sql.Date(System.currentTimeMillis()-1000*60*60*24*2L));
+        findResult = applicationRepository.findAllByOrderByApplicationDateAscApplicationIdAsc(Limit.of(5));
+        assertEquals(2, findResult.size());
+        assertEquals(application2, findResult.get(0));
+        assertEquals(application, findResult.get(1));
+
+        findResult = applicationRepository.findAllAfter(application2.getApplicationDate(), application2.getApplicationId(), Limit.of(5));
+        assertEquals(1, findResult.size());
+        assertEquals(application, findResult.get(0));
+    }
+
+    @Test
+    /**
+     * This is a test for the keyset pagination methods filtering on application status, along with countByApplicationStatus
+     */
+    void findAllByApplicationStatusAfterTest()
+    {
+        List<Application> findResult = applicationRepository.findAllByApplicationStatusOrderByApplicationDateAscApplicationIdAsc(ApplicationStatus.unchecked, Limit.of(5));
+        assertEquals(2, findResult.size());
+        assertEquals(2, applicationRepository.countByApplicationStatus(ApplicationStatus.unchecked));
+
+        findResult = applicationRepository.findAllByApplicationStatusAfter(ApplicationStatus.unchecked, application.getApplicationDate(), application.getApplicationId(), Limit.of(5));
+        assertEquals(1, findResult.size());
+        assertEquals(application2, findResult.get(0));
+
+        findResult = applicationRepository.findAllByApplicationStatusAfter(ApplicationStatus.accepted, application.getApplicationDate(), application.getApplicationId(), Limit.of(5));
+        assertEquals(0, findResult.size());
+        assertEquals(0, applicationRepository.countByApplicationStatus(ApplicationStatus.accepted));
+    }
+
+    @Test
+    /**
+     * This is a test for the application summary projection queries
+     */
+    void findAllSummariesTest()
+    {
+        List<ApplicationSummary> findResult = applicationRepository.findAllSummaries(Limit.of(5));
+        assertEquals(2, findResult.size());
+        assertEquals(application.getApplicationId(), findResult.get(0).getApplicationId());
+        assertEquals("test", findResult.get(0).getApplicantName());
+        assertEquals("testsson", findResult.get(0).getApplicantSurname());
+        assertEquals(ApplicationStatus.unchecked, findResult.get(0).getApplicationStatus());
+        assertEquals(2, findResult.get(0).getAvailabilityPeriodCount());
+        assertEquals(1, findResult.get(0).getCompetenceProfileCount());
+
+        findResult = applicationRepository.findAllSummariesAfter(application.getApplicationDate(), application.getApplicationId(), Limit.of(5));
+        assertEquals(1, findResult.size());
+        assertEquals(application2.getApplicationId(), findResult.get(0).getApplicationId());
+
+        findResult = applicationRepository.findAllSummariesByApplicationStatus(ApplicationStatus.accepted, Limit.of(5));
+        assertEquals(0, findResult.size());
+
+        findResult = applicationRepository.findAllSummariesByApplicationStatusAfter(ApplicationStatus.unchecked, application.getApplicationDate(), application.getApplicationId(), Limit.of(5));
+        assertEquals(1, findResult.size());
+        assertEquals(application2.getApplicationId(), findResult.get(0).getApplicationId());
+    }
+
+    @Test
+    /**
+     * This is a test for the search queries, which find the applications that can be staffed for a date window with specific competences
+     */
+    void searchSummariesTest()
+    {
+        java.sql.Date fromDate = availability.getFromDate();
+        java.sql.Date toDate = availability.getToDate();
+        List<Integer> competenceIds = List.of(competence.getCompetenceId());
+
+        List<ApplicationSummary> findResult = applicationRepository.searchSummaries(ApplicationStatus.unchecked, fromDate, toDate, competenceIds, 1, 2.0, Limit.of(5));
+        assertEquals(2, findResult.size());
+        assertEquals(application.getApplicationId(), findResult.get(0).getApplicationId());
+        assertEquals(application2.getApplicationId(), findResult.get(1).getApplicationId());
+        assertEquals(2, findResult.get(0).getAvailabilityPeriodCount());
+
+        findResult = applicationRepository.searchSummariesAfter(ApplicationStatus.unchecked, fromDate, toDate, competenceIds, 1, 2.0, application.getApplicationDate(), application.getApplicationId(), Limit.of(5));
+        assertEquals(1, findResult.size());
+        assertEquals(application2.getApplicationId(), findResult.get(0).getApplicationId());
+
+        //The window must be covered by a single availability period
+        java.sql.Date laterToDate = java.sql.Date.valueOf(toDate.toLocalDate().plusDays(5));
+        assertEquals(0, applicationRepository.searchSummaries(ApplicationStatus.unchecked, fromDate, laterToDate, competenceIds, 1, 2.0, Limit.of(5)).size());
+
+        //Every competence must be matched with at least the minimum years of experience
+        assertEquals(0, applicationRepository.searchSummaries(ApplicationStatus.unchecked, fromDate, toDate, competenceIds, 1, 2.5, Limit.of(5)).size());
+        assertEquals(0, applicationRepository.searchSummaries(ApplicationStatus.unchecked, fromDate, toDate, List.of(competence.getCompetenceId(), competence.getCompetenceId() + 1), 2, 2.0, Limit.of(5)).size());
+
+        assertEquals(0, applicationRepository.searchSummaries(ApplicationStatus.accepted, fromDate, toDate, competenceIds, 1, 2.0, Limit.of(5)).size());
+    }
+
+    @Test
+    /**
+     * This is a test for reading the summaries of the applications found by the PostgreSQL version of the search
+     */
+    void findAllSummariesByApplicationIdInTest()
+    {
+        List<ApplicationSummary> findResult = applicationRepository.findAllSummariesByApplicationIdIn(List.of(application2.getApplicationId(), application.getApplicationId()));
+        assertEquals(2, findResult.size());
+        assertEquals(application.getApplicationId(), findResult.get(0).getApplicationId());
+        assertEquals(application2.getApplicationId(), findResult.get(1).getApplicationId());
+        assertEquals(2, findResult.get(0).getAvailabilityPeriodCount());
+        assertEquals(1, findResult.get(0).getCompetenceProfileCount());
+
+        assertEquals(0, applicationRepository.findAllSummariesByApplicationIdIn(List.of(-1)).size());
+    }
+
+    @Test
+    /**
+     * This is a test for the competence tokens searched for by the PostgreSQL version of the search
+     */
+    void competenceTokensTest()
+    {
+        assertEquals(List.of(1001, 2001), ApplicationRepository.competenceTokens(List.of(1, 2), 1.5));
+        assertEquals(List.of(3000), ApplicationRepository.competenceTokens(List.of(3), 0));
+        //The controller only accepts up to 100 years of experience, and anything beyond that shares the largest token
+        assertEquals(List.of(1100), ApplicationRepository.competenceTokens(List.of(1), 250));
+    }
+
+    @Test
+    /**
+     * This test confirms that the complete application, as returned by the review service, is loaded using only two sql statements
+     * It counts the statements using hibernates statistics, so if an association is ever loaded separately again this test will fail
+     */
+    void fetchApplicationDetailsStatementCountTest()
+    {
+        //We write the test data to the database and empty the persistence context, so nothing is loaded already
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Application findResult = applicationRepository.findWithAvailabilityPeriodsByApplicationId(application.getApplicationId()).orElse(null);
+        applicationRepository.findWithCompetenceProfilesByApplicationId(application.getApplicationId());
+
+        //We then access everything which is included when the application is returned as json
+        assertNotNull(findResult);
+        assertEquals("test role", findResult.getApplicant().getRole().getName());
+        assertEquals(2, findResult.getAvailabilityPeriodsForApplication().size());
+        for (Availability a : findResult.getAvailabilityPeriodsForApplication()) {
+            assertEquals(testPerson.getId(), a.getPerson().getId());
+        }
+        assertEquals(1, findResult.getCompetenceProfilesForApplication().size());
+        for (CompetenceProfile c : findResult.getCompetenceProfilesForApplication()) {
+            assertEquals("competence", c.getCompetenceDTO().getName());
+            assertEquals(testPerson.getId(), c.getPerson().getId());
+        }
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        assertTrue(applicationRepository.findWithAvailabilityPeriodsByApplicationId(-1).isEmpty());
+    }
+
+    @Test
+    /**
+     * This tests the method incrementVersionNumberOfApplicationsIncluding, which is used when the periods an application includes are changed by merging them
+     */
+    void incrementVersionNumberOfApplicationsIncludingTest()
+    {
+        testEntityManager.flush();
+        long versionNumber = application.getVersionNumber();
+        long versionNumber2 = application2.getVersionNumber();
+
+        //Only the first application includes availability2, while both include availability
+        assertEquals(1, applicationRepository.incrementVersionNumberOfApplicationsIncluding(List.of(availability2.getAvailabilityId())));
+        assertEquals(2, applicationRepository.incrementVersionNumberOfApplicationsIncluding(List.of(availability.getAvailabilityId(), availability2.getAvailabilityId())));
+
+        //The entities do not see changes made by native queries, so they are read again, and are kept so that they can be deleted after the test
+        testEntityManager.clear();
+        application = applicationRepository.findById(application.getApplicationId()).get();
+        application2 = applicationRepository.findById(application2.getApplicationId()).get();
+        assertEquals(versionNumber + 2, application.getVersionNumber());
+        assertEquals(versionNumber2 + 1, application2.getVersionNumber());
+    }
+
     @Test
     /**
      * This tests the application entities constraints
@@ -3,7 +3,9 @@ package com.example.demo.repository;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.jupiter.api.AfterEach;
@@ -11,8 +13,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.hibernate.Session;
 
+import com.example.demo.domain.entity.Application;
 import com.example.demo.domain.entity.Availability;
+import com.example.demo.domain.entity.Competence;
+import com.example.demo.domain.entity.CompetenceProfile;
 import com.example.demo.domain.entity.Person;
 import com.example.demo.domain.entity.Role;
 
@@ -44,6 +52,21 @@ public class AvailabilityRepositoryTest {
 
     private Availability availability;
 
+    @Autowired
+    private CompetenceRepository competenceRepository;
+
+    @Autowired
+    private CompetenceProfileRepository competenceProfileRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
     private long systemTime;
 
     @BeforeEach
@@ -125,6 +148,46 @@ public class AvailabilityRepositoryTest {
 
     }
 
+    @Test
+    /**
+     * This tests the method findAllReadOnlyByPerson, and that changes to the periods it loads are not saved
+     */
+    void findAllReadOnlyByPersonTest()
+    {
+        //The entities saved by setUp are removed from the persistence context, since entities which are already loaded are not made read only
+        entityManager.flush();
+        entityManager.clear();
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+
+        List<Availability> findResult = availabilityRepository.findAllReadOnlyByPerson(personRepository.findById(testPerson.getId()).get());
+        assertEquals(1, findResult.size());
+        assertEquals(availability.getAvailabilityId(), findResult.get(0).getAvailabilityId());
+        assertTrue(session.isReadOnly(findResult.get(0)));
+
+        findResult.get(0).setPeriod(new java.sql.Date(systemTime+44444), new java.sql.Date(systemTime+3*86400000L));
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(availability.getToDate().toString(), availabilityRepository.findById(availability.getAvailabilityId()).get().getToDate().toString());
+    }
+
+    @Test
+    /**
+     * This tests the method findAllByPersonAndAvailabilityIdIn
+     */
+    void findAllByPersonAndAvailabilityIdInTest()
+    {
+        Availability availability2 = new Availability(testPerson2,new java.sql.Date(systemTime+44444),new java.sql.Date(systemTime+84444));
+        availabilityRepository.save(availability2);
+
+        //Only the availability belonging to the person should be found, with the id belonging to another person and the id which does not exist ignored
+        List<Availability> findResult = availabilityRepository.findAllByPersonAndAvailabilityIdIn(testPerson, List.of(availability.getAvailabilityId(), availability2.getAvailabilityId(), -1));
+        assertEquals(1, findResult.size());
+        assertEquals(availability, findResult.get(0));
+
+        findResult = availabilityRepository.findAllByPersonAndAvailabilityIdIn(testPerson2, List.of(availability.getAvailabilityId()));
+        assertEquals(0, findResult.size());
+    }
+
     @Test
     /**
      * This tests the existsByFromDateLessThanEqualAndToDateGreaterThanEqualAndPerson method
@@ -192,4 +255,42 @@ public class AvailabilityRepositoryTest {
         assertEquals(true,e.getConstraintViolations().toString().contains("To date must be some time in the future"));
 
     }
+
+    @Test
+    /**
+     * This tests the methods addToApplicationsIncluding and removeFromApplications, which move the applications of merged periods to the period they were merged into
+     */
+    void moveApplicationsTest()
+    {
+        Availability mergedAvailability = new Availability(testPerson, new java.sql.Date(systemTime+3123124), new java.sql.Date(systemTime+5123123));
+        availabilityRepository.save(mergedAvailability);
+
+        Competence competence = new Competence();
+        competence.setName("competence");
+        competenceRepository.save(competence);
+        CompetenceProfile profile = new CompetenceProfile(testPerson, competence, 2.0);
+        competenceProfileRepository.save(profile);
+
+        //The first application only includes the merged period, while the second one includes both periods
+        Application application = new Application(testPerson, new ArrayList<Availability>(List.of(mergedAvailability)), new ArrayList<CompetenceProfile>(List.of(profile)));
+        Application application2 = new Application(testPerson, new ArrayList<Availability>(List.of(availability, mergedAvailability)), new ArrayList<CompetenceProfile>(List.of(profile)));
+        applicationRepository.save(application);
+        applicationRepository.save(application2);
+
+        assertEquals(1, availabilityRepository.addToApplicationsIncluding(availability.getAvailabilityId(), List.of(mergedAvailability.getAvailabilityId())));
+        assertEquals(2, availabilityRepository.removeFromApplications(List.of(mergedAvailability.getAvailabilityId())));
+
+        assertEquals(List.of(availability.getAvailabilityId()), IncludedPeriods(application));
+        assertEquals(List.of(availability.getAvailabilityId()), IncludedPeriods(application2));
+    }
+
+    /**
+     * Reads the ids of the periods an application includes directly from the database, since the entity does not see changes made by native queries
+     * @param application the application
+     * @return the ids of the included periods
+     */
+    private List<Integer> IncludedPeriods(Application application)
+    {
+        return jdbcTemplate.queryForList("SELECT availability_id FROM application_availability_periods WHERE application_id = ?", Integer.class, application.getApplicationId());
+    }
 }
@@ -3,6 +3,7 @@ package com.example.demo.repository;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
 
@@ -11,6 +12,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import org.hibernate.Session;
 
 import com.example.demo.domain.entity.Competence;
 import com.example.demo.domain.entity.CompetenceProfile;
@@ -52,6 +56,9 @@ public class CompetenceProfileRepositoryTest {
     private Competence competence;
     private Competence competence2;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     @BeforeEach
     public void setUp() {
         // Initialize test data before each test method
@@ -129,6 +136,46 @@ public class CompetenceProfileRepositoryTest {
         assertEquals(0, results.size());
     }
 
+    @Test
+    /**
+     * This method tests findAllReadOnlyByPerson, and that the profiles and their competences are loaded as read only
+     */
+    void findAllReadOnlyByPersonTest()
+    {
+        //The entities saved by setUp are removed from the persistence context, since entities which are already loaded are not made read only
+        entityManager.flush();
+        entityManager.clear();
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+
+        List<CompetenceProfile> results = competenceProfileRepository.findAllReadOnlyByPerson(personRepository.findById(testPerson.getId()).get());
+        assertEquals(1, results.size());
+        assertEquals(competenceProfile.getCompetenceProfileId(), results.get(0).getCompetenceProfileId());
+        assertEquals(competence.getCompetenceId(), results.get(0).getCompetenceDTO().getCompetenceId());
+        assertTrue(session.isReadOnly(results.get(0)));
+        assertTrue(session.isReadOnly(results.get(0).getCompetenceDTO()));
+
+        results = competenceProfileRepository.findAllReadOnlyByPerson(personRepository.findById(testPerson2.getId()).get());
+        assertEquals(0, results.size());
+    }
+
+    @Test
+    /**
+     * This method tests findAllByPersonAndCompetenceProfileIdIn
+     */
+    void findAllByPersonAndCompetenceProfileIdInTest()
+    {
+        CompetenceProfile competenceProfile2 = new CompetenceProfile(testPerson2, competence2, 1);
+        competenceProfileRepository.save(competenceProfile2);
+
+        //Only the competence profile belonging to the person should be found, with the id belonging to another person and the id which does not exist ignored
+        List<CompetenceProfile> results = competenceProfileRepository.findAllByPersonAndCompetenceProfileIdIn(testPerson, List.of(competenceProfile.getCompetenceProfileId(), competenceProfile2.getCompetenceProfileId(), -1));
+        assertEquals(1, results.size());
+        assertEquals(competenceProfile, results.get(0));
+
+        results = competenceProfileRepository.findAllByPersonAndCompetenceProfileIdIn(testPerson2, List.of(competenceProfile.getCompetenceProfileId()));
+        assertEquals(0, results.size());
+    }
+
     @Test
     /**
      * This method tests existsByPersonAndCompetenceAndYearsOfExperience
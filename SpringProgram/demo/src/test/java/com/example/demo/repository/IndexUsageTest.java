@@ -0,0 +1,177 @@
+package com.example.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.entity.Competence;
+import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.entity.Role;
+
+/**
+ * This tests that the queries generated for the most used repository functions are answered using the indexes declared on the entities, instead of reading the whole table.
+ * The SQL hibernate generates for each call is recorded, and the plan h2 chooses for it is then retrieved using EXPLAIN.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:indexdb", //This specifies the in-memory database url
+    "spring.jpa.hibernate.ddl-auto=create-drop", //This is used to specify that the database schema should be dropped after the test is over
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demo.repository.IndexUsageTest$RecordingStatementInspector" //This records the generated SQL
+})
+public class IndexUsageTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private CompetenceRepository competenceRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private CompetenceProfileRepository competenceProfileRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    private Person testPerson;
+    private Competence testCompetence;
+
+    @BeforeEach
+    public void setUp() {
+        Role testRole = new Role();
+        testRole.setName("test role");
+        roleRepository.save(testRole);
+
+        testPerson = new Person();
+        testPerson.setName("test");
+        testPerson.setSurname("testsson");
+        testPerson.setEmail("test@test.test");
+        testPerson.setPassword("testPassword");
+        testPerson.setPnr("12345678-1234");
+        testPerson.setRole(testRole);
+        testPerson.setUsername("username");
+        personRepository.save(testPerson);
+
+        testCompetence = new Competence();
+        testCompetence.setName("test competence");
+        competenceRepository.save(testCompetence);
+
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    /**
+     * This tests that persons are found by username, email and person number using the unique constraints
+     */
+    void personLookupTest() {
+        personRepository.findByUsername("username");
+        assertUsesIndex("PERSON_USERNAME_KEY", "PERSON");
+        personRepository.findByEmail("test@test.test");
+        assertUsesIndex("PERSON_EMAIL_KEY", "PERSON");
+        personRepository.findByPnr("12345678-1234");
+        assertUsesIndex("PERSON_PNR_KEY", "PERSON");
+        personRepository.existsByUsername("username");
+        assertUsesIndex("PERSON_USERNAME_KEY", "PERSON");
+    }
+
+    @Test
+    /**
+     * This tests that the availability periods of a person are found, and checked for overlaps, using the person and date index
+     */
+    void availabilityLookupTest() {
+        availabilityRepository.findAllByPerson(testPerson);
+        assertUsesIndex("AVAILABILITY_PERSON_ID_FROM_DATE_TO_DATE_IDX", "AVAILABILITY");
+        availabilityRepository.existsByFromDateLessThanEqualAndToDateGreaterThanEqualAndPerson(Date.valueOf("2030-01-01"), Date.valueOf("2030-01-31"), testPerson);
+        assertUsesIndex("AVAILABILITY_PERSON_ID_FROM_DATE_TO_DATE_IDX", "AVAILABILITY");
+    }
+
+    @Test
+    /**
+     * This tests that the competence profiles of a person are found using the person and competence index
+     */
+    void competenceProfileLookupTest() {
+        //h2 also creates its own index for each foreign key, which PostgreSQL does not, and may choose that one when only the person is known
+        competenceProfileRepository.findAllByPerson(testPerson);
+        assertUsesIndex(null, "COMPETENCE_PROFILE");
+        competenceProfileRepository.existsByPersonAndCompetenceAndYearsOfExperience(testPerson, testCompetence, 1.0);
+        assertUsesIndex("COMPETENCE_PROFILE_PERSON_ID_COMPETENCE_ID_IDX", "COMPETENCE_PROFILE");
+    }
+
+    @Test
+    /**
+     * This tests that applications are found by status, and paged with and without a status, using the status and date indexes
+     */
+    void applicationLookupTest() {
+        applicationRepository.findAllByApplicationStatus(ApplicationStatus.unchecked);
+        assertUsesIndex("APPLICATION_APPLICATION_STATUS_APPLICATION_DATE_IDX", "APPLICATION");
+        applicationRepository.findAllByApplicationStatusOrderByApplicationDateAscApplicationIdAsc(ApplicationStatus.unchecked, Limit.of(50));
+        assertUsesIndex("APPLICATION_APPLICATION_STATUS_APPLICATION_DATE_IDX", "APPLICATION");
+        applicationRepository.countByApplicationStatus(ApplicationStatus.unchecked);
+        assertUsesIndex("APPLICATION_APPLICATION_STATUS_APPLICATION_DATE_IDX", "APPLICATION");
+        applicationRepository.findAllAfter(Date.valueOf("2025-01-01"), 1, Limit.of(50));
+        assertUsesIndex("APPLICATION_APPLICATION_DATE_IDX", "APPLICATION");
+    }
+
+    @Test
+    /**
+     * This tests that the search checks the availability periods and competence profiles of each application using the indexes on the link tables, instead of reading them for every application
+     */
+    void applicationSearchTest() {
+        applicationRepository.searchSummaries(ApplicationStatus.unchecked, Date.valueOf("2025-06-01"), Date.valueOf("2025-06-30"), List.of(testCompetence.getCompetenceId()), 1, 0, Limit.of(50));
+        assertUsesIndex("APPLICATION_APPLICATION_STATUS_APPLICATION_DATE_IDX", "APPLICATION");
+        applicationRepository.searchSummaries(ApplicationStatus.unchecked, Date.valueOf("2025-06-01"), Date.valueOf("2025-06-30"), List.of(testCompetence.getCompetenceId()), 1, 0, Limit.of(50));
+        assertUsesIndex("APPLICATION_AVAILABILITY_PERIODS_APPLICATION_ID_IDX", "APPLICATION_AVAILABILITY_PERIODS");
+        applicationRepository.searchSummaries(ApplicationStatus.unchecked, Date.valueOf("2025-06-01"), Date.valueOf("2025-06-30"), List.of(testCompetence.getCompetenceId()), 1, 0, Limit.of(50));
+        assertUsesIndex("APPLICATION_COMPETENCE_PROFILE_APPLICATION_ID_IDX", "APPLICATION_COMPETENCE_PROFILE");
+    }
+
+    /**
+     * Retrieves the plan of the last recorded query, and checks that it reads the table using the index
+     * @param index the name of the index, in upper case, as h2 shows it, or null if any index may be used
+     * @param table the name of the table, in upper case
+     */
+    private void assertUsesIndex(String index, String table) {
+        List<String> statements = RecordingStatementInspector.STATEMENTS;
+        assertFalse(statements.isEmpty(), "No query was recorded");
+        String sql = statements.get(statements.size() - 1);
+        statements.clear();
+
+        //h2 plans a query with unset parameters the same way as with set ones, so the parameters are given a null value
+        Object[] parameters = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+        assertTrue(index == null || plan.contains("PUBLIC." + index), "Expected the index " + index + " to be used by: " + sql + "\nbut the plan was: " + plan);
+        assertFalse(plan.contains("PUBLIC." + table + ".tableScan"), "Expected no scan of " + table + " by: " + sql + "\nbut the plan was: " + plan);
+    }
+
+    /**
+     * This records every SQL statement hibernate prepares, without changing them
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+        private static final List<String> STATEMENTS = new ArrayList<String>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
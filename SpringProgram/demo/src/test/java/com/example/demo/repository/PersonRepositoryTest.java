@@ -166,6 +166,20 @@ public class PersonRepositoryTest {
         assertFalse(personRepository.existsByPnr("notARealValue"));
     }
 
+    @Test
+    /**
+     * This tests the findTokenVersionById function
+     */
+    void findTokenVersionByIdTest()
+    {
+        assertEquals(Optional.of(0), personRepository.findTokenVersionById(testPerson.getId()));
+
+        testPerson.setTokenVersion(2);
+        personRepository.saveAndFlush(testPerson);
+        assertEquals(Optional.of(2), personRepository.findTokenVersionById(testPerson.getId()));
+        assertTrue(personRepository.findTokenVersionById(-1).isEmpty());
+    }
+
     @Test
     /**
      * This tests the constrains for the person class, and that these work correctly
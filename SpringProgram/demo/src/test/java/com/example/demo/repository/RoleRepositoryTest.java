@@ -4,13 +4,25 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.transaction.TestTransaction;
 
 import com.example.demo.domain.entity.Role;
 
@@ -23,11 +35,14 @@ import jakarta.validation.ConstraintViolationException;
  */
 @DataJpaTest(properties = {
     "spring.datasource.url=jdbc:h2:mem:testdb", //This specifies the in-memory database url
+    "spring.jpa.properties.hibernate.generate_statistics=true", //This is used to count the queries and cache hits in secondLevelCacheTest
     "spring.jpa.hibernate.ddl-auto=create-drop" //This is used to specify that the database schema should be dropped after the test is over Link: https://stackoverflow.com/questions/42135114/how-does-spring-jpa-hibernate-ddl-auto-property-exactly-work-in-spring  
 }) //This is done to only load the neccesary context for testing the repository + creating a in-memory database for testing purposes + ensuring test are run in transactions
 public class RoleRepositoryTest {
     @Autowired
     private RoleRepository roleRepository;
+    @Autowired
+    private TestEntityManager entityManager;
 
     private Role testRole;
 
@@ -95,4 +110,41 @@ public class RoleRepositoryTest {
         assertEquals("[ConstraintViolationImpl{interpolatedMessage='Each role must have descriptor!', propertyPath=name, rootBeanClass=class com.example.demo.domain.entity.Role, messageTemplate='Each role must have descriptor!'}]",e.getConstraintViolations().toString());
 
     }
+
+    @Test
+    /**
+     * This tests that roles are kept in the second level cache, so a role found by findByName a second time is found without querying the database,
+     * and that the statistics of the cache are published through JMX
+     * @throws JMException if the statistics of the cache could not be read
+     */
+    void secondLevelCacheTest() throws JMException
+    {
+        //The role is first committed, since the query cache is not used for a table changed by an ongoing transaction
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        TestTransaction.start();
+        //This ensures the role is also deleted by tearDown
+        TestTransaction.flagForCommit();
+
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Role role = roleRepository.findByName("password");
+        //The role is removed from the persistence context before each lookup, so it can only be found again in the second level cache
+        entityManager.clear();
+        Role cachedRole = roleRepository.findByName("password");
+        entityManager.clear();
+        Role roleById = roleRepository.findById(role.getRoleId()).orElse(null);
+
+        assertEquals(testRole.getName(), cachedRole.getName());
+        assertNotNull(roleById);
+        assertEquals(testRole.getName(), roleById.getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("role").getHitCount());
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        Set<ObjectName> cacheStatistics = mBeanServer.queryNames(new ObjectName("javax.cache:type=CacheStatistics,Cache=role,*"), null);
+        assertEquals(1, cacheStatistics.size());
+        assertTrue((Float) mBeanServer.getAttribute(cacheStatistics.iterator().next(), "CacheHitPercentage") > 0);
+    }
 }
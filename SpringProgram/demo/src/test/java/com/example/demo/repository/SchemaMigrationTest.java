@@ -0,0 +1,79 @@
+package com.example.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * This tests the versioned migrations in src/main/resources/db/migration, both on an empty database and on a database created from "Database code/existing-database.sql".
+ * Unlike the other repository tests, hibernate only validates the schema created by the migrations, the same way as when the application is started.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:migrationdb", //This specifies the in-memory database url
+    "spring.jpa.hibernate.ddl-auto=validate" //This makes the test fail if the migrations do not match the entities
+})
+public class SchemaMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    /**
+     * This tests that every migration has been applied to the empty database, which hibernate has then validated when the test started
+     */
+    void emptyDatabaseTest() {
+        assertEquals("8", CurrentVersion(jdbcTemplate));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"flyway_schema_history\" WHERE \"type\" = 'BASELINE'", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM application", Integer.class));
+    }
+
+    @Test
+    /**
+     * This tests that a database with only the tables and data of the existing database is baselined, and that the migrations then add the missing tables and columns without changing the existing data
+     */
+    void existingDatabaseTest() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:existingdb;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate existingDatabase = new JdbcTemplate(dataSource);
+        //These are the tables of the existing database, as created by existing-database.sql
+        existingDatabase.execute("CREATE TABLE role (role_id integer GENERATED ALWAYS AS IDENTITY PRIMARY KEY, name character varying(255))");
+        existingDatabase.execute("CREATE TABLE person (person_id integer GENERATED ALWAYS AS IDENTITY PRIMARY KEY, name character varying(255), surname character varying(255), "
+          + "pnr character varying(255), email character varying(255), password character varying(255), role_id integer REFERENCES role (role_id), username character varying(255))");
+        existingDatabase.execute("CREATE TABLE competence (competence_id integer GENERATED ALWAYS AS IDENTITY PRIMARY KEY, name character varying(255))");
+        existingDatabase.execute("CREATE TABLE competence_profile (competence_profile_id integer GENERATED ALWAYS AS IDENTITY PRIMARY KEY, person_id integer REFERENCES person (person_id), "
+          + "competence_id integer REFERENCES competence (competence_id), years_of_experience numeric(4,2))");
+        existingDatabase.execute("CREATE TABLE availability (availability_id integer GENERATED ALWAYS AS IDENTITY PRIMARY KEY, person_id integer REFERENCES person (person_id), from_date date, to_date date)");
+        existingDatabase.update("INSERT INTO role (name) VALUES ('recruiter'), ('applicant')");
+        existingDatabase.update("INSERT INTO person (name, surname, pnr, email, role_id) VALUES ('Leroy', 'Crane', '20070114-1252', 'l_crane118@finnsinte.se', 2)");
+        existingDatabase.update("INSERT INTO competence (name) VALUES ('ticket sales')");
+        existingDatabase.update("INSERT INTO competence_profile (person_id, competence_id, years_of_experience) VALUES (1, 1, 3.25)");
+
+        //These are the same settings as in application.properties
+        Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("0").load().migrate();
+
+        assertEquals("8", CurrentVersion(existingDatabase));
+        assertEquals(1, existingDatabase.queryForObject("SELECT COUNT(*) FROM \"flyway_schema_history\" WHERE \"type\" = 'BASELINE'", Integer.class));
+        assertEquals(3.25, existingDatabase.queryForObject("SELECT years_of_experience FROM competence_profile", Double.class));
+        //Persons which existed before token versions were introduced are given token version 0, which every token issued for them has
+        assertEquals(0, existingDatabase.queryForObject("SELECT token_version FROM person WHERE name = 'Leroy'", Integer.class));
+        assertEquals(0, existingDatabase.queryForObject("SELECT COUNT(*) FROM person WHERE token_version IS NULL", Integer.class));
+        assertEquals(0, existingDatabase.queryForObject("SELECT COUNT(*) FROM application", Integer.class));
+
+        //Running the migrations again changes nothing
+        assertEquals(0, Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("0").load().migrate().migrationsExecuted);
+        existingDatabase.execute("DROP ALL OBJECTS");
+    }
+
+    /**
+     * Returns the version of the last applied migration
+     * @param database the database to check
+     * @return the version
+     */
+    private static String CurrentVersion(JdbcTemplate database) {
+        return database.queryForObject("SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"success\" ORDER BY \"installed_rank\" DESC LIMIT 1", String.class);
+    }
+}
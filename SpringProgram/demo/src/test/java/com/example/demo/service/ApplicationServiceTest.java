@@ -2,16 +2,22 @@ package com.example.demo.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.Date;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,12 +34,15 @@ import org.springframework.dao.TransientDataAccessException;
 
 import com.example.demo.domain.dto.ApplicationDTO;
 import com.example.demo.domain.dto.AvailabilityDTO;
+import com.example.demo.domain.dto.BatchItemResultDTO;
 import com.example.demo.domain.dto.CompetenceProfileDTO;
 import com.example.demo.domain.entity.Application;
 import com.example.demo.domain.entity.Availability;
 import com.example.demo.domain.entity.Competence;
 import com.example.demo.domain.entity.CompetenceProfile;
 import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.requestBodies.AvailabilityCreationRequestBody;
+import com.example.demo.domain.requestBodies.CompetenceProfileCreationRequestBody;
 import com.example.demo.presentation.restException.AlreadyExistsException;
 import com.example.demo.presentation.restException.CustomDatabaseException;
 import com.example.demo.presentation.restException.FromDateAfterToDateException;
@@ -244,7 +253,7 @@ public class ApplicationServiceTest {
             return invocation.getArguments()[0];
         });
 
-        when(competenceProfileRepository.findAllByPerson(any(Person.class))).thenAnswer(invocation -> {
+        when(competenceProfileRepository.findAllReadOnlyByPerson(any(Person.class))).thenAnswer(invocation -> {
             Person personArg = (Person) invocation.getArguments()[0];
             List<CompetenceProfile> competenceProfiles = new ArrayList<CompetenceProfile>();
             for (CompetenceProfile c : savedCompetenceProfiles) {
@@ -327,33 +336,16 @@ public class ApplicationServiceTest {
             return invocation.getArguments()[0];
         });
 
-        when(availabilityRepository.existsByFromDateAndToDateAndPerson(any(Date.class), any(Date.class),
-                any(Person.class))).thenAnswer(invocation -> {
-                    Date dateArg1 = (Date) invocation.getArguments()[0];
-                    Date dateArg2 = (Date) invocation.getArguments()[1];
-                    Person personArg = (Person) invocation.getArguments()[2];
-                    for (Availability a : savedAvailabilities) {
-                        if (a.getPerson() == personArg && a.getFromDate() == dateArg1 && a.getToDate() == dateArg2) {
-                            return true;
-                        }
-                    }
-                    return false;
-                });
-
-        when(availabilityRepository.existsByFromDateLessThanEqualAndToDateGreaterThanEqualAndPerson(any(Date.class),
-                any(Date.class), any(Person.class))).thenAnswer(invocation -> {
-                    Date dateArg1 = (Date) invocation.getArguments()[0];
-                    Date dateArg2 = (Date) invocation.getArguments()[1];
-                    Person personArg = (Person) invocation.getArguments()[2];
-                    for (Availability a : savedAvailabilities) {
-                        if (a.getPerson() == personArg
-                                && (a.getFromDate().before(dateArg1) || a.getFromDate() == dateArg1)
-                                && (a.getToDate().after(dateArg2) || a.getToDate() == dateArg2)) {
-                            return true;
-                        }
-                    }
-                    return false;
-                });
+        when(availabilityRepository.findAllByPerson(any(Person.class))).thenAnswer(invocation -> {
+            Person personArg = (Person) invocation.getArguments()[0];
+            List<Availability> result = new ArrayList<Availability>();
+            for (Availability a : savedAvailabilities) {
+                if (a.getPerson() == personArg) {
+                    result.add(a);
+                }
+            }
+            return result;
+        });
 
         // We then test the exception for if a person does not exist, and afterwards add
         // it
@@ -398,6 +390,66 @@ public class ApplicationServiceTest {
 
     }
 
+    @Test
+    /**
+     * This is a test for the method CreateAvailability when the new period overlaps or is adjacent to existing periods, in which case they are merged
+     */
+    void CreateAvailabilityMergeTest() {
+
+        // We first create the test objects, two future periods which are kept apart by a gap
+        Person person = new Person();
+        person.setName("testName");
+        person.setId(0);
+        savedPersons.add(person);
+        Availability first = new Availability(person, Date.valueOf("2100-01-01"), Date.valueOf("2100-01-31"));
+        first.setAvailabilityId(1);
+        Availability second = new Availability(person, Date.valueOf("2100-03-01"), Date.valueOf("2100-03-31"));
+        second.setAvailabilityId(2);
+        savedAvailabilities.add(first);
+        savedAvailabilities.add(second);
+
+        // We then define the implementation for the mock repository functions
+        when(personRepository.findById(anyInt())).thenAnswer(invocation -> {
+            Integer idArg = (Integer) invocation.getArguments()[0];
+            for (Person p : savedPersons) {
+                if (p.getId() == idArg) {
+                    return Optional.of(p);
+                }
+            }
+            return Optional.empty();
+        });
+
+        when(availabilityRepository.findAllByPerson(any(Person.class))).thenAnswer(invocation -> {
+            Person personArg = (Person) invocation.getArguments()[0];
+            List<Availability> found = new ArrayList<Availability>();
+            for (Availability a : savedAvailabilities) {
+                if (a.getPerson() == personArg) {
+                    found.add(a);
+                }
+            }
+            return found;
+        });
+
+        // A period which partially overlaps the first one extends it, without creating a new period, which changes the applications including it
+        AvailabilityDTO result = applicationService.CreateAvailability(person.getId(), Date.valueOf("2100-01-15"), Date.valueOf("2100-02-10"));
+        assertEquals(first, result);
+        assertEquals(Date.valueOf("2100-01-01"), result.getFromDate());
+        assertEquals(Date.valueOf("2100-02-10"), result.getToDate());
+        verify(availabilityRepository, never()).save(any(Availability.class));
+        verify(availabilityRepository, never()).deleteAll(anyIterable());
+        verify(applicationRepository).incrementVersionNumberOfApplicationsIncluding(List.of(1));
+
+        // A period which bridges the gap merges both periods into the one with the lowest id, and moves the applications of the other one to it
+        result = applicationService.CreateAvailability(person.getId(), Date.valueOf("2100-02-11"), Date.valueOf("2100-02-28"));
+        assertEquals(first, result);
+        assertEquals(Date.valueOf("2100-01-01"), result.getFromDate());
+        assertEquals(Date.valueOf("2100-03-31"), result.getToDate());
+        verify(applicationRepository).incrementVersionNumberOfApplicationsIncluding(List.of(2, 1));
+        verify(availabilityRepository).addToApplicationsIncluding(1, List.of(2));
+        verify(availabilityRepository).removeFromApplications(List.of(2));
+        verify(availabilityRepository).deleteAll(List.of(second));
+    }
+
     @Test
     /**
      * This is a test for the method GetAvailabilityForAPerson
@@ -437,7 +489,7 @@ public class ApplicationServiceTest {
             return invocation.getArguments()[0];
         });
 
-        when(availabilityRepository.findAllByPerson(any(Person.class))).thenAnswer(invocation -> {
+        when(availabilityRepository.findAllReadOnlyByPerson(any(Person.class))).thenAnswer(invocation -> {
             Person personArg = (Person) invocation.getArguments()[0];
             List<Availability> availabilityResult = new ArrayList<Availability>();
             for (Availability a : savedAvailabilities) {
@@ -539,17 +591,26 @@ public class ApplicationServiceTest {
         });
 
   
-        when(competenceProfileRepository.findById(anyInt())).thenAnswer(invocation -> {
+        when(competenceProfileRepository.findAllByPersonAndCompetenceProfileIdIn(any(Person.class), anyCollection())).thenAnswer(invocation -> {
+            Person personArg = (Person) invocation.getArguments()[0];
+            Collection<?> idsArg = (Collection<?>) invocation.getArguments()[1];
+            List<CompetenceProfile> cList = new ArrayList<CompetenceProfile>();
+            for (CompetenceProfile c : savedCompetenceProfiles) {
+                if (c.getPerson() == personArg && idsArg.contains(c.getCompetenceProfileId())) {
+                    cList.add(c);
+                }
+            }
+            return cList;
+        });
+
+        when(competenceProfileRepository.existsById(anyInt())).thenAnswer(invocation -> {
             Integer idArg = (Integer) invocation.getArguments()[0];
-            Optional<CompetenceProfile> cContainer;
             for (CompetenceProfile c : savedCompetenceProfiles) {
                 if (c.getCompetenceProfileId() == idArg) {
-                    cContainer = Optional.of(c);
-                    return cContainer;
+                    return true;
                 }
             }
-            cContainer = Optional.empty();
-            return cContainer;
+            return false;
         });
 
         when(availabilityRepository.save(any(Availability.class))).thenAnswer(invocation -> {
@@ -557,18 +618,26 @@ public class ApplicationServiceTest {
             return invocation.getArguments()[0];
         });
 
-        when(availabilityRepository.findById(anyInt())).thenAnswer(invocation -> {
+        when(availabilityRepository.findAllByPersonAndAvailabilityIdIn(any(Person.class), anyCollection())).thenAnswer(invocation -> {
+            Person personArg = (Person) invocation.getArguments()[0];
+            Collection<?> idsArg = (Collection<?>) invocation.getArguments()[1];
+            List<Availability> aList = new ArrayList<Availability>();
+            for (Availability a : savedAvailabilities) {
+                if (a.getPerson() == personArg && idsArg.contains(a.getAvailabilityId())) {
+                    aList.add(a);
+                }
+            }
+            return aList;
+        });
 
+        when(availabilityRepository.existsById(anyInt())).thenAnswer(invocation -> {
             Integer idArg = (Integer) invocation.getArguments()[0];
-            Optional<Availability> aContainer;
             for (Availability a : savedAvailabilities) {
                 if (a.getAvailabilityId() == idArg) {
-                    aContainer = Optional.of(a);
-                    return aContainer;
+                    return true;
                 }
             }
-            aContainer = Optional.empty();
-            return aContainer;
+            return false;
         });
 
         when(applicationRepository.save(any(Application.class))).thenAnswer(invocation -> {
@@ -634,6 +703,10 @@ public class ApplicationServiceTest {
         //We verify that the mock save method was called by the SubmitApplication method
         Mockito.verify(this.applicationRepository, Mockito.times(1)).save(any(Application.class));
 
+        //We verify that the successful submission validated each list with a single query, and never looked up the ids one by one
+        Mockito.verify(this.availabilityRepository, Mockito.never()).findById(anyInt());
+        Mockito.verify(this.competenceProfileRepository, Mockito.never()).findById(anyInt());
+
         //And finally we verify that it saved the correct application
         assertEquals(result.getApplicationId(), savedApplications.get(0).getApplicationId());
         assertEquals(person, savedApplications.get(0).getApplicant());
@@ -646,4 +719,213 @@ public class ApplicationServiceTest {
         assertEquals("Failed due to database error, please try again",e5.getMessage());
 
     }
+
+    @Test
+    /**
+     * This is a test for the method CreateCompetenceProfiles
+     */
+    void CreateCompetenceProfilesTest() {
+        // We first create the test objects
+        Competence competence = new Competence();
+        competence.setName("testCompetence");
+        competence.setId(0);
+        savedCompetences.add(competence);
+        Person person = new Person();
+        person.setName("testName");
+        person.setId(0);
+        savedCompetenceProfiles.add(new CompetenceProfile(person, competence, 1.0));
+
+        // We then define the implementation for the mock repository functions
+        when(personRepository.findById(anyInt())).thenAnswer(invocation -> {
+            Integer idArg = (Integer) invocation.getArguments()[0];
+            for (Person p : savedPersons) {
+                if (p.getId() == idArg) {
+                    return Optional.of(p);
+                }
+            }
+            return Optional.empty();
+        });
+
+        when(competenceRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<?> idArgs = (Iterable<?>) invocation.getArguments()[0];
+            List<Competence> found = new ArrayList<Competence>();
+            for (Competence c : savedCompetences) {
+                for (Object id : idArgs) {
+                    if (c.getCompetenceId().equals(id)) {
+                        found.add(c);
+                    }
+                }
+            }
+            return found;
+        });
+
+        when(competenceProfileRepository.findAllByPerson(any(Person.class))).thenAnswer(invocation -> {
+            Person personArg = (Person) invocation.getArguments()[0];
+            List<CompetenceProfile> found = new ArrayList<CompetenceProfile>();
+            for (CompetenceProfile c : savedCompetenceProfiles) {
+                if (c.getPerson() == personArg) {
+                    found.add(c);
+                }
+            }
+            return found;
+        });
+
+        when(competenceProfileRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            for (Object c : (Iterable<?>) invocation.getArguments()[0]) {
+                savedCompetenceProfiles.add((CompetenceProfile) c);
+            }
+            return invocation.getArguments()[0];
+        });
+
+        // The request contains a valid profile, an unknown competence, an existing profile and a duplicate of the first item
+        List<CompetenceProfileCreationRequestBody> requested = List.of(
+                new CompetenceProfileCreationRequestBody(0, 2.0),
+                new CompetenceProfileCreationRequestBody(1, 2.0),
+                new CompetenceProfileCreationRequestBody(0, 1.0),
+                new CompetenceProfileCreationRequestBody(0, 2.0));
+
+        // We first test the exception for if a person does not exist, and afterwards add it
+        var e = assertThrowsExactly(PersonNotFoundException.class, () -> applicationService.CreateCompetenceProfiles(person.getId(), requested));
+        assertEquals("Could not find a person with the following id : 0", e.getMessage());
+        savedPersons.add(person);
+
+        // We then test that only the valid item is created, and that every item gets a result in request order
+        List<BatchItemResultDTO<CompetenceProfileDTO>> results = applicationService.CreateCompetenceProfiles(person.getId(), requested);
+        assertEquals(4, results.size());
+        assertEquals(0, results.get(0).getIndex());
+        assertNull(results.get(0).getError());
+        assertEquals(person, results.get(0).getCreated().getPerson());
+        assertEquals(competence, results.get(0).getCreated().getCompetenceDTO());
+        assertEquals(2.0, results.get(0).getCreated().getYearsOfExperience());
+        assertNull(results.get(1).getCreated());
+        assertEquals("Could not find specific competence with id : 1", results.get(1).getError());
+        assertEquals("The requested resource already exists : This competence profile already exists, so it does not need to be created", results.get(2).getError());
+        assertEquals("The requested resource already exists : This competence profile already exists, so it does not need to be created", results.get(3).getError());
+        assertEquals(2, savedCompetenceProfiles.size());
+
+        // We then confirm that the whole batch was validated with a constant number of queries
+        Mockito.verify(competenceRepository, Mockito.times(1)).findAllById(anyIterable());
+        Mockito.verify(competenceProfileRepository, Mockito.never()).existsByPersonAndCompetenceAndYearsOfExperience(any(Person.class), any(Competence.class), anyDouble());
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(personRepository).findById(anyInt());
+
+        var e2 = assertThrowsExactly(CustomDatabaseException.class, () -> applicationService.CreateCompetenceProfiles(person.getId(), requested));
+        assertEquals("Failed due to database error, please try again",e2.getMessage());
+    }
+
+    @Test
+    /**
+     * This is a test for the method CreateAvailabilities
+     */
+    void CreateAvailabilitiesTest() {
+        // We first create the test objects
+        Person person = new Person();
+        person.setName("testName");
+        person.setId(0);
+        savedAvailabilities.add(new Availability(person, Date.valueOf("2025-01-01"), Date.valueOf("2025-03-31")));
+
+        // We then define the implementation for the mock repository functions
+        when(personRepository.findById(anyInt())).thenAnswer(invocation -> {
+            Integer idArg = (Integer) invocation.getArguments()[0];
+            for (Person p : savedPersons) {
+                if (p.getId() == idArg) {
+                    return Optional.of(p);
+                }
+            }
+            return Optional.empty();
+        });
+
+        when(availabilityRepository.findAllByPerson(any(Person.class))).thenAnswer(invocation -> {
+            Person personArg = (Person) invocation.getArguments()[0];
+            List<Availability> found = new ArrayList<Availability>();
+            for (Availability a : savedAvailabilities) {
+                if (a.getPerson() == personArg) {
+                    found.add(a);
+                }
+            }
+            return found;
+        });
+
+        when(availabilityRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            for (Object a : (Iterable<?>) invocation.getArguments()[0]) {
+                savedAvailabilities.add((Availability) a);
+            }
+            return invocation.getArguments()[0];
+        });
+
+        // The request contains a valid period, a reversed period, an existing period, a period covered by an existing one and a period covered by the first item
+        List<AvailabilityCreationRequestBody> requested = List.of(
+                new AvailabilityCreationRequestBody(Date.valueOf("2025-06-01"), Date.valueOf("2025-08-31")),
+                new AvailabilityCreationRequestBody(Date.valueOf("2025-12-01"), Date.valueOf("2025-10-01")),
+                new AvailabilityCreationRequestBody(Date.valueOf("2025-01-01"), Date.valueOf("2025-03-31")),
+                new AvailabilityCreationRequestBody(Date.valueOf("2025-02-01"), Date.valueOf("2025-03-01")),
+                new AvailabilityCreationRequestBody(Date.valueOf("2025-07-01"), Date.valueOf("2025-07-31")));
+
+        // We first test the exception for if a person does not exist, and afterwards add it
+        var e = assertThrowsExactly(PersonNotFoundException.class, () -> applicationService.CreateAvailabilities(person.getId(), requested));
+        assertEquals("Could not find a person with the following id : 0", e.getMessage());
+        savedPersons.add(person);
+
+        // We then test that only the valid item is created, and that every item gets a result in request order
+        List<BatchItemResultDTO<AvailabilityDTO>> results = applicationService.CreateAvailabilities(person.getId(), requested);
+        assertEquals(5, results.size());
+        assertNull(results.get(0).getError());
+        assertEquals(person, results.get(0).getCreated().getPerson());
+        assertEquals(Date.valueOf("2025-06-01"), results.get(0).getCreated().getFromDate());
+        assertEquals(Date.valueOf("2025-08-31"), results.get(0).getCreated().getToDate());
+        assertEquals("Could not create availability period since start date 2025-12-01 is after end date 2025-10-01", results.get(1).getError());
+        assertEquals("The requested resource already exists : This availability period already exists, so it does not need to be created", results.get(2).getError());
+        assertEquals("Could not create availability period since range start date 2025-02-01 to end date 2025-03-01 is fully covered by an existing availability period ", results.get(3).getError());
+        assertEquals("Could not create availability period since range start date 2025-07-01 to end date 2025-07-31 is fully covered by an existing availability period ", results.get(4).getError());
+        assertNull(results.get(4).getCreated());
+        assertEquals(2, savedAvailabilities.size());
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(personRepository).findById(anyInt());
+
+        var e2 = assertThrowsExactly(CustomDatabaseException.class, () -> applicationService.CreateAvailabilities(person.getId(), requested));
+        assertEquals("Failed due to database error, please try again",e2.getMessage());
+    }
+
+    @Test
+    /**
+     * This is a test for the method CreateAvailabilities when an item is merged into a period which a later item is merged with
+     */
+    void CreateAvailabilitiesMergeTest() {
+        // We first create the test objects
+        Person person = new Person();
+        person.setName("testName");
+        person.setId(0);
+        savedPersons.add(person);
+        Availability existing = new Availability(person, Date.valueOf("2100-03-01"), Date.valueOf("2100-03-31"));
+        existing.setAvailabilityId(5);
+        savedAvailabilities.add(existing);
+
+        // We then define the implementation for the mock repository functions
+        when(personRepository.findById(anyInt())).thenReturn(Optional.of(person));
+        when(availabilityRepository.findAllByPerson(any(Person.class))).thenReturn(new ArrayList<Availability>(savedAvailabilities));
+        when(availabilityRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            for (Object a : (Iterable<?>) invocation.getArguments()[0]) {
+                savedAvailabilities.add((Availability) a);
+            }
+            return invocation.getArguments()[0];
+        });
+
+        // The first item is created, and the second one bridges it and the existing period, so both items end up in the existing period
+        List<AvailabilityCreationRequestBody> requested = List.of(
+                new AvailabilityCreationRequestBody(Date.valueOf("2100-01-01"), Date.valueOf("2100-01-31")),
+                new AvailabilityCreationRequestBody(Date.valueOf("2100-02-01"), Date.valueOf("2100-02-28")));
+
+        List<BatchItemResultDTO<AvailabilityDTO>> results = applicationService.CreateAvailabilities(person.getId(), requested);
+        assertEquals(2, results.size());
+        assertEquals(existing, results.get(0).getCreated());
+        assertEquals(existing, results.get(1).getCreated());
+        assertEquals(Date.valueOf("2100-01-01"), existing.getFromDate());
+        assertEquals(Date.valueOf("2100-03-31"), existing.getToDate());
+        // The first item is never saved, and no saved period was merged, so nothing is deleted, but the applications including the existing period have changed
+        assertEquals(1, savedAvailabilities.size());
+        verify(availabilityRepository, never()).deleteAll(anyIterable());
+        verify(applicationRepository).incrementVersionNumberOfApplicationsIncluding(List.of(5));
+    }
 }
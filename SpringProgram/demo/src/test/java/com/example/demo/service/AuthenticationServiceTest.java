@@ -0,0 +1,93 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import com.example.demo.presentation.restException.TooManyRequestsException;
+
+@ExtendWith(MockitoExtension.class)
+/**
+ * This is the class for tests for the AuthenticationService class
+ */
+public class AuthenticationServiceTest {
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Test
+    /**
+     * This tests that the Authenticate method completes with the result of the authentication manager, including when authentication fails
+     */
+    void AuthenticateTest() throws Exception
+    {
+        AuthenticationService authenticationService = new AuthenticationService(authenticationManager, 1, 1);
+        Authentication authentication = new UsernamePasswordAuthenticationToken("username", null, null);
+
+        when(authenticationManager.authenticate(any(Authentication.class))).thenAnswer(invocation -> {
+            Authentication request = (Authentication)invocation.getArguments()[0];
+            if (request.getCredentials().equals("password")) {
+                return authentication;
+            }
+            throw new BadCredentialsException("Bad credentials");
+        });
+
+        assertSame(authentication, authenticationService.Authenticate("username", "password").get(5, TimeUnit.SECONDS));
+
+        var e = assertThrowsExactly(CompletionException.class, () -> authenticationService.Authenticate("username", "wrong").join());
+        assertTrue(e.getCause() instanceof BadCredentialsException);
+
+        authenticationService.Shutdown();
+    }
+
+    @Test
+    /**
+     * This tests that logins are rejected with a TooManyRequestsException once every login thread is busy and the queue is full
+     */
+    void BackPressureTest() throws Exception
+    {
+        AuthenticationService authenticationService = new AuthenticationService(authenticationManager, 1, 1);
+        Authentication authentication = new UsernamePasswordAuthenticationToken("username", null, null);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        //The first login blocks the only login thread until it is released
+        when(authenticationManager.authenticate(any(Authentication.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return authentication;
+        });
+
+        CompletableFuture<Authentication> running = authenticationService.Authenticate("username", "password");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Authentication> queued = authenticationService.Authenticate("username", "password");
+
+        //The queue only has room for one login, so the next one is rejected
+        var e = assertThrowsExactly(TooManyRequestsException.class, () -> authenticationService.Authenticate("username", "password"));
+        assertEquals("Too many requests are being processed due to : Too many logins are being processed, please try again shortly", e.getMessage());
+
+        //Once the running login completes, both accepted logins complete normally
+        release.countDown();
+        assertSame(authentication, running.get(5, TimeUnit.SECONDS));
+        assertSame(authentication, queued.get(5, TimeUnit.SECONDS));
+
+        authenticationService.Shutdown();
+    }
+}
@@ -2,14 +2,25 @@ package com.example.demo.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Date;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+
 import com.example.demo.domain.PersonDetails;
 import com.example.demo.domain.entity.Person;
 import com.example.demo.domain.entity.Role;
@@ -41,8 +52,17 @@ public class JwtServiceTest {
         assertEquals("test", jwtService.extractSubject(token)); //We test the username can be extracted
         assertFalse(jwtService.validateToken(token,details )); //We confirm that it will not match with a PersonDetails for a user with another username
         person.setUsername("test");
+        details=new PersonDetails(person); //PersonDetails is an immutable snapshot, so a new one is created after changing the person
         assertTrue(jwtService.validateToken(token,details )); //We confirm that it will match with a PersonDetails for a user with the same username
 
+        //We then confirm that validating already extracted claims gives the same results, without parsing the token again
+        Claims claims = jwtService.extractAllClaims(token);
+        assertEquals("test", claims.getSubject());
+        assertTrue(jwtService.validateClaims(claims, details));
+        person.setUsername("anotherUsername");
+        details=new PersonDetails(person);
+        assertFalse(jwtService.validateClaims(claims, details));
+
     }
 
 
@@ -57,4 +77,73 @@ public class JwtServiceTest {
         assertEquals(Long.class, jwtService.extractRandomNumber(resetToken).getClass()); //This tests that the random number is a long 
         assertTrue(jwtService.validateResetToken(resetToken)); //This tests that the token generated is valid
     }
+
+    @Test
+    /**
+     * This tests that tokens signed with any of the configured keys are accepted, and that new tokens are signed with the active key
+     */
+    void keyRotationTest()
+    {
+        String oldSecret = JwtService.SECRET;
+        String newSecret = "bmV3U2VjcmV0bmV3U2VjcmV0bmV3U2VjcmV0bmV3U2VjcmV0bmV3U2VjcmV0";
+
+        //A token issued before key rotation was supported has no key id, and is verified using the default key
+        String legacyToken = Jwts.builder()
+                .setSubject("test")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(oldSecret)), SignatureAlgorithm.HS256)
+                .compact();
+        assertEquals("test", jwtService.extractSubject(legacyToken));
+
+        //We then rotate to a new key, while still accepting the old one
+        JwtService rotatedService = new JwtService("new", "default=" + oldSecret + ",new=" + newSecret);
+        String oldToken = jwtService.generateToken("old");
+        String newToken = rotatedService.generateToken("new");
+        assertEquals("old", rotatedService.extractSubject(oldToken));
+        assertEquals("test", rotatedService.extractSubject(legacyToken));
+        assertEquals("new", rotatedService.extractSubject(newToken));
+
+        //A service which does not know the new key rejects tokens signed with it
+        assertThrows(SignatureException.class, () -> jwtService.extractSubject(newToken));
+
+        //Once the old key is retired, tokens signed with it are rejected
+        JwtService retiredService = new JwtService("new", "new=" + newSecret);
+        assertThrows(SignatureException.class, () -> retiredService.extractSubject(oldToken));
+        assertEquals("new", retiredService.extractSubject(newToken));
+
+        //And the active key must be one of the configured keys
+        assertThrows(IllegalArgumentException.class, () -> new JwtService("missing", "new=" + newSecret));
+    }
+
+    @Test
+    /**
+     * This tests that tokens generated for a person include authorization claims, and that the principal can be recreated from them
+     */
+    void authorizationClaimsTest()
+    {
+        Role role = new Role();
+        role.setName("recruiter");
+        Person person = new Person();
+        person.setRole(role);
+        person.setId(5);
+        person.setUsername("test");
+        person.setTokenVersion(3);
+        String token = jwtService.generateToken(new PersonDetails(person));
+
+        PersonDetails principal = jwtService.extractPrincipal(jwtService.extractAllClaims(token));
+        assertEquals(5, principal.getPersonId());
+        assertEquals("test", principal.getUsername());
+        assertEquals(3, principal.getTokenVersion());
+        assertEquals(List.of("recruiter"), principal.getAuthorities().stream().map(authority -> authority.getAuthority()).toList());
+        assertNull(principal.getPassword());
+
+        //Tokens without authorization claims, for example ones issued before they were introduced, do not describe a principal
+        assertNull(jwtService.extractPrincipal(jwtService.extractAllClaims(jwtService.generateToken("test"))));
+
+        //And no authorization claims are included if they are disabled
+        JwtService disabledService = new JwtService(JwtService.DEFAULT_KEY_ID, "", false);
+        String disabledToken = disabledService.generateToken(new PersonDetails(person));
+        assertEquals("test", disabledService.extractSubject(disabledToken));
+        assertNull(disabledService.extractPrincipal(disabledService.extractAllClaims(disabledToken)));
+    }
 }
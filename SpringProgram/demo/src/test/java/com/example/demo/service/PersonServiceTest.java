@@ -2,13 +2,11 @@ package com.example.demo.service;
 
 
 import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
-import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -20,6 +18,7 @@ import static org.mockito.Mockito.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 
 import java.util.ArrayList;
@@ -43,6 +42,7 @@ import org.springframework.dao.TransientDataAccessException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 /**
@@ -70,6 +70,9 @@ public class PersonServiceTest {
 
     @Mock
     private JwtService jwtService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
     //This ensures above is used in place of a real instance in the constructor
     
     @InjectMocks
@@ -78,12 +81,6 @@ public class PersonServiceTest {
     //This list is used as the mock repository, accessed using the above repository, avoids real database accesses being made to ensure test results are entirely correct
     static private List<Person> savedPeople=new ArrayList<Person>(); 
 
-    // This ensures mocks are created correctly
-    @BeforeAll
-    public static void beforeAll() {
-        MockitoAnnotations.openMocks(ApplicationServiceTest.class);
-    }
-
     //This ensures the mock "databases" are clean after each attempt
     @AfterEach
     public void afterEach()
@@ -637,6 +634,7 @@ public class PersonServiceTest {
         String email="testEmail";
         
         Person person=new Person();
+        person.setId(0);
         person.setUsername(username);
         person.setPassword(password);
         person.setEmail(email);
@@ -727,6 +725,11 @@ public class PersonServiceTest {
         });
         //We then finally test that a real execution works correctly
         assertEquals("User updated, it now has the username username",personService.ApplicantUseResetLink(fakeToken,username,password));
+
+        //And that it revoked the existing tokens of the applicant
+        assertEquals(1,person.getTokenVersion());
+        assertEquals(false,personService.IsTokenVersionCurrent(0,0));
+        assertEquals(true,personService.IsTokenVersionCurrent(0,1));
         
         //We then test that it handles database exceptions correctly
         doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(personRepository).findByEmail(anyString());
@@ -777,7 +780,18 @@ public class PersonServiceTest {
         assertEquals(true,userDetails.getUsername().equals(username));
         assertEquals(password,userDetails.getPassword());
 
-        //We then test that it handles database exceptions correctly
+        //We then test that the user is cached, so loading it again does not access the database
+        assertSame(userDetails, personService.loadUserByUsername(username));
+        verify(personRepository, times(2)).findByUsername(username);
+
+        //We then test that an evicted user is loaded from the database again
+        personService.EvictCachedPrincipal(username);
+        UserDetails reloadedUserDetails=personService.loadUserByUsername(username);
+        assertEquals(username,reloadedUserDetails.getUsername());
+        verify(personRepository, times(3)).findByUsername(username);
+
+        //We then test that it handles database exceptions correctly, after evicting the cached user
+        personService.EvictCachedPrincipal(username);
         doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(personRepository).findByUsername(anyString());
 
         var e2 = assertThrowsExactly(CustomDatabaseException.class, () -> personService.loadUserByUsername(username));
@@ -785,4 +799,101 @@ public class PersonServiceTest {
 
     }
 
+    @Test
+    /**
+     * This tests that updating a person evicts them from the principal cache, so the next loadUserByUsername reads the updated person
+     */
+    void principalCacheEvictionTest()
+    {
+        //We first create the mock data
+        String username="recruiterUsername";
+        Person person=new Person();
+        person.setId(0);
+        person.setName("test");
+        person.setUsername(username);
+        person.setPassword("password");
+        Role role =new Role();
+        role.setName("recruiter");
+        person.setRole(role);
+        savedPeople.add(person);
+
+        //We then define the mock implementations
+        when(personRepository.findByUsername(anyString())).thenAnswer(invocation -> Optional.of(person));
+        when(personRepository.findById(anyInt())).thenAnswer(invocation -> Optional.of(person));
+
+        //We then test that the user is only loaded once while cached, and loaded again after being updated
+        UserDetails userDetails=personService.loadUserByUsername(username);
+        assertEquals(List.of("recruiter"),userDetails.getAuthorities().stream().map(authority -> authority.getAuthority()).toList());
+        personService.loadUserByUsername(username);
+        verify(personRepository, times(1)).findByUsername(username);
+
+        personService.UpdateRecruiter(0,"test","test");
+        personService.loadUserByUsername(username);
+        verify(personRepository, times(2)).findByUsername(username);
+    }
+
+    @Test
+    /**
+     * This tests the IsTokenVersionCurrent method
+     */
+    void tokenVersionTest()
+    {
+        //We first define the mock implementations
+        when(personRepository.findTokenVersionById(1)).thenReturn(Optional.of(2));
+        when(personRepository.findTokenVersionById(2)).thenReturn(Optional.empty());
+
+        //We then test that the token version is read from the database, and is then cached
+        assertEquals(false,personService.IsTokenVersionCurrent(1,0));
+        assertEquals(true,personService.IsTokenVersionCurrent(1,2));
+        verify(personRepository, times(1)).findTokenVersionById(1);
+
+        //We then test that tokens of persons which do not exist are not current
+        assertEquals(false,personService.IsTokenVersionCurrent(2,0));
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(personRepository).findTokenVersionById(3);
+
+        var e = assertThrowsExactly(CustomDatabaseException.class, () -> personService.IsTokenVersionCurrent(3,0));
+        assertEquals("Failed due to database error, please try again",e.getMessage());
+    }
+
+    @Test
+    /**
+     * This tests the updatePassword method, which stores rehashed passwords
+     */
+    void updatePasswordTest()
+    {
+        //We first create the mock data
+        String username="username";
+        Person person=new Person();
+        person.setId(0);
+        person.setUsername(username);
+        person.setPassword("oldHash");
+        UserDetails user=new com.example.demo.domain.PersonDetails(person);
+
+        //We then define the mock implementations
+        when(personRepository.findByUsername(anyString())).thenAnswer(invocation -> {
+            String usernameArgument=(String)invocation.getArguments()[0];
+            for (Person a : savedPeople) {
+                if (a.getUsername().equals(usernameArgument)) {
+                    return Optional.of(a);
+                }
+            }
+            return Optional.empty();
+        });
+
+        //We then test that nothing is stored for unknown users
+        assertSame(user, personService.updatePassword(user, "newHash"));
+
+        //We then test that the rehashed password is stored, without revoking the user's tokens
+        savedPeople.add(person);
+        UserDetails updated=personService.updatePassword(user, "newHash");
+        assertEquals("newHash", updated.getPassword());
+        assertEquals("newHash", person.getPassword());
+        assertEquals(0, person.getTokenVersion());
+
+        //We then test that a database error does not cause the login to fail
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(personRepository).findByUsername(anyString());
+        assertSame(user, personService.updatePassword(user, "newerHash"));
+    }
 }
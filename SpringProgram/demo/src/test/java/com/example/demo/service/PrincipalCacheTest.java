@@ -0,0 +1,83 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.entity.Role;
+
+/**
+ * This class defines the unit tests for the PrincipalCache class
+ */
+public class PrincipalCacheTest {
+
+    /**
+     * This creates a principal for an applicant with the specified username
+     * @param username the username of the principal
+     * @return the principal
+     */
+    private PersonDetails createPrincipal(String username) {
+        Role role = new Role();
+        role.setName("applicant");
+        Person person = new Person();
+        person.setUsername(username);
+        person.setPassword("password");
+        person.setRole(role);
+        return new PersonDetails(person);
+    }
+
+    @Test
+    /**
+     * This tests that cached principals are returned, that unknown usernames are not, and that evicted principals are removed
+     */
+    void getAndEvictTest() {
+        PrincipalCache cache = new PrincipalCache(10, Duration.ofMinutes(5));
+        PersonDetails principal = createPrincipal("test");
+
+        assertNull(cache.get("test"));
+        cache.put("test", principal, cache.getGeneration());
+        assertSame(principal, cache.get("test"));
+        assertNull(cache.get("anotherUser"));
+
+        cache.evict("test");
+        assertNull(cache.get("test"));
+    }
+
+    @Test
+    /**
+     * This tests that a principal which was loaded before an eviction is not cached, since it may be out of date
+     */
+    void staleLoadTest() {
+        PrincipalCache cache = new PrincipalCache(10, Duration.ofMinutes(5));
+
+        long generation = cache.getGeneration();
+        cache.evict("test");
+        cache.put("test", createPrincipal("test"), generation);
+        assertNull(cache.get("test"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    /**
+     * This tests that expired principals are never returned, and that the cache never grows beyond its maximum size
+     */
+    void boundedTest() {
+        PrincipalCache expiringCache = new PrincipalCache(10, Duration.ZERO);
+        expiringCache.put("test", createPrincipal("test"), expiringCache.getGeneration());
+        assertNull(expiringCache.get("test"));
+        assertEquals(0, expiringCache.size()); //The expired entry is removed once it is looked up
+
+        PrincipalCache cache = new PrincipalCache(3, Duration.ofMinutes(5));
+        for (int i = 0; i < 10; i++) {
+            cache.put("test" + i, createPrincipal("test" + i), cache.getGeneration());
+            assertEquals(true, cache.size() <= 3);
+        }
+        assertEquals(3, cache.size());
+    }
+}
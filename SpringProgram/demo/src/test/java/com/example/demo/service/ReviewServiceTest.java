@@ -2,15 +2,22 @@ package com.example.demo.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -22,9 +29,14 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.Limit;
 
+import com.example.demo.domain.ApplicationPageCursor;
 import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.ApplicationSummary;
 import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.domain.dto.ApplicationPageDTO;
+import com.example.demo.domain.dto.ApplicationSummaryDTO;
 import com.example.demo.domain.entity.Application;
 import com.example.demo.domain.entity.Person;
 import com.example.demo.presentation.restException.ApplicationNotUpdatedException;
@@ -174,6 +186,224 @@ public class ReviewServiceTest {
         assertEquals("Failed due to database error, please try again",e5.getMessage());
     }
 
+    @Test
+    /**
+     * This test is for the GetApplicationsPage method
+     */
+    public void GetApplicationsPageTest() {
+        // We define the test objects, ordered the same way the repository orders them
+        for (int i = 0; i < 3; i++) {
+            Application application = new Application();
+            application.setApplicationId(i);
+            application.setApplicationDate(java.sql.Date.valueOf("2025-01-01"));
+            application.setApplicationStatus(ApplicationStatus.unchecked);
+            savedApplications.add(application);
+        }
+
+        // We define the implementation for the mock repository
+        when(applicationRepository.findAllByOrderByApplicationDateAscApplicationIdAsc(any(Limit.class))).thenAnswer(invocation -> {
+            Limit limit=(Limit)invocation.getArguments()[0];
+            return new ArrayList<Application>(savedApplications.subList(0, Math.min(limit.max(), savedApplications.size())));
+        });
+
+        when(applicationRepository.findAllAfter(any(java.sql.Date.class), anyInt(), any(Limit.class))).thenAnswer(invocation -> {
+            Integer id=(Integer)invocation.getArguments()[1];
+            Limit limit=(Limit)invocation.getArguments()[2];
+            List<Application> applications=new ArrayList<Application>();
+            for (Application a : savedApplications) {
+                if (a.getApplicationId()>id && applications.size()<limit.max()) {
+                    applications.add(a);
+                }
+            }
+            return applications;
+        });
+
+        when(applicationRepository.count()).thenReturn(3L);
+
+        // We then retrive the first page, and confirm it has a cursor pointing at its last application
+        ApplicationPageDTO<ApplicationDTO> page = reviewService.GetApplicationsPage(null, 2, true);
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findAllByOrderByApplicationDateAscApplicationIdAsc(any(Limit.class));
+        assertEquals(2, page.getApplications().size());
+        assertEquals(2, page.getPageSize());
+        assertEquals(3L, page.getTotalCount());
+        assertNotNull(page.getNextCursor());
+        assertEquals(1, ApplicationPageCursor.decode(page.getNextCursor()).getApplicationId());
+
+        // We then retrive the second page using the cursor, without the total count, and confirm it is the last page
+        page = reviewService.GetApplicationsPage(ApplicationPageCursor.decode(page.getNextCursor()), 2, false);
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findAllAfter(any(java.sql.Date.class), anyInt(), any(Limit.class));
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).count();
+        assertEquals(1, page.getApplications().size());
+        assertEquals(savedApplications.get(2), page.getApplications().get(0));
+        assertNull(page.getTotalCount());
+        assertNull(page.getNextCursor());
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findAllByOrderByApplicationDateAscApplicationIdAsc(any(Limit.class));
+
+        var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.GetApplicationsPage(null, 2, true));
+        assertEquals("Failed due to database error, please try again",e5.getMessage());
+    }
+
+    @Test
+    /**
+     * This test is for the GetApplicationsPageByStatus method
+     */
+    public void GetApplicationsPageByStatusTest() {
+        // We define the test objects
+        Application application = new Application();
+        application.setApplicationId(0);
+        application.setApplicationDate(java.sql.Date.valueOf("2025-01-01"));
+        application.setApplicationStatus(ApplicationStatus.unchecked);
+        savedApplications.add(application);
+
+        // We define the implementation for the mock repository
+        when(applicationRepository.findAllByApplicationStatusOrderByApplicationDateAscApplicationIdAsc(any(ApplicationStatus.class), any(Limit.class))).thenAnswer(invocation -> {
+            ApplicationStatus status=(ApplicationStatus)invocation.getArguments()[0];
+            List<Application> applications=new ArrayList<Application>();
+            for (Application a : savedApplications) {
+                if (a.getApplicationStatus()==status) {
+                    applications.add(a);
+                }
+            }
+            return applications;
+        });
+
+        ApplicationPageDTO<ApplicationDTO> page = reviewService.GetApplicationsPageByStatus(ApplicationStatus.accepted, null, 5, false);
+        assertEquals(0, page.getApplications().size());
+        assertNull(page.getNextCursor());
+        Mockito.verify(this.applicationRepository, Mockito.times(0)).countByApplicationStatus(any(ApplicationStatus.class));
+
+        when(applicationRepository.countByApplicationStatus(any(ApplicationStatus.class))).thenReturn(1L);
+        page = reviewService.GetApplicationsPageByStatus(ApplicationStatus.unchecked, null, 5, true);
+        assertEquals(1, page.getApplications().size());
+        assertEquals(application, page.getApplications().get(0));
+        assertEquals(1L, page.getTotalCount());
+        assertNull(page.getNextCursor());
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findAllByApplicationStatusAfter(any(ApplicationStatus.class), any(java.sql.Date.class), anyInt(), any(Limit.class));
+
+        var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.GetApplicationsPageByStatus(ApplicationStatus.unchecked, new ApplicationPageCursor(application.getApplicationDate(), 0), 5, true));
+        assertEquals("Failed due to database error, please try again",e5.getMessage());
+    }
+
+    @Test
+    /**
+     * This test is for the GetApplicationSummaries and GetApplicationSummariesByStatus methods
+     */
+    public void GetApplicationSummariesTest() {
+        // We define the test objects
+        List<ApplicationSummary> summaries=new ArrayList<ApplicationSummary>();
+        summaries.add(new ApplicationSummary(1, "test", "testsson", ApplicationStatus.unchecked, java.sql.Date.valueOf("2025-01-01"), 0, 2, 1));
+        summaries.add(new ApplicationSummary(2, "test", "testsson", ApplicationStatus.unchecked, java.sql.Date.valueOf("2025-01-02"), 0, 1, 1));
+
+        // We define the implementation for the mock repository
+        when(applicationRepository.findAllSummaries(any(Limit.class))).thenReturn(summaries);
+        when(applicationRepository.findAllSummariesByApplicationStatusAfter(any(ApplicationStatus.class), any(java.sql.Date.class), anyInt(), any(Limit.class))).thenReturn(new ArrayList<ApplicationSummary>());
+
+        // We then confirm the first page only contains the first summary, and that the cursor points at it
+        ApplicationPageDTO<ApplicationSummaryDTO> page = reviewService.GetApplicationSummaries(null, 1, false);
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findAllSummaries(any(Limit.class));
+        assertEquals(1, page.getApplications().size());
+        assertEquals(summaries.get(0), page.getApplications().get(0));
+        assertNull(page.getTotalCount());
+        assertEquals(1, ApplicationPageCursor.decode(page.getNextCursor()).getApplicationId());
+        assertEquals(java.sql.Date.valueOf("2025-01-01"), ApplicationPageCursor.decode(page.getNextCursor()).getApplicationDate());
+
+        // And that the status variant uses the cursor
+        page = reviewService.GetApplicationSummariesByStatus(ApplicationStatus.unchecked, ApplicationPageCursor.decode(page.getNextCursor()), 1, false);
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findAllSummariesByApplicationStatusAfter(any(ApplicationStatus.class), any(java.sql.Date.class), anyInt(), any(Limit.class));
+        assertEquals(0, page.getApplications().size());
+        assertNull(page.getNextCursor());
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findAllSummaries(any(Limit.class));
+
+        var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.GetApplicationSummaries(null, 1, true));
+        assertEquals("Failed due to database error, please try again",e5.getMessage());
+    }
+
+    @Test
+    /**
+     * This test is for the SearchApplicationSummaries method
+     */
+    public void SearchApplicationSummariesTest() {
+        // We define the test objects
+        List<ApplicationSummary> summaries=new ArrayList<ApplicationSummary>();
+        summaries.add(new ApplicationSummary(1, "test", "testsson", ApplicationStatus.unchecked, java.sql.Date.valueOf("2025-01-01"), 0, 2, 1));
+        summaries.add(new ApplicationSummary(2, "test", "testsson", ApplicationStatus.unchecked, java.sql.Date.valueOf("2025-01-02"), 0, 1, 1));
+        java.sql.Date fromDate=java.sql.Date.valueOf("2025-06-01");
+        java.sql.Date toDate=java.sql.Date.valueOf("2025-06-30");
+        Set<Integer> competenceIds=Set.of(1, 2);
+
+        // We define the implementation for the mock repository
+        when(applicationRepository.searchSummaries(any(ApplicationStatus.class), any(java.sql.Date.class), any(java.sql.Date.class), anyCollection(), anyLong(), anyDouble(), any(Limit.class))).thenReturn(summaries);
+        when(applicationRepository.searchSummariesAfter(any(ApplicationStatus.class), any(java.sql.Date.class), any(java.sql.Date.class), anyCollection(), anyLong(), anyDouble(), any(java.sql.Date.class), anyInt(), any(Limit.class)))
+          .thenReturn(new ArrayList<ApplicationSummary>());
+
+        // We then confirm the first page only contains the first summary, that the number of competences is passed on, and that no total is counted
+        ApplicationPageDTO<ApplicationSummaryDTO> page = reviewService.SearchApplicationSummaries(ApplicationStatus.unchecked, fromDate, toDate, competenceIds, 1.5, null, 1);
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).searchSummaries(eq(ApplicationStatus.unchecked), eq(fromDate), eq(toDate), eq(competenceIds), eq(2L), eq(1.5), eq(Limit.of(2)));
+        assertEquals(1, page.getApplications().size());
+        assertEquals(summaries.get(0), page.getApplications().get(0));
+        assertNull(page.getTotalCount());
+        assertEquals(1, ApplicationPageCursor.decode(page.getNextCursor()).getApplicationId());
+
+        // And that the next page uses the cursor
+        page = reviewService.SearchApplicationSummaries(ApplicationStatus.unchecked, fromDate, toDate, competenceIds, 1.5, ApplicationPageCursor.decode(page.getNextCursor()), 1);
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).searchSummariesAfter(eq(ApplicationStatus.unchecked), eq(fromDate), eq(toDate), eq(competenceIds), eq(2L), eq(1.5), eq(java.sql.Date.valueOf("2025-01-01")), eq(1), eq(Limit.of(2)));
+        assertEquals(0, page.getApplications().size());
+        assertNull(page.getNextCursor());
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository)
+          .searchSummaries(any(ApplicationStatus.class), any(java.sql.Date.class), any(java.sql.Date.class), anyCollection(), anyLong(), anyDouble(), any(Limit.class));
+
+        var e = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.SearchApplicationSummaries(ApplicationStatus.unchecked, fromDate, toDate, competenceIds, 0, null, 1));
+        assertEquals("Failed due to database error, please try again",e.getMessage());
+    }
+
+    @Test
+    /**
+     * This test is for the SearchApplicationSummaries method on PostgreSQL, where the ids of the matching applications are found first and then their summaries
+     */
+    public void SearchApplicationSummariesPostgreSQLTest() {
+        ReviewService postgreSQLReviewService = new ReviewService(applicationRepository, "jdbc:postgresql://localhost:5432/demo");
+
+        // We define the test objects
+        List<ApplicationSummary> summaries=new ArrayList<ApplicationSummary>();
+        summaries.add(new ApplicationSummary(1, "test", "testsson", ApplicationStatus.unchecked, java.sql.Date.valueOf("2025-01-01"), 0, 2, 1));
+        summaries.add(new ApplicationSummary(2, "test", "testsson", ApplicationStatus.unchecked, java.sql.Date.valueOf("2025-01-02"), 0, 1, 1));
+        java.sql.Date fromDate=java.sql.Date.valueOf("2025-06-01");
+        java.sql.Date toDate=java.sql.Date.valueOf("2025-06-30");
+        Set<Integer> competenceIds=Set.of(1, 2);
+
+        // We define the implementation for the mock repository
+        when(applicationRepository.searchIdsPostgreSQL(anyString(), any(java.sql.Date.class), any(java.sql.Date.class), anyCollection(), anyCollection(), anyLong(), anyDouble(), anyInt())).thenReturn(List.of(1, 2));
+        when(applicationRepository.findAllSummariesByApplicationIdIn(List.of(1, 2))).thenReturn(summaries);
+        when(applicationRepository.searchIdsAfterPostgreSQL(anyString(), any(java.sql.Date.class), any(java.sql.Date.class), anyCollection(), anyCollection(), anyLong(), anyDouble(), any(java.sql.Date.class), anyInt(), anyInt()))
+          .thenReturn(List.of());
+
+        // We then confirm that custom plans are used, that the competence tokens are passed on, and that the first page only contains the first summary
+        ApplicationPageDTO<ApplicationSummaryDTO> page = postgreSQLReviewService.SearchApplicationSummaries(ApplicationStatus.unchecked, fromDate, toDate, competenceIds, 1.5, null, 1);
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).useCustomPlans();
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).searchIdsPostgreSQL(eq("unchecked"), eq(fromDate), eq(toDate), eq(competenceIds),
+          eq(ApplicationRepository.competenceTokens(competenceIds, 1.5)), eq(2L), eq(1.5), eq(2));
+        Mockito.verify(this.applicationRepository, Mockito.never()).searchSummaries(any(ApplicationStatus.class), any(java.sql.Date.class), any(java.sql.Date.class), anyCollection(), anyLong(), anyDouble(), any(Limit.class));
+        assertEquals(1, page.getApplications().size());
+        assertEquals(summaries.get(0), page.getApplications().get(0));
+        assertEquals(1, ApplicationPageCursor.decode(page.getNextCursor()).getApplicationId());
+
+        // And that the next page uses the cursor, without looking up any summaries if no application matches
+        page = postgreSQLReviewService.SearchApplicationSummaries(ApplicationStatus.unchecked, fromDate, toDate, competenceIds, 1.5, ApplicationPageCursor.decode(page.getNextCursor()), 1);
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).searchIdsAfterPostgreSQL(eq("unchecked"), eq(fromDate), eq(toDate), eq(competenceIds),
+          eq(ApplicationRepository.competenceTokens(competenceIds, 1.5)), eq(2L), eq(1.5), eq(java.sql.Date.valueOf("2025-01-01")), eq(1), eq(2));
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findAllSummariesByApplicationIdIn(anyCollection());
+        assertEquals(0, page.getApplications().size());
+        assertNull(page.getNextCursor());
+    }
+
     @Test
     /**
      * This tests the GetApplicationsById method
@@ -188,7 +418,7 @@ public class ReviewServiceTest {
         application.setApplicant(applicant);
 
         // We define the implementation for the mock repository
-        when(applicationRepository.findById(anyInt())).thenAnswer(invocation -> {
+        when(applicationRepository.findWithAvailabilityPeriodsByApplicationId(anyInt())).thenAnswer(invocation -> {
             Integer id=(Integer)invocation.getArguments()[0];
             Optional<Application> tContainer;
             for (Application a : savedApplications) {
@@ -211,16 +441,18 @@ public class ReviewServiceTest {
         var e = assertThrowsExactly(ApplicationNotFoundException.class, () -> reviewService.GetApplicationsById(0));
         assertEquals("Could not find any matching application due to : No such application",e.getMessage());
         // We then manually create an application
-        Mockito.verify(this.applicationRepository, Mockito.times(1)).findById(anyInt());
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findWithAvailabilityPeriodsByApplicationId(anyInt());
 
 
         application.setApplicationId(0);
         applicationRepository.save(application);
 
         reviewService.GetApplicationsById(application.getApplicationId());
-        Mockito.verify(this.applicationRepository, Mockito.times(2)).findById(anyInt());
+        Mockito.verify(this.applicationRepository, Mockito.times(2)).findWithAvailabilityPeriodsByApplicationId(anyInt());
+        //The competence profiles should only be loaded once the application is known to exist
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findWithCompetenceProfilesByApplicationId(anyInt());
 
-        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findById(anyInt());
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findWithAvailabilityPeriodsByApplicationId(anyInt());
         var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.GetApplicationsById(0));
         assertEquals("Failed due to database error, please try again",e5.getMessage());
 
@@ -246,7 +478,7 @@ public class ReviewServiceTest {
             return invocation.getArguments()[0];
         });
 
-        when(applicationRepository.findById(anyInt())).thenAnswer(invocation -> {
+        when(applicationRepository.findWithAvailabilityPeriodsByApplicationId(anyInt())).thenAnswer(invocation -> {
             Integer id=(Integer)invocation.getArguments()[0];
             Optional<Application> tContainer;
             for (Application a : savedApplications) {
@@ -263,7 +495,7 @@ public class ReviewServiceTest {
         var e=assertThrowsExactly(ApplicationNotFoundException.class, ()->reviewService.SetApplicationStatus(application.getApplicationId(),ApplicationStatus.unchecked,0));
         assertEquals("Could not find any matching application due to : No application with id : \"0\" found", e.getMessage());
 
-        Mockito.verify(this.applicationRepository, Mockito.times(1)).findById(anyInt());
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findWithAvailabilityPeriodsByApplicationId(anyInt());
 
         // We then manually create an application
         applicationRepository.save(application);
@@ -271,14 +503,14 @@ public class ReviewServiceTest {
         //We then test the different exception
         e=assertThrowsExactly(ApplicationNotFoundException.class, ()->reviewService.SetApplicationStatus(application.getApplicationId(),ApplicationStatus.unchecked,-1));
         assertEquals("Could not find any matching application due to : Unable to update application since someone else updated it since you last retrived it", e.getMessage());
-        Mockito.verify(this.applicationRepository, Mockito.times(2)).findById(anyInt());
+        Mockito.verify(this.applicationRepository, Mockito.times(2)).findWithAvailabilityPeriodsByApplicationId(anyInt());
 
         var e2=assertThrowsExactly(ApplicationNotUpdatedException.class, ()->reviewService.SetApplicationStatus(application.getApplicationId(),ApplicationStatus.unchecked,0));
-        Mockito.verify(this.applicationRepository, Mockito.times(3)).findById(anyInt());
+        Mockito.verify(this.applicationRepository, Mockito.times(3)).findWithAvailabilityPeriodsByApplicationId(anyInt());
         assertEquals("Could not update application due to : application status is already unchecked", e2.getMessage());
 
         ApplicationDTO result=reviewService.SetApplicationStatus(application.getApplicationId(),ApplicationStatus.accepted,0);
-        Mockito.verify(this.applicationRepository, Mockito.times(4)).findById(anyInt());
+        Mockito.verify(this.applicationRepository, Mockito.times(4)).findWithAvailabilityPeriodsByApplicationId(anyInt());
 
 
         //We then test the results are as expected, aka that the returned application is correct and updated
@@ -288,7 +520,7 @@ public class ReviewServiceTest {
         assertEquals(ApplicationStatus.accepted, result.getApplicationStatus());
 
         //We then test that it handles database exceptions correctly
-        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findById(anyInt());
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findWithAvailabilityPeriodsByApplicationId(anyInt());
 
         var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.SetApplicationStatus(application.getApplicationId(),ApplicationStatus.accepted,0));
         assertEquals("Failed due to database error, please try again",e5.getMessage());
@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class defines the unit tests for the TokenVersionCache class
+ */
+public class TokenVersionCacheTest {
+
+    @Test
+    /**
+     * This tests that cached token versions are returned, that unknown persons are not, and that a token version is never replaced by a lower one
+     */
+    void getAndPutTest() {
+        TokenVersionCache cache = new TokenVersionCache(10, Duration.ofMinutes(5));
+
+        assertNull(cache.get(1));
+        cache.put(1, 2);
+        assertEquals(2, cache.get(1));
+        assertNull(cache.get(2));
+
+        //A token version read before a revocation was cached is ignored
+        cache.put(1, 1);
+        assertEquals(2, cache.get(1));
+        cache.put(1, 3);
+        assertEquals(3, cache.get(1));
+    }
+
+    @Test
+    /**
+     * This tests that expired token versions are never returned, and that the cache never grows beyond its maximum size
+     */
+    void boundedTest() {
+        TokenVersionCache expiringCache = new TokenVersionCache(10, Duration.ZERO);
+        expiringCache.put(1, 2);
+        assertNull(expiringCache.get(1));
+        assertEquals(0, expiringCache.size()); //The expired entry is removed once it is looked up
+
+        TokenVersionCache cache = new TokenVersionCache(3, Duration.ofMinutes(5));
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, 0);
+            assertEquals(true, cache.size() <= 3);
+        }
+        assertEquals(3, cache.size());
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.demo.service;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -18,13 +20,20 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.ReferenceDataSnapshot;
 import com.example.demo.domain.dto.CompetenceDTO;
 import com.example.demo.domain.dto.CompetenceTranslationDTO;
 import com.example.demo.domain.dto.LanguageDTO;
@@ -39,6 +48,10 @@ import com.example.demo.repository.CompetenceRepository;
 import com.example.demo.repository.CompetenceTranslationRepository;
 import com.example.demo.repository.LanguageRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.persistence.EntityManagerFactory;
+
 /**
  * This class defined the unit tests for the TranslationService class
  */
@@ -52,6 +65,12 @@ public class TranslationServiceTest {
     private LanguageRepository languageRepository;
     @Mock
     private CompetenceTranslationRepository competenceTranslationRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManagerFactory entityManagerFactory;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
 
     // We then define the service we will test, and that it should use the above
     // mock repositories instead of the real ones
@@ -82,7 +101,7 @@ public class TranslationServiceTest {
     /**
      * This is a test for the GetCompetence method
      */
-    void GetCompetencesTest() {
+    void GetCompetencesTest() throws JsonProcessingException {
 
         /**
          * We create an example competence object
@@ -110,8 +129,16 @@ public class TranslationServiceTest {
         //We verify that the mock repository was used as expected
         Mockito.verify(this.competenceRepository, Mockito.times(1)).findAll();
 
-        //We then add a competence manually, and then re-call the exact same method as above
+        //We then call the method again, and confirm the result is served from the cache instead of the repository
+        competenceRepositoryReturnValue = translationService.GetCompetences();
+        assertEquals(0, competenceRepositoryReturnValue.size());
+        Mockito.verify(this.competenceRepository, Mockito.times(1)).findAll();
+        assertEquals(1, translationService.GetCacheHitCount());
+        assertEquals(1, translationService.GetCacheMissCount());
+
+        //We then add a competence manually, invalidate the cache, and then re-call the exact same method as above
         competenceRepository.save(competence);
+        translationService.InvalidateReferenceDataCache();
         competenceRepositoryReturnValue = translationService.GetCompetences();
 
         //Here we confirm the results now that one was added manually, aka it was added and is the entire database
@@ -119,9 +146,24 @@ public class TranslationServiceTest {
         assertEquals(1, competenceRepositoryReturnValue.size());
         assertEquals(competence, competenceRepositoryReturnValue.get(0));
         Mockito.verify(this.competenceRepository, Mockito.times(2)).findAll();
+        assertEquals(2, translationService.GetCacheMissCount());
+        //The counts are also published as counters
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        translationService.bindTo(meterRegistry);
+        assertEquals(1, meterRegistry.get("translation.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(2, meterRegistry.get("translation.cache.requests").tag("result", "miss").functionCounter().count());
+        //The invalidation also clears hibernate's second level cache, so the competences were not loaded from it
+        Mockito.verify(this.entityManagerFactory.getCache(), Mockito.times(1)).evictAll();
+
+        //We then confirm the cached snapshot can not be modified, and that the cached payload matches the list
+        assertThrows(UnsupportedOperationException.class, () -> translationService.GetCompetences().clear());
+        assertArrayEquals(objectMapper.writeValueAsBytes(savedCompetence), translationService.GetCompetencesSnapshot().getPayload());
+        assertEquals(translationService.GetCompetencesSnapshot().getETag(), new ReferenceDataSnapshot<CompetenceDTO>(List.of(competence), objectMapper.writeValueAsBytes(savedCompetence)).getETag());
+        Mockito.verify(this.competenceRepository, Mockito.times(2)).findAll();
 
-        //We then test that it handles database exceptions correctly
+        //We then test that it handles database exceptions correctly, once the cache no longer holds the competences
         doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(competenceRepository).findAll();
+        translationService.InvalidateReferenceDataCache();
 
         var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> translationService.GetCompetences());
         assertEquals("Failed due to database error, please try again",e5.getMessage());
@@ -189,7 +231,7 @@ public class TranslationServiceTest {
     /**
      * This is a test for the GetCompetenceTranslation method
      */
-    void GetCompetenceTranslationTest()
+    void GetCompetenceTranslationTest() throws JsonProcessingException
     {
         //We define the example objects
         Competence competence = new Competence();
@@ -265,10 +307,18 @@ public class TranslationServiceTest {
 
         assertNotNull(translations);
         assertEquals(translation, translations.get(0));
+        Mockito.verify(this.competenceTranslationRepository, Mockito.times(3)).findByLanguage_id(anyInt());
 
+        //We then confirm that the translations are now served from the cache, along with the pre-serialised payload
+        translations=translationService.GetCompetenceTranslation(language.getLanguageName());
+        assertEquals(translation, translations.get(0));
+        assertArrayEquals(objectMapper.writeValueAsBytes(List.of(translation)), translationService.GetCompetenceTranslationSnapshot(language.getLanguageName()).getPayload());
+        Mockito.verify(this.competenceTranslationRepository, Mockito.times(3)).findByLanguage_id(anyInt());
+        assertEquals(2, translationService.GetCacheHitCount());
 
-        //We then test that it handles database exceptions correctly
+        //We then test that it handles database exceptions correctly, once the cache no longer holds the translations
         doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(competenceTranslationRepository).findByLanguage_id(anyInt());
+        translationService.InvalidateReferenceDataCache();
 
         var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> translationService.GetCompetenceTranslation(language.getLanguageName()));
         assertEquals("Failed due to database error, please try again",e5.getMessage());        
@@ -285,7 +335,7 @@ public class TranslationServiceTest {
     /**
      * This is a test for the GetLanguages method
      */
-    void GetLanguagesTest()
+    void GetLanguagesTest() throws JsonProcessingException
     {
         //This is a test to ensure the "database" is clean before we start
         assertEquals(0, savedLanguages.size());
@@ -315,8 +365,14 @@ public class TranslationServiceTest {
         //We verify that the mock repository was used as expected
         Mockito.verify(this.languageRepository, Mockito.times(1)).findAll();
 
-        //We then add a langague manually, and then re-call the exact same method as above
+        //We then call the method again, and confirm the result is served from the cache instead of the repository
+        returnValue = translationService.GetLanguages();
+        assertEquals(0, returnValue.size());
+        Mockito.verify(this.languageRepository, Mockito.times(1)).findAll();
+
+        //We then add a langague manually, invalidate the cache, and then re-call the exact same method as above
         languageRepository.save(language);
+        translationService.InvalidateReferenceDataCache();
         returnValue = translationService.GetLanguages();
 
         //Here we confirm the results now that one was added manually, aka it was added and is the entire database
@@ -324,9 +380,11 @@ public class TranslationServiceTest {
         assertEquals(1, returnValue.size());
         assertEquals(language, returnValue.get(0));
         Mockito.verify(this.languageRepository, Mockito.times(2)).findAll();
+        assertArrayEquals(objectMapper.writeValueAsBytes(savedLanguages), translationService.GetLanguagesSnapshot().getPayload());
 
-        //We then test that it handles database exceptions correctly
+        //We then test that it handles database exceptions correctly, once the cache no longer holds the languages
         doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(languageRepository).findAll();
+        translationService.InvalidateReferenceDataCache();
 
         var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> translationService.GetLanguages());
         assertEquals("Failed due to database error, please try again",e5.getMessage());